@@ -18,18 +18,15 @@
 package org.apache.poi.hssf.record;
 
 import java.io.InputStream;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.apache.poi.EncryptedDocumentException;
 import org.apache.poi.hssf.record.chart.BeginRecord;
@@ -71,219 +68,190 @@ public final class RecordFactory {
 
         Class<? extends Record> getRecordClass();
     }
-    private static final class ReflectionConstructorRecordCreator implements I_RecordCreator {
 
-        private final Constructor<? extends Record> _c;
-        public ReflectionConstructorRecordCreator(Constructor<? extends Record> c) {
-            _c = c;
-        }
-        @Override
-        public Record create(RecordInputStream in) {
-            Object[] args = { in, };
-            try {
-                return _c.newInstance(args);
-            } catch (IllegalArgumentException | IllegalAccessException | InstantiationException e) {
-                throw new RuntimeException(e);
-            } catch (InvocationTargetException e) {
-                Throwable t = e.getTargetException();
-                if (t instanceof org.apache.poi.util.RecordFormatException) {
-                    throw (org.apache.poi.util.RecordFormatException)t;
-                } else if (t instanceof EncryptedDocumentException) {
-                    throw (EncryptedDocumentException)t;
-                } else {
-                    throw new org.apache.poi.util.RecordFormatException("Unable to construct record instance" , t);
-                }
-            }
-        }
-        @Override
-        public Class<? extends Record> getRecordClass() {
-            return _c.getDeclaringClass();
-        }
-    }
     /**
+     * Creates the records with a constructor or a "create" method reference.
      * A "create" method is used instead of the usual constructor if the created record might
      * be of a different class to the declaring class.
      */
-    private static final class ReflectionMethodRecordCreator implements I_RecordCreator {
-        private final Method _m;
-        public ReflectionMethodRecordCreator(Method m) {
-            _m = m;
+    private static final class RecordCreator implements I_RecordCreator {
+        private final Class<? extends Record> _recordClass;
+        private final Function<RecordInputStream, ? extends Record> _creator;
+
+        public RecordCreator(Class<? extends Record> recordClass, Function<RecordInputStream, ? extends Record> creator) {
+            _recordClass = recordClass;
+            _creator = creator;
         }
         @Override
         public Record create(RecordInputStream in) {
-            Object[] args = { in, };
             try {
-                return (Record) _m.invoke(null, args);
-            } catch (IllegalArgumentException | IllegalAccessException e) {
-                throw new RuntimeException(e);
-            } catch (InvocationTargetException e) {
-                throw new org.apache.poi.util.RecordFormatException("Unable to construct record instance" , e.getTargetException());
+                return _creator.apply(in);
+            } catch (org.apache.poi.util.RecordFormatException | EncryptedDocumentException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                throw new org.apache.poi.util.RecordFormatException("Unable to construct record instance" , e);
             }
         }
         @Override
-        @SuppressWarnings("unchecked")
         public Class<? extends Record> getRecordClass() {
-            return (Class<? extends Record>) _m.getDeclaringClass();
+            return _recordClass;
         }
     }
 
-    private static final Class<?>[] CONSTRUCTOR_ARGS = { RecordInputStream.class, };
-
     /**
-     * contains the classes for all the records we want to parse.<br>
+     * contains the creators for all the records we want to parse.<br>
      * Note - this most but not *every* subclass of Record.
      */
-    @SuppressWarnings("unchecked")
-    private static final Class<? extends Record>[] recordClasses = new Class[] {
-        ArrayRecord.class,
-        AutoFilterInfoRecord.class,
-        BackupRecord.class,
-        BlankRecord.class,
-        BOFRecord.class,
-        BookBoolRecord.class,
-        BoolErrRecord.class,
-        BottomMarginRecord.class,
-        BoundSheetRecord.class,
-        CalcCountRecord.class,
-        CalcModeRecord.class,
-        CFHeaderRecord.class,
-        CFHeader12Record.class,
-        CFRuleRecord.class,
-        CFRule12Record.class,
-        ChartRecord.class,
-        ChartTitleFormatRecord.class,
-        CodepageRecord.class,
-        ColumnInfoRecord.class,
-        ContinueRecord.class,
-        CountryRecord.class,
-        CRNCountRecord.class,
-        CRNRecord.class,
-        DateWindow1904Record.class,
-        DBCellRecord.class,
-        DConRefRecord.class,
-        DefaultColWidthRecord.class,
-        DefaultRowHeightRecord.class,
-        DeltaRecord.class,
-        DimensionsRecord.class,
-        DrawingGroupRecord.class,
-        DrawingRecord.class,
-        DrawingSelectionRecord.class,
-        DSFRecord.class,
-        DVALRecord.class,
-        DVRecord.class,
-        EOFRecord.class,
-        ExtendedFormatRecord.class,
-        ExternalNameRecord.class,
-        ExternSheetRecord.class,
-        ExtSSTRecord.class,
-        FeatRecord.class,
-        FeatHdrRecord.class,
-        FilePassRecord.class,
-        FileSharingRecord.class,
-        FnGroupCountRecord.class,
-        FontRecord.class,
-        FooterRecord.class,
-        FormatRecord.class,
-        FormulaRecord.class,
-        GridsetRecord.class,
-        GutsRecord.class,
-        HCenterRecord.class,
-        HeaderRecord.class,
-        HeaderFooterRecord.class,
-        HideObjRecord.class,
-        HorizontalPageBreakRecord.class,
-        HyperlinkRecord.class,
-        IndexRecord.class,
-        InterfaceEndRecord.class,
-        InterfaceHdrRecord.class,
-        IterationRecord.class,
-        LabelRecord.class,
-        LabelSSTRecord.class,
-        LeftMarginRecord.class,
-        LegendRecord.class,
-        MergeCellsRecord.class,
-        MMSRecord.class,
-        MulBlankRecord.class,
-        MulRKRecord.class,
-        NameRecord.class,
-        NameCommentRecord.class,
-        NoteRecord.class,
-        NumberRecord.class,
-        ObjectProtectRecord.class,
-        ObjRecord.class,
-        PaletteRecord.class,
-        PaneRecord.class,
-        PasswordRecord.class,
-        PasswordRev4Record.class,
-        PrecisionRecord.class,
-        PrintGridlinesRecord.class,
-        PrintHeadersRecord.class,
-        PrintSetupRecord.class,
-        ProtectionRev4Record.class,
-        ProtectRecord.class,
-        RecalcIdRecord.class,
-        RefModeRecord.class,
-        RefreshAllRecord.class,
-        RightMarginRecord.class,
-        RKRecord.class,
-        RowRecord.class,
-        SaveRecalcRecord.class,
-        ScenarioProtectRecord.class,
-        SelectionRecord.class,
-        SeriesRecord.class,
-        SeriesTextRecord.class,
-        SharedFormulaRecord.class,
-        SSTRecord.class,
-        StringRecord.class,
-        StyleRecord.class,
-        SupBookRecord.class,
-        TabIdRecord.class,
-        TableRecord.class,
-        TableStylesRecord.class,
-        TextObjectRecord.class,
-        TopMarginRecord.class,
-        UncalcedRecord.class,
-        UseSelFSRecord.class,
-        UserSViewBegin.class,
-        UserSViewEnd.class,
-        ValueRangeRecord.class,
-        VCenterRecord.class,
-        VerticalPageBreakRecord.class,
-        WindowOneRecord.class,
-        WindowProtectRecord.class,
-        WindowTwoRecord.class,
-        WriteAccessRecord.class,
-        WriteProtectRecord.class,
-        WSBoolRecord.class,
+    private static final I_RecordCreator[] recordCreators = {
+        creator(ArrayRecord.class, ArrayRecord::new),
+        creator(AutoFilterInfoRecord.class, AutoFilterInfoRecord::new),
+        creator(BackupRecord.class, BackupRecord::new),
+        creator(BlankRecord.class, BlankRecord::new),
+        creator(BOFRecord.class, BOFRecord::new),
+        creator(BookBoolRecord.class, BookBoolRecord::new),
+        creator(BoolErrRecord.class, BoolErrRecord::new),
+        creator(BottomMarginRecord.class, BottomMarginRecord::new),
+        creator(BoundSheetRecord.class, BoundSheetRecord::new),
+        creator(CalcCountRecord.class, CalcCountRecord::new),
+        creator(CalcModeRecord.class, CalcModeRecord::new),
+        creator(CFHeaderRecord.class, CFHeaderRecord::new),
+        creator(CFHeader12Record.class, CFHeader12Record::new),
+        creator(CFRuleRecord.class, CFRuleRecord::new),
+        creator(CFRule12Record.class, CFRule12Record::new),
+        creator(ChartRecord.class, ChartRecord::new),
+        creator(ChartTitleFormatRecord.class, ChartTitleFormatRecord::new),
+        creator(CodepageRecord.class, CodepageRecord::new),
+        creator(ColumnInfoRecord.class, ColumnInfoRecord::new),
+        creator(ContinueRecord.class, ContinueRecord::new),
+        creator(CountryRecord.class, CountryRecord::new),
+        creator(CRNCountRecord.class, CRNCountRecord::new),
+        creator(CRNRecord.class, CRNRecord::new),
+        creator(DateWindow1904Record.class, DateWindow1904Record::new),
+        creator(DBCellRecord.class, DBCellRecord::new),
+        creator(DConRefRecord.class, DConRefRecord::new),
+        creator(DefaultColWidthRecord.class, DefaultColWidthRecord::new),
+        creator(DefaultRowHeightRecord.class, DefaultRowHeightRecord::new),
+        creator(DeltaRecord.class, DeltaRecord::new),
+        creator(DimensionsRecord.class, DimensionsRecord::new),
+        creator(DrawingGroupRecord.class, DrawingGroupRecord::new),
+        creator(DrawingRecord.class, DrawingRecord::new),
+        creator(DrawingSelectionRecord.class, DrawingSelectionRecord::new),
+        creator(DSFRecord.class, DSFRecord::new),
+        creator(DVALRecord.class, DVALRecord::new),
+        creator(DVRecord.class, DVRecord::new),
+        creator(EOFRecord.class, EOFRecord::new),
+        creator(ExtendedFormatRecord.class, ExtendedFormatRecord::new),
+        creator(ExternalNameRecord.class, ExternalNameRecord::new),
+        creator(ExternSheetRecord.class, ExternSheetRecord::new),
+        creator(ExtSSTRecord.class, ExtSSTRecord::new),
+        creator(FeatRecord.class, FeatRecord::new),
+        creator(FeatHdrRecord.class, FeatHdrRecord::new),
+        creator(FilePassRecord.class, FilePassRecord::new),
+        creator(FileSharingRecord.class, FileSharingRecord::new),
+        creator(FnGroupCountRecord.class, FnGroupCountRecord::new),
+        creator(FontRecord.class, FontRecord::new),
+        creator(FooterRecord.class, FooterRecord::new),
+        creator(FormatRecord.class, FormatRecord::new),
+        creator(FormulaRecord.class, FormulaRecord::new),
+        creator(GridsetRecord.class, GridsetRecord::new),
+        creator(GutsRecord.class, GutsRecord::new),
+        creator(HCenterRecord.class, HCenterRecord::new),
+        creator(HeaderRecord.class, HeaderRecord::new),
+        creator(HeaderFooterRecord.class, HeaderFooterRecord::new),
+        creator(HideObjRecord.class, HideObjRecord::new),
+        creator(HorizontalPageBreakRecord.class, HorizontalPageBreakRecord::new),
+        creator(HyperlinkRecord.class, HyperlinkRecord::new),
+        creator(IndexRecord.class, IndexRecord::new),
+        creator(InterfaceEndRecord.class, InterfaceEndRecord::create),
+        creator(InterfaceHdrRecord.class, InterfaceHdrRecord::new),
+        creator(IterationRecord.class, IterationRecord::new),
+        creator(LabelRecord.class, LabelRecord::new),
+        creator(LabelSSTRecord.class, LabelSSTRecord::new),
+        creator(LeftMarginRecord.class, LeftMarginRecord::new),
+        creator(LegendRecord.class, LegendRecord::new),
+        creator(MergeCellsRecord.class, MergeCellsRecord::new),
+        creator(MMSRecord.class, MMSRecord::new),
+        creator(MulBlankRecord.class, MulBlankRecord::new),
+        creator(MulRKRecord.class, MulRKRecord::new),
+        creator(NameRecord.class, NameRecord::new),
+        creator(NameCommentRecord.class, NameCommentRecord::new),
+        creator(NoteRecord.class, NoteRecord::new),
+        creator(NumberRecord.class, NumberRecord::new),
+        creator(ObjectProtectRecord.class, ObjectProtectRecord::new),
+        creator(ObjRecord.class, ObjRecord::new),
+        creator(PaletteRecord.class, PaletteRecord::new),
+        creator(PaneRecord.class, PaneRecord::new),
+        creator(PasswordRecord.class, PasswordRecord::new),
+        creator(PasswordRev4Record.class, PasswordRev4Record::new),
+        creator(PrecisionRecord.class, PrecisionRecord::new),
+        creator(PrintGridlinesRecord.class, PrintGridlinesRecord::new),
+        creator(PrintHeadersRecord.class, PrintHeadersRecord::new),
+        creator(PrintSetupRecord.class, PrintSetupRecord::new),
+        creator(ProtectionRev4Record.class, ProtectionRev4Record::new),
+        creator(ProtectRecord.class, ProtectRecord::new),
+        creator(RecalcIdRecord.class, RecalcIdRecord::new),
+        creator(RefModeRecord.class, RefModeRecord::new),
+        creator(RefreshAllRecord.class, RefreshAllRecord::new),
+        creator(RightMarginRecord.class, RightMarginRecord::new),
+        creator(RKRecord.class, RKRecord::new),
+        creator(RowRecord.class, RowRecord::new),
+        creator(SaveRecalcRecord.class, SaveRecalcRecord::new),
+        creator(ScenarioProtectRecord.class, ScenarioProtectRecord::new),
+        creator(SelectionRecord.class, SelectionRecord::new),
+        creator(SeriesRecord.class, SeriesRecord::new),
+        creator(SeriesTextRecord.class, SeriesTextRecord::new),
+        creator(SharedFormulaRecord.class, SharedFormulaRecord::new),
+        creator(SSTRecord.class, SSTRecord::new),
+        creator(StringRecord.class, StringRecord::new),
+        creator(StyleRecord.class, StyleRecord::new),
+        creator(SupBookRecord.class, SupBookRecord::new),
+        creator(TabIdRecord.class, TabIdRecord::new),
+        creator(TableRecord.class, TableRecord::new),
+        creator(TableStylesRecord.class, TableStylesRecord::new),
+        creator(TextObjectRecord.class, TextObjectRecord::new),
+        creator(TopMarginRecord.class, TopMarginRecord::new),
+        creator(UncalcedRecord.class, UncalcedRecord::new),
+        creator(UseSelFSRecord.class, UseSelFSRecord::new),
+        creator(UserSViewBegin.class, UserSViewBegin::new),
+        creator(UserSViewEnd.class, UserSViewEnd::new),
+        creator(ValueRangeRecord.class, ValueRangeRecord::new),
+        creator(VCenterRecord.class, VCenterRecord::new),
+        creator(VerticalPageBreakRecord.class, VerticalPageBreakRecord::new),
+        creator(WindowOneRecord.class, WindowOneRecord::new),
+        creator(WindowProtectRecord.class, WindowProtectRecord::new),
+        creator(WindowTwoRecord.class, WindowTwoRecord::new),
+        creator(WriteAccessRecord.class, WriteAccessRecord::new),
+        creator(WriteProtectRecord.class, WriteProtectRecord::new),
+        creator(WSBoolRecord.class, WSBoolRecord::new),
 
         // chart records
-        BeginRecord.class,
-        ChartFRTInfoRecord.class,
-        ChartStartBlockRecord.class,
-        ChartEndBlockRecord.class,
+        creator(BeginRecord.class, BeginRecord::new),
+        creator(ChartFRTInfoRecord.class, ChartFRTInfoRecord::new),
+        creator(ChartStartBlockRecord.class, ChartStartBlockRecord::new),
+        creator(ChartEndBlockRecord.class, ChartEndBlockRecord::new),
         // TODO ChartFormatRecord.class,
-        ChartStartObjectRecord.class,
-        ChartEndObjectRecord.class,
-        CatLabRecord.class,
-        DataFormatRecord.class,
-        EndRecord.class,
-        LinkedDataRecord.class,
-        SeriesToChartGroupRecord.class,
+        creator(ChartStartObjectRecord.class, ChartStartObjectRecord::new),
+        creator(ChartEndObjectRecord.class, ChartEndObjectRecord::new),
+        creator(CatLabRecord.class, CatLabRecord::new),
+        creator(DataFormatRecord.class, DataFormatRecord::new),
+        creator(EndRecord.class, EndRecord::new),
+        creator(LinkedDataRecord.class, LinkedDataRecord::new),
+        creator(SeriesToChartGroupRecord.class, SeriesToChartGroupRecord::new),
 
         // pivot table records
-        DataItemRecord.class,
-        ExtendedPivotTableViewFieldsRecord.class,
-        PageItemRecord.class,
-        StreamIDRecord.class,
-        ViewDefinitionRecord.class,
-        ViewFieldsRecord.class,
-        ViewSourceRecord.class,
+        creator(DataItemRecord.class, DataItemRecord::new),
+        creator(ExtendedPivotTableViewFieldsRecord.class, ExtendedPivotTableViewFieldsRecord::new),
+        creator(PageItemRecord.class, PageItemRecord::new),
+        creator(StreamIDRecord.class, StreamIDRecord::new),
+        creator(ViewDefinitionRecord.class, ViewDefinitionRecord::new),
+        creator(ViewFieldsRecord.class, ViewFieldsRecord::new),
+        creator(ViewSourceRecord.class, ViewSourceRecord::new),
     };
 
     /**
-     * cache of the recordsToMap();
+     * the record creators indexed by sid, see {@link #recordsToTable(I_RecordCreator[])}
      */
-    private static final Map<Integer, I_RecordCreator> _recordCreatorsById  = recordsToMap(recordClasses);
+    private static final I_RecordCreator[] _recordCreatorsById = recordsToTable(recordCreators);
 
     private static short[] _allKnownRecordSIDs;
 
@@ -300,7 +268,7 @@ public final class RecordFactory {
      * {@code null} if the specified record is not interpreted by POI.
      */
     public static Class<? extends Record> getRecordClass(int sid) {
-        I_RecordCreator rc = _recordCreatorsById.get(Integer.valueOf(sid));
+        I_RecordCreator rc = getRecordCreator(sid);
         if (rc == null) {
             return null;
         }
@@ -330,7 +298,7 @@ public final class RecordFactory {
     }
 
     public static Record createSingleRecord(RecordInputStream in) {
-        I_RecordCreator constructor = _recordCreatorsById.get(Integer.valueOf(in.getSid()));
+        I_RecordCreator constructor = getRecordCreator(in.getSid());
 
         if (constructor == null) {
             return new UnknownRecord(in);
@@ -400,32 +368,40 @@ public final class RecordFactory {
      */
     public static short[] getAllKnownRecordSIDs() {
         if (_allKnownRecordSIDs == null) {
-            short[] results = new short[ _recordCreatorsById.size() ];
+            short[] results = new short[ recordCreators.length ];
             int i = 0;
 
-            for (Integer sid : _recordCreatorsById.keySet()) {
-                results[i++] = sid.shortValue();
+            for (int sid = 0; sid < _recordCreatorsById.length; sid++) {
+                if (_recordCreatorsById[sid] != null) {
+                    results[i++] = (short)sid;
+                }
             }
-            Arrays.sort(results);
             _allKnownRecordSIDs = results;
         }
 
         return _allKnownRecordSIDs.clone();
     }
 
+    private static I_RecordCreator creator(Class<? extends Record> recordClass, Function<RecordInputStream, ? extends Record> creator) {
+        return new RecordCreator(recordClass, creator);
+    }
+
+    private static I_RecordCreator getRecordCreator(int sid) {
+        return (sid >= 0 && sid < _recordCreatorsById.length) ? _recordCreatorsById[sid] : null;
+    }
+
     /**
-     * gets the record constructors and sticks them in the map by SID
-     * @return map of SIDs to short,short,byte[] constructors for Record classes
+     * sticks the record creators in a table indexed by SID
+     * @return table of SIDs to creators for Record classes
      * most of org.apache.poi.hssf.record.*
      */
-    private static Map<Integer, I_RecordCreator> recordsToMap(Class<? extends Record> [] records) {
+    private static I_RecordCreator[] recordsToTable(I_RecordCreator[] creators) {
         Map<Integer, I_RecordCreator> result = new HashMap<>();
-        Set<Class<?>> uniqueRecClasses = new HashSet<>(records.length * 3 / 2);
+        Set<Class<?>> uniqueRecClasses = new HashSet<>(creators.length * 3 / 2);
+        int maxSid = 0;
 
-        for (Class<? extends Record> recClass : records) {
-            if(!Record.class.isAssignableFrom(recClass)) {
-                throw new RuntimeException("Invalid record sub-class (" + recClass.getName() + ")");
-            }
+        for (I_RecordCreator creator : creators) {
+            Class<? extends Record> recClass = creator.getRecordClass();
             if(Modifier.isAbstract(recClass.getModifiers())) {
                 throw new RuntimeException("Invalid record class (" + recClass.getName() + ") - must not be abstract");
             }
@@ -448,27 +424,17 @@ public final class RecordFactory {
                         + " for classes (" + recClass.getName() + ") and ("
                         + prevClass.getName() + ")");
             }
-            result.put(key, getRecordCreator(recClass));
+            result.put(key, creator);
+            maxSid = Math.max(maxSid, sid);
         }
-        // result.put(Integer.valueOf(0x0406), result.get(Integer.valueOf(0x06)));
-        return result;
-    }
 
-    private static I_RecordCreator getRecordCreator(Class<? extends Record> recClass) {
-        try {
-            Constructor<? extends Record> constructor;
-            constructor = recClass.getConstructor(CONSTRUCTOR_ARGS);
-            return new ReflectionConstructorRecordCreator(constructor);
-        } catch (NoSuchMethodException e) {
-            // fall through and look for other construction methods
-        }
-        try {
-            Method m = recClass.getDeclaredMethod("create", CONSTRUCTOR_ARGS);
-            return new ReflectionMethodRecordCreator(m);
-        } catch (NoSuchMethodException e) {
-            throw new RuntimeException("Failed to find constructor or create method for (" + recClass.getName() + ").");
+        I_RecordCreator[] table = new I_RecordCreator[maxSid + 1];
+        for (Map.Entry<Integer, I_RecordCreator> me : result.entrySet()) {
+            table[me.getKey()] = me.getValue();
         }
+        return table;
     }
+
     /**
      * Create an array of records from an input stream
      *
@@ -17,6 +17,7 @@
 
 package org.apache.poi.hssf.record.aggregates;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -34,12 +35,41 @@ import org.apache.poi.ss.formula.FormulaShifter;
  * @author Jason Height (jheight at chariot dot net dot au)
  */
 public final class RowRecordsAggregate extends RecordAggregate {
+
+    /**
+     * Stores serialized row blocks outside of the aggregate, see {@link RowRecordsAggregate#flushRows(int, RowBlockStore)}
+     *
+     * @since POI 4.1.1
+     */
+    public interface RowBlockStore {
+        /**
+         * Stores the records of a row block, i.e. the ROW records, the cell records and the DBCELL record
+         *
+         * @param data the serialized records
+         * @return the record, which replaces the row block in the sheet and serializes to the same data
+         */
+        Record store(byte[] data) throws IOException;
+    }
+
+    private static final class FlushedRowBlock {
+        private final Record _block;
+        private final int _dbCellOffset;
+
+        FlushedRowBlock(Record block, int dbCellOffset) {
+            _block = block;
+            _dbCellOffset = dbCellOffset;
+        }
+    }
+
     private int _firstrow = -1;
     private int _lastrow  = -1;
     private final Map<Integer, RowRecord> _rowRecords;
     private final ValueRecordsAggregate _valuesAgg;
     private final List<Record> _unknownRecords;
     private final SharedValueManager _sharedValueManager;
+    // row blocks, which have been serialized and removed from memory. They precede the remaining rows
+    private final List<FlushedRowBlock> _flushedBlocks;
+    private int _lastFlushedRow = -1;
 
     // Cache values to speed up performance of
     // getStartRowNumberForBlock / getEndRowNumberForBlock, see Bugzilla 47405
@@ -57,6 +87,7 @@ public final class RowRecordsAggregate extends RecordAggregate {
         _valuesAgg = new ValueRecordsAggregate();
         _unknownRecords = new ArrayList<>();
         _sharedValueManager = svm;
+        _flushedBlocks = new ArrayList<>();
     }
 
     /**
@@ -113,6 +144,10 @@ public final class RowRecordsAggregate extends RecordAggregate {
         _unknownRecords.add(rec);
     }
     public void insertRow(RowRecord row) {
+        if (row.getRowNumber() <= _lastFlushedRow) {
+            throw new IllegalArgumentException("Attempting to write a row[" + row.getRowNumber() + "] " +
+                    "in the range [0," + _lastFlushedRow + "] that is already written to disk.");
+        }
         // Integer integer = Integer.valueOf(row.getRowNumber());
         _rowRecords.put(Integer.valueOf(row.getRowNumber()), row);
         // Clear the cached values
@@ -167,15 +202,29 @@ public final class RowRecordsAggregate extends RecordAggregate {
 
     /** Returns the number of row blocks.
      * <p>The row blocks are goupings of rows that contain the DBCell record
-     * after them
+     * after them. This includes the flushed row blocks.
      */
     public int getRowBlockCount() {
+        return _flushedBlocks.size() + getMemoryRowBlockCount();
+    }
+
+    /** Returns the number of row blocks of the rows, which haven't been flushed */
+    private int getMemoryRowBlockCount() {
         int size = _rowRecords.size()/DBCellRecord.BLOCK_SIZE;
         if ((_rowRecords.size() % DBCellRecord.BLOCK_SIZE) != 0)
             size++;
         return size;
     }
 
+    /**
+     * @return the row number of the last flushed row or -1, if no rows have been flushed
+     *
+     * @since POI 4.1.1
+     */
+    public int getLastFlushedRowNum() {
+        return _lastFlushedRow;
+    }
+
     private int getRowBlockSize(int block) {
         return RowRecord.ENCODED_SIZE * getRowCountForBlock(block);
     }
@@ -190,16 +239,19 @@ public final class RowRecordsAggregate extends RecordAggregate {
         return endIndex-startIndex+1;
     }
 
-    /** Returns the physical row number of the first row in a block*/
-    private int getStartRowNumberForBlock(int block) {
-        int startIndex = block * DBCellRecord.BLOCK_SIZE;
-
+    private RowRecord[] getRowRecordValues() {
         if (_rowRecordValues == null) {
             _rowRecordValues = _rowRecords.values().toArray(new RowRecord[_rowRecords.size()]);
         }
+        return _rowRecordValues;
+    }
+
+    /** Returns the physical row number of the first row in a block*/
+    private int getStartRowNumberForBlock(int block) {
+        int startIndex = block * DBCellRecord.BLOCK_SIZE;
 
         try {
-            return _rowRecordValues[startIndex].getRowNumber();
+            return getRowRecordValues()[startIndex].getRowNumber();
         } catch(ArrayIndexOutOfBoundsException e) {
             throw new RuntimeException("Did not find start row for block " + block);
         }
@@ -211,72 +263,21 @@ public final class RowRecordsAggregate extends RecordAggregate {
         if (endIndex >= _rowRecords.size())
             endIndex = _rowRecords.size()-1;
 
-        if (_rowRecordValues == null){
-            _rowRecordValues = _rowRecords.values().toArray(new RowRecord[_rowRecords.size()]);
-        }
-
         try {
-            return _rowRecordValues[endIndex].getRowNumber();
+            return getRowRecordValues()[endIndex].getRowNumber();
         } catch(ArrayIndexOutOfBoundsException e) {
             throw new RuntimeException("Did not find end row for block " + block);
       }
     }
 
-    private int visitRowRecordsForBlock(int blockIndex, RecordVisitor rv) {
-        final int startIndex = blockIndex*DBCellRecord.BLOCK_SIZE;
-        final int endIndex = startIndex + DBCellRecord.BLOCK_SIZE;
-
-        Iterator<RowRecord> rowIterator = _rowRecords.values().iterator();
-
-        //Given that we basically iterate through the rows in order,
-        //For a performance improvement, it would be better to return an instance of
-        //an iterator and use that instance throughout, rather than recreating one and
-        //having to move it to the right position.
-        int i=0;
-        for (;i<startIndex;i++)
-          rowIterator.next();
-        int result = 0;
-        while(rowIterator.hasNext() && (i++ < endIndex)) {
-          Record rec = rowIterator.next();
-          result += rec.getRecordSize();
-          rv.visitRecord(rec);
-        }
-        return result;
-    }
-
     @Override
     public void visitContainedRecords(RecordVisitor rv) {
-
-        PositionTrackingVisitor stv = new PositionTrackingVisitor(rv, 0);
-        //DBCells are serialized before row records.
-        final int blockCount = getRowBlockCount();
-        for (int blockIndex = 0; blockIndex < blockCount; blockIndex++) {
-            // Serialize a block of rows.
-            // Hold onto the position of the first row in the block
-            int pos=0;
-            // Hold onto the size of this block that was serialized
-            final int rowBlockSize = visitRowRecordsForBlock(blockIndex, rv);
-            pos += rowBlockSize;
-            // Serialize a block of cells for those rows
-            final int startRowNumber = getStartRowNumberForBlock(blockIndex);
-            final int endRowNumber = getEndRowNumberForBlock(blockIndex);
-            DBCellRecord.Builder dbcrBuilder = new DBCellRecord.Builder();
-            // Note: Cell references start from the second row...
-            int cellRefOffset = (rowBlockSize - RowRecord.ENCODED_SIZE);
-            for (int row = startRowNumber; row <= endRowNumber; row++) {
-                if (_valuesAgg.rowHasCells(row)) {
-                    stv.setPosition(0);
-                    _valuesAgg.visitCellsForRow(row, stv);
-                    int rowCellSize = stv.getPosition();
-                    pos += rowCellSize;
-                    // Add the offset to the first cell for the row into the
-                    // DBCellRecord.
-                    dbcrBuilder.addCellOffset(cellRefOffset);
-                    cellRefOffset = rowCellSize;
-                }
-            }
-            // Calculate Offset from the start of a DBCellRecord to the first Row
-            rv.visitRecord(dbcrBuilder.build(pos));
+        for (FlushedRowBlock block : _flushedBlocks) {
+            rv.visitRecord(block._block);
+        }
+        RowRecord[] rows = getRowRecordValues();
+        for (int start = 0; start < rows.length; start += DBCellRecord.BLOCK_SIZE) {
+            visitRowBlock(rows, start, Math.min(rows.length, start + DBCellRecord.BLOCK_SIZE), rv);
         }
         for (Record _unknownRecord : _unknownRecords) {
             // Potentially breaking the file here since we don't know exactly where to write these records
@@ -284,6 +285,83 @@ public final class RowRecordsAggregate extends RecordAggregate {
         }
     }
 
+    /**
+     * Serializes a block of rows, the cells of those rows and the DBCELL record
+     *
+     * @return the offset of the DBCELL record within the block
+     */
+    private int visitRowBlock(RowRecord[] rows, int startIndex, int endIndex, RecordVisitor rv) {
+        PositionTrackingVisitor stv = new PositionTrackingVisitor(rv, 0);
+        // Hold onto the size of this block that was serialized
+        int rowBlockSize = 0;
+        for (int i = startIndex; i < endIndex; i++) {
+            rv.visitRecord(rows[i]);
+            rowBlockSize += rows[i].getRecordSize();
+        }
+        int pos = rowBlockSize;
+        // Serialize a block of cells for those rows
+        final int startRowNumber = rows[startIndex].getRowNumber();
+        final int endRowNumber = rows[endIndex - 1].getRowNumber();
+        DBCellRecord.Builder dbcrBuilder = new DBCellRecord.Builder();
+        // Note: Cell references start from the second row...
+        int cellRefOffset = (rowBlockSize - RowRecord.ENCODED_SIZE);
+        for (int row = startRowNumber; row <= endRowNumber; row++) {
+            if (_valuesAgg.rowHasCells(row)) {
+                stv.setPosition(0);
+                _valuesAgg.visitCellsForRow(row, stv);
+                int rowCellSize = stv.getPosition();
+                pos += rowCellSize;
+                // Add the offset to the first cell for the row into the
+                // DBCellRecord.
+                dbcrBuilder.addCellOffset(cellRefOffset);
+                cellRefOffset = rowCellSize;
+            }
+        }
+        // Calculate Offset from the start of a DBCellRecord to the first Row
+        rv.visitRecord(dbcrBuilder.build(pos));
+        return pos;
+    }
+
+    /**
+     * Serializes the first rows in blocks of up to {@link DBCellRecord#BLOCK_SIZE} rows and removes
+     * the rows and their cells from this aggregate. The flushed blocks are serialized before the
+     * remaining rows, therefore rows, which are inserted later on, need to have a greater row number
+     * than the flushed rows.
+     *
+     * @param rowCount the number of rows to flush
+     * @param store stores the serialized row blocks
+     *
+     * @since POI 4.1.1
+     */
+    public void flushRows(int rowCount, RowBlockStore store) throws IOException {
+        RowRecord[] rows = getRowRecordValues();
+        int count = Math.min(rowCount, rows.length);
+        for (int start = 0; start < count; start += DBCellRecord.BLOCK_SIZE) {
+            int end = Math.min(count, start + DBCellRecord.BLOCK_SIZE);
+
+            List<Record> records = new ArrayList<>();
+            int dbCellOffset = visitRowBlock(rows, start, end, records::add);
+            int size = 0;
+            for (Record r : records) {
+                size += r.getRecordSize();
+            }
+            byte[] data = new byte[size];
+            int pos = 0;
+            for (Record r : records) {
+                pos += r.serialize(pos, data);
+            }
+            _flushedBlocks.add(new FlushedRowBlock(store.store(data), dbCellOffset));
+
+            for (int i = start; i < end; i++) {
+                int rowIndex = rows[i].getRowNumber();
+                _valuesAgg.removeAllCellsValuesForRow(rowIndex);
+                _rowRecords.remove(Integer.valueOf(rowIndex));
+                _lastFlushedRow = rowIndex;
+            }
+        }
+        _rowRecordValues = null;
+    }
+
     public Iterator<RowRecord> getIterator() {
         return _rowRecords.values().iterator();
     }
@@ -453,12 +531,17 @@ public final class RowRecordsAggregate extends RecordAggregate {
         // Note: The offsets are relative to the Workbook BOF. Assume that this is
         // 0 for now.....
 
-        int blockCount = getRowBlockCount();
         // Calculate the size of this IndexRecord
-        int indexRecSize = IndexRecord.getRecordSizeForBlockCount(blockCount);
+        int indexRecSize = IndexRecord.getRecordSizeForBlockCount(getRowBlockCount());
 
         int currentOffset = indexRecordOffset + indexRecSize + sizeOfInitialSheetRecords;
 
+        for (FlushedRowBlock block : _flushedBlocks) {
+            result.addDbcell(currentOffset + block._dbCellOffset);
+            currentOffset += block._block.getRecordSize();
+        }
+
+        int blockCount = getMemoryRowBlockCount();
         for (int block = 0; block < blockCount; block++) {
             // each row-block has a DBCELL record.
             // The offset of each DBCELL record needs to be updated in the INDEX record
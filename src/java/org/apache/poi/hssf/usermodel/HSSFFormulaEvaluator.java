@@ -21,6 +21,7 @@ import java.util.Map;
 
 import org.apache.poi.ss.formula.BaseFormulaEvaluator;
 import org.apache.poi.ss.formula.CollaboratingWorkbooksEnvironment;
+import org.apache.poi.ss.formula.EvaluationCell;
 import org.apache.poi.ss.formula.IStabilityClassifier;
 import org.apache.poi.ss.formula.WorkbookEvaluator;
 import org.apache.poi.ss.formula.eval.BoolEval;
@@ -192,6 +193,16 @@ public class HSSFFormulaEvaluator extends BaseFormulaEvaluator {
         evaluateAllFormulaCells(_book, this);
     }
 
+    @Override
+    protected EvaluationCell toEvaluationCell(Cell cell) {
+        return new HSSFEvaluationCell((HSSFCell)cell);
+    }
+
+    @Override
+    protected HSSFCell toCell(EvaluationCell cell) {
+        return ((HSSFEvaluationCell)cell).getHSSFCell();
+    }
+
     /**
      * Returns a CellValue wrapper around the supplied ValueEval instance.
      * @param cell The cell with the formula
@@ -17,6 +17,7 @@
 
 package org.apache.poi.hssf.usermodel;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,6 +34,7 @@ import org.apache.poi.hssf.model.InternalSheet;
 import org.apache.poi.hssf.model.InternalWorkbook;
 import org.apache.poi.hssf.record.AutoFilterInfoRecord;
 import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DBCellRecord;
 import org.apache.poi.hssf.record.DVRecord;
 import org.apache.poi.hssf.record.DimensionsRecord;
 import org.apache.poi.hssf.record.DrawingRecord;
@@ -149,6 +151,9 @@ public final class HSSFSheet implements org.apache.poi.ss.usermodel.Sheet {
     }
 
     HSSFSheet cloneSheet(HSSFWorkbook workbook) {
+        if (getLastFlushedRowNum() != -1) {
+            throw new IllegalStateException("Sheets with flushed rows can't be cloned");
+        }
         // Aggregate drawing records
         this.getDrawingPatriarch();
         HSSFSheet sheet = new HSSFSheet(workbook, _sheet.cloneSheet());
@@ -266,9 +271,64 @@ public final class HSSFSheet implements org.apache.poi.ss.usermodel.Sheet {
         row.getRowRecord().setBadFontHeight(false);
 
         addRow(row, true);
+
+        int windowSize = _workbook.getRowAccessWindowSize();
+        if (windowSize > 0 && _rows.size() - windowSize >= DBCellRecord.BLOCK_SIZE) {
+            // only complete row blocks are flushed, each block gets its own DBCELL record
+            int count = (_rows.size() - windowSize) / DBCellRecord.BLOCK_SIZE * DBCellRecord.BLOCK_SIZE;
+            try {
+                flushRows(_rows.size() - count);
+            } catch (IOException ioe) {
+                throw new RuntimeException(ioe);
+            }
+        }
         return row;
     }
 
+    /**
+     * Writes all rows but the given number of most recent rows to the temporary file of the workbook
+     * and removes them from memory. Flushed rows can't be accessed anymore and new rows need to have
+     * a greater row number than the flushed rows.
+     *
+     * @param remaining the number of rows to keep in memory
+     * @throws IOException if the rows can't be written to the temporary file
+     *
+     * @see HSSFWorkbook#setRowAccessWindowSize(int)
+     * @since POI 4.1.1
+     */
+    public void flushRows(int remaining) throws IOException {
+        int count = _rows.size() - remaining;
+        if (count <= 0) {
+            return;
+        }
+        _sheet.getRowsAggregate().flushRows(count, _workbook.getRowBlockStore());
+        for (int i = 0; i < count; i++) {
+            _rows.pollFirstEntry();
+        }
+    }
+
+    /**
+     * Writes all rows to the temporary file of the workbook and removes them from memory.
+     *
+     * @throws IOException if the rows can't be written to the temporary file
+     *
+     * @see #flushRows(int)
+     * @since POI 4.1.1
+     */
+    public void flushRows() throws IOException {
+        flushRows(0);
+    }
+
+    /**
+     * @return the row number of the last flushed row or -1, if no rows have been flushed
+     *
+     * @see #flushRows(int)
+     * @since POI 4.1.1
+     */
+    public int getLastFlushedRowNum() {
+        return _sheet.getRowsAggregate().getLastFlushedRowNum();
+    }
+
     /**
      * Used internally to create a high level Row object from a low level row object.
      * USed when reading an existing file
@@ -364,10 +424,10 @@ public final class HSSFSheet implements org.apache.poi.ss.usermodel.Sheet {
      */
 
     private void addRow(HSSFRow row, boolean addLow) {
-        _rows.put(Integer.valueOf(row.getRowNum()), row);
         if (addLow) {
             _sheet.addRow(row.getRowRecord());
         }
+        _rows.put(Integer.valueOf(row.getRowNum()), row);
         boolean firstRow = _rows.size() == 1;
         if (row.getRowNum() > getLastRowNum() || firstRow) {
             _lastrow = row.getRowNum();
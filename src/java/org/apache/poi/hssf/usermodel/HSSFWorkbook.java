@@ -92,6 +92,7 @@ import org.apache.poi.poifs.crypt.Encryptor;
 import org.apache.poi.poifs.filesystem.DirectoryEntry;
 import org.apache.poi.poifs.filesystem.DirectoryNode;
 import org.apache.poi.poifs.filesystem.DocumentNode;
+import org.apache.poi.poifs.filesystem.DocumentOutputStream;
 import org.apache.poi.poifs.filesystem.EntryUtils;
 import org.apache.poi.poifs.filesystem.FilteringDirectoryNode;
 import org.apache.poi.poifs.filesystem.POIFSDocument;
@@ -209,6 +210,17 @@ public final class HSSFWorkbook extends POIDocument implements org.apache.poi.ss
      */
     private UDFFinder _udfFinder = new IndexedUDFFinder(AggregatingUDFFinder.DEFAULT);
 
+    /**
+     * The number of rows per sheet, which are kept in memory, or -1 for all rows.
+     * See {@link #setRowAccessWindowSize(int)}
+     */
+    private int rowAccessWindowSize = -1;
+
+    /**
+     * The temporary file of the flushed row blocks, created when the first rows are flushed
+     */
+    private RowBlockTempFile rowBlockStore;
+
     public static HSSFWorkbook create(InternalWorkbook book) {
     	return new HSSFWorkbook(book);
     }
@@ -484,6 +496,51 @@ public final class HSSFWorkbook extends POIDocument implements org.apache.poi.ss
         this.missingCellPolicy = missingCellPolicy;
     }
 
+    /**
+     * Limits the number of rows per sheet, which are kept in memory, to write large workbooks
+     * with a low memory footprint.<p>
+     *
+     * When a sheet has more rows, the oldest rows, i.e. the ones with the lowest row numbers,
+     * are serialized to a temporary file in blocks of 32 rows (the row blocks of the BIFF8 format)
+     * and removed from memory. Therefore up to {@code rowAccessWindowSize + 31} rows are kept.
+     * Flushed rows can't be accessed anymore and new rows need to be created in ascending order.
+     * The flushed blocks are copied from the temporary file, when the workbook is written.
+     * The temporary file is removed, when the workbook is closed.<p>
+     *
+     * This applies to the rows created after the call. Use {@link HSSFSheet#flushRows(int)}
+     * to flush rows manually.
+     *
+     * @param rowAccessWindowSize the number of rows kept in memory or -1 to keep all rows (the default)
+     *
+     * @since POI 4.1.1
+     */
+    public void setRowAccessWindowSize(int rowAccessWindowSize) {
+        if (rowAccessWindowSize == 0 || rowAccessWindowSize < -1) {
+            throw new IllegalArgumentException("rowAccessWindowSize must be greater than 0 or -1");
+        }
+        this.rowAccessWindowSize = rowAccessWindowSize;
+    }
+
+    /**
+     * @return the number of rows per sheet, which are kept in memory, or -1 for all rows
+     *
+     * @see #setRowAccessWindowSize(int)
+     * @since POI 4.1.1
+     */
+    public int getRowAccessWindowSize() {
+        return rowAccessWindowSize;
+    }
+
+    /**
+     * @return the store of the flushed row blocks, i.e. the temporary file
+     */
+    RowBlockTempFile getRowBlockStore() {
+        if (rowBlockStore == null) {
+            rowBlockStore = new RowBlockTempFile();
+        }
+        return rowBlockStore;
+    }
+
     /**
      * sets the order of appearance for a given sheet.
      *
@@ -1299,7 +1356,13 @@ public final class HSSFWorkbook extends POIDocument implements org.apache.poi.ss
      */
     @Override
     public void close() throws IOException {
-        super.close();
+        try {
+            if (rowBlockStore != null) {
+                rowBlockStore.close();
+            }
+        } finally {
+            super.close();
+        }
     }
 
     /**
@@ -1383,7 +1446,7 @@ public final class HSSFWorkbook extends POIDocument implements org.apache.poi.ss
         List<String> excepts = new ArrayList<>(1);
 
         // Write out the Workbook stream
-        fs.createDocument(new ByteArrayInputStream(getBytes()), "Workbook");
+        writeWorkbookStream(fs);
 
         // Write out our HPFS properties, if we have them
         writeProperties(fs, excepts);
@@ -1442,27 +1505,48 @@ public final class HSSFWorkbook extends POIDocument implements org.apache.poi.ss
             }
             return result;
         }
-    }
 
+        /**
+         * Serializes the records to the stream. The records are collected in the buffer,
+         * flushed row blocks and other large records are written directly.
+         */
+        public int writeTo(OutputStream os, byte[] buffer) throws IOException {
+            int result = 0;
+            int pos = 0;
+            for (Record rec : _list) {
+                int size = rec.getRecordSize();
+                boolean stored = rec instanceof RowBlockTempFile.StoredRowBlock;
+                if (stored || pos + size > buffer.length) {
+                    // the stored blocks are copied via the buffer, so it needs to be emptied first
+                    os.write(buffer, 0, pos);
+                    result += pos;
+                    pos = 0;
+                }
+                if (stored) {
+                    ((RowBlockTempFile.StoredRowBlock)rec).writeTo(os, buffer);
+                    result += size;
+                } else if (size > buffer.length) {
+                    byte[] data = rec.serialize();
+                    os.write(data);
+                    result += data.length;
+                } else {
+                    pos += rec.serialize(pos, buffer);
+                }
+            }
+            os.write(buffer, 0, pos);
+            return result + pos;
+        }
+    }
 
     /**
-     * Method getBytes - get the bytes of just the HSSF portions of the XLS file.
-     * Use this to construct a POI POIFSFileSystem yourself.
-     *
+     * Prepares the sheets for serialization, collects their records and sets the BOF offsets of the sheets
      *
-     * @return byte[] array containing the binary representation of this workbook and all contained
-     *         sheets, rows, cells, etc.
+     * @return the record collectors of the sheets
      */
-    public byte[] getBytes() {
-        if (log.check( POILogger.DEBUG )) {
-            log.log(DEBUG, "HSSFWorkbook.getBytes()");
-        }
-        
+    private SheetRecordCollector[] collectSheetRecords() {
         HSSFSheet[] sheets = getSheets();
         int nSheets = sheets.length;
 
-        updateEncryptionInfo();
-
         // before getting the workbook size we must tell the sheets that
         // serialization is about to occur.
         workbook.preSerialize();
@@ -1482,22 +1566,49 @@ public final class HSSFWorkbook extends POIDocument implements org.apache.poi.ss
             totalsize += src.getTotalSize();
             srCollectors[k] = src;
         }
+        return srCollectors;
+    }
+
+    private static void checkSheetSize(SheetRecordCollector src, int serializedSize, int sheetIndex) {
+        if (serializedSize != src.getTotalSize()) {
+            // Wrong offset values have been passed in the call to setSheetBof() above.
+            // For books with more than one sheet, this discrepancy would cause excel
+            // to report errors and loose data while reading the workbook
+            throw new IllegalStateException("Actual serialized sheet size (" + serializedSize
+                    + ") differs from pre-calculated size (" + src.getTotalSize()
+                    + ") for sheet (" + sheetIndex + ")");
+            // TODO - add similar sanity check to ensure that Sheet.serializeIndexRecord() does not write mis-aligned offsets either
+        }
+    }
+
+    /**
+     * Method getBytes - get the bytes of just the HSSF portions of the XLS file.
+     * Use this to construct a POI POIFSFileSystem yourself.
+     *
+     *
+     * @return byte[] array containing the binary representation of this workbook and all contained
+     *         sheets, rows, cells, etc.
+     */
+    public byte[] getBytes() {
+        if (log.check( POILogger.DEBUG )) {
+            log.log(DEBUG, "HSSFWorkbook.getBytes()");
+        }
+
+        updateEncryptionInfo();
+
+        SheetRecordCollector[] srCollectors = collectSheetRecords();
+        int totalsize = workbook.getSize();
+        for (SheetRecordCollector src : srCollectors) {
+            totalsize += src.getTotalSize();
+        }
 
         byte[] retval = new byte[totalsize];
         int pos = workbook.serialize(0, retval);
 
-        for (int k = 0; k < nSheets; k++) {
+        for (int k = 0; k < srCollectors.length; k++) {
             SheetRecordCollector src = srCollectors[k];
             int serializedSize = src.serialize(pos, retval);
-            if (serializedSize != src.getTotalSize()) {
-                // Wrong offset values have been passed in the call to setSheetBof() above.
-                // For books with more than one sheet, this discrepancy would cause excel
-                // to report errors and loose data while reading the workbook
-                throw new IllegalStateException("Actual serialized sheet size (" + serializedSize
-                        + ") differs from pre-calculated size (" + src.getTotalSize()
-                        + ") for sheet (" + k + ")");
-                // TODO - add similar sanity check to ensure that Sheet.serializeIndexRecord() does not write mis-aligned offsets either
-            }
+            checkSheetSize(src, serializedSize, k);
             pos += serializedSize;
         }
 
@@ -1506,6 +1617,32 @@ public final class HSSFWorkbook extends POIDocument implements org.apache.poi.ss
         return retval;
     }
 
+    /**
+     * Writes the workbook stream to the filesystem without assembling it in memory,
+     * i.e. the flushed row blocks are copied from the temporary file.
+     * Encrypted workbooks are serialized via {@link #getBytes()}.
+     */
+    private void writeWorkbookStream(POIFSFileSystem fs) throws IOException {
+        updateEncryptionInfo();
+        if (getEncryptionInfo() != null) {
+            fs.createDocument(new ByteArrayInputStream(getBytes()), "Workbook");
+            return;
+        }
+
+        SheetRecordCollector[] srCollectors = collectSheetRecords();
+        try (OutputStream os = new DocumentOutputStream(fs.getRoot(), "Workbook")) {
+            byte[] globals = new byte[workbook.getSize()];
+            workbook.serialize(0, globals);
+            os.write(globals);
+
+            byte[] buffer = new byte[8192];
+            for (int k = 0; k < srCollectors.length; k++) {
+                SheetRecordCollector src = srCollectors[k];
+                checkSheetSize(src, src.writeTo(os, buffer), k);
+            }
+        }
+    }
+
     @SuppressWarnings("resource")
     void encryptBytes(byte[] buf) {
         EncryptionInfo ei = getEncryptionInfo();
@@ -0,0 +1,135 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.hssf.usermodel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.aggregates.RowRecordsAggregate.RowBlockStore;
+import org.apache.poi.util.LittleEndian;
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+import org.apache.poi.util.TempFile;
+
+/**
+ * Keeps the row blocks, which have been flushed by the sheets of a workbook, in a temporary file.
+ *
+ * @see HSSFWorkbook#setRowAccessWindowSize(int)
+ */
+final class RowBlockTempFile implements RowBlockStore, Closeable {
+    private static final POILogger LOG = POILogFactory.getLogger(RowBlockTempFile.class);
+
+    private File tempFile;
+    private RandomAccessFile file;
+    private boolean closed;
+
+    @Override
+    public Record store(byte[] data) throws IOException {
+        if (closed) {
+            throw new IOException("The temporary file of the flushed rows has already been closed");
+        }
+        if (file == null) {
+            tempFile = TempFile.createTempFile("poi-hssf-rows", ".tmp");
+            file = new RandomAccessFile(tempFile, "rw");
+        }
+        long position = file.length();
+        file.seek(position);
+        file.write(data);
+        return new StoredRowBlock(position, data.length, LittleEndian.getShort(data, 0));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (file != null) {
+            file.close();
+            if (!tempFile.delete()) {
+                LOG.log(POILogger.WARN, tempFile.getAbsolutePath()+" can't be removed (or was already removed).");
+            }
+        }
+    }
+
+    /**
+     * A row block in the temporary file
+     */
+    final class StoredRowBlock extends Record {
+        private final long _position;
+        private final int _size;
+        private final short _sid;
+
+        private StoredRowBlock(long position, int size, short sid) {
+            _position = position;
+            _size = size;
+            _sid = sid;
+        }
+
+        /**
+         * @return the sid of the first record of the block, i.e. a ROW record
+         */
+        @Override
+        public short getSid() {
+            return _sid;
+        }
+
+        @Override
+        public int getRecordSize() {
+            return _size;
+        }
+
+        @Override
+        public int serialize(int offset, byte[] data) {
+            try {
+                read(_position, data, offset, _size);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to read the flushed rows", e);
+            }
+            return _size;
+        }
+
+        /**
+         * Copies the block to the given stream
+         *
+         * @param os the stream to write to
+         * @param buffer the buffer used for copying
+         */
+        void writeTo(OutputStream os, byte[] buffer) throws IOException {
+            for (int done = 0; done < _size; ) {
+                int len = Math.min(buffer.length, _size - done);
+                read(_position + done, buffer, 0, len);
+                os.write(buffer, 0, len);
+                done += len;
+            }
+        }
+    }
+
+    private void read(long position, byte[] data, int offset, int len) throws IOException {
+        if (closed) {
+            throw new IOException("The temporary file of the flushed rows has already been closed");
+        }
+        file.seek(position);
+        file.readFully(data, offset, len);
+    }
+}
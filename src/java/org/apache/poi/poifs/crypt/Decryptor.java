@@ -16,8 +16,11 @@
 ==================================================================== */
 package org.apache.poi.poifs.crypt;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.security.GeneralSecurityException;
 
 import javax.crypto.Cipher;
@@ -27,6 +30,8 @@ import javax.crypto.spec.SecretKeySpec;
 import org.apache.poi.EncryptedDocumentException;
 import org.apache.poi.poifs.filesystem.DirectoryNode;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.util.BoundedInputStream;
+import org.apache.poi.util.IOUtils;
 
 public abstract class Decryptor implements Cloneable {
     public static final String DEFAULT_PASSWORD="VelvetSweatshop";
@@ -53,6 +58,26 @@ public abstract class Decryptor implements Cloneable {
     public abstract InputStream getDataStream(DirectoryNode dir)
         throws IOException, GeneralSecurityException;
 
+    /**
+     * Decrypts the data stream into the given file, e.g. to open the decrypted package
+     * with random access instead of buffering it in memory.<p>
+     *
+     * Decryptors, whose data is encrypted in independent segments (i.e. agile encryption),
+     * decrypt the segments in parallel. This implementation decrypts sequentially.
+     *
+     * @param dir the node to read from
+     * @param file the file to write the decrypted data to, an existing file is overwritten
+     * @param threads the number of threads used for decryption
+     * @since POI 4.1.1
+     */
+    public void decryptTo(DirectoryNode dir, File file, int threads)
+        throws IOException, GeneralSecurityException {
+        try (InputStream is = getDataStream(dir);
+             OutputStream os = new FileOutputStream(file)) {
+            IOUtils.copy(new BoundedInputStream(is, getLength()), os);
+        }
+    }
+
     /**
      * Wraps a stream for decryption<p>
      * 
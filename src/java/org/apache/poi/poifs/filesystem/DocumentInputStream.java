@@ -27,7 +27,6 @@ import java.nio.ByteBuffer;
 import java.util.Iterator;
 
 import org.apache.poi.poifs.property.DocumentProperty;
-import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.LittleEndian;
 import org.apache.poi.util.LittleEndianInput;
 
@@ -157,15 +156,7 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
         if (atEOD()) {
             return EOF;
         }
-        byte[] b = new byte[1];
-        int result = read(b, 0, 1);
-        if(result >= 0) {
-            if(b[0] < 0) {
-                return b[0]+256;
-            }
-            return b[0];
-        }
-        return result;
+        return readUByte();
     }
 
     @Override
@@ -253,9 +244,18 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
 		
 		long rval = new_offset - _current_offset;
 		
-		// TODO Do this better
-		byte[] skip = IOUtils.safelyAllocate(rval, Integer.MAX_VALUE);
-		readFully(skip);
+		// move through the blocks without copying the skipped bytes
+		long remaining = rval;
+		while (remaining > 0) {
+			if (_buffer == null || _buffer.remaining() == 0) {
+				_current_block_count++;
+				_buffer = _data.next();
+			}
+			int limit = (int)Math.min(remaining, _buffer.remaining());
+			_buffer.position(_buffer.position() + limit);
+			_current_offset += limit;
+			remaining -= limit;
+		}
 		return rval;
 	}
 
@@ -325,6 +325,10 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
    @Override
 	public long readLong() {
 		checkAvaliable(LONG_SIZE);
+		if (isInCurrentBlock(LONG_SIZE)) {
+			long lo = readIntFromBlock() & 0xFFFFFFFFL;
+			return lo | ((long)readIntFromBlock() << 32);
+		}
 		byte[] data = new byte[LONG_SIZE];
 		readFully(data, 0, LONG_SIZE);
 		return LittleEndian.getLong(data, 0);
@@ -332,15 +336,15 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
 
    @Override
    public short readShort() {
-      checkAvaliable(SHORT_SIZE);
-      byte[] data = new byte[SHORT_SIZE];
-      readFully(data, 0, SHORT_SIZE);
-      return LittleEndian.getShort(data);
+      return (short)readUShort();
    }
 
    @Override
 	public int readInt() {
 		checkAvaliable(INT_SIZE);
+		if (isInCurrentBlock(INT_SIZE)) {
+			return readIntFromBlock();
+		}
       byte[] data = new byte[INT_SIZE];
       readFully(data, 0, INT_SIZE);
       return LittleEndian.getInt(data);
@@ -354,6 +358,12 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
     @Override
 	public int readUShort() {
 		checkAvaliable(SHORT_SIZE);
+		if (isInCurrentBlock(SHORT_SIZE)) {
+			int b0 = _buffer.get() & 0xFF;
+			int b1 = _buffer.get() & 0xFF;
+			_current_offset += SHORT_SIZE;
+			return (b1 << 8) + b0;
+		}
       byte[] data = new byte[SHORT_SIZE];
       readFully(data, 0, SHORT_SIZE);
       return LittleEndian.getUShort(data);
@@ -362,10 +372,36 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
     @Override
     public int readUByte() {
         checkAvaliable(1);
+        if (isInCurrentBlock(1)) {
+            _current_offset++;
+            return _buffer.get() & 0xFF;
+        }
         byte[] data = new byte[1];
         readFully(data, 0, 1);
         if (data[0] >= 0)
             return data[0];
         return data[0] + 256;
     }
+
+    /**
+     * Checks if the given number of bytes can be read from the current block,
+     * so primitive values can be decoded from the block buffer without copying them.
+     * Moves to the next block, if the current one has been read completely.
+     */
+    private boolean isInCurrentBlock(int size) {
+        if (_buffer == null || _buffer.remaining() == 0) {
+            _current_block_count++;
+            _buffer = _data.next();
+        }
+        return _buffer.remaining() >= size;
+    }
+
+    private int readIntFromBlock() {
+        int b0 = _buffer.get() & 0xFF;
+        int b1 = _buffer.get() & 0xFF;
+        int b2 = _buffer.get() & 0xFF;
+        int b3 = _buffer.get() & 0xFF;
+        _current_offset += INT_SIZE;
+        return (b3 << 24) + (b2 << 16) + (b1 << 8) + b0;
+    }
 }
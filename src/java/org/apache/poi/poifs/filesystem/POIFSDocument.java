@@ -183,6 +183,41 @@ public final class POIFSDocument implements POIFSViewable, Iterable<ByteBuffer>
        return (getSize() > 0 ? _stream : Collections.<ByteBuffer>emptyList()).iterator();
     }
 
+   /**
+    * Reads bytes of the document starting at the given position.
+    * In contrast to the {@link DocumentInputStream}, the preceding blocks
+    *  aren't read, i.e. this allows random access to large documents.
+    *
+    * @param position the position within the document
+    * @param b the buffer to read into
+    * @param off the offset within the buffer
+    * @param len the maximum number of bytes to read
+    * @return the number of bytes read or -1, if the position is at or behind the end of the document
+    *
+    * @since POI 4.1.1
+    */
+   public int read(long position, byte[] b, int off, int len) throws IOException {
+      if (position < 0 || off < 0 || len < 0 || len > b.length - off) {
+         throw new IndexOutOfBoundsException();
+      }
+      if (position >= getSize()) {
+         return -1;
+      }
+      len = (int)Math.min(len, getSize() - position);
+
+      int total = 0;
+      while (total < len) {
+         long pos = position + total;
+         ByteBuffer block = _stream.getBlock((int)(pos / _block_size));
+         int blockOffset = (int)(pos % _block_size);
+         int count = Math.min(len - total, _block_size - blockOffset);
+         block.position(block.position() + blockOffset);
+         block.get(b, off + total, count);
+         total += count;
+      }
+      return total;
+   }
+
    /**
     * @return size of the document
     */
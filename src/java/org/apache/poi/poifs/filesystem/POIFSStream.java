@@ -22,6 +22,7 @@ package org.apache.poi.poifs.filesystem;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Iterator;
 
 import org.apache.poi.poifs.common.POIFSConstants;
@@ -49,6 +50,7 @@ public class POIFSStream implements Iterable<ByteBuffer>
 	private BlockStore blockStore;
 	private int startBlock;
 	private OutputStream outStream;
+	private int[] blockChain;
 	
 	/**
 	 * Constructor for an existing stream. It's up to you
@@ -95,6 +97,38 @@ public class POIFSStream implements Iterable<ByteBuffer>
       return new StreamBlockByteBufferIterator(startBlock);
    }
 
+   /**
+    * Returns the block with the given index within the stream.
+    * The offsets of the blocks are collected on the first call,
+    *  so the chain isn't followed from the start block again
+    *  for each lookup.
+    */
+   ByteBuffer getBlock(int index) throws IOException {
+      if (blockChain == null) {
+         blockChain = readBlockChain();
+      }
+      if (index < 0 || index >= blockChain.length) {
+         throw new IndexOutOfBoundsException(
+               "Block " + index + " outside stream of " + blockChain.length + " blocks"
+         );
+      }
+      return blockStore.getBlockAt(blockChain[index]);
+   }
+
+   private int[] readBlockChain() throws IOException {
+      ChainLoopDetector loopDetector = blockStore.getChainLoopDetector();
+      int[] chain = new int[16];
+      int count = 0;
+      for (int block = startBlock; block != POIFSConstants.END_OF_CHAIN; block = blockStore.getNextBlock(block)) {
+         loopDetector.claim(block);
+         if (count == chain.length) {
+            chain = Arrays.copyOf(chain, count * 2);
+         }
+         chain[count++] = block;
+      }
+      return Arrays.copyOf(chain, count);
+   }
+
    /**
     * Updates the contents of the stream to the new
     *  set of bytes.
@@ -108,6 +142,7 @@ public class POIFSStream implements Iterable<ByteBuffer>
    }
 
    public OutputStream getOutputStream() throws IOException {
+       blockChain = null;
        if (outStream == null) {
            outStream = new StreamBlockByteBuffer();
        }
@@ -126,6 +161,7 @@ public class POIFSStream implements Iterable<ByteBuffer>
       free(loopDetector);
    }
    private void free(ChainLoopDetector loopDetector) {
+      blockChain = null;
       int nextBlock = startBlock;
       while(nextBlock != POIFSConstants.END_OF_CHAIN) {
          int thisBlock = nextBlock;
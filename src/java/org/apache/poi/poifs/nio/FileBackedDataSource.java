@@ -52,6 +52,9 @@ public class FileBackedDataSource extends DataSource {
    // http://bugs.java.com/view_bug.do?bug_id=4724038 for related discussions
    private List<ByteBuffer> buffersToClean = new ArrayList<>();
 
+   // read-only mapping of the whole file, the blocks of read-only files are copied from it
+   private ByteBuffer readOnlyBuffer;
+
    public FileBackedDataSource(File file) throws FileNotFoundException {
        this(newSrcFile(file, "r"), true);
    }
@@ -96,6 +99,20 @@ public class FileBackedDataSource extends DataSource {
 
           // remember this buffer for cleanup
           buffersToClean.add(dst);
+      } else if (position + length <= size() && size() <= Integer.MAX_VALUE) {
+          // map the file once and copy the blocks from the mapping instead of reading each block
+          // from the channel. The blocks are still copied, as the caller may modify them in memory
+          if (readOnlyBuffer == null) {
+              readOnlyBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size());
+
+              // remember this buffer for cleanup
+              buffersToClean.add(readOnlyBuffer);
+          }
+          ByteBuffer view = readOnlyBuffer.duplicate();
+          view.position((int)position);
+          view.limit((int)position + length);
+          dst = ByteBuffer.allocate(length);
+          dst.put(view);
       } else {
           // allocate the buffer on the heap if we cannot map the data in directly
           channel.position(position);
@@ -142,6 +159,7 @@ public class FileBackedDataSource extends DataSource {
            unmap(buffer);
        }
        buffersToClean.clear();
+       readOnlyBuffer = null;
 
        if (srcFile != null) {
           // see http://bugs.java.com/bugdatabase/view_bug.do?bug_id=4796385
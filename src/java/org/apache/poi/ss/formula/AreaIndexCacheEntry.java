@@ -0,0 +1,100 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+/**
+ * Stores an index built from the values of a cell area, see {@link IndexableArea}.<p>
+ *
+ * The cells of the area are tracked like the inputs of a formula: a change of one of the cells
+ * clears the formula cache entry and thereby invalidates the index and all formulas using it.
+ */
+final class AreaIndexCacheEntry {
+
+	public static final class Key {
+		private final long _bookSheetColumn;
+		private final int _firstRow;
+		private final int _lastRow;
+		private final int _lastColumn;
+		private final Object _indexType;
+
+		public Key(int bookIndex, int sheetIndex, int firstRow, int firstColumn,
+				int lastRow, int lastColumn, Object indexType) {
+			_bookSheetColumn = PlainCellCache.Loc.toBookSheetColumn(bookIndex, sheetIndex, firstColumn);
+			_firstRow = firstRow;
+			_lastRow = lastRow;
+			_lastColumn = lastColumn;
+			_indexType = indexType;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int)(_bookSheetColumn ^ (_bookSheetColumn >>> 32))
+					+ 17 * (_firstRow + 17 * (_lastRow + 17 * _lastColumn)) + _indexType.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return _bookSheetColumn == other._bookSheetColumn
+					&& _firstRow == other._firstRow
+					&& _lastRow == other._lastRow
+					&& _lastColumn == other._lastColumn
+					&& _indexType == other._indexType;
+		}
+	}
+
+	private final FormulaCellCacheEntry _cacheEntry;
+	private Object _index;
+	private boolean _requested;
+
+	public AreaIndexCacheEntry() {
+		_cacheEntry = new FormulaCellCacheEntry();
+	}
+
+	/**
+	 * @return the entry, which consumes the cells of the area
+	 */
+	public FormulaCellCacheEntry getCacheEntry() {
+		return _cacheEntry;
+	}
+
+	/**
+	 * @return the index or <code>null</code> if it has not been built or one of the cells has changed
+	 */
+	public Object getIndex() {
+		return _cacheEntry.getValue() == null ? null : _index;
+	}
+
+	public void setIndex(Object index) {
+		_index = index;
+	}
+
+	/**
+	 * Records a request for the index of the area.
+	 *
+	 * @return whether the index has been requested before
+	 */
+	public boolean markRequested() {
+		boolean result = _requested;
+		_requested = true;
+		return result;
+	}
+}
@@ -17,6 +17,9 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.poi.ss.usermodel.Cell;
@@ -158,6 +161,61 @@ public abstract class BaseFormulaEvaluator implements FormulaEvaluator, Workbook
 
     protected abstract CellValue evaluateFormulaCellValue(Cell cell);
 
+    /**
+     * Turns a cell of the workbook into the cell used by the {@link WorkbookEvaluator}.
+     * This implementation throws an {@link UnsupportedOperationException}, evaluators
+     * supporting {@link #recalculate(Collection)} need to override it.
+     *
+     * @since POI 4.1.1
+     */
+    protected EvaluationCell toEvaluationCell(Cell cell) {
+        throw new UnsupportedOperationException(getClass().getName() + " doesn't support recalculate()");
+    }
+
+    /**
+     * Turns a cell of the {@link WorkbookEvaluator} back into the cell of the workbook.
+     * This implementation throws an {@link UnsupportedOperationException}, evaluators
+     * supporting {@link #recalculate(Collection)} need to override it.
+     *
+     * @since POI 4.1.1
+     */
+    protected Cell toCell(EvaluationCell cell) {
+        throw new UnsupportedOperationException(getClass().getName() + " doesn't support recalculate()");
+    }
+
+    /**
+     * Recalculates the formulas affected by the given changed cells, instead of all formulas of
+     * the workbook like {@link #evaluateAll()}. This replaces the calls to
+     * {@link #notifyUpdateCell(Cell)} for the changed cells.<p>
+     *
+     * The changed formula cells and the formula cells, which depend on the changed cells directly or
+     * indirectly, are recalculated, if they have been evaluated by this evaluator before.
+     * The results of the cells, whose values have changed, are saved in the cells - these cells
+     * remain formula cells.
+     *
+     * @param updatedCells the cells, whose values or formulas have been changed
+     * @return the formula cells, whose results have changed
+     * @throws UnsupportedOperationException if the evaluator doesn't map its cells for the recalculation
+     *
+     * @see WorkbookEvaluator#recalculate(Collection)
+     * @since POI 4.1.1
+     */
+    public List<Cell> recalculate(Collection<? extends Cell> updatedCells) {
+        List<EvaluationCell> evalCells = new ArrayList<>(updatedCells.size());
+        for (Cell cell : updatedCells) {
+            evalCells.add(toEvaluationCell(cell));
+        }
+        List<EvaluationCell> changed = _bookEvaluator.recalculate(evalCells);
+        List<Cell> result = new ArrayList<>(changed.size());
+        for (EvaluationCell evalCell : changed) {
+            Cell cell = toCell(evalCell);
+            // the results are already cached by the evaluator
+            evaluateFormulaCell(cell);
+            result.add(cell);
+        }
+        return result;
+    }
+
     /**
      * If cell contains formula, it evaluates the formula,
      *  and saves the result of the formula. The cell
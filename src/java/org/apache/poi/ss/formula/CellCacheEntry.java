@@ -17,6 +17,10 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
 import org.apache.poi.ss.formula.eval.BlankEval;
 import org.apache.poi.ss.formula.eval.BoolEval;
 import org.apache.poi.ss.formula.eval.ErrorEval;
@@ -54,7 +58,7 @@ abstract class CellCacheEntry implements ICacheEntry {
 		return _value;
 	}
 
-	private static boolean areValuesEqual(ValueEval a, ValueEval b) {
+	/* package */ static boolean areValuesEqual(ValueEval a, ValueEval b) {
 		if (a == null) {
 			return false;
 		}
@@ -89,6 +93,24 @@ abstract class CellCacheEntry implements ICacheEntry {
 		return _consumingCells.toArray();
 	}
 
+	/**
+	 * Adds the formula cells, which use the value of this cell directly or indirectly, to the
+	 * given set. Only formulas with a cached result are registered as consumers.
+	 *
+	 * @param result the set of the dependent formula cells
+	 */
+	public final void collectConsumingCells(Set<FormulaCellCacheEntry> result) {
+		Deque<CellCacheEntry> pending = new ArrayDeque<>();
+		pending.push(this);
+		while (!pending.isEmpty()) {
+			for (FormulaCellCacheEntry fc : pending.pop().getConsumingCells()) {
+				if (result.add(fc)) {
+					pending.push(fc);
+				}
+			}
+		}
+	}
+
 	public final void clearConsumingCell(FormulaCellCacheEntry cce) {
 		if(!_consumingCells.remove(cce)) {
 			throw new IllegalStateException("Specified formula cell is not consumed by this cell");
@@ -17,6 +17,10 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 import org.apache.poi.ss.formula.FormulaCellCache.IEntryOperation;
 import org.apache.poi.ss.formula.FormulaUsedBlankCellSet.BookSheetKey;
 import org.apache.poi.ss.formula.PlainCellCache.Loc;
@@ -39,6 +43,7 @@ final class EvaluationCache {
 
 	private final PlainCellCache _plainCellCache;
 	private final FormulaCellCache _formulaCellCache;
+	private final Map<AreaIndexCacheEntry.Key, AreaIndexCacheEntry> _areaIndexCache;
 	/** only used for testing. <code>null</code> otherwise */
 	final IEvaluationListener _evaluationListener;
 
@@ -46,6 +51,7 @@ final class EvaluationCache {
 		_evaluationListener = evaluationListener;
 		_plainCellCache = new PlainCellCache();
 		_formulaCellCache = new FormulaCellCache();
+		_areaIndexCache = new HashMap<>();
 	}
 
 	public void notifyUpdateCell(int bookIndex, int sheetIndex, EvaluationCell cell) {
@@ -58,7 +64,7 @@ final class EvaluationCache {
 
 		if (cell.getCellType() == CellType.FORMULA) {
 			if (fcce == null) {
-				fcce = new FormulaCellCacheEntry();
+				fcce = new FormulaCellCacheEntry(cell);
 				if (pcce == null) {
 					if (_evaluationListener != null) {
 						_evaluationListener.onChangeFromBlankValue(sheetIndex, rowIndex,
@@ -124,6 +130,49 @@ final class EvaluationCache {
 				entry.notifyUpdatedBlankCell(bsk, rowIndex, columnIndex, _evaluationListener);
 			}
 		});
+		for (AreaIndexCacheEntry entry : _areaIndexCache.values()) {
+			entry.getCacheEntry().notifyUpdatedBlankCell(bsk, rowIndex, columnIndex, _evaluationListener);
+		}
+	}
+
+	/**
+	 * Adds the cache entries of the formula cells, which are affected by a change of the specified
+	 * cell, to the given set, i.e. the entry of the cell itself, if it is a formula cell, and the
+	 * entries of all formulas, which have used the value of the cell directly or indirectly.
+	 * Formulas, which haven't been evaluated since the last change of their inputs, are not included.
+	 */
+	public void collectAffectedFormulas(int bookIndex, int sheetIndex, EvaluationCell cell,
+			final Set<FormulaCellCacheEntry> result) {
+		final int rowIndex = cell.getRowIndex();
+		final int columnIndex = cell.getColumnIndex();
+		FormulaCellCacheEntry fcce = _formulaCellCache.get(cell);
+		if (fcce != null) {
+			if (result.add(fcce)) {
+				fcce.collectConsumingCells(result);
+			}
+			return;
+		}
+		PlainValueCellCacheEntry pcce = _plainCellCache.get(new Loc(bookIndex, sheetIndex, rowIndex, columnIndex));
+		if (pcce != null) {
+			pcce.collectConsumingCells(result);
+			return;
+		}
+		// a blank cell - the dependencies are tracked by the formulas (see updateAnyBlankReferencingFormulas)
+		final BookSheetKey bsk = new BookSheetKey(bookIndex, sheetIndex);
+		_formulaCellCache.applyOperation(new IEntryOperation() {
+
+			public void processEntry(FormulaCellCacheEntry entry) {
+				if (entry.isUsingBlankCell(bsk, rowIndex, columnIndex) && result.add(entry)) {
+					entry.collectConsumingCells(result);
+				}
+			}
+		});
+		for (AreaIndexCacheEntry areaIndex : _areaIndexCache.values()) {
+			FormulaCellCacheEntry entry = areaIndex.getCacheEntry();
+			if (entry.isUsingBlankCell(bsk, rowIndex, columnIndex) && result.add(entry)) {
+				entry.collectConsumingCells(result);
+			}
+		}
 	}
 
 	public PlainValueCellCacheEntry getPlainValueEntry(int bookIndex, int sheetIndex,
@@ -179,12 +228,21 @@ final class EvaluationCache {
 		FormulaCellCacheEntry result = _formulaCellCache.get(cell);
 		if (result == null) {
 
-			result = new FormulaCellCacheEntry();
+			result = new FormulaCellCacheEntry(cell);
 			_formulaCellCache.put(cell, result);
 		}
 		return result;
 	}
 
+	public AreaIndexCacheEntry getOrCreateAreaIndexEntry(AreaIndexCacheEntry.Key key) {
+		AreaIndexCacheEntry result = _areaIndexCache.get(key);
+		if (result == null) {
+			result = new AreaIndexCacheEntry();
+			_areaIndexCache.put(key, result);
+		}
+		return result;
+	}
+
 	/**
 	 * Should be called whenever there are changes to input cells in the evaluated workbook.
 	 */
@@ -194,6 +252,7 @@ final class EvaluationCache {
 		}
 		_plainCellCache.clear();
 		_formulaCellCache.clear();
+		_areaIndexCache.clear();
 	}
 	public void notifyDeleteCell(int bookIndex, int sheetIndex, EvaluationCell cell) {
 
@@ -39,8 +39,23 @@ final class FormulaCellCacheEntry extends CellCacheEntry {
 
 	private FormulaUsedBlankCellSet _usedBlankCellGroup;
 
+	/** the formula cell or <code>null</code> for entries, which don't belong to a cell */
+	private final EvaluationCell _cell;
+
 	public FormulaCellCacheEntry() {
-		// leave fields un-set
+		this(null);
+	}
+
+	public FormulaCellCacheEntry(EvaluationCell cell) {
+		_cell = cell;
+	}
+
+	/**
+	 * @return the formula cell or <code>null</code>, if the entry doesn't belong to a cell,
+	 *  e.g. the entry of an {@link AreaIndexCacheEntry}
+	 */
+	public EvaluationCell getCell() {
+		return _cell;
 	}
 	
 	public boolean isInputSensitive() {
@@ -113,12 +128,14 @@ final class FormulaCellCacheEntry extends CellCacheEntry {
 		_usedBlankCellGroup = usedBlankAreas;
 	}
 
+	public boolean isUsingBlankCell(BookSheetKey bsk, int rowIndex, int columnIndex) {
+		return _usedBlankCellGroup != null && _usedBlankCellGroup.containsCell(bsk, rowIndex, columnIndex);
+	}
+
 	public void notifyUpdatedBlankCell(BookSheetKey bsk, int rowIndex, int columnIndex, IEvaluationListener evaluationListener) {
-		if (_usedBlankCellGroup != null) {
-			if (_usedBlankCellGroup.containsCell(bsk, rowIndex, columnIndex)) {
-				clearFormulaEntry();
-				recurseClearCachedFormulaResults(evaluationListener);
-			}
+		if (isUsingBlankCell(bsk, rowIndex, columnIndex)) {
+			clearFormulaEntry();
+			recurseClearCachedFormulaResults(evaluationListener);
 		}
 	}
 }
\ No newline at end of file
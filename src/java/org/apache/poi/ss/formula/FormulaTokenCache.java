@@ -0,0 +1,467 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.poi.ss.formula.ptg.AreaPtgBase;
+import org.apache.poi.ss.formula.ptg.OperandPtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.RefPtgBase;
+import org.apache.poi.util.Internal;
+
+/**
+ * A bounded LRU cache of parsed formulas, to avoid parsing the same formula over and over again
+ * when formulas are stored as text (e.g. in XSSF).<p>
+ *
+ * The formulas are keyed by their R1C1 representation, i.e. relative cell references are replaced
+ * by their offset to the formula cell. A formula copied down or across a sheet is therefore parsed
+ * only once and the other cells get a copy of the cached tokens with the relative references moved
+ * to their position.<p>
+ *
+ * A parsed formula is only reused, when the references found in the formula text are exactly the
+ * references of the parsed tokens. Other formulas, e.g. with structured references to tables, are
+ * parsed every time.<p>
+ *
+ * This class is thread-safe.
+ *
+ * @since POI 4.1.1
+ */
+@Internal
+public final class FormulaTokenCache {
+    /** the default number of cached formulas */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private static final int NONE = 0;
+    private static final int ABSOLUTE = 1;
+    private static final int RELATIVE = 2;
+
+    /** the reference components of a formula: row, row mode, column, column mode */
+    private static final int COMPONENT_SIZE = 4;
+
+    private static final int[] NO_COMPONENTS = {};
+
+    // a parsed reference is packed into a long: row + 1 (0 = none), column + 1 (0 = none), flags
+    private static final long ROW_RELATIVE_FLAG = 1L << 62;
+    private static final long COLUMN_RELATIVE_FLAG = 1L << 61;
+    private static final long COLUMN_FLAG = 1L << 60;
+
+    private final FormulaParsingWorkbook _workbook;
+    private final Map<String, Template> _templates;
+
+    /**
+     * @param workbook the workbook used to parse the formulas
+     * @param maxSize the maximum number of cached formulas
+     */
+    public FormulaTokenCache(FormulaParsingWorkbook workbook, final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The cache size must be positive, but had " + maxSize);
+        }
+        _workbook = workbook;
+        _templates = new LinkedHashMap<String, Template>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Template> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Parses a formula or gets it from the cache.
+     *
+     * @param formula the formula text
+     * @param formulaType the type of the formula
+     * @param sheetIndex the 0-based index of the sheet this formula belongs to
+     * @param rowIndex the 0-based row index of the formula cell
+     * @param columnIndex the 0-based column index of the formula cell
+     * @return the parsed formula tokens. The caller may modify the tokens, as they are not shared with the cache
+     * @throws FormulaParseException if the formula has incorrect syntax or is otherwise invalid
+     *
+     * @see FormulaParser#parse(String, FormulaParsingWorkbook, FormulaType, int, int)
+     */
+    public Ptg[] parse(String formula, FormulaType formulaType, int sheetIndex, int rowIndex, int columnIndex) {
+        StringBuilder key = new StringBuilder(formula.length() + 32);
+        key.append(formulaType.ordinal()).append('|').append(sheetIndex).append('|');
+        int[] components = normalise(formula, rowIndex, columnIndex, key);
+        if (components == null) {
+            return FormulaParser.parse(formula, _workbook, formulaType, sheetIndex, rowIndex);
+        }
+
+        String keyText = key.toString();
+        Template template;
+        synchronized (_templates) {
+            template = _templates.get(keyText);
+        }
+        if (template != null) {
+            Ptg[] ptgs = template.rebase(rowIndex, columnIndex);
+            return (ptgs != null) ? ptgs : FormulaParser.parse(formula, _workbook, formulaType, sheetIndex, rowIndex);
+        }
+
+        Ptg[] ptgs = FormulaParser.parse(formula, _workbook, formulaType, sheetIndex, rowIndex);
+        template = new Template(matches(ptgs, components) ? copy(ptgs) : null, components, rowIndex, columnIndex);
+        synchronized (_templates) {
+            _templates.put(keyText, template);
+        }
+        return ptgs;
+    }
+
+    /**
+     * Removes all cached formulas, e.g. after names or sheets of the workbook have been changed
+     */
+    public void clear() {
+        synchronized (_templates) {
+            _templates.clear();
+        }
+    }
+
+    /**
+     * @return the number of cached formulas
+     */
+    public int size() {
+        synchronized (_templates) {
+            return _templates.size();
+        }
+    }
+
+    private static final class Template {
+        /** the parsed formula or <code>null</code>, if the formula has to be parsed each time */
+        private final Ptg[] _ptgs;
+        private final int[] _components;
+        private final int _rowIndex;
+        private final int _columnIndex;
+
+        Template(Ptg[] ptgs, int[] components, int rowIndex, int columnIndex) {
+            _ptgs = ptgs;
+            _components = components;
+            _rowIndex = rowIndex;
+            _columnIndex = columnIndex;
+        }
+
+        Ptg[] rebase(int rowIndex, int columnIndex) {
+            if (_ptgs == null) {
+                return null;
+            }
+            int rowOffset = rowIndex - _rowIndex;
+            int columnOffset = columnIndex - _columnIndex;
+            Ptg[] result = copy(_ptgs);
+            int c = 0;
+            for (Ptg ptg : result) {
+                if (ptg instanceof RefPtgBase) {
+                    RefPtgBase ref = (RefPtgBase) ptg;
+                    if (_components[c + 1] == RELATIVE) {
+                        ref.setRow(ref.getRow() + rowOffset);
+                    }
+                    if (_components[c + 3] == RELATIVE) {
+                        ref.setColumn(ref.getColumn() + columnOffset);
+                    }
+                    c += COMPONENT_SIZE;
+                } else if (ptg instanceof AreaPtgBase) {
+                    AreaPtgBase area = (AreaPtgBase) ptg;
+                    if (_components[c + 1] == RELATIVE) {
+                        area.setFirstRow(area.getFirstRow() + rowOffset);
+                    }
+                    if (_components[c + 3] == RELATIVE) {
+                        area.setFirstColumn(area.getFirstColumn() + columnOffset);
+                    }
+                    c += COMPONENT_SIZE;
+                    if (_components[c + 1] == RELATIVE) {
+                        area.setLastRow(area.getLastRow() + rowOffset);
+                    }
+                    if (_components[c + 3] == RELATIVE) {
+                        area.setLastColumn(area.getLastColumn() + columnOffset);
+                    }
+                    c += COMPONENT_SIZE;
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Copies the mutable tokens, the other tokens are shared
+     */
+    private static Ptg[] copy(Ptg[] ptgs) {
+        Ptg[] result = new Ptg[ptgs.length];
+        for (int i = 0; i < ptgs.length; i++) {
+            Ptg ptg = ptgs[i];
+            result[i] = (ptg instanceof OperandPtg) ? ((OperandPtg) ptg).copy() : ptg;
+        }
+        return result;
+    }
+
+    /**
+     * Checks that the references of the tokens are the ones found in the formula text - in the same order
+     */
+    private static boolean matches(Ptg[] ptgs, int[] components) {
+        int c = 0;
+        for (Ptg ptg : ptgs) {
+            if (ptg instanceof RefPtgBase) {
+                RefPtgBase ref = (RefPtgBase) ptg;
+                if (c >= components.length
+                    || !matches(components, c, ref.getRow(), ref.isRowRelative(), ref.getColumn(), ref.isColRelative())) {
+                    return false;
+                }
+                c += COMPONENT_SIZE;
+            } else if (ptg instanceof AreaPtgBase) {
+                AreaPtgBase area = (AreaPtgBase) ptg;
+                if (c + COMPONENT_SIZE >= components.length
+                    || !matches(components, c, area.getFirstRow(), area.isFirstRowRelative(),
+                        area.getFirstColumn(), area.isFirstColRelative())
+                    || !matches(components, c + COMPONENT_SIZE, area.getLastRow(), area.isLastRowRelative(),
+                        area.getLastColumn(), area.isLastColRelative())) {
+                    return false;
+                }
+                c += 2 * COMPONENT_SIZE;
+            }
+        }
+        return c == components.length;
+    }
+
+    private static boolean matches(int[] components, int c, int row, boolean rowRelative, int column, boolean columnRelative) {
+        return matches(components[c], components[c + 1], row, rowRelative)
+            && matches(components[c + 2], components[c + 3], column, columnRelative);
+    }
+
+    private static boolean matches(int value, int mode, int actualValue, boolean actualRelative) {
+        switch (mode) {
+            case ABSOLUTE:
+                return !actualRelative && value == actualValue;
+            case RELATIVE:
+                return actualRelative && value == actualValue;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Appends the R1C1 representation of the formula to the key, i.e. replaces the cell references by
+     * their position relative to the formula cell.
+     *
+     * @return the references found in the formula or <code>null</code> if the formula can't be normalised
+     */
+    private static int[] normalise(String formula, int rowIndex, int columnIndex, StringBuilder key) {
+        int[] components = NO_COMPONENTS;
+        int count = 0;
+        int length = formula.length();
+        int i = 0;
+        while (i < length) {
+            char ch = formula.charAt(i);
+            int end;
+            if (ch == '"' || ch == '\'') {
+                // string literal or quoted sheet name - quotes are escaped by doubling them
+                end = i + 1;
+                while (true) {
+                    if (end >= length) {
+                        return null;
+                    }
+                    if (formula.charAt(end) == ch) {
+                        if (end + 1 < length && formula.charAt(end + 1) == ch) {
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    end++;
+                }
+                end++;
+                key.append(formula, i, end);
+            } else if (ch == '[') {
+                // external workbook or structured reference
+                int depth = 0;
+                end = i;
+                do {
+                    char c = formula.charAt(end++);
+                    if (c == '[') {
+                        depth++;
+                    } else if (c == ']') {
+                        depth--;
+                    }
+                } while (depth > 0 && end < length);
+                if (depth > 0) {
+                    return null;
+                }
+                key.append(formula, i, end);
+            } else if (isNameChar(ch)) {
+                end = nameEnd(formula, i);
+                int next = nextNonSpace(formula, end);
+                long ref = (next == '(' || next == '!') ? -1 : parseCellReference(formula, i, end);
+                if (ref != -1) {
+                    if (count + COMPONENT_SIZE > components.length) {
+                        components = Arrays.copyOf(components, Math.max(4 * COMPONENT_SIZE, 2 * components.length));
+                    }
+                    count = appendComponent(components, count, ref, rowIndex, columnIndex, key);
+                } else if (end < length && formula.charAt(end) == ':' && (ref = parseRange(formula, i, end)) != -1) {
+                    // whole column or row range, e.g. A:A or 1:1
+                    int rangeEnd = nameEnd(formula, end + 1);
+                    long ref2 = parseRange(formula, end + 1, rangeEnd);
+                    next = nextNonSpace(formula, rangeEnd);
+                    if (ref2 == -1 || (ref2 & COLUMN_FLAG) != (ref & COLUMN_FLAG) || next == '(' || next == '!') {
+                        key.append(formula, i, end);
+                    } else {
+                        if (count + 2 * COMPONENT_SIZE > components.length) {
+                            components = Arrays.copyOf(components, Math.max(4 * COMPONENT_SIZE, 2 * components.length));
+                        }
+                        count = appendComponent(components, count, ref, rowIndex, columnIndex, key);
+                        key.append(':');
+                        count = appendComponent(components, count, ref2, rowIndex, columnIndex, key);
+                        end = rangeEnd;
+                    }
+                } else {
+                    key.append(formula, i, end);
+                }
+            } else {
+                end = i + 1;
+                key.append(ch);
+            }
+            i = end;
+        }
+        return count == components.length ? components : Arrays.copyOf(components, count);
+    }
+
+    private static int appendComponent(int[] components, int count, long ref, int rowIndex, int columnIndex, StringBuilder key) {
+        int row = (int) (ref & 0xFFFFFFF) - 1;
+        int column = (int) ((ref >>> 28) & 0xFFFFFFF) - 1;
+        if (row == -1) {
+            components[count] = 0;
+            components[count + 1] = NONE;
+        } else if ((ref & ROW_RELATIVE_FLAG) != 0) {
+            components[count] = row;
+            components[count + 1] = RELATIVE;
+            key.append("R[").append(row - rowIndex).append(']');
+        } else {
+            components[count] = row;
+            components[count + 1] = ABSOLUTE;
+            key.append('R').append(row + 1);
+        }
+        if (column == -1) {
+            components[count + 2] = 0;
+            components[count + 3] = NONE;
+        } else if ((ref & COLUMN_RELATIVE_FLAG) != 0) {
+            components[count + 2] = column;
+            components[count + 3] = RELATIVE;
+            key.append("C[").append(column - columnIndex).append(']');
+        } else {
+            components[count + 2] = column;
+            components[count + 3] = ABSOLUTE;
+            key.append('C').append(column + 1);
+        }
+        return count + COMPONENT_SIZE;
+    }
+
+    /**
+     * Parses a cell reference like <code>$A1</code>
+     *
+     * @return the packed reference or -1, if the text is not a cell reference
+     */
+    private static long parseCellReference(String formula, int start, int end) {
+        int i = start;
+        boolean columnRelative = true;
+        if (i < end && formula.charAt(i) == '$') {
+            columnRelative = false;
+            i++;
+        }
+        int column = 0;
+        int letters = 0;
+        for (; i < end && isLetter(formula.charAt(i)); i++, letters++) {
+            column = column * 26 + (Character.toUpperCase(formula.charAt(i)) - 'A' + 1);
+        }
+        if (letters == 0 || letters > 3) {
+            return -1;
+        }
+        boolean rowRelative = true;
+        if (i < end && formula.charAt(i) == '$') {
+            rowRelative = false;
+            i++;
+        }
+        int row = 0;
+        int digits = 0;
+        for (; i < end && isDigit(formula.charAt(i)); i++, digits++) {
+            row = row * 10 + (formula.charAt(i) - '0');
+        }
+        if (i != end || digits == 0 || digits > 7 || row == 0) {
+            return -1;
+        }
+        return pack(row, column, rowRelative, columnRelative, 0);
+    }
+
+    /**
+     * Parses one side of a whole column or row range like <code>$A</code> or <code>1</code>
+     *
+     * @return the packed reference or -1, if the text is neither a column nor a row
+     */
+    private static long parseRange(String formula, int start, int end) {
+        int i = start;
+        boolean relative = true;
+        if (i < end && formula.charAt(i) == '$') {
+            relative = false;
+            i++;
+        }
+        if (i == end) {
+            return -1;
+        }
+        int value = 0;
+        int chars = 0;
+        if (isLetter(formula.charAt(i))) {
+            for (; i < end && isLetter(formula.charAt(i)); i++, chars++) {
+                value = value * 26 + (Character.toUpperCase(formula.charAt(i)) - 'A' + 1);
+            }
+            return (i != end || chars > 3) ? -1 : pack(0, value, false, relative, COLUMN_FLAG);
+        }
+        for (; i < end && isDigit(formula.charAt(i)); i++, chars++) {
+            value = value * 10 + (formula.charAt(i) - '0');
+        }
+        return (i != end || chars > 7 || value == 0) ? -1 : pack(value, 0, relative, false, 0);
+    }
+
+    private static long pack(int row, int column, boolean rowRelative, boolean columnRelative, long flags) {
+        return row | ((long) column << 28) | (rowRelative ? ROW_RELATIVE_FLAG : 0)
+            | (columnRelative ? COLUMN_RELATIVE_FLAG : 0) | flags;
+    }
+
+    private static int nameEnd(String formula, int start) {
+        int end = start;
+        while (end < formula.length() && isNameChar(formula.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static int nextNonSpace(String formula, int start) {
+        for (int i = start; i < formula.length(); i++) {
+            char ch = formula.charAt(i);
+            if (!Character.isWhitespace(ch)) {
+                return ch;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isNameChar(char ch) {
+        return Character.isLetterOrDigit(ch) || ch == '$' || ch == '_' || ch == '.' || ch == '\\' || ch == '?';
+    }
+
+    private static boolean isLetter(char ch) {
+        return (ch >= 'A' && ch <= 'Z') || (ch >= 'a' && ch <= 'z');
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+}
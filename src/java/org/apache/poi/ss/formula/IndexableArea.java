@@ -0,0 +1,58 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.util.function.Function;
+
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.util.Internal;
+
+/**
+ * A cell area of a workbook, for which the evaluator caches indexes of the cell values,
+ * e.g. to speed up repeated lookups (VLOOKUP, MATCH) in the same range.<p>
+ *
+ * The cached index is discarded, when one of the cells of the area is changed and the change
+ * has been notified to the evaluator (see {@link WorkbookEvaluator#notifyUpdateCell(EvaluationCell)}).
+ * Formulas using the index depend on all cells of the area.
+ *
+ * @since POI 4.1.1
+ */
+@Internal
+public interface IndexableArea {
+
+	/**
+	 * Returns the cached index of this area or creates it from the current cell values.
+	 *
+	 * @param indexFactory creates the index from the cell values in row-major order. The factory
+	 *  identifies the kind of index, i.e. the same instance should be used for all areas
+	 * @return the index or <code>null</code>, if the index is not available for this area,
+	 *  e.g. for areas spanning multiple sheets or for circular references
+	 */
+	<T> T getIndex(Function<ValueEval[], T> indexFactory);
+
+	/**
+	 * Like {@link #getIndex(Function)}, but the index is only created when it has been requested
+	 * for the same area before. This avoids building indexes for areas, which are evaluated just
+	 * once, e.g. the growing ranges of running totals like <code>SUM($A$1:A10)</code>.
+	 *
+	 * @param indexFactory creates the index from the cell values in row-major order
+	 * @return the index or <code>null</code>, if the index is not available for this area or
+	 *  the area hasn't been requested before
+	 */
+	<T> T getIndexIfReused(Function<ValueEval[], T> indexFactory);
+}
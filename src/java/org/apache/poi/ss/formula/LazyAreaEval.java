@@ -17,6 +17,8 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.function.Function;
+
 import org.apache.poi.ss.formula.eval.AreaEval;
 import org.apache.poi.ss.formula.eval.AreaEvalBase;
 import org.apache.poi.ss.formula.eval.ValueEval;
@@ -27,7 +29,7 @@ import org.apache.poi.ss.util.CellReference;
 /**
  * Provides Lazy Evaluation to 3D Ranges
  */
-final class LazyAreaEval extends AreaEvalBase {
+final class LazyAreaEval extends AreaEvalBase implements IndexableArea {
 	private final SheetRangeEvaluator _evaluator;
 
 	LazyAreaEval(AreaI ptg, SheetRangeEvaluator evaluator) {
@@ -74,6 +76,24 @@ final class LazyAreaEval extends AreaEvalBase {
 		return new LazyAreaEval(getFirstRow(), absColIx, getLastRow(), absColIx, _evaluator);
 	}
 
+	@Override
+	public <T> T getIndex(Function<ValueEval[], T> indexFactory) {
+		if (getFirstSheetIndex() != getLastSheetIndex()) {
+			return null;
+		}
+		SheetRefEvaluator sre = _evaluator.getSheetEvaluator(getFirstSheetIndex());
+		return sre.getAreaIndex(getFirstRow(), getFirstColumn(), getLastRow(), getLastColumn(), indexFactory, false);
+	}
+
+	@Override
+	public <T> T getIndexIfReused(Function<ValueEval[], T> indexFactory) {
+		if (getFirstSheetIndex() != getLastSheetIndex()) {
+			return null;
+		}
+		SheetRefEvaluator sre = _evaluator.getSheetEvaluator(getFirstSheetIndex());
+		return sre.getAreaIndex(getFirstRow(), getFirstColumn(), getLastRow(), getLastColumn(), indexFactory, true);
+	}
+
 	public String toString() {
 		CellReference crA = new CellReference(getFirstRow(), getFirstColumn());
 		CellReference crB = new CellReference(getLastRow(), getLastColumn());
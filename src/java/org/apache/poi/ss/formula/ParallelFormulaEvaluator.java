@@ -0,0 +1,682 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.formula.EvaluationWorkbook.ExternalSheet;
+import org.apache.poi.ss.formula.EvaluationWorkbook.ExternalSheetRange;
+import org.apache.poi.ss.formula.atp.AnalysisToolPak;
+import org.apache.poi.ss.formula.eval.ExternalNameEval;
+import org.apache.poi.ss.formula.eval.FunctionNameEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.function.FunctionMetadataRegistry;
+import org.apache.poi.ss.formula.ptg.AbstractFunctionPtg;
+import org.apache.poi.ss.formula.ptg.Area3DPtg;
+import org.apache.poi.ss.formula.ptg.Area3DPxg;
+import org.apache.poi.ss.formula.ptg.AreaNPtg;
+import org.apache.poi.ss.formula.ptg.AreaPtg;
+import org.apache.poi.ss.formula.ptg.AreaPtgBase;
+import org.apache.poi.ss.formula.ptg.ExpPtg;
+import org.apache.poi.ss.formula.ptg.NamePtg;
+import org.apache.poi.ss.formula.ptg.NameXPtg;
+import org.apache.poi.ss.formula.ptg.NameXPxg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.Ref3DPtg;
+import org.apache.poi.ss.formula.ptg.Ref3DPxg;
+import org.apache.poi.ss.formula.ptg.RefNPtg;
+import org.apache.poi.ss.formula.ptg.RefPtg;
+import org.apache.poi.ss.formula.ptg.TblPtg;
+import org.apache.poi.ss.formula.ptg.UnknownPtg;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.util.Beta;
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+
+/**
+ * Evaluates all formula cells of a workbook on multiple threads.
+ * <p>
+ * The precedents of each formula cell are extracted from its parsed formula tokens and the
+ * formula cells are arranged in levels, so that a formula only depends on formulas of lower
+ * levels. The levels are evaluated one after another, the cells within a level concurrently
+ * on a {@link ForkJoinPool}.
+ * <p>
+ * Cells which can't be scheduled safely are evaluated on the calling thread afterwards, in the
+ * same order as {@link BaseFormulaEvaluator#evaluateAllFormulaCells(Workbook)} would do. These are
+ * cells with dynamic references ({@code INDIRECT}, {@code OFFSET}), references to other workbooks,
+ * user defined functions, array formulas, circular references and all cells depending on them.
+ * Hence the cached results written to the cells are the same as with a single-threaded evaluation.
+ * <p>
+ * The workbook must not be modified while the formulas are evaluated. This is intended for HSSF and XSSF
+ * workbooks - SXSSF workbooks only provide the rows of the current window and should use the
+ * sequential evaluation instead.
+ *
+ * @since POI 4.1.1
+ */
+@Beta
+public final class ParallelFormulaEvaluator {
+    private static final POILogger LOG = POILogFactory.getLogger(ParallelFormulaEvaluator.class);
+
+    /** levels with fewer cells are evaluated on the calling thread */
+    private static final int MIN_PARALLEL_LEVEL_SIZE = 64;
+    /** number of cells evaluated by one fork-join task */
+    private static final int CHUNK_SIZE = 16;
+    /** maximum nesting of defined names, which are referring to other names */
+    private static final int MAX_NAME_DEPTH = 32;
+    /** level of cells, which are evaluated sequentially after the concurrent evaluation */
+    private static final int EXCLUDED = Integer.MAX_VALUE;
+
+    private static final int FUNCTION_INDEX_OFFSET = FunctionMetadataRegistry.lookupIndexByName("OFFSET");
+
+    private final Workbook _workbook;
+    private final BaseFormulaEvaluator _evaluator;
+
+    /**
+     * @param workbook the workbook, a new formula evaluator is created for it
+     */
+    public ParallelFormulaEvaluator(Workbook workbook) {
+        this(workbook, (BaseFormulaEvaluator)workbook.getCreationHelper().createFormulaEvaluator());
+    }
+
+    /**
+     * @param workbook the workbook
+     * @param evaluator the formula evaluator of the workbook, which writes the results to the cells
+     */
+    public ParallelFormulaEvaluator(Workbook workbook, BaseFormulaEvaluator evaluator) {
+        _workbook = workbook;
+        _evaluator = evaluator;
+    }
+
+    /**
+     * Evaluates all formula cells on the {@link ForkJoinPool#commonPool() common pool}
+     * and saves their results.
+     *
+     * @see BaseFormulaEvaluator#evaluateAllFormulaCells(Workbook)
+     */
+    public void evaluateAll() {
+        evaluateAll(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Evaluates all formula cells on the given pool and saves their results.
+     * The formula cells remain formula cells, other cells are not changed.
+     *
+     * @param pool the pool for the concurrent evaluation
+     *
+     * @see BaseFormulaEvaluator#evaluateAllFormulaCells(Workbook)
+     */
+    public void evaluateAll(ForkJoinPool pool) {
+        WorkbookEvaluator bookEvaluator = _evaluator._getWorkbookEvaluator();
+        bookEvaluator.clearAllCachedResultValues();
+
+        Map<Object, ValueEval> results = new ConcurrentHashMap<>();
+        try {
+            DependencyGraph graph = new DependencyGraph(bookEvaluator, _workbook);
+            graph.extractPrecedents(pool);
+            int[][] levels = graph.computeLevels();
+
+            Map<Thread, WorkbookEvaluator> workers = new ConcurrentHashMap<>();
+            for (int[] level : levels) {
+                if (level.length < MIN_PARALLEL_LEVEL_SIZE) {
+                    WorkbookEvaluator worker = getWorker(workers, bookEvaluator, results);
+                    for (int node : level) {
+                        evaluateCell(worker, graph.cells[node], results);
+                    }
+                } else {
+                    pool.invoke(new EvaluateTask(graph, level, 0, level.length, workers, bookEvaluator, results));
+                }
+            }
+
+            if (LOG.check(POILogger.DEBUG)) {
+                LOG.log(POILogger.DEBUG, "evaluated " + results.size() + " of " + graph.cells.length
+                    + " formula cells in " + levels.length + " levels concurrently");
+            }
+
+            // write the results in the usual order, the remaining cells are evaluated sequentially
+            bookEvaluator.setPrecalculatedResults(results);
+            BaseFormulaEvaluator.evaluateAllFormulaCells(_workbook, _evaluator);
+        } finally {
+            bookEvaluator.setPrecalculatedResults(null);
+            // the cached values of the sequentially evaluated cells lack the dependencies to the precalculated cells
+            bookEvaluator.clearAllCachedResultValues();
+        }
+    }
+
+    private static WorkbookEvaluator getWorker(Map<Thread, WorkbookEvaluator> workers,
+            WorkbookEvaluator bookEvaluator, Map<Object, ValueEval> results) {
+        return workers.computeIfAbsent(Thread.currentThread(), t -> bookEvaluator.createConcurrentEvaluator(results));
+    }
+
+    private static void evaluateCell(WorkbookEvaluator worker, EvaluationCell cell, Map<Object, ValueEval> results) {
+        try {
+            ValueEval value = worker.evaluate(cell);
+            if (value != null) {
+                results.put(cell.getIdentityKey(), value);
+            }
+        } catch (RuntimeException e) {
+            // the cell is evaluated again by the sequential pass, which reports the failure
+            LOG.log(POILogger.DEBUG, "concurrent evaluation failed, falling back to sequential evaluation", e);
+        }
+    }
+
+    private static final class EvaluateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final DependencyGraph graph;
+        private final int[] nodes;
+        private final int from, to;
+        private final Map<Thread, WorkbookEvaluator> workers;
+        private final WorkbookEvaluator bookEvaluator;
+        private final Map<Object, ValueEval> results;
+
+        EvaluateTask(DependencyGraph graph, int[] nodes, int from, int to, Map<Thread, WorkbookEvaluator> workers,
+                WorkbookEvaluator bookEvaluator, Map<Object, ValueEval> results) {
+            this.graph = graph;
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+            this.workers = workers;
+            this.bookEvaluator = bookEvaluator;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new EvaluateTask(graph, nodes, from, mid, workers, bookEvaluator, results),
+                    new EvaluateTask(graph, nodes, mid, to, workers, bookEvaluator, results));
+                return;
+            }
+            WorkbookEvaluator worker = getWorker(workers, bookEvaluator, results);
+            for (int i = from; i < to; i++) {
+                evaluateCell(worker, graph.cells[nodes[i]], results);
+            }
+        }
+    }
+
+    private static final class ExtractTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final DependencyGraph graph;
+        private final int from, to;
+
+        ExtractTask(DependencyGraph graph, int from, int to) {
+            this.graph = graph;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK_SIZE * 4) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ExtractTask(graph, from, mid), new ExtractTask(graph, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                graph.extractPrecedents(i);
+            }
+        }
+    }
+
+    /**
+     * The formula cells of a workbook and the formula cells they refer to.
+     * The cells are ordered by sheet, column and row, so the formula cells
+     * within an area of a sheet column are a contiguous range of node ids.
+     */
+    private static final class DependencyGraph {
+        private final WorkbookEvaluator bookEvaluator;
+        private final EvaluationWorkbook evalWorkbook;
+
+        /** the formula cells by node id */
+        private final EvaluationCell[] cells;
+        private final int[] sheetIndexes;
+        private final int[] rows;
+        /** the sorted columns with formula cells by sheet */
+        private final int[][] columns;
+        /** the first node id of each column by sheet, with an additional end entry */
+        private final int[][] columnStarts;
+        /** the precedents as pairs of node ids [from, to) - <code>null</code> if they can't be determined */
+        private final int[][] precedents;
+
+        DependencyGraph(WorkbookEvaluator bookEvaluator, Workbook workbook) {
+            this.bookEvaluator = bookEvaluator;
+            this.evalWorkbook = bookEvaluator.getWorkbook();
+
+            // initialize the lazily populated caches before they are accessed concurrently
+            if (evalWorkbook instanceof FormulaParsingWorkbook
+                    && evalWorkbook.getSpreadsheetVersion() == SpreadsheetVersion.EXCEL2007) {
+                ((FormulaParsingWorkbook)evalWorkbook).getTable("");
+            }
+
+            int sheetCount = workbook.getNumberOfSheets();
+            EvaluationSheet[] evalSheets = new EvaluationSheet[sheetCount];
+            long[][] keys = new long[sheetCount][];
+            int count = 0;
+            for (int i = 0; i < sheetCount; i++) {
+                evalSheets[i] = evalWorkbook.getSheet(i);
+                evalSheets[i].getCell(0, 0);
+
+                long[] sheetKeys = new long[16];
+                int formulaCount = 0;
+                for (Row r : workbook.getSheetAt(i)) {
+                    for (Cell c : r) {
+                        if (c.getCellType() == CellType.FORMULA) {
+                            if (formulaCount == sheetKeys.length) {
+                                sheetKeys = Arrays.copyOf(sheetKeys, sheetKeys.length * 2);
+                            }
+                            sheetKeys[formulaCount++] = ((long)c.getColumnIndex() << 32) | c.getRowIndex();
+                        }
+                    }
+                }
+                keys[i] = Arrays.copyOf(sheetKeys, formulaCount);
+                Arrays.sort(keys[i]);
+                count += formulaCount;
+            }
+
+            cells = new EvaluationCell[count];
+            sheetIndexes = new int[count];
+            rows = new int[count];
+            columns = new int[sheetCount][];
+            columnStarts = new int[sheetCount][];
+            precedents = new int[count][];
+
+            int node = 0;
+            for (int i = 0; i < sheetCount; i++) {
+                int[] cols = new int[keys[i].length];
+                int[] starts = new int[keys[i].length + 1];
+                int colCount = 0;
+                for (long key : keys[i]) {
+                    int col = (int)(key >>> 32);
+                    int row = (int)key;
+                    if (colCount == 0 || cols[colCount - 1] != col) {
+                        cols[colCount] = col;
+                        starts[colCount] = node;
+                        colCount++;
+                    }
+                    cells[node] = evalSheets[i].getCell(row, col);
+                    sheetIndexes[node] = i;
+                    rows[node] = row;
+                    node++;
+                }
+                starts[colCount] = node;
+                columns[i] = Arrays.copyOf(cols, colCount);
+                columnStarts[i] = Arrays.copyOf(starts, colCount + 1);
+            }
+        }
+
+        void extractPrecedents(ForkJoinPool pool) {
+            if (cells.length > 0) {
+                pool.invoke(new ExtractTask(this, 0, cells.length));
+            }
+        }
+
+        void extractPrecedents(int node) {
+            EvaluationCell cell = cells[node];
+            if (cell.isPartOfArrayFormulaGroup()) {
+                return;
+            }
+            try {
+                int sheetIndex = sheetIndexes[node];
+                OperationEvaluationContext ec = new OperationEvaluationContext(bookEvaluator, evalWorkbook,
+                        sheetIndex, cell.getRowIndex(), cell.getColumnIndex(), null);
+                IntList segments = new IntList();
+                if (addPrecedents(evalWorkbook.getFormulaTokens(cell), ec, segments, 0)) {
+                    precedents[node] = segments.toArray();
+                }
+            } catch (RuntimeException e) {
+                // the formula is evaluated sequentially
+                LOG.log(POILogger.DEBUG, "unable to determine the precedents of a formula", e);
+            }
+        }
+
+        /**
+         * @return <code>false</code>, if the referenced cells can't be determined
+         */
+        private boolean addPrecedents(Ptg[] ptgs, OperationEvaluationContext ec, IntList segments, int depth) {
+            for (Ptg ptg : ptgs) {
+                if (ptg instanceof AbstractFunctionPtg) {
+                    int index = ((AbstractFunctionPtg)ptg).getFunctionIndex();
+                    if (index == FunctionMetadataRegistry.FUNCTION_INDEX_INDIRECT || index == FUNCTION_INDEX_OFFSET) {
+                        return false;
+                    }
+                } else if (ptg instanceof NamePtg) {
+                    if (!addNamePrecedents(evalWorkbook.getName((NamePtg)ptg), ec, segments, depth)) {
+                        return false;
+                    }
+                } else if (ptg instanceof NameXPtg) {
+                    NameXPtg nameXPtg = (NameXPtg)ptg;
+                    if (!isLocal(evalWorkbook.getExternalSheet(nameXPtg.getSheetRefIndex()))
+                        || !addNameXPrecedents(ec.getNameXEval(nameXPtg), ec, segments, depth)) {
+                        return false;
+                    }
+                } else if (ptg instanceof NameXPxg) {
+                    NameXPxg nameXPxg = (NameXPxg)ptg;
+                    ExternalSheet externalSheet = evalWorkbook.getExternalSheet(
+                        nameXPxg.getSheetName(), null, nameXPxg.getExternalWorkbookNumber());
+                    if (!isLocal(externalSheet) || !addNameXPrecedents(ec.getNameXEval(nameXPxg), ec, segments, depth)) {
+                        return false;
+                    }
+                } else if (ptg instanceof Ref3DPtg) {
+                    Ref3DPtg rptg = (Ref3DPtg)ptg;
+                    ExternalSheet externalSheet = evalWorkbook.getExternalSheet(rptg.getExternSheetIndex());
+                    if (!addArea(externalSheet, rptg.getRow(), rptg.getColumn(), rptg.getRow(), rptg.getColumn(), segments)) {
+                        return false;
+                    }
+                } else if (ptg instanceof Ref3DPxg) {
+                    Ref3DPxg rptg = (Ref3DPxg)ptg;
+                    ExternalSheet externalSheet = evalWorkbook.getExternalSheet(
+                        rptg.getSheetName(), rptg.getLastSheetName(), rptg.getExternalWorkbookNumber());
+                    if (!addArea(externalSheet, rptg.getRow(), rptg.getColumn(), rptg.getRow(), rptg.getColumn(), segments)) {
+                        return false;
+                    }
+                } else if (ptg instanceof Area3DPtg) {
+                    Area3DPtg aptg = (Area3DPtg)ptg;
+                    if (!addArea(evalWorkbook.getExternalSheet(aptg.getExternSheetIndex()), aptg, segments)) {
+                        return false;
+                    }
+                } else if (ptg instanceof Area3DPxg) {
+                    Area3DPxg aptg = (Area3DPxg)ptg;
+                    ExternalSheet externalSheet = evalWorkbook.getExternalSheet(
+                        aptg.getSheetName(), aptg.getLastSheetName(), aptg.getExternalWorkbookNumber());
+                    if (!addArea(externalSheet, aptg, segments)) {
+                        return false;
+                    }
+                } else if (ptg instanceof RefPtg) {
+                    RefPtg rptg = (RefPtg)ptg;
+                    addArea(ec.getSheetIndex(), rptg.getRow(), rptg.getColumn(), rptg.getRow(), rptg.getColumn(), segments);
+                } else if (ptg instanceof AreaPtg) {
+                    AreaPtg aptg = (AreaPtg)ptg;
+                    addArea(ec.getSheetIndex(), aptg.getFirstRow(), aptg.getFirstColumn(),
+                        aptg.getLastRow(), aptg.getLastColumn(), segments);
+                } else if (ptg instanceof ExpPtg || ptg instanceof TblPtg || ptg instanceof UnknownPtg
+                        || ptg instanceof RefNPtg || ptg instanceof AreaNPtg) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean addNamePrecedents(EvaluationName name, OperationEvaluationContext ec, IntList segments, int depth) {
+            if (name == null) {
+                return false;
+            }
+            if (name.isFunctionName()) {
+                return isBuiltinFunction(name.getNameText());
+            }
+            if (!name.hasFormula() || depth >= MAX_NAME_DEPTH) {
+                return false;
+            }
+            return addPrecedents(name.getNameDefinition(), ec, segments, depth + 1);
+        }
+
+        private boolean addNameXPrecedents(ValueEval eval, OperationEvaluationContext ec, IntList segments, int depth) {
+            if (eval instanceof ExternalNameEval) {
+                return addNamePrecedents(((ExternalNameEval)eval).getName(), ec, segments, depth);
+            }
+            return eval instanceof FunctionNameEval && isBuiltinFunction(((FunctionNameEval)eval).getFunctionName());
+        }
+
+        private static boolean isBuiltinFunction(String name) {
+            // user defined functions might access any cell
+            return AnalysisToolPak.isATPFunction(name) || FunctionMetadataRegistry.getFunctionByName(name) != null;
+        }
+
+        private static boolean isLocal(ExternalSheet externalSheet) {
+            return externalSheet == null || externalSheet.getWorkbookName() == null;
+        }
+
+        private boolean addArea(ExternalSheet externalSheet, AreaPtgBase aptg, IntList segments) {
+            return addArea(externalSheet, aptg.getFirstRow(), aptg.getFirstColumn(), aptg.getLastRow(), aptg.getLastColumn(), segments);
+        }
+
+        /**
+         * @see OperationEvaluationContext#createExternSheetRefEvaluator(ExternalSheet)
+         */
+        private boolean addArea(ExternalSheet externalSheet, int firstRow, int firstCol, int lastRow, int lastCol, IntList segments) {
+            if (!isLocal(externalSheet)) {
+                return false;
+            }
+            int firstSheet = 0;
+            int lastSheet = -1;
+            if (externalSheet != null) {
+                firstSheet = evalWorkbook.getSheetIndex(externalSheet.getSheetName());
+                if (externalSheet instanceof ExternalSheetRange) {
+                    lastSheet = evalWorkbook.getSheetIndex(((ExternalSheetRange)externalSheet).getLastSheetName());
+                }
+            }
+            if (lastSheet == -1) {
+                lastSheet = firstSheet;
+            }
+            if (firstSheet < 0 || lastSheet >= columns.length) {
+                return false;
+            }
+            for (int sheet = firstSheet; sheet <= lastSheet; sheet++) {
+                addArea(sheet, firstRow, firstCol, lastRow, lastCol, segments);
+            }
+            return true;
+        }
+
+        private void addArea(int sheetIndex, int firstRow, int firstCol, int lastRow, int lastCol, IntList segments) {
+            int[] cols = columns[sheetIndex];
+            int[] starts = columnStarts[sheetIndex];
+            int minRow = Math.min(firstRow, lastRow), maxRow = Math.max(firstRow, lastRow);
+            int minCol = Math.min(firstCol, lastCol), maxCol = Math.max(firstCol, lastCol);
+            for (int ci = lowerBound(cols, 0, cols.length, minCol); ci < cols.length && cols[ci] <= maxCol; ci++) {
+                int from = lowerBound(rows, starts[ci], starts[ci + 1], minRow);
+                int to = lowerBound(rows, from, starts[ci + 1], maxRow + 1);
+                if (from < to) {
+                    segments.add(from);
+                    segments.add(to);
+                }
+            }
+        }
+
+        /**
+         * @return the first index within [from, to) whose value is not less than the key
+         */
+        private static int lowerBound(int[] values, int from, int to, int key) {
+            int lo = from, hi = to;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] < key) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * Assigns each cell the level 1 + the maximum level of its precedents by a depth-first search.
+         *
+         * @return the node ids by level, excluding cells which are evaluated sequentially
+         */
+        int[][] computeLevels() {
+            final byte NEW = 0, IN_PROGRESS = 1, DONE = 2;
+            int n = cells.length;
+            byte[] state = new byte[n];
+            int[] level = new int[n];
+            int[] stack = new int[n];
+            int[] segmentPos = new int[n];
+            LevelTree tree = new LevelTree(n);
+
+            for (int root = 0; root < n; root++) {
+                if (state[root] != NEW) {
+                    continue;
+                }
+                int sp = 0;
+                stack[sp++] = root;
+                state[root] = IN_PROGRESS;
+                while (sp > 0) {
+                    int node = stack[sp - 1];
+                    int[] segments = precedents[node];
+                    boolean cyclic = (segments == null);
+                    boolean descended = false;
+                    while (!cyclic && segmentPos[node] < segments.length) {
+                        int pos = segmentPos[node];
+                        int open = tree.firstOpen(segments[pos], segments[pos + 1]);
+                        if (open < 0) {
+                            segmentPos[node] += 2;
+                        } else if (state[open] == IN_PROGRESS) {
+                            cyclic = true;
+                        } else {
+                            state[open] = IN_PROGRESS;
+                            stack[sp++] = open;
+                            descended = true;
+                            break;
+                        }
+                    }
+                    if (descended) {
+                        continue;
+                    }
+
+                    int nodeLevel = EXCLUDED;
+                    if (!cyclic) {
+                        int max = -1;
+                        for (int i = 0; i < segments.length; i += 2) {
+                            max = Math.max(max, tree.rangeMax(segments[i], segments[i + 1]));
+                        }
+                        nodeLevel = (max == EXCLUDED) ? EXCLUDED : max + 1;
+                    }
+                    level[node] = nodeLevel;
+                    tree.close(node, nodeLevel);
+                    state[node] = DONE;
+                    sp--;
+                }
+            }
+
+            int levelCount = 0;
+            for (int l : level) {
+                if (l != EXCLUDED) {
+                    levelCount = Math.max(levelCount, l + 1);
+                }
+            }
+            int[] sizes = new int[levelCount];
+            for (int l : level) {
+                if (l != EXCLUDED) {
+                    sizes[l]++;
+                }
+            }
+            int[][] levels = new int[levelCount][];
+            for (int l = 0; l < levelCount; l++) {
+                levels[l] = new int[sizes[l]];
+                sizes[l] = 0;
+            }
+            for (int node = 0; node < n; node++) {
+                int l = level[node];
+                if (l != EXCLUDED) {
+                    levels[l][sizes[l]++] = node;
+                }
+            }
+            return levels;
+        }
+    }
+
+    /**
+     * Segment tree over the node ids, providing the maximum level of the closed nodes
+     * and the first node, which isn't closed yet, within a range of node ids.
+     */
+    private static final class LevelTree {
+        private final int size;
+        private final int[] max;
+        private final int[] open;
+
+        LevelTree(int n) {
+            int s = 1;
+            while (s < n) {
+                s <<= 1;
+            }
+            size = s;
+            max = new int[2 * s];
+            open = new int[2 * s];
+            Arrays.fill(max, -1);
+            for (int i = 0; i < n; i++) {
+                open[s + i] = 1;
+            }
+            for (int i = s - 1; i > 0; i--) {
+                open[i] = open[2 * i] + open[2 * i + 1];
+            }
+        }
+
+        void close(int node, int level) {
+            int i = size + node;
+            max[i] = level;
+            open[i] = 0;
+            for (i >>>= 1; i > 0; i >>>= 1) {
+                max[i] = Math.max(max[2 * i], max[2 * i + 1]);
+                open[i] = open[2 * i] + open[2 * i + 1];
+            }
+        }
+
+        int rangeMax(int from, int to) {
+            int result = -1;
+            for (int lo = from + size, hi = to + size; lo < hi; lo >>>= 1, hi >>>= 1) {
+                if ((lo & 1) == 1) {
+                    result = Math.max(result, max[lo++]);
+                }
+                if ((hi & 1) == 1) {
+                    result = Math.max(result, max[--hi]);
+                }
+            }
+            return result;
+        }
+
+        int firstOpen(int from, int to) {
+            return firstOpen(1, 0, size, from, to);
+        }
+
+        private int firstOpen(int i, int nodeFrom, int nodeTo, int from, int to) {
+            if (open[i] == 0 || to <= nodeFrom || nodeTo <= from) {
+                return -1;
+            }
+            if (nodeTo - nodeFrom == 1) {
+                return nodeFrom;
+            }
+            int mid = (nodeFrom + nodeTo) >>> 1;
+            int result = firstOpen(2 * i, nodeFrom, mid, from, to);
+            return (result >= 0) ? result : firstOpen(2 * i + 1, mid, nodeTo, from, to);
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
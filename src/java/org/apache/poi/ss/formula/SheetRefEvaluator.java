@@ -17,6 +17,8 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.function.Function;
+
 import org.apache.poi.ss.formula.eval.ValueEval;
 import org.apache.poi.ss.formula.ptg.FuncVarPtg;
 import org.apache.poi.ss.formula.ptg.Ptg;
@@ -48,6 +50,16 @@ final class SheetRefEvaluator {
 		return _bookEvaluator.evaluateReference(getSheet(), _sheetIndex, rowIndex, columnIndex, _tracker);
 	}
 
+	/**
+	 * @see IndexableArea#getIndex(Function)
+	 * @see IndexableArea#getIndexIfReused(Function)
+	 */
+	public <T> T getAreaIndex(int firstRow, int firstColumn, int lastRow, int lastColumn,
+			Function<ValueEval[], T> indexFactory, boolean onlyIfReused) {
+		return _bookEvaluator.getAreaIndex(getSheet(), _sheetIndex, firstRow, firstColumn,
+				lastRow, lastColumn, indexFactory, onlyIfReused, _tracker);
+	}
+
 	private EvaluationSheet getSheet() {
 		if (_sheet == null) {
 			_sheet = _bookEvaluator.getSheet(_sheetIndex);
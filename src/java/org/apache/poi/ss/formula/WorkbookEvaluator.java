@@ -17,11 +17,17 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 import java.util.TreeSet;
 
@@ -57,6 +63,9 @@ public final class WorkbookEvaluator {
     
     private static final POILogger LOG = POILogFactory.getLogger(WorkbookEvaluator.class);
 
+    /** marks cached area indexes, which couldn't be created */
+    private static final Object UNINDEXABLE_AREA = new Object();
+
     private final EvaluationWorkbook _workbook;
     private EvaluationCache _cache;
     /** part of cache entry key (useful when evaluating multiple workbooks) */
@@ -71,6 +80,12 @@ public final class WorkbookEvaluator {
 
     private boolean _ignoreMissingWorkbooks;
 
+    /**
+     * formula results, which have been calculated beforehand and are used instead of evaluating
+     * the formula - or <code>null</code> - see {@link ParallelFormulaEvaluator}
+     */
+    private Map<Object, ValueEval> _precalculatedResults;
+
     /**
      * whether print detailed messages about the next formula evaluation
      */
@@ -170,6 +185,28 @@ public final class WorkbookEvaluator {
         return _evaluationListener;
     }
 
+    /**
+     * Creates an evaluator for the same workbook, which has its own evaluation cache
+     * and uses the given formula results. This is used to evaluate cells concurrently.
+     *
+     * @param precalculatedResults the formula results by the identity key of their cells,
+     *  the map needs to be safe for concurrent access
+     */
+    /* package */ WorkbookEvaluator createConcurrentEvaluator(Map<Object, ValueEval> precalculatedResults) {
+        WorkbookEvaluator evaluator = new WorkbookEvaluator(_workbook, null, _stabilityClassifier, null);
+        evaluator._ignoreMissingWorkbooks = _ignoreMissingWorkbooks;
+        evaluator._precalculatedResults = precalculatedResults;
+        return evaluator;
+    }
+
+    /**
+     * @param precalculatedResults the formula results by the identity key of their cells,
+     *  which are used instead of evaluating the formulas, or <code>null</code> to evaluate all formulas
+     */
+    /* package */ void setPrecalculatedResults(Map<Object, ValueEval> precalculatedResults) {
+        _precalculatedResults = precalculatedResults;
+    }
+
     /**
      * Should be called whenever there are changes to input cells in the evaluated workbook.
      * Failure to call this method after changing cell values will cause incorrect behaviour
@@ -189,6 +226,60 @@ public final class WorkbookEvaluator {
         int sheetIndex = getSheetIndex(cell.getSheet());
         _cache.notifyUpdateCell(_workbookIx, sheetIndex, cell);
     }
+    /**
+     * Notifies the cell value cache of the given changed (value or formula) cells and recalculates
+     * the affected formulas, i.e. the changed formula cells and the formula cells, which depend on
+     * the changed cells directly or indirectly. The costs are proportional to the number of affected
+     * formulas instead of all formulas of the workbook.<p>
+     *
+     * Only formulas with a cached result are recalculated. Dependent formulas, which haven't been
+     * evaluated since the last change of their inputs, are evaluated on demand as usual.
+     *
+     * @param updatedCells the cells, which have been changed
+     * @return the recalculated formula cells, whose results differ from the previously cached results,
+     *  in the order of the recalculation. Changed formula cells without a cached result are always included.
+     *
+     * @since POI 4.1.1
+     */
+    public List<EvaluationCell> recalculate(Collection<? extends EvaluationCell> updatedCells) {
+        Set<FormulaCellCacheEntry> affected = new LinkedHashSet<>();
+        for (EvaluationCell cell : updatedCells) {
+            _cache.collectAffectedFormulas(_workbookIx, getSheetIndex(cell.getSheet()), cell, affected);
+        }
+
+        // the formula cells to recalculate and their previous results, by the identity keys of the cells
+        Map<Object, EvaluationCell> formulaCells = new LinkedHashMap<>();
+        Map<Object, ValueEval> previousResults = new HashMap<>();
+        for (FormulaCellCacheEntry entry : affected) {
+            EvaluationCell cell = entry.getCell();
+            if (cell != null) {
+                formulaCells.put(cell.getIdentityKey(), cell);
+                previousResults.put(cell.getIdentityKey(), entry.getValue());
+            }
+        }
+
+        for (EvaluationCell cell : updatedCells) {
+            notifyUpdateCell(cell);
+            if (cell.getCellType() == CellType.FORMULA) {
+                // the updated cell replaces a stale cell of a previous evaluation
+                formulaCells.put(cell.getIdentityKey(), cell);
+            }
+        }
+
+        List<EvaluationCell> result = new ArrayList<>();
+        for (EvaluationCell cell : formulaCells.values()) {
+            if (cell.getCellType() != CellType.FORMULA) {
+                // changed to a plain value
+                continue;
+            }
+            ValueEval value = evaluate(cell);
+            if (!CellCacheEntry.areValuesEqual(previousResults.get(cell.getIdentityKey()), value)) {
+                result.add(cell);
+            }
+        }
+        return result;
+    }
+
     /**
      * Should be called to tell the cell value cache that the specified cell has just been
      * deleted.
@@ -255,6 +346,13 @@ public final class WorkbookEvaluator {
             return result;
         }
 
+        if (_precalculatedResults != null) {
+            ValueEval result = _precalculatedResults.get(srcCell.getIdentityKey());
+            if (result != null) {
+                return result;
+            }
+        }
+
         FormulaCellCacheEntry cce = _cache.getOrCreateFormulaCellEntry(srcCell);
         if (shouldCellDependencyBeRecorded || cce.isInputSensitive()) {
             tracker.acceptFormulaDependency(cce);
@@ -791,6 +889,66 @@ public final class WorkbookEvaluator {
         EvaluationCell cell = sheet.getCell(rowIndex, columnIndex);
         return evaluateAny(cell, sheetIndex, rowIndex, columnIndex, tracker);
     }
+
+    /**
+     * Returns the cached index of a cell area or creates it from the values of the cells.
+     * The cells of the area are recorded as inputs of the currently evaluated formula.
+     *
+     * @return the index or <code>null</code> if the area can't be indexed, e.g. because
+     *  it takes part in a circular reference
+     *
+     * @see IndexableArea
+     */
+    /* package */ <T> T getAreaIndex(EvaluationSheet sheet, int sheetIndex, int firstRow, int firstColumn,
+            int lastRow, int lastColumn, java.util.function.Function<ValueEval[], T> indexFactory,
+            boolean onlyIfReused, EvaluationTracker tracker) {
+        AreaIndexCacheEntry entry = _cache.getOrCreateAreaIndexEntry(new AreaIndexCacheEntry.Key(
+                _workbookIx, sheetIndex, firstRow, firstColumn, lastRow, lastColumn, indexFactory));
+        boolean requestedBefore = entry.markRequested();
+        if (entry.getIndex() == null) {
+            if (onlyIfReused && !requestedBefore) {
+                // the caller evaluates the cells one by one and thereby tracks its dependencies
+                return null;
+            }
+            FormulaCellCacheEntry cce = entry.getCacheEntry();
+            if (!tracker.startEvaluate(cce)) {
+                return null;
+            }
+            try {
+                entry.setIndex(createAreaIndex(sheet, sheetIndex, firstRow, firstColumn, lastRow, lastColumn, indexFactory, tracker));
+                tracker.updateCacheResult(BoolEval.TRUE);
+            } finally {
+                tracker.endEvaluate(cce);
+            }
+        }
+        tracker.acceptFormulaDependency(entry.getCacheEntry());
+        Object index = entry.getIndex();
+        @SuppressWarnings("unchecked")
+        T result = (index == UNINDEXABLE_AREA) ? null : (T)index;
+        return result;
+    }
+
+    private Object createAreaIndex(EvaluationSheet sheet, int sheetIndex, int firstRow, int firstColumn,
+            int lastRow, int lastColumn, java.util.function.Function<ValueEval[], ?> indexFactory, EvaluationTracker tracker) {
+        int width = lastColumn - firstColumn + 1;
+        ValueEval[] values = new ValueEval[(lastRow - firstRow + 1) * width];
+        try {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = evaluateReference(sheet, sheetIndex, firstRow + i / width, firstColumn + i % width, tracker);
+                if (values[i] == ErrorEval.CIRCULAR_REF_ERROR) {
+                    // values within a circular reference depend on the evaluation order
+                    return UNINDEXABLE_AREA;
+                }
+            }
+            return indexFactory.apply(values);
+        } catch (RuntimeException e) {
+            // the caller evaluates the cells one by one, which reports any relevant failure
+            if (isDebugLogEnabled()) {
+                logDebug("Unable to index area of sheet " + getSheetName(sheetIndex) + ": " + e);
+            }
+            return UNINDEXABLE_AREA;
+        }
+    }
     public FreeRefFunction findUserDefinedFunction(String functionName) {
         return _udfFinder.findFunction(functionName);
     }
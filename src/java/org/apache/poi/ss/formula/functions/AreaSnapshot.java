@@ -0,0 +1,120 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.ss.formula.functions;
+
+import java.util.function.Function;
+
+import org.apache.poi.ss.formula.IndexableArea;
+import org.apache.poi.ss.formula.eval.AreaEval;
+import org.apache.poi.ss.formula.eval.BlankEval;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.NumericValueEval;
+import org.apache.poi.ss.formula.eval.StringValueEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+
+/**
+ * Primitive copy of the values of an area, which is cached by the evaluator as long as the
+ * cells of the area don't change. Aggregate functions iterate over the arrays of the snapshot
+ * instead of evaluating the cells one by one via {@link AreaEval#getRelativeValue(int, int)}.<p>
+ *
+ * The values are stored in row-major order, i.e. the value of the relative cell (r, c) has
+ * the index <code>r * width + c</code>.
+ *
+ * @since POI 4.1.1
+ */
+final class AreaSnapshot {
+	static final Function<ValueEval[], AreaSnapshot> FACTORY = AreaSnapshot::new;
+
+	/** smaller areas are cheaper to evaluate cell by cell than to snapshot */
+	private static final int MIN_CELL_COUNT = 64;
+
+	public static final byte BLANK = 0;
+	public static final byte NUMBER = 1;
+	public static final byte BOOLEAN = 2;
+	public static final byte STRING = 3;
+	public static final byte ERROR = 4;
+
+	private final ValueEval[] _values;
+	/** the numeric values, booleans as 1 or 0 */
+	private final double[] _numbers;
+	private final byte[] _types;
+
+	private AreaSnapshot(ValueEval[] values) {
+		_values = values;
+		_numbers = new double[values.length];
+		_types = new byte[values.length];
+		for (int i = 0; i < values.length; i++) {
+			ValueEval ve = values[i];
+			if (ve instanceof BoolEval) {
+				_types[i] = BOOLEAN;
+				_numbers[i] = ((BoolEval) ve).getNumberValue();
+			} else if (ve instanceof NumericValueEval) {
+				_types[i] = NUMBER;
+				_numbers[i] = ((NumericValueEval) ve).getNumberValue();
+			} else if (ve instanceof StringValueEval) {
+				_types[i] = STRING;
+			} else if (ve instanceof ErrorEval) {
+				_types[i] = ERROR;
+			} else if (ve == BlankEval.instance) {
+				_types[i] = BLANK;
+			} else {
+				// the evaluator falls back to the cell by cell evaluation
+				throw new IllegalArgumentException("Unexpected value eval class (" + ve + ")");
+			}
+		}
+	}
+
+	/**
+	 * @return the snapshot of the area or <code>null</code>, if the argument isn't a single sheet area
+	 *  of the evaluator, is too small or hasn't been evaluated before
+	 */
+	public static AreaSnapshot of(ValueEval eval) {
+		if (!(eval instanceof AreaEval) || !(eval instanceof IndexableArea)) {
+			return null;
+		}
+		AreaEval ae = (AreaEval) eval;
+		if ((long) ae.getWidth() * ae.getHeight() < MIN_CELL_COUNT) {
+			return null;
+		}
+		return ((IndexableArea) eval).getIndexIfReused(FACTORY);
+	}
+
+	public int getSize() {
+		return _types.length;
+	}
+
+	/**
+	 * @return one of {@link #BLANK}, {@link #NUMBER}, {@link #BOOLEAN}, {@link #STRING} or {@link #ERROR}
+	 */
+	public byte getType(int index) {
+		return _types[index];
+	}
+
+	/**
+	 * @return the numeric value for {@link #NUMBER} and {@link #BOOLEAN} cells, 0 otherwise
+	 */
+	public double getNumber(int index) {
+		return _numbers[index];
+	}
+
+	public ValueEval getValue(int index) {
+		return _values[index];
+	}
+}
@@ -123,6 +123,12 @@ import org.apache.poi.ss.formula.functions.Countif.ErrorMatcher;
      * @return the computed value
      */
     private static double aggregateMatchingCells(AreaEval sumRange, AreaEval[] ranges, I_MatchPredicate[] predicates) {
+        AreaSnapshot[] snapshots = getSnapshots(ranges);
+        AreaSnapshot sumSnapshot = (snapshots == null || sumRange == null) ? null : AreaSnapshot.of(sumRange);
+        if (snapshots != null && (sumRange == null || sumSnapshot != null)) {
+            return aggregateMatchingCells(sumSnapshot, snapshots, predicates);
+        }
+
         int height = ranges[0].getHeight();
         int width = ranges[0].getWidth();
 
@@ -151,6 +157,46 @@ import org.apache.poi.ss.formula.functions.Countif.ErrorMatcher;
         return result;
     }
 
+    /**
+     * @return the cached snapshots of all ranges or <code>null</code> if one of them isn't available
+     */
+    private static AreaSnapshot[] getSnapshots(AreaEval[] ranges) {
+        AreaSnapshot[] result = new AreaSnapshot[ranges.length];
+        for (int i = 0; i < ranges.length; i++) {
+            result[i] = AreaSnapshot.of(ranges[i]);
+            if (result[i] == null) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link #aggregateMatchingCells(AreaEval, AreaEval[], I_MatchPredicate[])} for the snapshots of the ranges
+     */
+    private static double aggregateMatchingCells(AreaSnapshot sumRange, AreaSnapshot[] ranges, I_MatchPredicate[] predicates) {
+        double result = 0.0;
+        for (int j = 0, size = ranges[0].getSize(); j < size; j++) {
+            boolean matches = true;
+            for (int i = 0; i < ranges.length; i++) {
+                I_MatchPredicate mp = predicates[i];
+                if (mp == null || !mp.matches(ranges[i].getValue(j))) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                if (sumRange == null) {
+                    result += 1.0;
+                } else if (sumRange.getType(j) == AreaSnapshot.NUMBER) {
+                    // everything else (including string and boolean values) counts as zero
+                    result += sumRange.getNumber(j);
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * For counts, this would return 1, for sums it returns a cell value or zero.
      * This is only called after all the criteria are confirmed true for the coordinates.
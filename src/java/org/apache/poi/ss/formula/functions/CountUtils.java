@@ -49,6 +49,16 @@ final class CountUtils {
     public static int countMatchingCellsInArea(ThreeDEval areaEval, I_MatchPredicate criteriaPredicate) {
         int result = 0;
 
+        AreaSnapshot snapshot = (criteriaPredicate instanceof I_MatchAreaPredicate) ? null : AreaSnapshot.of(areaEval);
+        if (snapshot != null) {
+            for (int i = 0, size = snapshot.getSize(); i < size; i++) {
+                if (criteriaPredicate.matches(snapshot.getValue(i))) {
+                    result++;
+                }
+            }
+            return result;
+        }
+
         final int firstSheetIndex = areaEval.getFirstSheetIndex();
         final int lastSheetIndex = areaEval.getLastSheetIndex();
         for (int sIx = firstSheetIndex; sIx <= lastSheetIndex; sIx++) {
@@ -17,9 +17,14 @@
 
 package org.apache.poi.ss.formula.functions;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.poi.ss.formula.IndexableArea;
 import org.apache.poi.ss.formula.TwoDEval;
 import org.apache.poi.ss.formula.eval.BlankEval;
 import org.apache.poi.ss.formula.eval.BoolEval;
@@ -37,6 +42,11 @@ import org.apache.poi.ss.formula.eval.ValueEval;
  */
 final class LookupUtils {
 
+	/**
+	 * Lookup vectors with fewer values are searched without an index
+	 */
+	private static final int MIN_INDEXED_SIZE = 16;
+
 	/**
 	 * Represents a single row or column within an <tt>AreaEval</tt>.
 	 */
@@ -480,7 +490,12 @@ final class LookupUtils {
 		if(isRangeLookup) {
 			result = performBinarySearch(vector, lookupComparer);
 		} else {
-			result = lookupIndexOfExactValue(lookupComparer, vector);
+			LookupIndex index = getLookupIndex(lookupValue, vector);
+			if (index == null) {
+				result = lookupIndexOfExactValue(lookupComparer, vector);
+			} else {
+				result = index.indexOfExactValue(lookupValue);
+			}
 		}
 		if(result < 0) {
 			throw new EvaluationException(ErrorEval.NA);
@@ -509,6 +524,206 @@ final class LookupUtils {
 	}
 
 
+	/**
+	 * Returns the cached index of a lookup vector, which is a row or column of a cell area.
+	 * The index is only built, when the same vector has been looked up before.
+	 * The index gives the same results as comparing the values with the {@link LookupValueComparer}
+	 * of the lookup value, except for wildcard matches of strings.
+	 *
+	 * @return the index or <code>null</code> if the vector or the lookup value can't be indexed
+	 */
+	static LookupIndex getLookupIndex(ValueEval lookupValue, ValueVector vector) {
+		if (vector.getSize() < MIN_INDEXED_SIZE) {
+			return null;
+		}
+		if (lookupValue instanceof StringEval) {
+			if (Countif.StringMatcher.getWildCardPattern(((StringEval) lookupValue).getStringValue()) != null) {
+				return null;
+			}
+		} else if (!(lookupValue instanceof NumberEval || lookupValue instanceof BoolEval || lookupValue == BlankEval.instance)) {
+			return null;
+		}
+
+		TwoDEval area;
+		if (vector instanceof ColumnVector) {
+			ColumnVector cv = (ColumnVector) vector;
+			area = cv._tableArray.getColumn(cv._columnIndex);
+		} else if (vector instanceof RowVector) {
+			RowVector rv = (RowVector) vector;
+			area = rv._tableArray.getRow(rv._rowIndex);
+		} else {
+			return null;
+		}
+		if (!(area instanceof IndexableArea)) {
+			return null;
+		}
+		// a one-off lookup, e.g. in a whole column, is cheaper without building the index
+		return ((IndexableArea) area).getIndexIfReused(LookupIndex.FACTORY);
+	}
+
+	/**
+	 * Index of the values of a lookup vector for exact matches and for searching the values
+	 * less than or equal to the lookup value.  The index is cached by the evaluator as long as
+	 * the cells of the vector don't change.
+	 */
+	static final class LookupIndex {
+		static final Function<ValueEval[], LookupIndex> FACTORY = LookupIndex::new;
+
+		private final ValueEval[] _values;
+		/** the lowest index of each value, see {@link #toKey(ValueEval)} */
+		private final Map<Object, Integer> _firstIndexes;
+		/** the sorted indexes of the values, created on demand by value type */
+		private final Map<Class<?>, SortedValues> _sortedValues = new HashMap<>();
+
+		private LookupIndex(ValueEval[] values) {
+			_values = values;
+			_firstIndexes = new HashMap<>(values.length * 4 / 3 + 1);
+			for (int i = 0; i < values.length; i++) {
+				Object key = toKey(values[i]);
+				if (key != null) {
+					_firstIndexes.putIfAbsent(key, i);
+				}
+			}
+		}
+
+		/**
+		 * @return the lowest index of a value equal to the lookup value, -1 if there is none
+		 */
+		public int indexOfExactValue(ValueEval lookupValue) {
+			Integer index = _firstIndexes.get(toKey(toLookupValue(lookupValue)));
+			return index == null ? -1 : index;
+		}
+
+		/**
+		 * @return the highest index of a value less than or equal to the lookup value, -1 if there is none
+		 */
+		public int indexOfLastLessOrEqual(ValueEval lookupValue) {
+			ValueEval value = toLookupValue(lookupValue);
+			SortedValues sorted = getSortedValues(value.getClass());
+			int count = sorted.countLessOrEqual(value);
+			return count == 0 ? -1 : sorted._prefixMax[count - 1];
+		}
+
+		/**
+		 * @return the lowest index of a value less than or equal to the lookup value, -1 if there is none
+		 */
+		public int indexOfFirstLessOrEqual(ValueEval lookupValue) {
+			ValueEval value = toLookupValue(lookupValue);
+			SortedValues sorted = getSortedValues(value.getClass());
+			int count = sorted.countLessOrEqual(value);
+			return count == 0 ? -1 : sorted._prefixMin[count - 1];
+		}
+
+		/**
+		 * @return whether the value at the given index is equal to the lookup value
+		 */
+		public boolean isEqual(int index, ValueEval lookupValue) {
+			Object key = toKey(_values[index]);
+			return key != null && key.equals(toKey(toLookupValue(lookupValue)));
+		}
+
+		private SortedValues getSortedValues(Class<?> valueClass) {
+			SortedValues result = _sortedValues.get(valueClass);
+			if (result == null) {
+				result = new SortedValues(_values, valueClass);
+				_sortedValues.put(valueClass, result);
+			}
+			return result;
+		}
+
+		/**
+		 * blank lookup values are treated as zero, see {@link LookupUtils#createLookupComparer(ValueEval, boolean, boolean)}
+		 */
+		private static ValueEval toLookupValue(ValueEval lookupValue) {
+			return lookupValue == BlankEval.instance ? NumberEval.ZERO : lookupValue;
+		}
+
+		/**
+		 * @return a key, which is equal for values of the same type, which are equal by the
+		 *  {@link LookupValueComparer} - or <code>null</code> for values which never match
+		 */
+		private static Object toKey(ValueEval value) {
+			if (value instanceof NumberEval) {
+				// equal to Double.compare()
+				return Double.valueOf(((NumberEval) value).getNumberValue());
+			}
+			if (value instanceof StringEval) {
+				// equal to String.compareToIgnoreCase()
+				char[] chars = ((StringEval) value).getStringValue().toCharArray();
+				for (int i = 0; i < chars.length; i++) {
+					chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+				}
+				return new String(chars);
+			}
+			if (value instanceof BoolEval) {
+				return Boolean.valueOf(((BoolEval) value).getBooleanValue());
+			}
+			return null;
+		}
+
+		/**
+		 * compares two values of the same type like the {@link LookupValueComparer}
+		 */
+		private static int compare(ValueEval a, ValueEval b) {
+			if (a instanceof NumberEval) {
+				return Double.compare(((NumberEval) a).getNumberValue(), ((NumberEval) b).getNumberValue());
+			}
+			if (a instanceof StringEval) {
+				return ((StringEval) a).getStringValue().compareToIgnoreCase(((StringEval) b).getStringValue());
+			}
+			return Boolean.compare(((BoolEval) a).getBooleanValue(), ((BoolEval) b).getBooleanValue());
+		}
+	}
+
+	/**
+	 * The indexes of the values of one type in ascending order of the values, together
+	 * with the lowest and highest index of each prefix of the order.
+	 */
+	private static final class SortedValues {
+		private final ValueEval[] _values;
+		private final int[] _order;
+		private final int[] _prefixMin;
+		private final int[] _prefixMax;
+
+		SortedValues(ValueEval[] values, Class<?> valueClass) {
+			_values = values;
+			Integer[] order = new Integer[values.length];
+			int count = 0;
+			for (int i = 0; i < values.length; i++) {
+				if (values[i].getClass() == valueClass) {
+					order[count++] = i;
+				}
+			}
+			Arrays.sort(order, 0, count, (a, b) -> LookupIndex.compare(values[a], values[b]));
+
+			_order = new int[count];
+			_prefixMin = new int[count];
+			_prefixMax = new int[count];
+			for (int i = 0; i < count; i++) {
+				int index = order[i];
+				_order[i] = index;
+				_prefixMin[i] = (i == 0) ? index : Math.min(_prefixMin[i - 1], index);
+				_prefixMax[i] = (i == 0) ? index : Math.max(_prefixMax[i - 1], index);
+			}
+		}
+
+		/**
+		 * @return the number of values less than or equal to the lookup value
+		 */
+		int countLessOrEqual(ValueEval lookupValue) {
+			int low = 0, high = _order.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (LookupIndex.compare(_values[_order[mid]], lookupValue) <= 0) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+	}
+
 	/**
 	 * Encapsulates some standard binary search functionality so the unusual Excel behaviour can
 	 * be clearly distinguished.
@@ -191,6 +191,10 @@ public final class Match extends Var2or3ArgFunction {
 		LookupValueComparer lookupComparer = createLookupComparer(lookupValue, matchExact);
 
 		int size = lookupRange.getSize();
+		LookupUtils.LookupIndex index = LookupUtils.getLookupIndex(lookupValue, lookupRange);
+		if (index != null) {
+			return findIndexOfValue(lookupValue, index, size, matchExact, findLargestLessThanOrEqual);
+		}
 		if(matchExact) {
 			for (int i = 0; i < size; i++) {
 				if(lookupComparer.compareTo(lookupRange.getItem(i)).isEqual()) {
@@ -231,6 +235,33 @@ public final class Match extends Var2or3ArgFunction {
 		return size-1;
 	}
 
+	/**
+	 * Same as {@link #findIndexOfValue(ValueEval, ValueVector, boolean, boolean)}, but using the index of the lookup range
+	 */
+	private static int findIndexOfValue(ValueEval lookupValue, LookupUtils.LookupIndex index, int size,
+			boolean matchExact, boolean findLargestLessThanOrEqual) throws EvaluationException {
+		int result;
+		if(matchExact) {
+			result = index.indexOfExactValue(lookupValue);
+		} else if(findLargestLessThanOrEqual) {
+			result = index.indexOfLastLessOrEqual(lookupValue);
+		} else {
+			// find the first value less than or equal to the lookup value
+			int i = index.indexOfFirstLessOrEqual(lookupValue);
+			if(i < 0) {
+				return size-1;
+			}
+			if(index.isEqual(i, lookupValue)) {
+				return i;
+			}
+			result = i-1;
+		}
+		if(result < 0) {
+			throw new EvaluationException(ErrorEval.NA);
+		}
+		return result;
+	}
+
 	private static LookupValueComparer createLookupComparer(ValueEval lookupValue, boolean matchExact) {
 		return LookupUtils.createLookupComparer(lookupValue, matchExact, true);
 	}
@@ -164,6 +164,13 @@ public abstract class MultiOperandNumericFunction implements Function {
      * Collects values from a single argument
      */
     private void collectValues(ValueEval operand, DoubleList temp) throws EvaluationException {
+        if (isSubtotalCounted() && isHiddenRowCounted()) {
+            AreaSnapshot snapshot = AreaSnapshot.of(operand);
+            if (snapshot != null) {
+                collectValues(snapshot, temp);
+                return;
+            }
+        }
         if (operand instanceof ThreeDEval) {
             ThreeDEval ae = (ThreeDEval) operand;
             for (int sIx = ae.getFirstSheetIndex(); sIx <= ae.getLastSheetIndex(); sIx++) {
@@ -203,6 +210,30 @@ public abstract class MultiOperandNumericFunction implements Function {
         collectValue(operand, false, temp);
     }
 
+    /**
+     * Collects the values of a cached area in the same way as {@link #collectValue} for references
+     */
+    private void collectValues(AreaSnapshot snapshot, DoubleList temp) throws EvaluationException {
+        for (int i = 0, size = snapshot.getSize(); i < size; i++) {
+            switch (snapshot.getType(i)) {
+                case AreaSnapshot.NUMBER:
+                    temp.add(snapshot.getNumber(i));
+                    break;
+                case AreaSnapshot.BOOLEAN:
+                    boolByRefConsumer.accept((BoolEval) snapshot.getValue(i), temp);
+                    break;
+                case AreaSnapshot.BLANK:
+                    blankConsumer.accept(BlankEval.instance, temp);
+                    break;
+                case AreaSnapshot.ERROR:
+                    throw new EvaluationException((ErrorEval) snapshot.getValue(i));
+                default:
+                    // ignore all ref strings
+                    break;
+            }
+        }
+    }
+
     private void collectValue(ValueEval ve, boolean isViaReference, DoubleList temp) throws EvaluationException {
         if (ve == null) {
             throw new IllegalArgumentException("ve must not be null");
@@ -80,6 +80,12 @@ public final class Sumif extends Var2or3ArgFunction {
 	}
 
 	private static double sumMatchingCells(AreaEval aeRange, I_MatchPredicate mp, AreaEval aeSum) {
+		AreaSnapshot range = AreaSnapshot.of(aeRange);
+		AreaSnapshot sum = (range == null) ? null : AreaSnapshot.of(aeSum);
+		if (sum != null) {
+			return sumMatchingCells(range, mp, sum);
+		}
+
 		int height=aeRange.getHeight();
 		int width= aeRange.getWidth();
 
@@ -92,6 +98,17 @@ public final class Sumif extends Var2or3ArgFunction {
 		return result;
 	}
 
+	private static double sumMatchingCells(AreaSnapshot range, I_MatchPredicate mp, AreaSnapshot sum) {
+		double result = 0.0;
+		for (int i = 0, size = range.getSize(); i < size; i++) {
+			// everything else than numbers (including string and boolean values) counts as zero
+			if (sum.getType(i) == AreaSnapshot.NUMBER && mp.matches(range.getValue(i))) {
+				result += sum.getNumber(i);
+			}
+		}
+		return result;
+	}
+
 	private static double accumulate(AreaEval aeRange, I_MatchPredicate mp, AreaEval aeSum, int relRowIndex,
 			int relColIndex) {
 
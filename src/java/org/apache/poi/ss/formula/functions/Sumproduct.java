@@ -148,6 +148,11 @@ public final class Sumproduct implements Function {
 			return ErrorEval.VALUE_INVALID;
 		}
 
+		AreaSnapshot[] snapshots = getSnapshots(evalArgs);
+		if (snapshots != null) {
+			return new NumberEval(sumProduct(snapshots));
+		}
+
 		double acc = 0;
 
 		for (int rrIx=0; rrIx<height; rrIx++) {
@@ -164,6 +169,47 @@ public final class Sumproduct implements Function {
 		return new NumberEval(acc);
 	}
 
+	/**
+	 * @return the cached snapshots of all areas or <code>null</code> if one of them isn't available
+	 */
+	private static AreaSnapshot[] getSnapshots(ValueEval[] areas) {
+		AreaSnapshot[] result = new AreaSnapshot[areas.length];
+		for (int i = 0; i < areas.length; i++) {
+			result[i] = AreaSnapshot.of(areas[i]);
+			if (result[i] == null) {
+				return null;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the area sum product like {@link #getProductTerm(ValueEval, boolean)} over the
+	 * snapshots of the same sized areas
+	 */
+	private static double sumProduct(AreaSnapshot[] snapshots) throws EvaluationException {
+		double acc = 0;
+		for (int i = 0, size = snapshots[0].getSize(); i < size; i++) {
+			double term = 1D;
+			for (AreaSnapshot snapshot : snapshots) {
+				switch (snapshot.getType(i)) {
+					case AreaSnapshot.ERROR:
+						throw new EvaluationException((ErrorEval) snapshot.getValue(i));
+					case AreaSnapshot.NUMBER:
+					case AreaSnapshot.BOOLEAN:
+						term *= snapshot.getNumber(i);
+						break;
+					default:
+						// blank and string values are interpreted as zero
+						term *= 0;
+						break;
+				}
+			}
+			acc += term;
+		}
+		return acc;
+	}
+
 	private static void throwFirstError(TwoDEval areaEval) throws EvaluationException {
 		int height = areaEval.getHeight();
 		int width = areaEval.getWidth();
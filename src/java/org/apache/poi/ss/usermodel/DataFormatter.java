@@ -22,7 +22,6 @@ package org.apache.poi.ss.usermodel;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.text.DateFormat;
 import java.text.DateFormatSymbols;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
@@ -32,12 +31,13 @@ import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -117,6 +117,13 @@ import org.apache.poi.util.POILogger;
  *   These locale directives are (currently) ignored.
  *  You can use {@link DateFormatConverter} to do some of this localisation if
  *   you need it. 
+ * <p>
+ *  A DataFormatter can be shared by multiple threads. The formats compiled from the
+ *   format strings are cached (up to {@value #MAX_COMPILED_FORMATS} formats) and
+ *   each thread formats with its own copy of the underlying {@link DecimalFormat}s
+ *   and {@link SimpleDateFormat}s. The formats added via {@link #addFormat(String, Format)}
+ *   and {@link #setDefaultNumberFormat(Format)} need to be thread-safe for this,
+ *   and these methods shouldn't be called while other threads are formatting values.
  */
 public class DataFormatter implements Observer {
     private static final String defaultFractionWholePartFormat = "#";
@@ -177,37 +184,59 @@ public class DataFormatter implements Observer {
          invalidDateTimeString = buf.toString();
      }
 
+    /**
+     * The size of the cache of the built-in date formats, i.e. the highest built-in date format index plus one
+     */
+    private static final int BUILTIN_DATE_FORMATS_SIZE = 0x30;
+
+    /**
+     * The maximum number of formats compiled from format strings, which are cached
+     */
+    private static final int MAX_COMPILED_FORMATS = 1000;
+
     /**
      * The decimal symbols of the locale used for formatting values.
      */
-    private DecimalFormatSymbols decimalSymbols;
+    private volatile DecimalFormatSymbols decimalSymbols;
 
     /**
      * The date symbols of the locale used for formatting values.
      */
-    private DateFormatSymbols dateSymbols;
+    private volatile DateFormatSymbols dateSymbols;
 
     /**
      * A default date format, if no date format was given
      */
-    private DateFormat defaultDateformat;
+    private volatile Format defaultDateformat;
     
     /** <em>General</em> format for numbers. */
-    private Format generalNumberFormat;
+    private volatile Format generalNumberFormat;
 
     /** A default format to use when a number pattern cannot be parsed. */
-    private Format defaultNumFormat;
+    private volatile Format defaultNumFormat;
+
+    /**
+     * A map of the built-in formats and the formats added by the caller.
+     *  Map<String,Format> formats - replaced when the locale changes
+     */
+    private volatile Map<String,Format> formats = new ConcurrentHashMap<>();
+
+    /**
+     * The formats of the built-in date formats (14-22, 45-47) indexed by the format index,
+     *  together with the format string they were created for - replaced when the locale changes
+     */
+    private volatile AtomicReferenceArray<BuiltinDateFormat> builtinDateFormats =
+            new AtomicReferenceArray<>(BUILTIN_DATE_FORMATS_SIZE);
 
     /**
-     * A map to cache formats.
-     *  Map<String,Format> formats
+     * A map to cache the formats compiled from format strings - replaced when the locale changes
      */
-    private final Map<String,Format> formats = new HashMap<>();
+    private volatile Map<String,Format> compiledFormats = new ConcurrentHashMap<>();
 
     private final boolean emulateCSV;
 
     /** stores the locale valid it the last formatting call */
-    private Locale locale;
+    private volatile Locale locale;
     
     /** stores if the locale should change according to {@link LocaleUtil#getUserLocale()} */
     private boolean localeIsAdapting;
@@ -290,13 +319,12 @@ public class DataFormatter implements Observer {
      * </ul>
      *
      * @param cell The cell to retrieve a Format for
+     * @param numFmt The number format of the cell, see {@link ExcelNumberFormat#from(Cell, ConditionalFormattingEvaluator)}
      * @return A Format for the format String
      */
-    private Format getFormat(Cell cell, ConditionalFormattingEvaluator cfEvaluator) {
+    private Format getFormat(Cell cell, ExcelNumberFormat numFmt) {
         if (cell == null) return null;
         
-        ExcelNumberFormat numFmt = ExcelNumberFormat.from(cell, cfEvaluator);
-        
         if ( numFmt == null) {
             return null;
         }
@@ -365,6 +393,11 @@ public class DataFormatter implements Observer {
         if (format != null) {
             return format;
         }
+        Map<String,Format> compiled = compiledFormats;
+        format = compiled.get(formatStr);
+        if (format != null) {
+            return format;
+        }
         
         // Is it one of the special built in types, General or @?
         if ("General".equalsIgnoreCase(formatStr) || "@".equals(formatStr)) {
@@ -373,10 +406,35 @@ public class DataFormatter implements Observer {
         
         // Build a formatter, and cache it
         format = createFormat(cellValue, formatIndex, formatStr);
-        formats.put(formatStr, format);
+        if (format == null) {
+            return null;
+        }
+        format = toThreadSafeFormat(format);
+        if (compiled.size() >= MAX_COMPILED_FORMATS) {
+            // rather start over than tracking the usage of the formats
+            compiled.clear();
+        }
+        compiled.put(formatStr, format);
         return format;
     }
 
+    /**
+     * Wraps the formats, which aren't thread-safe, so that each thread uses its own copy
+     */
+    private static Format toThreadSafeFormat(Format format) {
+        if (format instanceof ExcelStyleDateFormatter || format instanceof InternalDecimalFormatWithScale) {
+            return new ThreadLocalFormat(format);
+        }
+        return format;
+    }
+
+    /**
+     * @return the copy of the format for the current thread, if the format is shared by the threads
+     */
+    private static Format getLocalFormat(Format format) {
+        return (format instanceof ThreadLocalFormat) ? ((ThreadLocalFormat)format).get() : format;
+    }
+
     /**
      * Create and return a Format based on the format string from a  cell's
      * style. If the pattern cannot be parsed, return a default pattern.
@@ -699,7 +757,7 @@ public class DataFormatter implements Observer {
         private static final Pattern endsWithCommas = Pattern.compile("(,+)$");
         private BigDecimal divider;
         private static final BigDecimal ONE_THOUSAND = new BigDecimal(1000);
-        private final DecimalFormat df;
+        private DecimalFormat df;
         private static String trimTrailingCommas(String s) {
             return s.replaceAll(",+$", "");
         }
@@ -743,6 +801,13 @@ public class DataFormatter implements Observer {
         public Object parseObject(String source, ParsePosition pos) {
             throw new UnsupportedOperationException();
         }
+
+        @Override
+        public InternalDecimalFormatWithScale clone() {
+            InternalDecimalFormatWithScale other = (InternalDecimalFormatWithScale)super.clone();
+            other.df = (DecimalFormat)df.clone();
+            return other;
+        }
     }
 
     private Format createNumberFormat(String formatStr, double cellValue) {
@@ -803,9 +868,7 @@ public class DataFormatter implements Observer {
      */
     private String performDateFormatting(Date d, Format dateFormat) {
         Format df = dateFormat != null ? dateFormat : defaultDateformat;
-        synchronized (df) {
-            return df.format(d);
-        }
+        return df.format(d);
     }
 
     /**
@@ -818,24 +881,51 @@ public class DataFormatter implements Observer {
      * If the style does not have a format, the default date format is applied.
      *
      * @param cell to format
-     * @param cfEvaluator ConditionalFormattingEvaluator (if available)
+     * @param numFmt the number format of the cell
      * @return Formatted value
      */
-    private String getFormattedDateString(Cell cell, ConditionalFormattingEvaluator cfEvaluator) {
+    private String getFormattedDateString(Cell cell, ExcelNumberFormat numFmt) {
         if (cell == null) {
             return null;
         }
-        Format dateFormat = getFormat(cell, cfEvaluator);
-        synchronized (dateFormat) {
-            if(dateFormat instanceof ExcelStyleDateFormatter) {
-                // Hint about the raw excel value
-                ((ExcelStyleDateFormatter)dateFormat).setDateToBeFormatted(
-                        cell.getNumericCellValue()
-                );
+        return getFormattedDateString(cell, getFormat(cell, numFmt));
+    }
+
+    /**
+     * Returns the formatted value of an Excel date with one of the built-in date formats.
+     * The format is looked up by its index, so the format string doesn't need to be parsed
+     * or looked up in the caches for each cell.
+     *
+     * @param cell to format
+     * @param formatIndex the built-in date format index of the cell style
+     * @param formatStr the format string of the cell style
+     * @return Formatted value
+     */
+    private String getFormattedBuiltinDateString(Cell cell, int formatIndex, String formatStr) {
+        AtomicReferenceArray<BuiltinDateFormat> cache = builtinDateFormats;
+        BuiltinDateFormat builtin = cache.get(formatIndex);
+        if (builtin == null || !builtin.formatStr.equals(formatStr)) {
+            Format format = getFormat(cell.getNumericCellValue(), formatIndex, formatStr, isDate1904(cell));
+            if (format instanceof CellFormatResultWrapper) {
+                // the result of a multi-part format depends on the cell value and can't be cached
+                return getFormattedDateString(cell, format);
             }
-            Date d = cell.getDateCellValue();
-            return performDateFormatting(d, dateFormat);
+            builtin = new BuiltinDateFormat(formatStr, format);
+            cache.set(formatIndex, builtin);
+        }
+        return getFormattedDateString(cell, builtin.format);
+    }
+
+    private String getFormattedDateString(Cell cell, Format format) {
+        Format dateFormat = getLocalFormat(format);
+        if(dateFormat instanceof ExcelStyleDateFormatter) {
+            // Hint about the raw excel value
+            ((ExcelStyleDateFormatter)dateFormat).setDateToBeFormatted(
+                    cell.getNumericCellValue()
+            );
         }
+        Date d = cell.getDateCellValue();
+        return performDateFormatting(d, dateFormat);
     }
 
     /**
@@ -848,20 +938,32 @@ public class DataFormatter implements Observer {
      * specified format, or from the cell style.
      * 
      * @param cell The cell
-     * @param cfEvaluator if available, or null
+     * @param numFmt the number format of the cell
      * @return a formatted number string
      */
-    private String getFormattedNumberString(Cell cell, ConditionalFormattingEvaluator cfEvaluator) {
+    private String getFormattedNumberString(Cell cell, ExcelNumberFormat numFmt) {
         if (cell == null) {
             return null;
         }
-        Format numberFormat = getFormat(cell, cfEvaluator);
+        Format numberFormat = getFormat(cell, numFmt);
         double d = cell.getNumericCellValue();
         if (numberFormat == null) {
             return String.valueOf(d);
         }
-        String formatted = numberFormat.format(Double.valueOf(d));
-        return formatted.replaceFirst("E(\\d)", "E+$1"); // to match Excel's E-notation
+        return addExponentSign(numberFormat.format(Double.valueOf(d)));
+    }
+
+    /**
+     * Adds the missing plus sign to the first positive exponent, e.g. "1.2E5" to "1.2E+5",
+     * to match Excel's E-notation
+     */
+    private static String addExponentSign(String formatted) {
+        for (int idx = formatted.indexOf('E'); idx > -1; idx = formatted.indexOf('E', idx + 1)) {
+            if (idx + 1 < formatted.length() && Character.isDigit(formatted.charAt(idx + 1))) {
+                return formatted.substring(0, idx + 1) + '+' + formatted.substring(idx + 1);
+            }
+        }
+        return formatted;
     }
 
     /**
@@ -883,7 +985,7 @@ public class DataFormatter implements Observer {
         // Is it a date?
         if(DateUtil.isADateFormat(formatIndex,formatString)) {
             if(DateUtil.isValidExcelDate(value)) {
-                Format dateFormat = getFormat(value, formatIndex, formatString, use1904Windowing);
+                Format dateFormat = getLocalFormat(getFormat(value, formatIndex, formatString, use1904Windowing));
                 if(dateFormat instanceof ExcelStyleDateFormatter) {
                     // Hint about the raw excel value
                     ((ExcelStyleDateFormatter)dateFormat).setDateToBeFormatted(value);
@@ -1004,11 +1106,27 @@ public class DataFormatter implements Observer {
         }
         switch (cellType) {
             case NUMERIC :
+                CellStyle style = cell.getCellStyle();
+                if (cfEvaluator == null && style != null && style.getDataFormat() == 0 && !formats.containsKey("General")) {
+                    // fast path for the General format, which is neither a date nor a cached format
+                    return addExponentSign(generalNumberFormat.format(cell.getNumericCellValue()));
+                }
+
+                if (cfEvaluator == null && style != null && DateUtil.isInternalDateFormat(style.getDataFormat())
+                        && DateUtil.isValidExcelDate(cell.getNumericCellValue())) {
+                    // fast path for the built-in date formats, which are cached by their index
+                    String formatStr = style.getDataFormatString();
+                    if (formatStr != null && formatStr.trim().length() > 0) {
+                        return getFormattedBuiltinDateString(cell, style.getDataFormat(), formatStr);
+                    }
+                }
 
-                if (DateUtil.isCellDateFormatted(cell, cfEvaluator)) {
-                    return getFormattedDateString(cell, cfEvaluator);
+                // the number format is evaluated once for the date check and the formatting
+                ExcelNumberFormat numFmt = ExcelNumberFormat.from(cell, cfEvaluator);
+                if (DateUtil.isValidExcelDate(cell.getNumericCellValue()) && DateUtil.isADateFormat(numFmt)) {
+                    return getFormattedDateString(cell, numFmt);
                 }
-                return getFormattedNumberString(cell, cfEvaluator);
+                return getFormattedNumberString(cell, numFmt);
 
             case STRING :
                 return cell.getRichStringCellValue().getString();
@@ -1048,6 +1166,11 @@ public class DataFormatter implements Observer {
                 entry.setValue(format);
             }
         }
+        for (Map.Entry<String, Format> entry : compiledFormats.entrySet()) {
+            if (entry.getValue() == generalNumberFormat) {
+                entry.setValue(format);
+            }
+        }
         defaultNumFormat = format;
     }
 
@@ -1064,6 +1187,8 @@ public class DataFormatter implements Observer {
      */
     public void addFormat(String excelFormatStr, Format format) {
         formats.put(excelFormatStr, format);
+        // the added format might replace a cached built-in date format
+        builtinDateFormats = new AtomicReferenceArray<>(BUILTIN_DATE_FORMATS_SIZE);
     }
 
     // Some custom formats
@@ -1115,7 +1240,7 @@ public class DataFormatter implements Observer {
      * @param observable usually this is our own Observable instance
      * @param localeObj only reacts on Locale objects
      */
-    public void update(Observable observable, Object localeObj) {
+    public synchronized void update(Observable observable, Object localeObj) {
         if (!(localeObj instanceof Locale))  return;
         Locale newLocale = (Locale)localeObj;
         if (!localeIsAdapting || newLocale.equals(locale)) return;
@@ -1124,29 +1249,49 @@ public class DataFormatter implements Observer {
         
         dateSymbols = DateFormatSymbols.getInstance(locale);
         decimalSymbols = DecimalFormatSymbols.getInstance(locale);
-        generalNumberFormat = new ExcelGeneralNumberFormat(locale);
+        generalNumberFormat = new ThreadLocalFormat(new ExcelGeneralNumberFormat(locale));
 
         // taken from Date.toString()
-        defaultDateformat = new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy", dateSymbols);
-        defaultDateformat.setTimeZone(LocaleUtil.getUserTimeZone());       
+        SimpleDateFormat dateFormat = new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy", dateSymbols);
+        dateFormat.setTimeZone(LocaleUtil.getUserTimeZone());
+        defaultDateformat = new ThreadLocalFormat(dateFormat);
 
         // init built-in formats
 
-        formats.clear();
+        // the new maps are filled before they are published, so that concurrent
+        // lookups never see a partially initialized set of built-in formats
+        Map<String,Format> builtinFormats = new ConcurrentHashMap<>();
         Format zipFormat = ZipPlusFourFormat.instance;
-        addFormat("00000\\-0000", zipFormat);
-        addFormat("00000-0000", zipFormat);
+        builtinFormats.put("00000\\-0000", zipFormat);
+        builtinFormats.put("00000-0000", zipFormat);
 
         Format phoneFormat = PhoneFormat.instance;
         // allow for format string variations
-        addFormat("[<=9999999]###\\-####;\\(###\\)\\ ###\\-####", phoneFormat);
-        addFormat("[<=9999999]###-####;(###) ###-####", phoneFormat);
-        addFormat("###\\-####;\\(###\\)\\ ###\\-####", phoneFormat);
-        addFormat("###-####;(###) ###-####", phoneFormat);
+        builtinFormats.put("[<=9999999]###\\-####;\\(###\\)\\ ###\\-####", phoneFormat);
+        builtinFormats.put("[<=9999999]###-####;(###) ###-####", phoneFormat);
+        builtinFormats.put("###\\-####;\\(###\\)\\ ###\\-####", phoneFormat);
+        builtinFormats.put("###-####;(###) ###-####", phoneFormat);
 
         Format ssnFormat = SSNFormat.instance;
-        addFormat("000\\-00\\-0000", ssnFormat);
-        addFormat("000-00-0000", ssnFormat);
+        builtinFormats.put("000\\-00\\-0000", ssnFormat);
+        builtinFormats.put("000-00-0000", ssnFormat);
+
+        formats = builtinFormats;
+        compiledFormats = new ConcurrentHashMap<>();
+        builtinDateFormats = new AtomicReferenceArray<>(BUILTIN_DATE_FORMATS_SIZE);
+    }
+
+    /**
+     * A cached built-in date format and the format string it was created for
+     */
+    private static final class BuiltinDateFormat {
+        private final String formatStr;
+        private final Format format;
+
+        private BuiltinDateFormat(String formatStr, Format format) {
+            this.formatStr = formatStr;
+            this.format = format;
+        }
     }
 
 
@@ -1160,14 +1305,15 @@ public class DataFormatter implements Observer {
     @SuppressWarnings("serial")
    private static final class SSNFormat extends Format {
         public static final Format instance = new SSNFormat();
-        private static final DecimalFormat df = createIntegerOnlyFormat("000000000");
+        private static final ThreadLocal<DecimalFormat> df =
+                ThreadLocal.withInitial(() -> createIntegerOnlyFormat("000000000"));
         private SSNFormat() {
             // enforce singleton
         }
 
         /** Format a number as an SSN */
         public static String format(Number num) {
-            String result = df.format(num);
+            String result = df.get().format(num);
             return result.substring(0, 3) + '-' +
                     result.substring(3, 5) + '-' +
                     result.substring(5, 9);
@@ -1180,7 +1326,7 @@ public class DataFormatter implements Observer {
 
         @Override
         public Object parseObject(String source, ParsePosition pos) {
-            return df.parseObject(source, pos);
+            return df.get().parseObject(source, pos);
         }
     }
 
@@ -1192,14 +1338,15 @@ public class DataFormatter implements Observer {
     @SuppressWarnings("serial")
    private static final class ZipPlusFourFormat extends Format {
         public static final Format instance = new ZipPlusFourFormat();
-        private static final DecimalFormat df = createIntegerOnlyFormat("000000000");
+        private static final ThreadLocal<DecimalFormat> df =
+                ThreadLocal.withInitial(() -> createIntegerOnlyFormat("000000000"));
         private ZipPlusFourFormat() {
             // enforce singleton
         }
 
         /** Format a number as Zip + 4 */
         public static String format(Number num) {
-            String result = df.format(num);
+            String result = df.get().format(num);
             return result.substring(0, 5) + '-' +
                     result.substring(5, 9);
         }
@@ -1211,7 +1358,7 @@ public class DataFormatter implements Observer {
 
         @Override
         public Object parseObject(String source, ParsePosition pos) {
-            return df.parseObject(source, pos);
+            return df.get().parseObject(source, pos);
         }
     }
 
@@ -1223,14 +1370,15 @@ public class DataFormatter implements Observer {
     @SuppressWarnings("serial")
    private static final class PhoneFormat extends Format {
         public static final Format instance = new PhoneFormat();
-        private static final DecimalFormat df = createIntegerOnlyFormat("##########");
+        private static final ThreadLocal<DecimalFormat> df =
+                ThreadLocal.withInitial(() -> createIntegerOnlyFormat("##########"));
         private PhoneFormat() {
             // enforce singleton
         }
 
         /** Format a number as a phone number */
         public static String format(Number num) {
-            String result = df.format(num);
+            String result = df.get().format(num);
             StringBuilder sb = new StringBuilder();
             String seg1, seg2, seg3;
             int len = result.length();
@@ -1259,7 +1407,7 @@ public class DataFormatter implements Observer {
 
         @Override
         public Object parseObject(String source, ParsePosition pos) {
-            return df.parseObject(source, pos);
+            return df.get().parseObject(source, pos);
         }
     }
     
@@ -1292,6 +1440,35 @@ public class DataFormatter implements Observer {
             return df.parseObject(source, pos);
         }
     }
+    /**
+     * Thread-safe wrapper of a compiled format, which isn't thread-safe itself, e.g. a
+     * {@link DecimalFormat}. Each thread formats with its own copy of the format.
+     */
+    @SuppressWarnings("serial")
+    private static final class ThreadLocalFormat extends Format {
+        private final transient ThreadLocal<Format> copies;
+
+        private ThreadLocalFormat(Format prototype) {
+            // the prototype is only cloned, but never used for formatting
+            copies = ThreadLocal.withInitial(() -> (Format)prototype.clone());
+        }
+
+        /** @return the copy of the current thread */
+        Format get() {
+            return copies.get();
+        }
+
+        @Override
+        public StringBuffer format(Object obj, StringBuffer toAppendTo, FieldPosition pos) {
+            return copies.get().format(obj, toAppendTo, pos);
+        }
+
+        @Override
+        public Object parseObject(String source, ParsePosition pos) {
+            return copies.get().parseObject(source, pos);
+        }
+    }
+
     /**
      * Workaround until we merge {@link DataFormatter} with {@link CellFormat}.
      * Constant, non-cachable wrapper around a {@link CellFormatResult} 
@@ -41,9 +41,9 @@ public class ExcelGeneralNumberFormat extends Format {
     private static final MathContext TO_10_SF = new MathContext(10, RoundingMode.HALF_UP);
 
     private final DecimalFormatSymbols decimalSymbols;
-    private final DecimalFormat integerFormat;
-    private final DecimalFormat decimalFormat;
-    private final DecimalFormat scientificFormat;
+    private DecimalFormat integerFormat;
+    private DecimalFormat decimalFormat;
+    private DecimalFormat scientificFormat;
 
     public ExcelGeneralNumberFormat(final Locale locale) {
         decimalSymbols = DecimalFormatSymbols.getInstance(locale);
@@ -86,4 +86,16 @@ public class ExcelGeneralNumberFormat extends Format {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * @return a copy, which doesn't share the underlying (not thread-safe) decimal formats
+     */
+    @Override
+    public ExcelGeneralNumberFormat clone() {
+        ExcelGeneralNumberFormat other = (ExcelGeneralNumberFormat)super.clone();
+        other.integerFormat = (DecimalFormat)integerFormat.clone();
+        other.decimalFormat = (DecimalFormat)decimalFormat.clone();
+        other.scientificFormat = (DecimalFormat)scientificFormat.clone();
+        return other;
+    }
+
 }
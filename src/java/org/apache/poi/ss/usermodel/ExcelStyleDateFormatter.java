@@ -47,22 +47,21 @@ public class ExcelStyleDateFormatter extends SimpleDateFormat {
     public static final char L_BRACKET_SYMBOL = '\ue016';
     public static final char LL_BRACKET_SYMBOL = '\ue017';
 
-    private static final DecimalFormat format1digit;
-    private static final DecimalFormat format2digits;
-
-    private static final DecimalFormat format3digit;
-    private static final DecimalFormat format4digits;
-
-    static {
-        DecimalFormatSymbols dfs = DecimalFormatSymbols.getInstance(Locale.ROOT);
-        format1digit = new DecimalFormat("0", dfs);
-        format2digits = new DecimalFormat("00", dfs);
-        format3digit = new DecimalFormat("0", dfs);
-        format4digits = new DecimalFormat("00", dfs);
-        DataFormatter.setExcelStyleRoundingMode(format1digit, RoundingMode.DOWN);
-        DataFormatter.setExcelStyleRoundingMode(format2digits, RoundingMode.DOWN);
-        DataFormatter.setExcelStyleRoundingMode(format3digit);
-        DataFormatter.setExcelStyleRoundingMode(format4digits);
+    // the decimal formats aren't thread-safe, so each thread uses its own instances
+    private static final ThreadLocal<DecimalFormat> format1digit =
+            ThreadLocal.withInitial(() -> createFormat("0", RoundingMode.DOWN));
+    private static final ThreadLocal<DecimalFormat> format2digits =
+            ThreadLocal.withInitial(() -> createFormat("00", RoundingMode.DOWN));
+
+    private static final ThreadLocal<DecimalFormat> format3digit =
+            ThreadLocal.withInitial(() -> createFormat("0", RoundingMode.HALF_UP));
+    private static final ThreadLocal<DecimalFormat> format4digits =
+            ThreadLocal.withInitial(() -> createFormat("00", RoundingMode.HALF_UP));
+
+    private static DecimalFormat createFormat(String pattern, RoundingMode roundingMode) {
+        DecimalFormat format = new DecimalFormat(pattern, DecimalFormatSymbols.getInstance(Locale.ROOT));
+        DataFormatter.setExcelStyleRoundingMode(format, roundingMode);
+        return format;
     }
 
     {
@@ -134,11 +133,11 @@ public class ExcelStyleDateFormatter extends SimpleDateFormat {
 
             s = s.replaceAll(
                     String.valueOf(H_BRACKET_SYMBOL),
-                    format1digit.format(hours)
+                    format1digit.get().format(hours)
             );
             s = s.replaceAll(
                     String.valueOf(HH_BRACKET_SYMBOL),
-                    format2digits.format(hours)
+                    format2digits.get().format(hours)
             );
         }
 
@@ -147,11 +146,11 @@ public class ExcelStyleDateFormatter extends SimpleDateFormat {
             float minutes = (float) dateToBeFormatted * 24 * 60;
             s = s.replaceAll(
                     String.valueOf(M_BRACKET_SYMBOL),
-                    format1digit.format(minutes)
+                    format1digit.get().format(minutes)
             );
             s = s.replaceAll(
                     String.valueOf(MM_BRACKET_SYMBOL),
-                    format2digits.format(minutes)
+                    format2digits.get().format(minutes)
             );
         }
         if (s.indexOf(S_BRACKET_SYMBOL) != -1 ||
@@ -159,11 +158,11 @@ public class ExcelStyleDateFormatter extends SimpleDateFormat {
             float seconds = (float) (dateToBeFormatted * 24 * 60 * 60);
             s = s.replaceAll(
                     String.valueOf(S_BRACKET_SYMBOL),
-                    format1digit.format(seconds)
+                    format1digit.get().format(seconds)
             );
             s = s.replaceAll(
                     String.valueOf(SS_BRACKET_SYMBOL),
-                    format2digits.format(seconds)
+                    format2digits.get().format(seconds)
             );
         }
 
@@ -173,11 +172,11 @@ public class ExcelStyleDateFormatter extends SimpleDateFormat {
             float millis = (millisTemp - (int) millisTemp);
             s = s.replaceAll(
                     String.valueOf(L_BRACKET_SYMBOL),
-                    format3digit.format(millis * 10.0)
+                    format3digit.get().format(millis * 10.0)
             );
             s = s.replaceAll(
                     String.valueOf(LL_BRACKET_SYMBOL),
-                    format4digits.format(millis * 100.0)
+                    format4digits.get().format(millis * 100.0)
             );
         }
 
@@ -24,6 +24,7 @@ import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.ss.usermodel.Cell;
@@ -107,6 +108,9 @@ public final class CellUtil {
 
     private static UnicodeMapping[] unicodeMappings;
 
+    /** Maps a workbook to the format properties of its cell styles, see {@link StyleCache} */
+    private static final Map<Workbook, StyleCache> styleCaches = new WeakHashMap<>();
+
     private static final class UnicodeMapping {
 
         public final String entityName;
@@ -261,6 +265,10 @@ public final class CellUtil {
      * {@link #setCellStyleProperty(org.apache.poi.ss.usermodel.Cell, String, Object)}
      * if adding multiple cell styles.</p>
      * 
+     * <p>The format properties of the workbook styles are cached, so the existing styles aren't
+     * inspected on each call. A style, which is modified after it has been cached, might not be
+     * found anymore - in this case a new style is created.</p>
+     * 
      * <p>For performance reasons, if this is the only cell in a workbook that uses a cell style,
      * this method does NOT remove the old style from the workbook.
      * <!-- NOT IMPLEMENTED: Unused styles should be
@@ -275,24 +283,11 @@ public final class CellUtil {
     public static void setCellStyleProperties(Cell cell, Map<String, Object> properties) {
         Workbook workbook = cell.getSheet().getWorkbook();
         CellStyle originalStyle = cell.getCellStyle();
-        CellStyle newStyle = null;
         Map<String, Object> values = getFormatProperties(originalStyle);
         putAll(properties, values);
 
-        // index seems like what index the cellstyle is in the list of styles for a workbook.
-        // not good to compare on!
-        int numberCellStyles = workbook.getNumCellStyles();
-
-        for (int i = 0; i < numberCellStyles; i++) {
-            CellStyle wbStyle = workbook.getCellStyleAt(i);
-            Map<String, Object> wbStyleMap = getFormatProperties(wbStyle);
-
-            // the desired style already exists in the workbook. Use the existing style.
-            if (wbStyleMap.equals(values)) {
-                newStyle = wbStyle;
-                break;
-            }
-        }
+        // the desired style might already exist in the workbook. Use the existing style.
+        CellStyle newStyle = findCellStyle(workbook, values);
 
         // the desired style does not exist in the workbook. Create a new style with desired properties.
         if (newStyle == null) {
@@ -325,6 +320,51 @@ public final class CellUtil {
         setCellStyleProperties(cell, property);
     }
 
+    private static CellStyle findCellStyle(Workbook workbook, Map<String, Object> properties) {
+        StyleCache cache;
+        synchronized (styleCaches) {
+            cache = styleCaches.computeIfAbsent(workbook, wb -> new StyleCache());
+        }
+        return cache.find(workbook, properties);
+    }
+
+    /**
+     * The format properties of the cell styles of a workbook. Styles, which have been added to the
+     * workbook since the last lookup, are cached incrementally. As styles can be modified, a found
+     * style is checked again and the cache is rebuilt if it's outdated.
+     */
+    private static final class StyleCache {
+        // index seems like what index the cellstyle is in the list of styles for a workbook.
+        // not good to compare on!
+        private final Map<Map<String, Object>, Integer> styleIndexes = new HashMap<>();
+        private int numCachedStyles;
+
+        synchronized CellStyle find(Workbook workbook, Map<String, Object> properties) {
+            CellStyle style = lookup(workbook, properties);
+            if (style == null || getFormatProperties(style).equals(properties)) {
+                return style;
+            }
+            styleIndexes.clear();
+            numCachedStyles = 0;
+            style = lookup(workbook, properties);
+            return (style == null || getFormatProperties(style).equals(properties)) ? style : null;
+        }
+
+        private CellStyle lookup(Workbook workbook, Map<String, Object> properties) {
+            int numberCellStyles = workbook.getNumCellStyles();
+            if (numberCellStyles < numCachedStyles) {
+                styleIndexes.clear();
+                numCachedStyles = 0;
+            }
+            for (; numCachedStyles < numberCellStyles; numCachedStyles++) {
+                CellStyle wbStyle = workbook.getCellStyleAt(numCachedStyles);
+                styleIndexes.putIfAbsent(getFormatProperties(wbStyle), numCachedStyles);
+            }
+            Integer idx = styleIndexes.get(properties);
+            return idx == null ? null : workbook.getCellStyleAt(idx);
+        }
+    }
+
     /**
      * Returns a map containing the format properties of the given cell style.
      * The returned map is not tied to <code>style</code>, so subsequent changes
@@ -0,0 +1,171 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.ss.util;
+
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextAttribute;
+import java.awt.font.TextLayout;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.poi.ss.usermodel.Font;
+
+/**
+ * Caches the advance widths of the characters of a font, so the width of a plain text can be
+ * computed by adding up the character widths instead of laying out the text.<p>
+ *
+ * Only characters of scripts which are rendered glyph by glyph (Latin, Greek, Cyrillic) are cached.
+ * Texts with other characters, e.g. of complex scripts like Arabic or Thai, combining marks or
+ * surrogate pairs, need a {@link TextLayout}.
+ *
+ * @since POI 4.1.1
+ */
+final class GlyphWidths {
+    /** upper limit of the number of cached fonts - if exceeded, the cache is cleared */
+    private static final int MAX_FONTS = 1000;
+
+    /** the characters below Hebrew don't need complex text layout */
+    private static final char LIMIT = '\u0590';
+
+    private static final float UNKNOWN = -1;
+    private static final float NEEDS_LAYOUT = -2;
+
+    private static final Map<Key, GlyphWidths> CACHE = new ConcurrentHashMap<>();
+
+    private final java.awt.Font awtFont;
+    private final FontRenderContext fontRenderContext;
+
+    /** the advance widths of the characters below {@link #LIMIT} */
+    private final float[] widths = new float[LIMIT];
+
+    /** the right border of the visual bounds of the closing character */
+    private final double closingCharExtent;
+
+    private GlyphWidths(java.awt.Font awtFont, FontRenderContext fontRenderContext, char closingChar) {
+        this.awtFont = awtFont;
+        this.fontRenderContext = fontRenderContext;
+        Arrays.fill(widths, UNKNOWN);
+        Rectangle2D bounds = new TextLayout(String.valueOf(closingChar), awtFont, fontRenderContext).getBounds();
+        closingCharExtent = bounds.getX() + bounds.getWidth();
+    }
+
+    /**
+     * Returns the cached widths of the given font
+     *
+     * @param font the font
+     * @param fontRenderContext the context to measure the text, needs to be the same for all calls
+     * @param closingChar the character, which is appended to all measured texts
+     * @return the widths or {@code null}, if the font properties require a text layout, e.g. underlines
+     */
+    static GlyphWidths getInstance(Font font, FontRenderContext fontRenderContext, char closingChar) {
+        if (font.getFontName() == null || font.getUnderline() != Font.U_NONE) {
+            return null;
+        }
+        Key key = new Key(font.getFontName(), font.getFontHeightInPoints(), font.getBold(), font.getItalic());
+        GlyphWidths widths = CACHE.get(key);
+        if (widths == null) {
+            if (CACHE.size() >= MAX_FONTS) {
+                CACHE.clear();
+            }
+            widths = CACHE.computeIfAbsent(key, k -> new GlyphWidths(k.toAwtFont(), fontRenderContext, closingChar));
+        }
+        return widths;
+    }
+
+    /**
+     * Computes the right border of the visual bounds of the text followed by the closing character,
+     * i.e. the same as {@code getX() + getWidth()} of the bounds of the {@link TextLayout}.
+     *
+     * @param text the text without the closing character
+     * @return the width or {@link Double#NaN}, if the text requires a text layout
+     */
+    double getFrameWidth(String text) {
+        double width = closingCharExtent;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= LIMIT) {
+                return Double.NaN;
+            }
+            float w = widths[c];
+            if (w == UNKNOWN) {
+                w = measure(c);
+                widths[c] = w;
+            }
+            if (w == NEEDS_LAYOUT) {
+                return Double.NaN;
+            }
+            width += w;
+        }
+        return width;
+    }
+
+    private float measure(char c) {
+        // control characters and combining marks are handled by the text layout
+        if (Character.isISOControl(c) || Character.getType(c) == Character.NON_SPACING_MARK || !awtFont.canDisplay(c)) {
+            return NEEDS_LAYOUT;
+        }
+        return awtFont.createGlyphVector(fontRenderContext, new char[]{ c }).getGlyphMetrics(0).getAdvanceX();
+    }
+
+    private static final class Key {
+        private final String name;
+        private final short points;
+        private final boolean bold;
+        private final boolean italic;
+
+        Key(String name, short points, boolean bold, boolean italic) {
+            this.name = name;
+            this.points = points;
+            this.bold = bold;
+            this.italic = italic;
+        }
+
+        java.awt.Font toAwtFont() {
+            // the same attributes as in SheetUtil.copyAttributes
+            Map<TextAttribute, Object> attributes = new HashMap<>();
+            attributes.put(TextAttribute.FAMILY, name);
+            attributes.put(TextAttribute.SIZE, (float)points);
+            if (bold) {
+                attributes.put(TextAttribute.WEIGHT, TextAttribute.WEIGHT_BOLD);
+            }
+            if (italic) {
+                attributes.put(TextAttribute.POSTURE, TextAttribute.POSTURE_OBLIQUE);
+            }
+            return java.awt.Font.getFont(attributes);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() + 31 * points + (bold ? 2 : 0) + (italic ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key)obj;
+            return name.equals(other.name) && points == other.points
+                    && bold == other.bold && italic == other.italic;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import java.awt.geom.Rectangle2D;
 import java.text.AttributedString;
 import java.util.Locale;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
@@ -108,6 +109,8 @@ public class SheetUtil {
      */
     private static final FontRenderContext fontRenderContext = new FontRenderContext(null, true, true);
 
+    private static final Pattern LINE_BREAK = Pattern.compile("\\n");
+
     /**
      * Compute width of a single cell
      *
@@ -149,18 +152,13 @@ public class SheetUtil {
         double width = -1;
         if (cellType == CellType.STRING) {
             RichTextString rt = cell.getRichStringCellValue();
-            String[] lines = rt.getString().split("\\n");
+            String[] lines = LINE_BREAK.split(rt.getString());
             for (String line : lines) {
-                String txt = line + defaultChar;
-
-                AttributedString str = new AttributedString(txt);
-                copyAttributes(font, str, 0, txt.length());
-
                 /*if (rt.numFormattingRuns() > 0) {
                     // TODO: support rich text fragments
                 }*/
 
-                width = getCellWidth(defaultCharWidth, colspan, style, width, str);
+                width = getCellWidth(defaultCharWidth, colspan, style, width, font, line);
             }
         } else {
             String sval = null;
@@ -175,16 +173,41 @@ public class SheetUtil {
                 sval = String.valueOf(cell.getBooleanCellValue()).toUpperCase(Locale.ROOT);
             }
             if(sval != null) {
-                String txt = sval + defaultChar;
-                AttributedString str = new AttributedString(txt);
-                copyAttributes(font, str, 0, txt.length());
-
-                width = getCellWidth(defaultCharWidth, colspan, style, width, str);
+                width = getCellWidth(defaultCharWidth, colspan, style, width, font, sval);
             }
         }
         return width;
     }
 
+    /**
+     * Calculate the best-fit width for a line of text of a cell.
+     * Plain text in simple scripts is measured with the cached character widths of the font,
+     * other text is laid out.
+     *
+     * @param defaultCharWidth the width of a character using the default font in a workbook
+     * @param colspan the number of columns that is spanned by the cell (1 if the cell is not part of a merged region)
+     * @param style the cell style, which contains text rotation and indention information needed to compute the cell width
+     * @param minWidth the minimum best-fit width. This algorithm will only return values greater than or equal to the minimum width.
+     * @param font the font of the cell
+     * @param text the text contained in the cell
+     * @return the best fit cell width
+     */
+    private static double getCellWidth(int defaultCharWidth, int colspan,
+            CellStyle style, double minWidth, Font font, String text) {
+        if (style.getRotation() == 0) {
+            GlyphWidths glyphWidths = GlyphWidths.getInstance(font, fontRenderContext, defaultChar);
+            double frameWidth = (glyphWidths == null) ? Double.NaN : glyphWidths.getFrameWidth(text);
+            if (!Double.isNaN(frameWidth)) {
+                return Math.max(minWidth, ((frameWidth / colspan) / defaultCharWidth) + style.getIndention());
+            }
+        }
+
+        String txt = text + defaultChar;
+        AttributedString str = new AttributedString(txt);
+        copyAttributes(font, str, 0, txt.length());
+        return getCellWidth(defaultCharWidth, colspan, style, minWidth, str);
+    }
+
     /**
      * Calculate the best-fit width for a cell
      * If a merged cell spans multiple columns, evenly distribute the column width among those columns
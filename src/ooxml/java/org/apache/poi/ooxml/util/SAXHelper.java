@@ -53,6 +53,18 @@ public final class SAXHelper {
         return xmlReader;
     }
     
+    /**
+     * Creates a new SAX XMLReader like {@link #newXMLReader()}, which additionally rejects
+     * documents with a DOCTYPE declaration in the same way as the {@link DocumentHelper}
+     *
+     * @since POI 4.1.1
+     */
+    public static XMLReader newXMLReaderDisallowingDoctype() throws SAXException, ParserConfigurationException {
+        XMLReader xmlReader = newXMLReader();
+        trySetSAXFeature(xmlReader, POIXMLConstants.FEATURE_DISALLOW_DOCTYPE_DECL);
+        return xmlReader;
+    }
+
     static final EntityResolver IGNORING_ENTITY_RESOLVER = (publicId, systemId) -> new InputSource(new StringReader(""));
     
     private static final SAXParserFactory saxFactory;
@@ -88,7 +100,7 @@ public final class SAXHelper {
         }
     }
 
-    private static void trySetSAXFeature(XMLReader xmlReader, @SuppressWarnings("SameParameterValue") String feature) {
+    private static void trySetSAXFeature(XMLReader xmlReader, String feature) {
         try {
             xmlReader.setFeature(feature, true);
         } catch (Exception e) {
@@ -16,19 +16,21 @@
 ==================================================================== */
 package org.apache.poi.openxml4j.opc;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
 
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.openxml4j.exceptions.InvalidOperationException;
-import org.apache.poi.ooxml.util.DocumentHelper;
+import org.apache.poi.ooxml.util.SAXHelper;
 import org.apache.poi.util.POILogFactory;
 import org.apache.poi.util.POILogger;
-import org.w3c.dom.Attr;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * Represents a collection of PackageRelationship elements that are owned by a
@@ -42,6 +44,11 @@ public final class PackageRelationshipCollection implements
 
     private final static POILogger logger = POILogFactory.getLogger(PackageRelationshipCollection.class);
 
+    /**
+     * Target of relationships with an invalid target URI.
+     */
+    private static final URI DUMMY_URI = URI.create("http://invalid.uri");
+
     /**
      * Package relationships ordered by ID.
      */
@@ -299,66 +306,83 @@ public final class PackageRelationshipCollection implements
      */
     public void parseRelationshipsPart(PackagePart relPart)
             throws InvalidFormatException {
-        try {
+        try (InputStream is = relPart.getInputStream()) {
             logger.log(POILogger.DEBUG, "Parsing relationship: " + relPart.getPartName());
-            Document xmlRelationshipsDoc = DocumentHelper.readDocument(relPart.getInputStream());
-
-            // Browse default types
-            Element root = xmlRelationshipsDoc.getDocumentElement();
-
-            // Check OPC compliance M4.1 rule
-            boolean fCorePropertiesRelationship = false;
-
-            NodeList nodeList = root.getElementsByTagNameNS(PackageNamespaces.RELATIONSHIPS, PackageRelationship.RELATIONSHIP_TAG_NAME);
-            int nodeCount = nodeList.getLength();
-            for (int i = 0; i < nodeCount; i++) {
-                Element element = (Element)nodeList.item(i);
-                // Relationship ID
-                String id = element.getAttribute(PackageRelationship.ID_ATTRIBUTE_NAME);
-                // Relationship type
-                String type = element.getAttribute(PackageRelationship.TYPE_ATTRIBUTE_NAME);
-
-                /* Check OPC Compliance */
-                // Check Rule M4.1
-                if (type.equals(PackageRelationshipTypes.CORE_PROPERTIES))
-                    if (!fCorePropertiesRelationship)
-                        fCorePropertiesRelationship = true;
-                    else
-                        throw new InvalidFormatException(
-                                "OPC Compliance error [M4.1]: there is more than one core properties relationship in the package !");
-
-                /* End OPC Compliance */
-
-                // TargetMode (default value "Internal")
-                Attr targetModeAttr = element.getAttributeNode(PackageRelationship.TARGET_MODE_ATTRIBUTE_NAME);
-                TargetMode targetMode = TargetMode.INTERNAL;
-                if (targetModeAttr != null) {
-                    targetMode = targetModeAttr.getValue().toLowerCase(Locale.ROOT)
-                            .equals("internal") ? TargetMode.INTERNAL
-                            : TargetMode.EXTERNAL;
-                }
-
-                // Target converted in URI
-                URI target = PackagingURIHelper.toURI("http://invalid.uri"); // dummy url
-                String value = element.getAttribute(PackageRelationship.TARGET_ATTRIBUTE_NAME);
-                try {
-                    // when parsing of the given uri fails, we can either
-                    // ignore this relationship, which leads to IllegalStateException
-                    // later on, or use a dummy value and thus enable processing of the
-                    // package
-                    target = PackagingURIHelper.toURI(value);
-                } catch (URISyntaxException e) {
-                    logger.log(POILogger.ERROR, "Cannot convert " + value
-                            + " in a valid relationship URI-> dummy-URI used", e);
-                }
-                addRelationship(target, targetMode, type, id);
-            }
+            // the relationships are added while streaming, large parts aren't built up as DOM first
+            XMLReader xmlReader = SAXHelper.newXMLReaderDisallowingDoctype();
+            xmlReader.setContentHandler(new RelationshipsHandler());
+            xmlReader.parse(new InputSource(is));
         } catch (Exception e) {
             logger.log(POILogger.ERROR, e);
             throw new InvalidFormatException(e.getMessage());
         }
     }
 
+    /**
+     * Adds the relationship elements of a relationship part to this collection
+     */
+    private final class RelationshipsHandler extends DefaultHandler {
+        // Check OPC compliance M4.1 rule
+        private boolean fCorePropertiesRelationship;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+                throws SAXException {
+            if (!PackageNamespaces.RELATIONSHIPS.equals(uri)
+                    || !PackageRelationship.RELATIONSHIP_TAG_NAME.equals(localName)) {
+                return;
+            }
+
+            // Relationship ID
+            String id = getAttribute(attributes, PackageRelationship.ID_ATTRIBUTE_NAME);
+            // Relationship type
+            String type = getAttribute(attributes, PackageRelationship.TYPE_ATTRIBUTE_NAME);
+
+            /* Check OPC Compliance */
+            // Check Rule M4.1
+            if (type.equals(PackageRelationshipTypes.CORE_PROPERTIES))
+                if (!fCorePropertiesRelationship)
+                    fCorePropertiesRelationship = true;
+                else
+                    throw new SAXException(
+                            "OPC Compliance error [M4.1]: there is more than one core properties relationship in the package !");
+
+            /* End OPC Compliance */
+
+            // TargetMode (default value "Internal")
+            String targetModeAttr = attributes.getValue(PackageRelationship.TARGET_MODE_ATTRIBUTE_NAME);
+            TargetMode targetMode = TargetMode.INTERNAL;
+            if (targetModeAttr != null) {
+                targetMode = targetModeAttr.toLowerCase(Locale.ROOT)
+                        .equals("internal") ? TargetMode.INTERNAL
+                        : TargetMode.EXTERNAL;
+            }
+
+            // Target converted in URI
+            URI target = DUMMY_URI;
+            String value = getAttribute(attributes, PackageRelationship.TARGET_ATTRIBUTE_NAME);
+            try {
+                // when parsing of the given uri fails, we can either
+                // ignore this relationship, which leads to IllegalStateException
+                // later on, or use a dummy value and thus enable processing of the
+                // package
+                target = PackagingURIHelper.toURI(value);
+            } catch (URISyntaxException e) {
+                logger.log(POILogger.ERROR, "Cannot convert " + value
+                        + " in a valid relationship URI-> dummy-URI used", e);
+            }
+            addRelationship(target, targetMode, type, id);
+        }
+
+        /**
+         * @return the attribute value or an empty string, if the attribute is missing
+         */
+        private String getAttribute(Attributes attributes, String name) {
+            String value = attributes.getValue(name);
+            return value == null ? "" : value;
+        }
+    }
+
     /**
      * Retrieves all relations with the specified type.
      *
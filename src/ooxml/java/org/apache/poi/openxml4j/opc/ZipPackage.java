@@ -20,15 +20,23 @@ package org.apache.poi.openxml4j.opc;
 import static org.apache.poi.openxml4j.opc.ContentTypes.RELATIONSHIPS_PART;
 import static org.apache.poi.openxml4j.opc.internal.ContentTypeManager.CONTENT_TYPES_PART_NAME;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
 
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
@@ -51,6 +59,8 @@ import org.apache.poi.openxml4j.util.ZipArchiveThresholdInputStream;
 import org.apache.poi.openxml4j.util.ZipEntrySource;
 import org.apache.poi.openxml4j.util.ZipFileZipEntrySource;
 import org.apache.poi.openxml4j.util.ZipInputStreamZipEntrySource;
+import org.apache.poi.openxml4j.util.ParallelZipWriter;
+import org.apache.poi.openxml4j.util.ZipTempFileZipEntrySource;
 import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.POILogFactory;
 import org.apache.poi.util.POILogger;
@@ -65,12 +75,128 @@ public final class ZipPackage extends OPCPackage {
 
     private static final POILogger LOG = POILogFactory.getLogger(ZipPackage.class);
 
+    // the following settings are global, i.e. they apply to all packages of the JVM,
+    // and may be changed while other threads open or save packages
+    private static volatile boolean spoolStreamsToTempFile;
+    private static volatile long partCacheSize;
+    private static volatile int defaultCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private static final Map<String, Integer> compressionLevels = new ConcurrentHashMap<>();
+
     /**
      * Zip archive, as either a file on disk,
      *  or a stream
      */
     private final ZipEntrySource zipArchive;
 
+    /**
+     * The inflated content of recently read parts, or <code>null</code> if disabled
+     */
+    private final PartCache partCache = newPartCache(partCacheSize);
+
+    /**
+     * The executor, which compresses the parts on save, or <code>null</code> to compress on the calling thread
+     */
+    private ExecutorService compressionExecutor;
+
+    /**
+     * Sets whether packages opened from an InputStream spool the stream to a temporary file
+     *  instead of inflating all entries into memory up front. The parts are then inflated
+     *  from the file, when their content is read. The file is deleted, when the package is closed.
+     * <p>
+     * This is a global setting, which applies to all packages opened afterwards in this JVM.
+     *
+     * @param spool whether to spool streams to temporary files, defaults to <code>false</code>
+     * @since POI 4.1.1
+     */
+    public static void setSpoolStreamsToTempFile(boolean spool) {
+        spoolStreamsToTempFile = spool;
+    }
+
+    /**
+     * @return whether packages opened from an InputStream are spooled to a temporary file
+     * @since POI 4.1.1
+     */
+    public static boolean isSpoolStreamsToTempFile() {
+        return spoolStreamsToTempFile;
+    }
+
+    /**
+     * Sets the maximum number of bytes of inflated part content, which each package keeps in memory
+     *  to serve repeated reads of the same parts. The least recently read parts are evicted first.
+     * <p>
+     * This is a global setting, which applies to all packages opened afterwards in this JVM.
+     *
+     * @param maxBytes the cache size in bytes, 0 (default) disables the cache
+     * @since POI 4.1.1
+     */
+    public static void setPartCacheSize(long maxBytes) {
+        partCacheSize = maxBytes;
+    }
+
+    /**
+     * @return the maximum number of bytes of inflated part content cached by each package
+     * @since POI 4.1.1
+     */
+    public static long getPartCacheSize() {
+        return partCacheSize;
+    }
+
+    /**
+     * Sets the deflate level of the parts with the given content type, e.g. to store already
+     *  compressed media with {@link Deflater#NO_COMPRESSION} or to trade size for speed on
+     *  large XML parts with {@link Deflater#BEST_SPEED}. Parts with the level
+     *  {@link Deflater#NO_COMPRESSION} are stored uncompressed.
+     * <p>
+     * This is a global setting, which applies to all packages saved afterwards in this JVM.
+     *
+     * @param contentType the content type of the parts, or <code>null</code> to set the level
+     *  of all parts without an explicit level
+     * @param level the deflate level from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION} (default)
+     * @since POI 4.1.1
+     */
+    public static void setCompressionLevel(String contentType, int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        if (contentType == null) {
+            defaultCompressionLevel = level;
+        } else {
+            compressionLevels.put(contentType, level);
+        }
+    }
+
+    /**
+     * @param contentType the content type of the parts, or <code>null</code> for the default level
+     * @return the deflate level, which is used to save the parts with the given content type
+     * @since POI 4.1.1
+     */
+    public static int getCompressionLevel(String contentType) {
+        Integer level = (contentType == null) ? null : compressionLevels.get(contentType);
+        return (level == null) ? defaultCompressionLevel : level;
+    }
+
+    /**
+     * Sets the executor, which compresses the parts of this package in parallel when it is saved.
+     *  The parts are still written in their order. If the package is saved into a
+     *  caller-provided ZipArchiveOutputStream, it is always compressed on the calling thread.
+     *  The executor is provided by the caller and isn't shut down by the package.
+     *
+     * @param executor the executor, <code>null</code> (default) compresses on the calling thread
+     * @since POI 4.1.1
+     */
+    public void setCompressionExecutor(ExecutorService executor) {
+        compressionExecutor = executor;
+    }
+
+    /**
+     * @return the executor, which compresses the parts of this package when it is saved,
+     *  or <code>null</code> if they are compressed on the calling thread
+     * @since POI 4.1.1
+     */
+    public ExecutorService getCompressionExecutor() {
+        return compressionExecutor;
+    }
+
     /**
      * Constructor. Creates a new, empty ZipPackage.
      */
@@ -101,6 +227,10 @@ public final class ZipPackage extends OPCPackage {
      */
     ZipPackage(InputStream in, PackageAccess access) throws IOException {
         super(access);
+        if (spoolStreamsToTempFile) {
+            this.zipArchive = openZipEntrySourceTempFile(in);
+            return;
+        }
         ZipArchiveThresholdInputStream zis = ZipHelper.openZipStream(in); // NOSONAR
         try {
             this.zipArchive = new ZipInputStreamZipEntrySource(zis);
@@ -155,6 +285,33 @@ public final class ZipPackage extends OPCPackage {
         this.zipArchive = ze;
     }
     
+    /**
+     * Spools the stream to a temporary file and opens the file as zip, so the entries are
+     *  only inflated on demand. Files without a valid central directory are read as stream.
+     */
+    private static ZipEntrySource openZipEntrySourceTempFile(InputStream in) throws IOException {
+        File tempFile = TempFile.createTempFile("poi-package", ".zip");
+        boolean success = false;
+        try {
+            try (OutputStream os = new FileOutputStream(tempFile)) {
+                IOUtils.copy(in, os);
+            }
+            ZipEntrySource source;
+            try {
+                source = new ZipFileZipEntrySource(ZipHelper.openZipFile(tempFile)); // NOSONAR
+            } catch (IOException e) {
+                LOG.log(POILogger.WARN, "Error in zip stream - falling back to stream processing (i.e. ignoring zip central directory)");
+                source = openZipEntrySourceStream(tempFile);
+            }
+            success = true;
+            return new ZipTempFileZipEntrySource(tempFile, source);
+        } finally {
+            if (!success && !tempFile.delete()) {
+                LOG.log(POILogger.WARN, "The temporary file: '" + tempFile.getAbsolutePath() + "' cannot be deleted");
+            }
+        }
+    }
+
     private static ZipEntrySource openZipEntrySourceStream(File file) throws InvalidOperationException {
         final FileInputStream fis;
         // Acquire a resource that is needed to read the next level of openZipEntrySourceStream
@@ -469,6 +626,9 @@ public final class ZipPackage extends OPCPackage {
 	 */
 	@Override
 	protected void revertImpl() {
+		if (partCache != null) {
+			partCache.clear();
+		}
 		try {
 			if (this.zipArchive != null) {
                 this.zipArchive.close();
@@ -494,6 +654,10 @@ public final class ZipPackage extends OPCPackage {
 
 		final ZipArchiveOutputStream zos = (outputStream instanceof ZipArchiveOutputStream)
             ? (ZipArchiveOutputStream) outputStream : new ZipArchiveOutputStream(outputStream);
+		// the parallel save writes precompressed entries, which would bypass the handling of a caller-provided stream
+		final ExecutorService executor = compressionExecutor;
+		final ParallelZipWriter writer = (outputStream instanceof ZipArchiveOutputStream || executor == null)
+			? null : new ParallelZipWriter(zos, executor);
 
 		try {
 			// If the core properties part does not exist in the part list,
@@ -521,6 +685,7 @@ public final class ZipPackage extends OPCPackage {
 
             // Save content type part.
             LOG.log(POILogger.DEBUG,"Save content types part");
+            zos.setLevel(getCompressionLevel(null));
             this.contentTypeManager.save(zos);
 
 			// Save package relationships part.
@@ -542,12 +707,17 @@ public final class ZipPackage extends OPCPackage {
 				final PartMarshaller marshaller = partMarshallers.get(part._contentType);
 
 				final PartMarshaller pm = (marshaller != null) ? marshaller : defaultPartMarshaller;
-                if (!pm.marshall(part, zos)) {
+                if (writer != null) {
+                    addPart(writer, part, pm);
+                } else if (!pm.marshall(part, zos)) {
                     String errMsg = "The part " + ppn.getURI() + " failed to be saved in the stream with marshaller ";
                     throw new OpenXML4JException(errMsg + pm);
                 }
 			}
 
+			if (writer != null) {
+				writer.finish();
+			}
             zos.finish();
 		} catch (OpenXML4JRuntimeException e) {
 			// no need to wrap this type of Exception
@@ -556,7 +726,36 @@ public final class ZipPackage extends OPCPackage {
             throw new OpenXML4JRuntimeException(
                 "Fail to save: an error occurs while saving the package : "
 				+ e.getMessage(), e);
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Adds a part to the parallel save. The parts of the default zip marshaller are
+     *  compressed by the executor, the other parts are marshalled in order on the calling thread.
+     */
+    private void addPart(ParallelZipWriter writer, PackagePart part, PartMarshaller pm)
+    throws IOException, OpenXML4JException {
+        if (pm == defaultPartMarshaller && (part instanceof ZipPackagePart || part instanceof MemoryPackagePart)) {
+            if (!ZipPartMarshaller.marshall(part, writer)) {
+                throw new OpenXML4JException("The part " + part.getPartName().getURI()
+                    + " failed to be saved in the stream with marshaller " + pm);
+            }
+            return;
         }
+        writer.addAction(zos -> {
+            try {
+                if (!pm.marshall(part, zos)) {
+                    throw new IOException("The part " + part.getPartName().getURI()
+                        + " failed to be saved in the stream with marshaller " + pm);
+                }
+            } catch (OpenXML4JException e) {
+                throw new IOException(e);
+            }
+        });
     }
 
     /**
@@ -567,4 +766,73 @@ public final class ZipPackage extends OPCPackage {
     public ZipEntrySource getZipArchive() {
         return zipArchive;
     }
+
+    /**
+     * Returns the inflated content of the given entry, from the part cache if enabled.
+     *
+     * @param entry an entry of the zip archive of this package
+     * @return the input stream of the entry content
+     * @throws IOException if the entry can't be read
+     */
+    InputStream getInputStream(ZipArchiveEntry entry) throws IOException {
+        if (partCache == null) {
+            return zipArchive.getInputStream(entry);
+        }
+        // the parts might be read by the threads of a parallel save
+        byte[] data;
+        synchronized (partCache) {
+            data = partCache.get(entry.getName());
+        }
+        if (data == null) {
+            long size = entry.getSize();
+            if (size < 0 || size > partCache.maxBytes) {
+                // unknown or too large to be cached
+                return zipArchive.getInputStream(entry);
+            }
+            try (InputStream is = zipArchive.getInputStream(entry)) {
+                data = IOUtils.toByteArray(is);
+            }
+            synchronized (partCache) {
+                partCache.put(entry.getName(), data);
+            }
+        }
+        return new ByteArrayInputStream(data);
+    }
+
+    private static PartCache newPartCache(long maxBytes) {
+        return (maxBytes > 0) ? new PartCache(maxBytes) : null;
+    }
+
+    /**
+     * Size-bounded cache of inflated part contents, which evicts the least recently read parts first
+     */
+    private static final class PartCache {
+        private final Map<String, byte[]> parts = new LinkedHashMap<>(16, 0.75f, true);
+        private final long maxBytes;
+        private long size;
+
+        PartCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        byte[] get(String name) {
+            return parts.get(name);
+        }
+
+        void put(String name, byte[] data) {
+            byte[] old = parts.put(name, data);
+            size += data.length - (old == null ? 0 : old.length);
+            // evict until the cache fits, the last read part is always kept
+            Iterator<byte[]> iter = parts.values().iterator();
+            while (size > maxBytes && parts.size() > 1) {
+                size -= iter.next().length;
+                iter.remove();
+            }
+        }
+
+        void clear() {
+            parts.clear();
+            size = 0;
+        }
+    }
 }
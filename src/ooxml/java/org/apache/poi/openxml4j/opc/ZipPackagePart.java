@@ -103,8 +103,8 @@ public class ZipPackagePart extends PackagePart {
 	protected InputStream getInputStreamImpl() throws IOException {
 		// We use the getInputStream() method from java.util.zip.ZipFile
 		// class which return an InputStream to this part zip entry.
-		return ((ZipPackage) _container).getZipArchive()
-				.getInputStream(zipEntry);
+		// The package serves repeated reads from its part cache, if enabled.
+		return ((ZipPackage) _container).getInputStream(zipEntry);
 	}
 
 	/**
@@ -26,7 +26,10 @@ import java.util.Locale;
 import java.util.Map.Entry;
 import java.util.TreeMap;
 
+import javax.xml.parsers.ParserConfigurationException;
+
 import org.apache.poi.ooxml.util.DocumentHelper;
+import org.apache.poi.ooxml.util.SAXHelper;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.openxml4j.exceptions.InvalidOperationException;
 import org.apache.poi.openxml4j.exceptions.OpenXML4JRuntimeException;
@@ -37,8 +40,11 @@ import org.apache.poi.openxml4j.opc.PackagePartName;
 import org.apache.poi.openxml4j.opc.PackagingURIHelper;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * Manage package content types ([Content_Types].xml part).
@@ -392,30 +398,53 @@ public abstract class ContentTypeManager {
     private void parseContentTypesFile(InputStream in)
             throws InvalidFormatException {
         try {
-            Document xmlContentTypetDoc = DocumentHelper.readDocument(in);
-
-            // Default content types
-            NodeList defaultTypes = xmlContentTypetDoc.getDocumentElement().getElementsByTagNameNS(TYPES_NAMESPACE_URI, DEFAULT_TAG_NAME);
-            int defaultTypeCount = defaultTypes.getLength();
-            for (int i = 0; i < defaultTypeCount; i++) {
-                Element element = (Element) defaultTypes.item(i);
-                String extension = element.getAttribute(EXTENSION_ATTRIBUTE_NAME);
-                String contentType = element.getAttribute(CONTENT_TYPE_ATTRIBUTE_NAME);
-                addDefaultContentType(extension, contentType);
+            // the content types are added while streaming, without building up a DOM first
+            XMLReader xmlReader = SAXHelper.newXMLReaderDisallowingDoctype();
+            xmlReader.setContentHandler(new ContentTypesHandler());
+            xmlReader.parse(new InputSource(in));
+        } catch (IOException | SAXException | ParserConfigurationException e) {
+            Throwable cause = (e instanceof SAXException) ? ((SAXException)e).getException() : null;
+            if (cause instanceof InvalidFormatException) {
+                throw (InvalidFormatException)cause;
             }
+            throw new InvalidFormatException(e.getMessage());
+        }
+    }
 
-            // Overriden content types
-            NodeList overrideTypes = xmlContentTypetDoc.getDocumentElement().getElementsByTagNameNS(TYPES_NAMESPACE_URI, OVERRIDE_TAG_NAME);
-            int overrideTypeCount = overrideTypes.getLength();
-            for (int i = 0; i < overrideTypeCount; i++) {
-                Element element = (Element) overrideTypes.item(i);
-                URI uri = new URI(element.getAttribute(PART_NAME_ATTRIBUTE_NAME));
-                PackagePartName partName = PackagingURIHelper.createPartName(uri);
-                String contentType = element.getAttribute(CONTENT_TYPE_ATTRIBUTE_NAME);
-                addOverrideContentType(partName, contentType);
+    /**
+     * Adds the default and override elements of the content types part to this manager
+     */
+    private final class ContentTypesHandler extends DefaultHandler {
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+                throws SAXException {
+            if (!TYPES_NAMESPACE_URI.equals(uri)) {
+                return;
             }
-        } catch (URISyntaxException | IOException | SAXException e) {
-            throw new InvalidFormatException(e.getMessage());
+            try {
+                if (DEFAULT_TAG_NAME.equals(localName)) {
+                    // Default content types
+                    String extension = getAttribute(attributes, EXTENSION_ATTRIBUTE_NAME);
+                    String contentType = getAttribute(attributes, CONTENT_TYPE_ATTRIBUTE_NAME);
+                    addDefaultContentType(extension, contentType);
+                } else if (OVERRIDE_TAG_NAME.equals(localName)) {
+                    // Overriden content types
+                    URI partUri = new URI(getAttribute(attributes, PART_NAME_ATTRIBUTE_NAME));
+                    PackagePartName partName = PackagingURIHelper.createPartName(partUri);
+                    String contentType = getAttribute(attributes, CONTENT_TYPE_ATTRIBUTE_NAME);
+                    addOverrideContentType(partName, contentType);
+                }
+            } catch (URISyntaxException | InvalidFormatException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        /**
+         * @return the attribute value or an empty string, if the attribute is missing
+         */
+        private String getAttribute(Attributes attributes, String name) {
+            String value = attributes.getValue(name);
+            return value == null ? "" : value;
         }
     }
 
@@ -21,10 +21,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
 
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.ContentTypes;
 import org.apache.poi.openxml4j.opc.PackageNamespaces;
 import org.apache.poi.openxml4j.opc.PackagePart;
 import org.apache.poi.openxml4j.opc.PackagePartName;
@@ -33,8 +36,12 @@ import org.apache.poi.openxml4j.opc.PackageRelationshipCollection;
 import org.apache.poi.openxml4j.opc.PackagingURIHelper;
 import org.apache.poi.openxml4j.opc.StreamHelper;
 import org.apache.poi.openxml4j.opc.TargetMode;
+import org.apache.poi.openxml4j.opc.ZipPackage;
+import org.apache.poi.openxml4j.opc.ZipPackagePart;
 import org.apache.poi.openxml4j.opc.internal.PartMarshaller;
 import org.apache.poi.openxml4j.opc.internal.ZipHelper;
+import org.apache.poi.openxml4j.util.ParallelZipWriter;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
 import org.apache.poi.ooxml.util.DocumentHelper;
 import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.POILogFactory;
@@ -65,25 +72,40 @@ public final class ZipPartMarshaller implements PartMarshaller {
 			// exception
 		}
 		
+		ZipArchiveOutputStream zos = (ZipArchiveOutputStream) os;
+		try (ParallelZipWriter writer = new ParallelZipWriter(zos, null)) {
+			return marshall(part, writer);
+		}
+	}
+
+	/**
+	 * Save the specified part with a writer, which might compress the part
+	 * on another thread. The part is written with the compression level
+	 * configured for its content type.
+	 *
+	 * @see ZipPackage#setCompressionLevel(String, int)
+	 */
+	public static boolean marshall(PackagePart part, ParallelZipWriter writer)
+			throws OpenXML4JException {
 		// check if there is anything to save for some parts. We don't do this for all parts as some code
 		// might depend on empty parts being saved, e.g. some unit tests verify this currently.
 		if(part.getSize() == 0 && part.getPartName().getName().equals(XSSFRelation.SHARED_STRINGS.getDefaultFileName())) {
 		    return true;
 		}
 
-		ZipArchiveOutputStream zos = (ZipArchiveOutputStream) os;
-		ZipArchiveEntry partEntry = new ZipArchiveEntry(ZipHelper
-				.getZipItemNameFromOPCName(part.getPartName().getURI()
-						.getPath()));
+		String name = ZipHelper.getZipItemNameFromOPCName(part.getPartName().getURI().getPath());
+		int level = ZipPackage.getCompressionLevel(part.getContentType());
 		try {
-			// Create next zip entry
-			zos.putArchiveEntry(partEntry);
-
-			// Saving data in the ZIP file
-			try (final InputStream ins = part.getInputStream()) {
-				IOUtils.copy(ins, zos);
-			} finally {
-				zos.closeArchiveEntry();
+			// Unmodified parts are copied in their compressed form
+			if (part instanceof ZipPackagePart && isRawCopyable((ZipPackagePart) part, level)) {
+				writer.addAction(zos -> copyRawEntry((ZipPackagePart) part, name, zos));
+			} else {
+				// Saving data in the ZIP file
+				writer.addEntry(new ZipArchiveEntry(name), level, os -> {
+					try (final InputStream ins = part.getInputStream()) {
+						IOUtils.copy(ins, os);
+					}
+				});
 			}
 		} catch (IOException ioe) {
 			logger.log(POILogger.ERROR,"Cannot write: " + part.getPartName() + ": in ZIP",
@@ -95,14 +117,59 @@ public final class ZipPartMarshaller implements PartMarshaller {
 		if (part.hasRelationships()) {
 			PackagePartName relationshipPartName = PackagingURIHelper
 					.getRelationshipPartName(part.getPartName());
+			PackageRelationshipCollection rels = part.getRelationships();
 
-			marshallRelationshipPart(part.getRelationships(),
-					relationshipPartName, zos);
-
+			try {
+				writer.addAction(zos -> marshallRelationshipPart(rels, relationshipPartName, zos));
+			} catch (IOException ioe) {
+				// not thrown, the relationship marshaller logs its errors
+				return false;
+			}
 		}
 		return true;
 	}
 
+	/**
+	 * Checks if the compressed data of a part, which has been read from a zip file and hasn't been
+	 * changed since, can be copied. Modified parts are replaced by memory parts, so the data is still valid.
+	 *
+	 * @return <code>false</code> if the compressed data isn't available, e.g. for packages
+	 *         opened from a stream, or if the configured level requires another compression method
+	 */
+	private static boolean isRawCopyable(ZipPackagePart part, int level) throws IOException {
+		ZipEntrySource archive = ((ZipPackage) part.getPackage()).getZipArchive();
+		ZipArchiveEntry source = part.getZipArchive();
+		if (archive == null || archive.isClosed() || source == null || source.getCrc() == -1
+				|| source.getSize() == -1 || source.getCompressedSize() == -1) {
+			return false;
+		}
+		// the part keeps its compression method, unless it has to be stored or deflated explicitly
+		if (level == Deflater.NO_COMPRESSION ? source.getMethod() != ZipEntry.STORED
+				: (level != Deflater.DEFAULT_COMPRESSION && source.getMethod() != ZipEntry.DEFLATED)) {
+			return false;
+		}
+		try (InputStream raw = archive.getRawInputStream(source)) {
+			return raw != null;
+		}
+	}
+
+	/**
+	 * Copies the compressed data of a part, which has been checked by {@link #isRawCopyable(ZipPackagePart, int)}
+	 */
+	private static void copyRawEntry(ZipPackagePart part, String name, ZipArchiveOutputStream zos)
+			throws IOException {
+		ZipEntrySource archive = ((ZipPackage) part.getPackage()).getZipArchive();
+		ZipArchiveEntry source = part.getZipArchive();
+		try (InputStream raw = archive.getRawInputStream(source)) {
+			ZipArchiveEntry partEntry = new ZipArchiveEntry(name);
+			partEntry.setMethod(source.getMethod());
+			partEntry.setCrc(source.getCrc());
+			partEntry.setSize(source.getSize());
+			partEntry.setCompressedSize(source.getCompressedSize());
+			zos.addRawArchiveEntry(partEntry, raw);
+		}
+	}
+
 	/**
 	 * Save relationships into the part.
 	 *
@@ -171,6 +238,7 @@ public final class ZipPartMarshaller implements PartMarshaller {
 		ZipArchiveEntry ctEntry = new ZipArchiveEntry(ZipHelper.getZipURIFromOPCName(
 				relPartName.getURI().toASCIIString()).getPath());
 		try {
+			zos.setLevel(ZipPackage.getCompressionLevel(ContentTypes.RELATIONSHIPS_PART));
 			zos.putArchiveEntry(ctEntry);
 			try {
 				return StreamHelper.saveXmlInStream(xmlOutDoc, zos);
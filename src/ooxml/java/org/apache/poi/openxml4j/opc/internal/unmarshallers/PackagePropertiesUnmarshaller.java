@@ -19,8 +19,14 @@ package org.apache.poi.openxml4j.opc.internal.unmarshallers;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
 
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
@@ -31,13 +37,16 @@ import org.apache.poi.openxml4j.opc.ZipPackage;
 import org.apache.poi.openxml4j.opc.internal.PackagePropertiesPart;
 import org.apache.poi.openxml4j.opc.internal.PartUnmarshaller;
 import org.apache.poi.openxml4j.opc.internal.ZipHelper;
-import org.apache.poi.ooxml.util.DocumentHelper;
+import org.apache.poi.ooxml.util.SAXHelper;
 import org.w3c.dom.Attr;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * Package properties unmarshaller.
@@ -103,111 +112,127 @@ public final class PackagePropertiesUnmarshaller implements PartUnmarshaller {
 						"Error while trying to get the part input stream.");
 		}
 
-		Document xmlDoc;
+		PropertiesHandler handler = new PropertiesHandler();
 		try {
-			xmlDoc = DocumentHelper.readDocument(in);
-
-			/* Check OPC compliance */
-
-			// Rule M4.2, M4.3, M4.4 and M4.5/
-			checkElementForOPCCompliance(xmlDoc.getDocumentElement());
-
-			/* End OPC compliance */
-
-        } catch (SAXException e) {
-            throw new IOException(e.getMessage());
-        }
+			// the properties are read while streaming, the OPC compliance is checked per element
+			XMLReader xmlReader = SAXHelper.newXMLReaderDisallowingDoctype();
+			xmlReader.setContentHandler(handler);
+			xmlReader.parse(new InputSource(in));
+		} catch (SAXException e) {
+			if (e.getException() instanceof InvalidFormatException) {
+				throw (InvalidFormatException)e.getException();
+			}
+			throw new IOException(e.getMessage());
+		} catch (ParserConfigurationException e) {
+			throw new IOException(e.getMessage());
+		}
 
-        coreProps.setCategoryProperty(loadCategory(xmlDoc));
-		coreProps.setContentStatusProperty(loadContentStatus(xmlDoc));
-		coreProps.setContentTypeProperty(loadContentType(xmlDoc));
-		coreProps.setCreatedProperty(loadCreated(xmlDoc));
-		coreProps.setCreatorProperty(loadCreator(xmlDoc));
-		coreProps.setDescriptionProperty(loadDescription(xmlDoc));
-		coreProps.setIdentifierProperty(loadIdentifier(xmlDoc));
-		coreProps.setKeywordsProperty(loadKeywords(xmlDoc));
-		coreProps.setLanguageProperty(loadLanguage(xmlDoc));
-		coreProps.setLastModifiedByProperty(loadLastModifiedBy(xmlDoc));
-		coreProps.setLastPrintedProperty(loadLastPrinted(xmlDoc));
-		coreProps.setModifiedProperty(loadModified(xmlDoc));
-		coreProps.setRevisionProperty(loadRevision(xmlDoc));
-		coreProps.setSubjectProperty(loadSubject(xmlDoc));
-		coreProps.setTitleProperty(loadTitle(xmlDoc));
-		coreProps.setVersionProperty(loadVersion(xmlDoc));
+		coreProps.setCategoryProperty(handler.getValue(PackageNamespaces.CORE_PROPERTIES, KEYWORD_CATEGORY));
+		coreProps.setContentStatusProperty(handler.getValue(PackageNamespaces.CORE_PROPERTIES, KEYWORD_CONTENT_STATUS));
+		coreProps.setContentTypeProperty(handler.getValue(PackageNamespaces.CORE_PROPERTIES, KEYWORD_CONTENT_TYPE));
+		coreProps.setCreatedProperty(handler.getValue(PackageProperties.NAMESPACE_DCTERMS, KEYWORD_CREATED));
+		coreProps.setCreatorProperty(handler.getValue(PackageProperties.NAMESPACE_DC, KEYWORD_CREATOR));
+		coreProps.setDescriptionProperty(handler.getValue(PackageProperties.NAMESPACE_DC, KEYWORD_DESCRIPTION));
+		coreProps.setIdentifierProperty(handler.getValue(PackageProperties.NAMESPACE_DC, KEYWORD_IDENTIFIER));
+		coreProps.setKeywordsProperty(handler.getValue(PackageNamespaces.CORE_PROPERTIES, KEYWORD_KEYWORDS));
+		coreProps.setLanguageProperty(handler.getValue(PackageProperties.NAMESPACE_DC, KEYWORD_LANGUAGE));
+		coreProps.setLastModifiedByProperty(handler.getValue(PackageNamespaces.CORE_PROPERTIES, KEYWORD_LAST_MODIFIED_BY));
+		coreProps.setLastPrintedProperty(handler.getValue(PackageNamespaces.CORE_PROPERTIES, KEYWORD_LAST_PRINTED));
+		coreProps.setModifiedProperty(handler.getValue(PackageProperties.NAMESPACE_DCTERMS, KEYWORD_MODIFIED));
+		coreProps.setRevisionProperty(handler.getValue(PackageNamespaces.CORE_PROPERTIES, KEYWORD_REVISION));
+		coreProps.setSubjectProperty(handler.getValue(PackageProperties.NAMESPACE_DC, KEYWORD_SUBJECT));
+		coreProps.setTitleProperty(handler.getValue(PackageProperties.NAMESPACE_DC, KEYWORD_TITLE));
+		coreProps.setVersionProperty(handler.getValue(PackageNamespaces.CORE_PROPERTIES, KEYWORD_VERSION));
 
 		return coreProps;
 	}
 
-    private String readElement(Document xmlDoc, String localName, String namespaceURI) {
-        Element el = (Element)xmlDoc.getDocumentElement().getElementsByTagNameNS(namespaceURI, localName).item(0);
-        if (el == null) {
-            return null;
-        }
-        return el.getTextContent();
-    }
-
-	private String loadCategory(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_CATEGORY, PackageNamespaces.CORE_PROPERTIES);
-	}
-
-    private String loadContentStatus(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_CONTENT_STATUS, PackageNamespaces.CORE_PROPERTIES);
-	}
-
-	private String loadContentType(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_CONTENT_TYPE, PackageNamespaces.CORE_PROPERTIES);
-	}
-
-	private String loadCreated(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_CREATED, PackageProperties.NAMESPACE_DCTERMS);
-	}
-
-	private String loadCreator(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_CREATOR, PackageProperties.NAMESPACE_DC);
-	}
-
-	private String loadDescription(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_DESCRIPTION, PackageProperties.NAMESPACE_DC);
-	}
-
-	private String loadIdentifier(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_IDENTIFIER, PackageProperties.NAMESPACE_DC);
-	}
-
-	private String loadKeywords(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_KEYWORDS, PackageNamespaces.CORE_PROPERTIES);
-	}
-
-	private String loadLanguage(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_LANGUAGE, PackageProperties.NAMESPACE_DC);
-	}
-
-	private String loadLastModifiedBy(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_LAST_MODIFIED_BY, PackageNamespaces.CORE_PROPERTIES);
-	}
-
-	private String loadLastPrinted(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_LAST_PRINTED, PackageNamespaces.CORE_PROPERTIES);
-	}
+	/**
+	 * Collects the text of the first element of each name and checks the elements
+	 * for OPC compliance
+	 */
+	private static final class PropertiesHandler extends DefaultHandler {
+		private static final Set<String> PROPERTY_KEYS = new HashSet<>(Arrays.asList(
+				toKey(PackageNamespaces.CORE_PROPERTIES, KEYWORD_CATEGORY),
+				toKey(PackageNamespaces.CORE_PROPERTIES, KEYWORD_CONTENT_STATUS),
+				toKey(PackageNamespaces.CORE_PROPERTIES, KEYWORD_CONTENT_TYPE),
+				toKey(PackageProperties.NAMESPACE_DCTERMS, KEYWORD_CREATED),
+				toKey(PackageProperties.NAMESPACE_DC, KEYWORD_CREATOR),
+				toKey(PackageProperties.NAMESPACE_DC, KEYWORD_DESCRIPTION),
+				toKey(PackageProperties.NAMESPACE_DC, KEYWORD_IDENTIFIER),
+				toKey(PackageNamespaces.CORE_PROPERTIES, KEYWORD_KEYWORDS),
+				toKey(PackageProperties.NAMESPACE_DC, KEYWORD_LANGUAGE),
+				toKey(PackageNamespaces.CORE_PROPERTIES, KEYWORD_LAST_MODIFIED_BY),
+				toKey(PackageNamespaces.CORE_PROPERTIES, KEYWORD_LAST_PRINTED),
+				toKey(PackageProperties.NAMESPACE_DCTERMS, KEYWORD_MODIFIED),
+				toKey(PackageNamespaces.CORE_PROPERTIES, KEYWORD_REVISION),
+				toKey(PackageProperties.NAMESPACE_DC, KEYWORD_SUBJECT),
+				toKey(PackageProperties.NAMESPACE_DC, KEYWORD_TITLE),
+				toKey(PackageNamespaces.CORE_PROPERTIES, KEYWORD_VERSION)));
+
+		private final Map<String, String> _values = new HashMap<>();
+		/** the key of the element, whose text is collected, or <code>null</code> */
+		private String _currentKey;
+		private int _currentDepth;
+		private int _depth;
+		private final StringBuilder _text = new StringBuilder();
+
+		public String getValue(String namespaceURI, String localName) {
+			return _values.get(toKey(namespaceURI, localName));
+		}
 
-	private String loadModified(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_MODIFIED, PackageProperties.NAMESPACE_DCTERMS);
-	}
+		private static String toKey(String namespaceURI, String localName) {
+			return namespaceURI + '}' + localName;
+		}
 
-	private String loadRevision(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_REVISION, PackageNamespaces.CORE_PROPERTIES);
-	}
+		@Override
+		public void startPrefixMapping(String prefix, String uri) throws SAXException {
+			try {
+				checkNamespaceForOPCCompliance(uri);
+			} catch (InvalidFormatException e) {
+				throw new SAXException(e);
+			}
+		}
 
-	private String loadSubject(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_SUBJECT, PackageProperties.NAMESPACE_DC);
-	}
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes)
+				throws SAXException {
+			int colon = qName.indexOf(':');
+			String prefix = (colon == -1) ? null : qName.substring(0, colon);
+			try {
+				checkElementForOPCCompliance(uri, localName, prefix,
+						attributes.getIndex(XMLConstants.XML_NS_URI, "lang") != -1,
+						attributes.getValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type"));
+			} catch (InvalidFormatException e) {
+				throw new SAXException(e);
+			}
+
+			_depth++;
+			if (_currentKey == null) {
+				String key = toKey(uri, localName);
+				if (PROPERTY_KEYS.contains(key) && !_values.containsKey(key)) {
+					_currentKey = key;
+					_currentDepth = _depth;
+					_text.setLength(0);
+				}
+			}
+		}
 
-	private String loadTitle(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_TITLE, PackageProperties.NAMESPACE_DC);
-	}
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (_currentKey != null) {
+				_text.append(ch, start, length);
+			}
+		}
 
-	private String loadVersion(Document xmlDoc) {
-        return readElement(xmlDoc, KEYWORD_VERSION, PackageNamespaces.CORE_PROPERTIES);
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			if (_currentKey != null && _depth == _currentDepth) {
+				_values.put(_currentKey, _text.toString());
+				_currentKey = null;
+			}
+			_depth--;
+		}
 	}
 
 	/* OPC Compliance methods */
@@ -241,31 +266,57 @@ public final class PackagePropertiesUnmarshaller implements PartUnmarshaller {
         NamedNodeMap namedNodeMap = el.getAttributes();
         int namedNodeCount = namedNodeMap.getLength();
         for (int i = 0; i < namedNodeCount; i++) {
-            Attr attr = (Attr)namedNodeMap.item(0);
-
-            if (attr.getNamespaceURI().equals(XMLConstants.XMLNS_ATTRIBUTE_NS_URI)) {
-                // Rule M4.2
-                if (attr.getValue().equals(PackageNamespaces.MARKUP_COMPATIBILITY))
-                    throw new InvalidFormatException(
-                            "OPC Compliance error [M4.2]: A format consumer shall consider the use of the Markup Compatibility namespace to be an error.");
+            Attr attr = (Attr)namedNodeMap.item(i);
 
+            if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attr.getNamespaceURI())) {
+                checkNamespaceForOPCCompliance(attr.getValue());
             }
         }
 
+        Attr typeAtt = el.getAttributeNodeNS(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type");
+        checkElementForOPCCompliance(el.getNamespaceURI(), el.getLocalName(), el.getPrefix(),
+                el.getAttributeNodeNS(XMLConstants.XML_NS_URI, "lang") != null,
+                typeAtt == null ? null : typeAtt.getValue());
+
+		// Check its children
+        NodeList childElements = el.getElementsByTagName("*");
+        int childElementCount = childElements.getLength();
+        for (int i = 0; i < childElementCount; i++)
+            checkElementForOPCCompliance((Element)childElements.item(i));
+	}
+
+	/**
+	 * Rule M4.2: A format consumer shall consider the use of the Markup
+	 * Compatibility namespace to be an error.
+	 */
+	private static void checkNamespaceForOPCCompliance(String namespaceURI)
+			throws InvalidFormatException {
+		if (PackageNamespaces.MARKUP_COMPATIBILITY.equals(namespaceURI))
+			throw new InvalidFormatException(
+					"OPC Compliance error [M4.2]: A format consumer shall consider the use of the Markup Compatibility namespace to be an error.");
+	}
+
+	/**
+	 * Checks the rules M4.3, M4.4 and M4.5 for a single element
+	 *
+	 * @param hasXmlLang whether the element has the xml:lang attribute
+	 * @param xsiType the value of the xsi:type attribute or <code>null</code>
+	 */
+	private static void checkElementForOPCCompliance(String namespaceURI, String elName, String prefix,
+			boolean hasXmlLang, String xsiType) throws InvalidFormatException {
 		// Rule M4.3
-        String elName = el.getLocalName();
-        if (el.getNamespaceURI().equals(PackageProperties.NAMESPACE_DCTERMS))
+        if (PackageProperties.NAMESPACE_DCTERMS.equals(namespaceURI))
             if (!(elName.equals(KEYWORD_CREATED) || elName.equals(KEYWORD_MODIFIED)))
                 throw new InvalidFormatException(
                         "OPC Compliance error [M4.3]: Producers shall not create a document element that contains refinements to the Dublin Core elements, except for the two specified in the schema: <dcterms:created> and <dcterms:modified> Consumers shall consider a document element that violates this constraint to be an error.");
 
 		// Rule M4.4
-		if (el.getAttributeNodeNS(XMLConstants.XML_NS_URI, "lang") != null)
+		if (hasXmlLang)
 			throw new InvalidFormatException(
 					"OPC Compliance error [M4.4]: Producers shall not create a document element that contains the xml:lang attribute. Consumers shall consider a document element that violates this constraint to be an error.");
 
 		// Rule M4.5
-		if (el.getNamespaceURI().equals(PackageProperties.NAMESPACE_DCTERMS)) {
+		if (PackageProperties.NAMESPACE_DCTERMS.equals(namespaceURI)) {
 			// DCTerms namespace only use with 'created' and 'modified' elements
 			if (!(elName.equals(KEYWORD_CREATED) || elName.equals(KEYWORD_MODIFIED)))
 				throw new InvalidFormatException("Namespace error : " + elName
@@ -273,21 +324,14 @@ public final class PackagePropertiesUnmarshaller implements PartUnmarshaller {
 						+ PackageProperties.NAMESPACE_DCTERMS);
 
 			// Check for the 'xsi:type' attribute
-			Attr typeAtt = el.getAttributeNodeNS(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type");
-			if (typeAtt == null)
+			if (xsiType == null)
 				throw new InvalidFormatException("The element '" + elName
 						+ "' must have the 'xsi:type' attribute present !");
 
 			// Check for the attribute value => 'dcterms:W3CDTF'
-			if (!typeAtt.getValue().equals(el.getPrefix() + ":W3CDTF"))
+			if (!xsiType.equals(prefix + ":W3CDTF"))
 				throw new InvalidFormatException("The element '" + elName
-						+ "' must have the 'xsi:type' attribute with the value '" + el.getPrefix() + ":W3CDTF', but had '" + typeAtt.getValue() + "' !");
+						+ "' must have the 'xsi:type' attribute with the value '" + prefix + ":W3CDTF', but had '" + xsiType + "' !");
 		}
-
-		// Check its children
-        NodeList childElements = el.getElementsByTagName("*");
-        int childElementCount = childElements.getLength();
-        for (int i = 0; i < childElementCount; i++)
-            checkElementForOPCCompliance((Element)childElements.item(i));
 	}
 }
@@ -0,0 +1,275 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.openxml4j.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.utils.CountingOutputStream;
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+import org.apache.poi.util.TempFile;
+
+/**
+ * Writes entries into a zip stream in the order they have been added, while
+ *  the entries are compressed on the threads of an executor - similar to the
+ *  scatter/gather approach of commons-compress {@code ParallelScatterZipCreator}.
+ * Each entry is compressed into a temporary file with its own compression level
+ *  and is copied in its compressed form into the zip stream, when the previous
+ *  entries have been written. Actions on the zip stream, e.g. raw copies of
+ *  entries, are executed in order with the entries.
+ * <p>
+ * Without an executor, the entries and actions are written immediately.
+ *
+ * @since POI 4.1.1
+ */
+public final class ParallelZipWriter implements Closeable {
+    private static final POILogger LOG = POILogFactory.getLogger(ParallelZipWriter.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Writes the uncompressed content of an entry
+     */
+    @FunctionalInterface
+    public interface EntryContent {
+        void writeTo(OutputStream os) throws IOException;
+    }
+
+    /**
+     * An action on the zip stream, which is executed in order with the entries
+     */
+    @FunctionalInterface
+    public interface ZipAction {
+        void run(ZipArchiveOutputStream zos) throws IOException;
+    }
+
+    private final ZipArchiveOutputStream zos;
+    private final ExecutorService executor;
+    private final Queue<Future<ZipAction>> pending = new ArrayDeque<>();
+    private volatile boolean closed;
+
+    /**
+     * @param zos the zip stream to write to
+     * @param executor the executor to compress the entries with,
+     *  or <code>null</code> to write the entries immediately on the calling thread
+     */
+    public ParallelZipWriter(ZipArchiveOutputStream zos, ExecutorService executor) {
+        this.zos = zos;
+        this.executor = executor;
+    }
+
+    /**
+     * Adds an entry, which is compressed with the given level.
+     *
+     * @param entry the entry, its method and sizes are set when the content has been compressed
+     * @param level the deflate level, {@link Deflater#NO_COMPRESSION} stores the entry
+     * @param content the content of the entry, which may be written by another thread
+     * @throws IOException if the entry is written immediately and fails
+     */
+    public void addEntry(ZipArchiveEntry entry, int level, EntryContent content) throws IOException {
+        if (executor == null) {
+            writeEntry(zos, entry, level, content);
+        } else {
+            pending.add(executor.submit(() -> compress(entry, level, content)));
+        }
+    }
+
+    /**
+     * Adds an action, which is executed on the calling thread of {@link #finish()},
+     *  when the previously added entries have been written.
+     *
+     * @param action the action on the zip stream
+     * @throws IOException if the action is executed immediately and fails
+     */
+    public void addAction(ZipAction action) throws IOException {
+        if (executor == null) {
+            action.run(zos);
+        } else {
+            pending.add(CompletableFuture.completedFuture(action));
+        }
+    }
+
+    /**
+     * Waits for the compression of the pending entries and writes them
+     *  and the pending actions in the order they have been added.
+     *
+     * @throws IOException if an entry can't be compressed or written
+     */
+    public void finish() throws IOException {
+        try {
+            while (!pending.isEmpty()) {
+                ZipAction action = pending.peek().get();
+                pending.remove();
+                action.run(zos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing zip entries");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Discards the entries, which haven't been written, and deletes their temporary files.
+     * The entries, which haven't been started, are skipped and the running compressions
+     *  are awaited, so that no temporary file is left behind.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        while (!pending.isEmpty()) {
+            Future<ZipAction> future = pending.remove();
+            try {
+                ZipAction action = future.get();
+                if (action instanceof CompressedEntry) {
+                    ((CompressedEntry)action).delete();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                // the entry failed anyway and hasn't left a temporary file
+            }
+        }
+    }
+
+    /**
+     * Writes an entry directly into the zip stream.
+     *
+     * @param zos the zip stream
+     * @param entry the entry
+     * @param level the deflate level, {@link Deflater#NO_COMPRESSION} stores the entry
+     * @param content the content of the entry
+     * @throws IOException if the entry can't be written
+     */
+    public static void writeEntry(ZipArchiveOutputStream zos, ZipArchiveEntry entry, int level, EntryContent content)
+    throws IOException {
+        if (level == Deflater.NO_COMPRESSION) {
+            // stored entries need their size and checksum up front, so the content is produced twice
+            CRC32 crc = new CRC32();
+            CountingOutputStream counter = new CountingOutputStream(new OutputStream() {
+                @Override
+                public void write(int b) {}
+
+                @Override
+                public void write(byte[] b, int off, int len) {}
+            });
+            content.writeTo(new CheckedOutputStream(counter, crc));
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(counter.getBytesWritten());
+            entry.setCompressedSize(counter.getBytesWritten());
+            entry.setCrc(crc.getValue());
+        } else {
+            zos.setLevel(level);
+        }
+        zos.putArchiveEntry(entry);
+        try {
+            content.writeTo(zos);
+        } finally {
+            zos.closeArchiveEntry();
+        }
+    }
+
+    private CompressedEntry compress(ZipArchiveEntry entry, int level, EntryContent content) throws IOException {
+        if (closed) {
+            // the writer has been closed before the entry has been started
+            return null;
+        }
+        File file = TempFile.createTempFile("poi-zip-entry", ".tmp");
+        boolean stored = (level == Deflater.NO_COMPRESSION);
+        Deflater deflater = stored ? null : new Deflater(level, true);
+        CRC32 crc = new CRC32();
+        try {
+            try (OutputStream fos = new FileOutputStream(file);
+                 OutputStream os = stored ? fos : new DeflaterOutputStream(fos, deflater, BUFFER_SIZE)) {
+                content.writeTo(new CheckedOutputStream(os, crc));
+            }
+            long compressedSize = file.length();
+            entry.setMethod(stored ? ZipEntry.STORED : ZipEntry.DEFLATED);
+            entry.setSize(stored ? compressedSize : deflater.getBytesRead());
+            entry.setCompressedSize(compressedSize);
+            entry.setCrc(crc.getValue());
+            return new CompressedEntry(entry, file);
+        } catch (IOException | RuntimeException e) {
+            if (!file.delete()) {
+                LOG.log(POILogger.WARN, "The temporary file: '" + file.getAbsolutePath() + "' cannot be deleted");
+            }
+            throw e;
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * An entry, which has been compressed into a temporary file
+     */
+    private static final class CompressedEntry implements ZipAction {
+        private final ZipArchiveEntry entry;
+        private final File file;
+
+        CompressedEntry(ZipArchiveEntry entry, File file) {
+            this.entry = entry;
+            this.file = file;
+        }
+
+        @Override
+        public void run(ZipArchiveOutputStream zos) throws IOException {
+            try (InputStream is = new FileInputStream(file)) {
+                zos.addRawArchiveEntry(entry, is);
+            } finally {
+                delete();
+            }
+        }
+
+        void delete() {
+            if (file.exists() && !file.delete()) {
+                LOG.log(POILogger.WARN, "The temporary file: '" + file.getAbsolutePath() + "' cannot be deleted");
+            }
+        }
+    }
+}
@@ -50,6 +50,19 @@ public interface ZipEntrySource extends Closeable {
 	 *  data that makes up the entry
 	 */
 	InputStream getInputStream(ZipArchiveEntry entry) throws IOException;
+
+	/**
+	 * Returns an InputStream of the compressed data of the entry,
+	 *  which can be copied to another zip archive without
+	 *  inflating and deflating it again
+	 *
+	 * @return the raw data or {@code null}, if it is not available
+	 *
+	 * @since POI 4.1.1
+	 */
+	default InputStream getRawInputStream(ZipArchiveEntry entry) throws IOException {
+		return null;
+	}
 	
 	/**
 	 * Indicates we are done with reading, and 
@@ -66,6 +66,14 @@ public class ZipFileZipEntrySource implements ZipEntrySource {
       return zipArchive.getInputStream(entry);
    }
 
+   @Override
+   public InputStream getRawInputStream(ZipArchiveEntry entry) throws IOException {
+      if (zipArchive == null)
+         throw new IllegalStateException("Zip File is closed");
+
+      return zipArchive.getRawInputStream(entry);
+   }
+
    @Override
    public ZipArchiveEntry getEntry(final String path) {
       String normalizedPath = path.replace('\\', '/');
@@ -19,6 +19,7 @@ package org.apache.poi.openxml4j.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
 
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipFile;
@@ -128,6 +129,20 @@ public class ZipSecureFile extends ZipFile {
         this.fileName = new File(name).getAbsolutePath();
     }
 
+    /**
+     * Opens the zip archive provided by the channel, e.g. a package which is decrypted on demand.
+     * The channel is closed together with this file.
+     *
+     * @param channel the channel to read the archive from
+     * @param name the name of the archive used in error messages
+     *
+     * @since POI 4.1.1
+     */
+    public ZipSecureFile(SeekableByteChannel channel, String name) throws IOException {
+        super(channel, name, "UTF8", true);
+        this.fileName = name;
+    }
+
     /**
      * Returns an input stream for reading the contents of the specified
      * zip file entry.
@@ -0,0 +1,88 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.openxml4j.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+
+/**
+ * A ZipEntrySource over a zip stream, which has been spooled
+ *  to a temporary file. The entries are read from the file and
+ *  are only inflated when their input stream is requested.
+ * The temporary file is deleted on {@link #close()}.
+ *
+ * @since POI 4.1.1
+ */
+public final class ZipTempFileZipEntrySource implements ZipEntrySource {
+    private static final POILogger LOG = POILogFactory.getLogger(ZipTempFileZipEntrySource.class);
+
+    private final File tempFile;
+    private final ZipEntrySource source;
+
+    /**
+     * @param tempFile the spooled zip stream, which is deleted on close
+     * @param source the entries of the temporary file
+     */
+    public ZipTempFileZipEntrySource(File tempFile, ZipEntrySource source) {
+        this.tempFile = tempFile;
+        this.source = source;
+    }
+
+    @Override
+    public Enumeration<? extends ZipArchiveEntry> getEntries() {
+        return source.getEntries();
+    }
+
+    @Override
+    public ZipArchiveEntry getEntry(String path) {
+        return source.getEntry(path);
+    }
+
+    @Override
+    public InputStream getInputStream(ZipArchiveEntry entry) throws IOException {
+        return source.getInputStream(entry);
+    }
+
+    @Override
+    public InputStream getRawInputStream(ZipArchiveEntry entry) throws IOException {
+        return source.getRawInputStream(entry);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            source.close();
+        } finally {
+            if (tempFile.exists() && !tempFile.delete()) {
+                LOG.log(POILogger.WARN, "The temporary file: '" + tempFile.getAbsolutePath() + "' cannot be deleted");
+            }
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return source.isClosed();
+    }
+}
@@ -23,14 +23,25 @@ import static org.apache.poi.poifs.crypt.CryptoFunctions.getCipher;
 import static org.apache.poi.poifs.crypt.CryptoFunctions.getMessageDigest;
 import static org.apache.poi.poifs.crypt.CryptoFunctions.hashPassword;
 
+import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.MessageDigest;
 import java.security.cert.X509Certificate;
 import java.security.spec.AlgorithmParameterSpec;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.crypto.Cipher;
 import javax.crypto.Mac;
@@ -40,6 +51,9 @@ import javax.crypto.spec.RC2ParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
 import org.apache.poi.EncryptedDocumentException;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.openxml4j.util.ZipFileZipEntrySource;
+import org.apache.poi.openxml4j.util.ZipSecureFile;
 import org.apache.poi.poifs.crypt.ChainingMode;
 import org.apache.poi.poifs.crypt.ChunkedCipherInputStream;
 import org.apache.poi.poifs.crypt.CipherAlgorithm;
@@ -51,12 +65,20 @@ import org.apache.poi.poifs.crypt.HashAlgorithm;
 import org.apache.poi.poifs.crypt.agile.AgileEncryptionVerifier.AgileCertificateEntry;
 import org.apache.poi.poifs.filesystem.DirectoryNode;
 import org.apache.poi.poifs.filesystem.DocumentInputStream;
+import org.apache.poi.poifs.filesystem.DocumentNode;
+import org.apache.poi.poifs.filesystem.POIFSDocument;
 import org.apache.poi.util.LittleEndian;
 
 /**
  * Decryptor implementation for Agile Encryption
  */
 public class AgileDecryptor extends Decryptor implements Cloneable {
+    /** size of the independently encrypted segments of the package */
+    /* package */ static final int SEGMENT_SIZE = 4096;
+
+    /** number of segments decrypted by one task in {@link #decryptTo(DirectoryNode, File, int)} */
+    private static final int SEGMENTS_PER_TASK = 64;
+
     private long _length = -1;
 
     /* package */ static final byte[] kVerifierInputBlock;
@@ -285,6 +307,36 @@ public class AgileDecryptor extends Decryptor implements Cloneable {
         return new AgileCipherInputStream(dis, _length);
     }
 
+    /**
+     * Provides random access to the entries of the encrypted package, e.g. to open it via
+     * {@link org.apache.poi.openxml4j.opc.OPCPackage#open(ZipEntrySource)}.
+     * The central directory and the entries are located within the encrypted data,
+     * so only the segments, which are actually read, are decrypted.<p>
+     *
+     * The password needs to be verified beforehand and the filesystem must not be closed
+     * before the returned source.
+     *
+     * @param dir the node containing the encrypted package
+     * @return the zip entry source over the decrypted package
+     *
+     * @since POI 4.1.1
+     */
+    @SuppressWarnings("resource")
+    public ZipEntrySource getZipEntrySource(DirectoryNode dir) throws IOException {
+        if (getSecretKey() == null) {
+            throw new EncryptedDocumentException("The password needs to be verified before the package can be read");
+        }
+        POIFSDocument document = new POIFSDocument((DocumentNode)dir.getEntry(DEFAULT_POIFS_ENTRY));
+        EncryptedPackageChannel channel = new EncryptedPackageChannel(document, this);
+        _length = channel.getPackageSize();
+        try {
+            return new ZipFileZipEntrySource(new ZipSecureFile(channel, DEFAULT_POIFS_ENTRY));
+        } catch (IOException|RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
     @Override
     public long getLength(){
         if(_length == -1) {
@@ -318,6 +370,100 @@ public class AgileDecryptor extends Decryptor implements Cloneable {
         return existing;
     }
 
+    /**
+     * Decrypts the package into the given file. The 4096-byte segments are encrypted
+     * independently, so batches of segments are decrypted in parallel while they are read.
+     */
+    @Override
+    public void decryptTo(DirectoryNode dir, File file, int threads)
+    throws IOException, GeneralSecurityException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive, but was " + threads);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "POI agile decryption");
+            t.setDaemon(true);
+            return t;
+        });
+        ThreadLocal<Cipher> ciphers = new ThreadLocal<>();
+        Deque<Future<Void>> pending = new ArrayDeque<>();
+
+        try (DocumentInputStream dis = dir.createDocumentInputStream(DEFAULT_POIFS_ENTRY);
+             FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            _length = dis.readLong();
+
+            long remaining = _length;
+            for (int block = 0; remaining > 0; block += SEGMENTS_PER_TASK) {
+                // the last segment is padded to the cipher block size
+                int plainSize = (int)Math.min(remaining, (long)SEGMENT_SIZE * SEGMENTS_PER_TASK);
+                int encryptedSize = Math.min(dis.available(),
+                        ((plainSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE) * SEGMENT_SIZE);
+                if (encryptedSize < plainSize) {
+                    throw new EOFException("buffer underrun");
+                }
+                byte[] data = new byte[encryptedSize];
+                dis.readFully(data);
+
+                final int firstBlock = block;
+                final long position = (long)block * SEGMENT_SIZE;
+                pending.add(executor.submit(() -> {
+                    decryptSegments(data, plainSize, firstBlock, ciphers);
+                    ByteBuffer bb = ByteBuffer.wrap(data, 0, plainSize);
+                    long pos = position;
+                    while (bb.hasRemaining()) {
+                        pos += out.write(bb, pos);
+                    }
+                    return null;
+                }));
+                remaining -= plainSize;
+
+                // limit the number of buffered batches
+                if (pending.size() >= 2 * threads) {
+                    awaitTask(pending.poll());
+                }
+            }
+            while (!pending.isEmpty()) {
+                awaitTask(pending.poll());
+            }
+        } finally {
+            for (Future<Void> f : pending) {
+                f.cancel(true);
+            }
+            executor.shutdownNow();
+        }
+    }
+
+    private void decryptSegments(byte[] data, int plainSize, int firstBlock, ThreadLocal<Cipher> ciphers)
+    throws GeneralSecurityException {
+        Cipher cipher = ciphers.get();
+        for (int offset = 0, block = firstBlock; offset < plainSize; offset += SEGMENT_SIZE, block++) {
+            cipher = initCipherForBlock(cipher, block, false, getEncryptionInfo(), getSecretKey(), Cipher.DECRYPT_MODE);
+            int len = Math.min(SEGMENT_SIZE, data.length - offset);
+            cipher.update(data, offset, len, data, offset);
+        }
+        ciphers.set(cipher);
+    }
+
+    private static void awaitTask(Future<Void> task) throws IOException, GeneralSecurityException {
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("decryption was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof GeneralSecurityException) {
+                throw (GeneralSecurityException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new EncryptedDocumentException(cause);
+        }
+    }
+
     /**
      * 2.3.4.15 Data Encryption (Agile Encryption)
      * 
@@ -0,0 +1,183 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.poifs.crypt.agile;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.security.GeneralSecurityException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+
+import org.apache.poi.EncryptedDocumentException;
+import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.filesystem.POIFSDocument;
+import org.apache.poi.util.LittleEndian;
+import org.apache.poi.util.LittleEndianConsts;
+
+/**
+ * A read-only channel over the decrypted content of an agile encrypted package.<p>
+ *
+ * The segments of the package are encrypted independently, so only the segments
+ * containing the requested bytes are read and decrypted. The most recently used segments
+ * are kept, as zip entries are usually read in smaller chunks than a segment.
+ */
+final class EncryptedPackageChannel implements SeekableByteChannel {
+    /** number of decrypted segments kept in memory */
+    private static final int CACHED_SEGMENTS = 16;
+
+    private final POIFSDocument document;
+    private final EncryptionInfo info;
+    private final AgileDecryptor decryptor;
+    private final long size;
+    private final Map<Integer, byte[]> segments;
+    private Cipher cipher;
+    private long position;
+    private boolean open = true;
+
+    EncryptedPackageChannel(POIFSDocument document, AgileDecryptor decryptor) throws IOException {
+        this.document = document;
+        this.decryptor = decryptor;
+        this.info = decryptor.getEncryptionInfo();
+
+        byte[] streamSize = new byte[LittleEndianConsts.LONG_SIZE];
+        if (document.read(0, streamSize, 0, streamSize.length) != streamSize.length) {
+            throw new EOFException("buffer underrun");
+        }
+        size = LittleEndian.getLong(streamSize);
+        if (size < 0 || size > document.getSize() - LittleEndianConsts.LONG_SIZE) {
+            throw new EncryptedDocumentException("Invalid size of the encrypted package: " + size);
+        }
+
+        segments = new LinkedHashMap<Integer, byte[]>(32, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+                return size() > CACHED_SEGMENTS;
+            }
+        };
+    }
+
+    /**
+     * @return the size of the decrypted package
+     */
+    long getPackageSize() {
+        return size;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        checkOpen();
+        if (position >= size) {
+            return -1;
+        }
+        int total = 0;
+        while (dst.hasRemaining() && position < size) {
+            int index = (int)(position / AgileDecryptor.SEGMENT_SIZE);
+            int offset = (int)(position % AgileDecryptor.SEGMENT_SIZE);
+            byte[] segment = getSegment(index);
+            int count = (int)Math.min(Math.min(segment.length - offset, dst.remaining()), size - position);
+            dst.put(segment, offset, count);
+            position += count;
+            total += count;
+        }
+        return total;
+    }
+
+    private byte[] getSegment(int index) throws IOException {
+        byte[] segment = segments.get(index);
+        if (segment != null) {
+            return segment;
+        }
+
+        long start = (long)index * AgileDecryptor.SEGMENT_SIZE;
+        int plainSize = (int)Math.min(AgileDecryptor.SEGMENT_SIZE, size - start);
+        // the last segment is padded to the cipher block size
+        int encryptedSize = (int)Math.min(AgileDecryptor.SEGMENT_SIZE,
+                document.getSize() - LittleEndianConsts.LONG_SIZE - start);
+        segment = new byte[encryptedSize];
+        int readBytes = document.read(LittleEndianConsts.LONG_SIZE + start, segment, 0, encryptedSize);
+        if (readBytes < plainSize) {
+            throw new EOFException("buffer underrun");
+        }
+
+        try {
+            cipher = AgileDecryptor.initCipherForBlock(cipher, index, false, info, decryptor.getSecretKey(), Cipher.DECRYPT_MODE);
+            cipher.update(segment, 0, encryptedSize, segment, 0);
+        } catch (GeneralSecurityException e) {
+            throw new EncryptedDocumentException(e.getMessage(), e);
+        }
+
+        segments.put(index, segment);
+        return segment;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        checkOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        checkOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Position must not be negative, but was " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        checkOpen();
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long newSize) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        segments.clear();
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
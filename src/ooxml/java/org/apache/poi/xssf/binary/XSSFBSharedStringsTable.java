@@ -151,14 +151,22 @@ public class XSSFBSharedStringsTable implements SharedStrings {
 
         @Override
         public void handleRecord(int recordType, byte[] data) throws XSSFBParseException {
+            handleRecord(recordType, data, data.length);
+        }
+
+        @Override
+        public void handleRecord(int recordType, byte[] data, int length) throws XSSFBParseException {
             XSSFBRecordType type = XSSFBRecordType.lookup(recordType);
 
             switch (type) {
                 case BrtSstItem:
-                    XSSFBRichStr rstr = XSSFBRichStr.build(data, 0);
+                    XSSFBRichStr rstr = XSSFBRichStr.build(data, 0, length);
                     strings.add(rstr.getString());
                     break;
                 case BrtBeginSst:
+                    if (length < 2 * LittleEndian.INT_SIZE) {
+                        throw new XSSFBParseException("Record " + type + " is too short: " + length + " bytes");
+                    }
                     count = XSSFBUtils.castToInt(LittleEndian.getUInt(data,0));
                     uniqueCount = XSSFBUtils.castToInt(LittleEndian.getUInt(data, 4));
                     break;
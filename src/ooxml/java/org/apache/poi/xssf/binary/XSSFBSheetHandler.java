@@ -19,6 +19,7 @@ package org.apache.poi.xssf.binary;
 
 
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Queue;
 
 import org.apache.poi.ss.usermodel.BuiltinFormats;
@@ -54,6 +55,9 @@ public class XSSFBSheetHandler extends XSSFBParser {
     private StringBuilder xlWideStringBuffer = new StringBuilder();
 
     private final XSSFBCellHeader cellBuffer = new XSSFBCellHeader();
+    // subclasses overriding handleRecord(int, byte[]) still get a copy of every record
+    private final boolean legacyRecordHandler;
+
     public XSSFBSheetHandler(InputStream is,
                              XSSFBStylesTable styles,
                              XSSFBCommentsTable comments,
@@ -68,14 +72,37 @@ public class XSSFBSheetHandler extends XSSFBParser {
         this.handler = sheetContentsHandler;
         this.dataFormatter = dataFormatter;
         this.formulasNotResults = formulasNotResults;
+        this.legacyRecordHandler = overridesHandleRecord(getClass());
+    }
+
+    private static boolean overridesHandleRecord(Class<?> cls) {
+        try {
+            return cls.getMethod("handleRecord", int.class, byte[].class).getDeclaringClass() != XSSFBSheetHandler.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
     }
 
     @Override
     public void handleRecord(int id, byte[] data) throws XSSFBParseException {
+        processRecord(id, data, data.length);
+    }
+
+    @Override
+    public void handleRecord(int id, byte[] data, int length) throws XSSFBParseException {
+        if (legacyRecordHandler) {
+            handleRecord(id, Arrays.copyOf(data, length));
+        } else {
+            processRecord(id, data, length);
+        }
+    }
+
+    private void processRecord(int id, byte[] data, int length) throws XSSFBParseException {
         XSSFBRecordType type = XSSFBRecordType.lookup(id);
 
         switch(type) {
             case BrtRowHdr:
+                checkLength(type, length, LittleEndian.INT_SIZE);
                 int rw = XSSFBUtils.castToInt(LittleEndian.getUInt(data, 0));
                 if (rw > 0x00100000) {//could make sure this is larger than currentRow, according to spec?
                     throw new XSSFBParseException("Row number beyond allowable range: "+rw);
@@ -85,34 +112,34 @@ public class XSSFBSheetHandler extends XSSFBParser {
                 startRow(currentRow);
                 break;
             case BrtCellIsst:
-                handleBrtCellIsst(data);
+                handleBrtCellIsst(data, length);
                 break;
             case BrtCellSt: //TODO: needs test
-                handleCellSt(data);
+                handleCellSt(data, length);
                 break;
             case BrtCellRk:
-                handleCellRk(data);
+                handleCellRk(data, length);
                 break;
             case BrtCellReal:
-                handleCellReal(data);
+                handleCellReal(data, length);
                 break;
             case BrtCellBool:
-                handleBoolean(data);
+                handleBoolean(data, length);
                 break;
             case BrtCellError:
-                handleCellError(data);
+                handleCellError(data, length);
                 break;
             case BrtCellBlank:
-                beforeCellValue(data);//read cell info and check for missing comments
+                beforeCellValue(type, data, length, 0);//read cell info and check for missing comments
                 break;
             case BrtFmlaString:
-                handleFmlaString(data);
+                handleFmlaString(data, length);
                 break;
             case BrtFmlaNum:
-                handleFmlaNum(data);
+                handleFmlaNum(data, length);
                 break;
             case BrtFmlaError:
-                handleFmlaError(data);
+                handleFmlaError(data, length);
                 break;
                 //TODO: All the PCDI and PCDIA
             case BrtEndSheetData:
@@ -120,17 +147,28 @@ public class XSSFBSheetHandler extends XSSFBParser {
                 endRow(lastStartedRow);
                 break;
             case BrtBeginHeaderFooter:
-                handleHeaderFooter(data);
+                handleHeaderFooter(Arrays.copyOf(data, length));
                 break;
         }
     }
 
 
-    private void beforeCellValue(byte[] data) {
+    /**
+     * Reads the cell header, after checking that the record contains it and the given number of value bytes
+     */
+    private void beforeCellValue(XSSFBRecordType type, byte[] data, int length, int valueSize) throws XSSFBParseException {
+        checkLength(type, length, XSSFBCellHeader.length + valueSize);
         XSSFBCellHeader.parse(data, 0, currentRow, cellBuffer);
         checkMissedComments(currentRow, cellBuffer.getColNum());
     }
 
+    private static void checkLength(XSSFBRecordType type, int length, int required) throws XSSFBParseException {
+        if (length < required) {
+            throw new XSSFBParseException("Record " + type + " is too short: expected at least " +
+                    required + " bytes, but got " + length);
+        }
+    }
+
     private void handleCellValue(String formattedValue) {
         CellAddress cellAddress = new CellAddress(currentRow, cellBuffer.getColNum());
         XSSFBComment comment = null;
@@ -140,54 +178,54 @@ public class XSSFBSheetHandler extends XSSFBParser {
         handler.cell(cellAddress.formatAsString(), formattedValue, comment);
     }
 
-    private void handleFmlaNum(byte[] data) {
-        beforeCellValue(data);
+    private void handleFmlaNum(byte[] data, int length) throws XSSFBParseException {
+        beforeCellValue(XSSFBRecordType.BrtFmlaNum, data, length, LittleEndian.DOUBLE_SIZE);
         //xNum
         double val = LittleEndian.getDouble(data, XSSFBCellHeader.length);
         handleCellValue(formatVal(val, cellBuffer.getStyleIdx()));
     }
 
-    private void handleCellSt(byte[] data) {
-        beforeCellValue(data);
+    private void handleCellSt(byte[] data, int length) throws XSSFBParseException {
+        beforeCellValue(XSSFBRecordType.BrtCellSt, data, length, 0);
         xlWideStringBuffer.setLength(0);
-        XSSFBUtils.readXLWideString(data, XSSFBCellHeader.length, xlWideStringBuffer);
+        XSSFBUtils.readXLWideString(data, XSSFBCellHeader.length, length, xlWideStringBuffer);
         handleCellValue(xlWideStringBuffer.toString());
     }
 
-    private void handleFmlaString(byte[] data) {
-        beforeCellValue(data);
+    private void handleFmlaString(byte[] data, int length) throws XSSFBParseException {
+        beforeCellValue(XSSFBRecordType.BrtFmlaString, data, length, 0);
         xlWideStringBuffer.setLength(0);
-        XSSFBUtils.readXLWideString(data, XSSFBCellHeader.length, xlWideStringBuffer);
+        XSSFBUtils.readXLWideString(data, XSSFBCellHeader.length, length, xlWideStringBuffer);
         handleCellValue(xlWideStringBuffer.toString());
     }
 
-    private void handleCellError(byte[] data) {
-        beforeCellValue(data);
+    private void handleCellError(byte[] data, int length) throws XSSFBParseException {
+        beforeCellValue(XSSFBRecordType.BrtCellError, data, length, 1);
         //TODO, read byte to figure out the type of error
         handleCellValue("ERROR");
     }
 
-    private void handleFmlaError(byte[] data) {
-        beforeCellValue(data);
+    private void handleFmlaError(byte[] data, int length) throws XSSFBParseException {
+        beforeCellValue(XSSFBRecordType.BrtFmlaError, data, length, 1);
         //TODO, read byte to figure out the type of error
         handleCellValue("ERROR");
     }
 
-    private void handleBoolean(byte[] data) {
-        beforeCellValue(data);
+    private void handleBoolean(byte[] data, int length) throws XSSFBParseException {
+        beforeCellValue(XSSFBRecordType.BrtCellBool, data, length, 1);
         String formattedVal = (data[XSSFBCellHeader.length] == 1) ? "TRUE" : "FALSE";
         handleCellValue(formattedVal);
     }
 
-    private void handleCellReal(byte[] data) {
-        beforeCellValue(data);
+    private void handleCellReal(byte[] data, int length) throws XSSFBParseException {
+        beforeCellValue(XSSFBRecordType.BrtCellReal, data, length, LittleEndian.DOUBLE_SIZE);
         //xNum
         double val = LittleEndian.getDouble(data, XSSFBCellHeader.length);
         handleCellValue(formatVal(val, cellBuffer.getStyleIdx()));
     }
 
-    private void handleCellRk(byte[] data) {
-        beforeCellValue(data);
+    private void handleCellRk(byte[] data, int length) throws XSSFBParseException {
+        beforeCellValue(XSSFBRecordType.BrtCellRk, data, length, LittleEndian.INT_SIZE);
         double val = rkNumber(data, XSSFBCellHeader.length);
         handleCellValue(formatVal(val, cellBuffer.getStyleIdx()));
     }
@@ -206,8 +244,8 @@ public class XSSFBSheetHandler extends XSSFBParser {
         return dataFormatter.formatRawCellContents(val, styleIndex, formatString);
     }
 
-    private void handleBrtCellIsst(byte[] data) {
-        beforeCellValue(data);
+    private void handleBrtCellIsst(byte[] data, int length) throws XSSFBParseException {
+        beforeCellValue(XSSFBRecordType.BrtCellIsst, data, length, LittleEndian.INT_SIZE);
         int idx = XSSFBUtils.castToInt(LittleEndian.getUInt(data, XSSFBCellHeader.length));
         RichTextString rtss = stringsTable.getItemAt(idx);
         handleCellValue(rtss.getString());
@@ -69,6 +69,22 @@ public class XSSFBUtils {
      * @throws XSSFBParseException if there was an exception while trying to read the string
      */
     public static int readXLWideString(byte[] data, int offset, StringBuilder sb) throws XSSFBParseException {
+        return readXLWideString(data, offset, data.length, sb);
+    }
+
+    /**
+     * Reads an XLWideString from a record buffer, which may be larger than the record.
+     * @param data data from which to read
+     * @param offset in data from which to start
+     * @param length length of the record data in the buffer
+     * @param sb buffer to which to write.  You must setLength(0) before calling!
+     * @return number of bytes read
+     * @throws XSSFBParseException if there was an exception while trying to read the string
+     */
+    static int readXLWideString(byte[] data, int offset, int length, StringBuilder sb) throws XSSFBParseException {
+        if (offset+4 > length) {
+            throw new XSSFBParseException("trying to read beyond data length");
+        }
         long numChars = LittleEndian.getUInt(data, offset);
         if (numChars < 0) {
             throw new XSSFBParseException("too few chars to read");
@@ -77,7 +93,7 @@ public class XSSFBUtils {
         }
         int numBytes = 2*(int)numChars;
         offset += 4;
-        if (offset+numBytes > data.length) {
+        if (offset+numBytes > length) {
             throw new XSSFBParseException("trying to read beyond data length");
         }
         sb.append(new String(data, offset, numBytes, StandardCharsets.UTF_16LE));
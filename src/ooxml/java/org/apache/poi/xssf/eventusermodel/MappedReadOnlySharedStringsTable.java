@@ -0,0 +1,111 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.eventusermodel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.Beta;
+import org.apache.poi.xssf.util.MappedStringStore;
+import org.xml.sax.SAXException;
+
+/**
+ * A lightweight shared strings table like {@link ReadOnlySharedStringsTable},
+ * which keeps the strings in memory-mapped temporary files instead of the java heap.
+ * <p>
+ * Use this table for workbooks with a huge number of unique strings, e.g. together with
+ * {@link XSSFSheetXMLHandler}. Once parsed, the table can be read by several threads.
+ * The temporary files are removed, when the table is closed.
+ * </p>
+ *
+ * @since POI 4.1.1
+ */
+@Beta
+public class MappedReadOnlySharedStringsTable extends ReadOnlySharedStringsTable implements Closeable {
+
+    /**
+     * the strings store - this field is initialized lazily,
+     * as the super constructor already parses the strings
+     */
+    private MappedStringStore store;
+
+    /**
+     * @param pkg The {@link OPCPackage} to use as basis for the shared-strings table.
+     * @throws IOException If reading the data from the package fails.
+     * @throws SAXException if parsing the XML data fails.
+     */
+    public MappedReadOnlySharedStringsTable(OPCPackage pkg) throws IOException, SAXException {
+        super(pkg);
+    }
+
+    /**
+     * @param pkg The {@link OPCPackage} to use as basis for the shared-strings table.
+     * @param includePhoneticRuns whether or not to concatenate phoneticRuns onto the shared string
+     * @throws IOException If reading the data from the package fails.
+     * @throws SAXException if parsing the XML data fails.
+     */
+    public MappedReadOnlySharedStringsTable(OPCPackage pkg, boolean includePhoneticRuns) throws IOException, SAXException {
+        super(pkg, includePhoneticRuns);
+    }
+
+    /**
+     * @param part The shared strings part
+     * @throws IOException If reading the data from the package fails.
+     * @throws SAXException if parsing the XML data fails.
+     */
+    public MappedReadOnlySharedStringsTable(PackagePart part) throws IOException, SAXException {
+        super(part);
+    }
+
+    /**
+     * @param part The shared strings part
+     * @param includePhoneticRuns whether or not to concatenate phoneticRuns onto the shared string
+     * @throws IOException If reading the data from the package fails.
+     * @throws SAXException if parsing the XML data fails.
+     */
+    public MappedReadOnlySharedStringsTable(PackagePart part, boolean includePhoneticRuns) throws IOException, SAXException {
+        super(part, includePhoneticRuns);
+    }
+
+    @Override
+    protected List<String> createStringList(int uniqueCount) {
+        try {
+            if (store != null) {
+                store.close();
+            }
+            store = new MappedStringStore(false);
+        } catch (IOException e) {
+            throw new POIXMLException("Unable to create the shared strings store", e);
+        }
+        return store.asList();
+    }
+
+    /**
+     * Removes the temporary files backing this table.
+     */
+    @Override
+    public void close() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+}
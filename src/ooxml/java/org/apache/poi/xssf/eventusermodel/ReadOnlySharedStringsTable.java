@@ -235,6 +235,18 @@ public class ReadOnlySharedStringsTable extends DefaultHandler implements Shared
         return new XSSFRichTextString(getEntryAt(idx));
     }
 
+    /**
+     * Creates the list which receives the parsed strings.
+     * Subclasses can provide a list, which doesn't keep the strings on the heap.
+     *
+     * @param uniqueCount the expected number of strings
+     * @return the list for the strings
+     * @since POI 4.1.1
+     */
+    protected List<String> createStringList(int uniqueCount) {
+        return new ArrayList<>(uniqueCount);
+    }
+
     //// ContentHandler methods ////
 
     private StringBuilder characters;
@@ -253,7 +265,7 @@ public class ReadOnlySharedStringsTable extends DefaultHandler implements Shared
             String uniqueCount = attributes.getValue("uniqueCount");
             if(uniqueCount != null) this.uniqueCount = Integer.parseInt(uniqueCount);
 
-            this.strings = new ArrayList<>(this.uniqueCount);
+            this.strings = createStringList(this.uniqueCount);
             characters = new StringBuilder(64);
         } else if ("si".equals(localName)) {
             characters.setLength(0);
@@ -0,0 +1,761 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.Beta;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.Styles;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * A compact, read-only in-memory representation of the cells of a sheet.
+ * <p>
+ * The cells are read from the sheet part (see {@link XSSFReader#getSheetsData()}) and stored
+ * column by column in primitive arrays - the row indexes, a type byte, the style index and
+ * the numeric value or the index of the shared string. This needs a fraction of the memory of
+ * a {@link org.apache.poi.xssf.usermodel.XSSFSheet}, which keeps the XML beans of each cell,
+ * and in contrast to the event based {@link XSSFSheetXMLHandler} the cells can be accessed
+ * randomly and repeatedly.
+ * </p>
+ * <p>
+ * Rows and cells are returned as lightweight views ({@link CompactRow}, {@link CompactCell}),
+ * which are created on access and don't need to be kept. Shared strings and styles are
+ * resolved on access, too.
+ * </p>
+ * <p>
+ * Only the cell contents are read, i.e. no row/column formatting, merged regions, comments etc.
+ * Like with the {@link XSSFSheetXMLHandler}, only the master cell of a shared formula has a
+ * formula text - the other cells of the shared formula only provide their cached results.
+ * </p>
+ *
+ * @since POI 4.1.1
+ */
+@Beta
+public final class XSSFCompactSheet implements Iterable<XSSFCompactSheet.CompactRow> {
+    private static final byte TYPE_BLANK = 0;
+    private static final byte TYPE_NUMERIC = 1;
+    private static final byte TYPE_SHARED_STRING = 2;
+    private static final byte TYPE_STRING = 3;
+    private static final byte TYPE_BOOLEAN = 4;
+    private static final byte TYPE_ERROR = 5;
+    /** flag for formula cells, the lower bits are the type of the cached result */
+    private static final byte TYPE_FORMULA = 0x10;
+    private static final byte TYPE_MASK = 0x0F;
+
+    /** formula index of the dependent cells of shared formulas */
+    private static final int NO_FORMULA = -1;
+
+    private final SharedStrings strings;
+    private final Styles styles;
+    private final boolean date1904;
+
+    private Column[] columns = new Column[16];
+    private int rowCount;
+    private int[] rowNums = new int[64];
+    /** offset of the first cell of each row in {@link #cellColumns}, with an additional end offset */
+    private int[] rowStarts = new int[65];
+    /** the column indexes of the cells in row order */
+    private short[] cellColumns = new short[256];
+    private int cellCount;
+    /** inline strings and string results of formulas */
+    private final List<String> texts = new ArrayList<>();
+    private final List<String> formulas = new ArrayList<>();
+
+    /**
+     * Reads the cells of a sheet using the 1900 date system
+     *
+     * @param sheetData the sheet part
+     * @param strings the shared strings of the workbook
+     * @param styles the styles of the workbook, may be {@code null}
+     */
+    public XSSFCompactSheet(InputStream sheetData, SharedStrings strings, Styles styles)
+    throws IOException, SAXException {
+        this(sheetData, strings, styles, false);
+    }
+
+    /**
+     * Reads the cells of a sheet
+     *
+     * @param sheetData the sheet part
+     * @param strings the shared strings of the workbook
+     * @param styles the styles of the workbook, may be {@code null}
+     * @param date1904 true, if the workbook uses the 1904 date system
+     */
+    public XSSFCompactSheet(InputStream sheetData, SharedStrings strings, Styles styles, boolean date1904)
+    throws IOException, SAXException {
+        this.strings = strings;
+        this.styles = styles;
+        this.date1904 = date1904;
+
+        try {
+            XMLReader reader = SAXHelper.newXMLReader();
+            reader.setContentHandler(new SheetHandler());
+            reader.parse(new InputSource(sheetData));
+        } catch (ParserConfigurationException e) {
+            throw new IOException("SAX parser appears to be broken - " + e.getMessage(), e);
+        }
+
+        rowNums = Arrays.copyOf(rowNums, rowCount);
+        rowStarts = Arrays.copyOf(rowStarts, rowCount + 1);
+        cellColumns = Arrays.copyOf(cellColumns, cellCount);
+        for (Column column : columns) {
+            if (column != null) {
+                column.trim();
+            }
+        }
+    }
+
+    /**
+     * @return the index of the first row or -1 if the sheet has no rows
+     */
+    public int getFirstRowNum() {
+        return rowCount == 0 ? -1 : rowNums[0];
+    }
+
+    /**
+     * @return the index of the last row or -1 if the sheet has no rows
+     */
+    public int getLastRowNum() {
+        return rowCount == 0 ? -1 : rowNums[rowCount - 1];
+    }
+
+    /**
+     * @return the number of rows, which are defined in the sheet
+     */
+    public int getPhysicalNumberOfRows() {
+        return rowCount;
+    }
+
+    /**
+     * @return the number of cells, which are defined in the sheet
+     */
+    public int getNumberOfCells() {
+        return cellCount;
+    }
+
+    /**
+     * @param rowNum the 0-based row index
+     * @return the row or {@code null}, if the row isn't defined
+     */
+    public CompactRow getRow(int rowNum) {
+        int pos = Arrays.binarySearch(rowNums, 0, rowCount, rowNum);
+        return pos < 0 ? null : new CompactRow(pos);
+    }
+
+    /**
+     * @param rowNum the 0-based row index
+     * @param columnIndex the 0-based column index
+     * @return the cell or {@code null}, if the cell isn't defined
+     */
+    public CompactCell getCell(int rowNum, int columnIndex) {
+        Column column = columnIndex >= 0 && columnIndex < columns.length ? columns[columnIndex] : null;
+        if (column == null) {
+            return null;
+        }
+        int index = Arrays.binarySearch(column.rows, 0, column.size, rowNum);
+        return index < 0 ? null : new CompactCell(column, columnIndex, index);
+    }
+
+    /**
+     * @return an iterator over the defined rows in ascending order
+     */
+    @Override
+    public Iterator<CompactRow> iterator() {
+        return new Iterator<CompactRow>() {
+            private int pos;
+
+            @Override
+            public boolean hasNext() {
+                return pos < rowCount;
+            }
+
+            @Override
+            public CompactRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return new CompactRow(pos++);
+            }
+        };
+    }
+
+    /**
+     * A view of a row of the sheet
+     */
+    public final class CompactRow implements Iterable<CompactCell> {
+        private final int pos;
+
+        private CompactRow(int pos) {
+            this.pos = pos;
+        }
+
+        /**
+         * @return the 0-based row index
+         */
+        public int getRowNum() {
+            return rowNums[pos];
+        }
+
+        /**
+         * @return the number of defined cells of this row
+         */
+        public int getPhysicalNumberOfCells() {
+            return rowStarts[pos + 1] - rowStarts[pos];
+        }
+
+        /**
+         * @return the index of the first defined cell or -1 if the row doesn't contain any cells
+         */
+        public short getFirstCellNum() {
+            int start = rowStarts[pos];
+            return start == rowStarts[pos + 1] ? -1 : cellColumns[start];
+        }
+
+        /**
+         * @return the index of the last defined cell plus one or -1 if the row doesn't contain any cells
+         */
+        public short getLastCellNum() {
+            int end = rowStarts[pos + 1];
+            return end == rowStarts[pos] ? -1 : (short)(cellColumns[end - 1] + 1);
+        }
+
+        /**
+         * @param columnIndex the 0-based column index
+         * @return the cell or {@code null}, if the cell isn't defined
+         */
+        public CompactCell getCell(int columnIndex) {
+            return XSSFCompactSheet.this.getCell(rowNums[pos], columnIndex);
+        }
+
+        /**
+         * @return an iterator over the defined cells of this row in the order of the sheet data
+         */
+        @Override
+        public Iterator<CompactCell> iterator() {
+            return new Iterator<CompactCell>() {
+                private int next = rowStarts[pos];
+
+                @Override
+                public boolean hasNext() {
+                    return next < rowStarts[pos + 1];
+                }
+
+                @Override
+                public CompactCell next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    CompactCell cell = getCell(cellColumns[next++]);
+                    assert cell != null;
+                    return cell;
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "CompactRow " + (getRowNum() + 1);
+        }
+    }
+
+    /**
+     * A view of a cell of the sheet
+     */
+    public final class CompactCell {
+        private final Column column;
+        private final int columnIndex;
+        private final int index;
+
+        private CompactCell(Column column, int columnIndex, int index) {
+            this.column = column;
+            this.columnIndex = columnIndex;
+            this.index = index;
+        }
+
+        public int getRowIndex() {
+            return column.rows[index];
+        }
+
+        public int getColumnIndex() {
+            return columnIndex;
+        }
+
+        public CellAddress getAddress() {
+            return new CellAddress(getRowIndex(), columnIndex);
+        }
+
+        public CellType getCellType() {
+            byte type = column.types[index];
+            return (type & TYPE_FORMULA) != 0 ? CellType.FORMULA : toCellType(type);
+        }
+
+        /**
+         * @return the type of the cached result of a formula cell
+         * @throws IllegalStateException if the cell is not a formula cell
+         */
+        public CellType getCachedFormulaResultType() {
+            byte type = column.types[index];
+            if ((type & TYPE_FORMULA) == 0) {
+                throw new IllegalStateException("Only formula cells have cached results");
+            }
+            return toCellType((byte)(type & TYPE_MASK));
+        }
+
+        /**
+         * @return the formula or {@code null} for the dependent cells of a shared formula
+         * @throws IllegalStateException if the cell is not a formula cell
+         */
+        public String getCellFormula() {
+            if ((column.types[index] & TYPE_FORMULA) == 0) {
+                throw typeMismatch(CellType.FORMULA);
+            }
+            int formula = column.formulas[index];
+            return formula == NO_FORMULA ? null : formulas.get(formula);
+        }
+
+        /**
+         * @return the numeric value, 0 for blank cells
+         * @throws IllegalStateException if the cell or the cached formula result is not numeric
+         */
+        public double getNumericCellValue() {
+            switch (column.types[index] & TYPE_MASK) {
+                case TYPE_BLANK:
+                    return 0;
+                case TYPE_NUMERIC:
+                    return column.numbers[index];
+                default:
+                    throw typeMismatch(CellType.NUMERIC);
+            }
+        }
+
+        /**
+         * @return the date value of a numeric cell, {@code null} for blank cells
+         * @throws IllegalStateException if the cell or the cached formula result is not numeric
+         */
+        public Date getDateCellValue() {
+            if ((column.types[index] & TYPE_MASK) == TYPE_BLANK) {
+                return null;
+            }
+            return DateUtil.getJavaDate(getNumericCellValue(), date1904);
+        }
+
+        /**
+         * @return the string value, an empty string for blank cells
+         * @throws IllegalStateException if the cell or the cached formula result is not a string
+         */
+        public String getStringCellValue() {
+            switch (column.types[index] & TYPE_MASK) {
+                case TYPE_BLANK:
+                    return "";
+                case TYPE_SHARED_STRING:
+                    return strings.getItemAt(column.refs[index]).getString();
+                case TYPE_STRING:
+                    return texts.get(column.refs[index]);
+                default:
+                    throw typeMismatch(CellType.STRING);
+            }
+        }
+
+        /**
+         * @return the boolean value, false for blank cells
+         * @throws IllegalStateException if the cell or the cached formula result is not a boolean
+         */
+        public boolean getBooleanCellValue() {
+            switch (column.types[index] & TYPE_MASK) {
+                case TYPE_BLANK:
+                    return false;
+                case TYPE_BOOLEAN:
+                    return column.numbers[index] != 0;
+                default:
+                    throw typeMismatch(CellType.BOOLEAN);
+            }
+        }
+
+        /**
+         * @return the error code, see {@link FormulaError}
+         * @throws IllegalStateException if the cell or the cached formula result is not an error
+         */
+        public byte getErrorCellValue() {
+            if ((column.types[index] & TYPE_MASK) != TYPE_ERROR) {
+                throw typeMismatch(CellType.ERROR);
+            }
+            return (byte)column.refs[index];
+        }
+
+        /**
+         * @return the index of the cell style
+         */
+        public int getCellStyleIndex() {
+            return column.styles[index] & 0xFFFF;
+        }
+
+        /**
+         * @return the cell style or {@code null}, if no styles were provided
+         */
+        public XSSFCellStyle getCellStyle() {
+            if (styles == null || styles.getNumCellStyles() == 0) {
+                return null;
+            }
+            return styles.getStyleAt(getCellStyleIndex());
+        }
+
+        /**
+         * Formats the value of the cell (or the cached result of the formula) with its data format.
+         * Like the {@link XSSFSheetXMLHandler}, numeric values are formatted with
+         * {@link DataFormatter#formatRawCellContents(double, int, String, boolean)}
+         *
+         * @param formatter the formatter for numeric values
+         * @return the formatted value
+         */
+        public String formatCellValue(DataFormatter formatter) {
+            switch (column.types[index] & TYPE_MASK) {
+                case TYPE_NUMERIC:
+                    XSSFCellStyle style = getCellStyle();
+                    double value = column.numbers[index];
+                    if (style == null) {
+                        return formatter.formatRawCellContents(value, 0, "General", date1904);
+                    }
+                    int formatIndex = style.getDataFormat();
+                    String formatString = style.getDataFormatString();
+                    if (formatString == null) {
+                        formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+                    }
+                    return formatter.formatRawCellContents(value, formatIndex, formatString, date1904);
+                case TYPE_BOOLEAN:
+                    return getBooleanCellValue() ? "TRUE" : "FALSE";
+                case TYPE_ERROR:
+                    return FormulaError.forInt(getErrorCellValue()).getString();
+                default:
+                    return getStringCellValue();
+            }
+        }
+
+        private IllegalStateException typeMismatch(CellType expected) {
+            CellType actual = getCellType();
+            if (actual == CellType.FORMULA) {
+                actual = getCachedFormulaResultType();
+            }
+            return new IllegalStateException("Cannot get a " + expected + " value from a " + actual + " cell");
+        }
+
+        @Override
+        public String toString() {
+            return getAddress() + " " + getCellType();
+        }
+    }
+
+    private static CellType toCellType(byte type) {
+        switch (type) {
+            case TYPE_NUMERIC:
+                return CellType.NUMERIC;
+            case TYPE_SHARED_STRING:
+            case TYPE_STRING:
+                return CellType.STRING;
+            case TYPE_BOOLEAN:
+                return CellType.BOOLEAN;
+            case TYPE_ERROR:
+                return CellType.ERROR;
+            default:
+                return CellType.BLANK;
+        }
+    }
+
+    /**
+     * The cells of a column - the value arrays are only allocated, when a cell needs them
+     */
+    private static final class Column {
+        private int size;
+        private int[] rows = new int[8];
+        private byte[] types = new byte[8];
+        private short[] styles = new short[8];
+        /** numeric values and booleans */
+        private double[] numbers;
+        /** indexes of the shared strings and the texts, error codes */
+        private int[] refs;
+        /** indexes of the formulas */
+        private int[] formulas;
+
+        private int add(int row, byte type, int style) {
+            if (size == rows.length) {
+                int capacity = size * 2;
+                rows = Arrays.copyOf(rows, capacity);
+                types = Arrays.copyOf(types, capacity);
+                styles = Arrays.copyOf(styles, capacity);
+                if (numbers != null) {
+                    numbers = Arrays.copyOf(numbers, capacity);
+                }
+                if (refs != null) {
+                    refs = Arrays.copyOf(refs, capacity);
+                }
+                if (formulas != null) {
+                    formulas = Arrays.copyOf(formulas, capacity);
+                }
+            }
+            rows[size] = row;
+            types[size] = type;
+            styles[size] = (short)style;
+            return size++;
+        }
+
+        private void setNumber(int index, double value) {
+            if (numbers == null) {
+                numbers = new double[rows.length];
+            }
+            numbers[index] = value;
+        }
+
+        private void setRef(int index, int ref) {
+            if (refs == null) {
+                refs = new int[rows.length];
+            }
+            refs[index] = ref;
+        }
+
+        private void setFormula(int index, int formula) {
+            if (formulas == null) {
+                formulas = new int[rows.length];
+            }
+            formulas[index] = formula;
+        }
+
+        private void trim() {
+            rows = Arrays.copyOf(rows, size);
+            types = Arrays.copyOf(types, size);
+            styles = Arrays.copyOf(styles, size);
+            if (numbers != null) {
+                numbers = Arrays.copyOf(numbers, size);
+            }
+            if (refs != null) {
+                refs = Arrays.copyOf(refs, size);
+            }
+            if (formulas != null) {
+                formulas = Arrays.copyOf(formulas, size);
+            }
+        }
+    }
+
+    private void startRow(int rowNum) throws SAXException {
+        if (rowCount > 0 && rowNum <= rowNums[rowCount - 1]) {
+            throw new SAXException("Row " + (rowNum + 1) + " is not in ascending order");
+        }
+        if (rowCount + 1 == rowStarts.length) {
+            rowNums = Arrays.copyOf(rowNums, rowCount * 2);
+            rowStarts = Arrays.copyOf(rowStarts, rowCount * 2 + 1);
+        }
+        rowNums[rowCount] = rowNum;
+        rowStarts[rowCount] = cellCount;
+        rowCount++;
+        rowStarts[rowCount] = cellCount;
+    }
+
+    private Column addCell(int rowNum, int columnIndex) {
+        if (columnIndex >= columns.length) {
+            columns = Arrays.copyOf(columns, Math.max(columnIndex + 1, columns.length * 2));
+        }
+        Column column = columns[columnIndex];
+        if (column == null) {
+            column = columns[columnIndex] = new Column();
+        }
+        if (cellCount == cellColumns.length) {
+            cellColumns = Arrays.copyOf(cellColumns, cellCount * 2);
+        }
+        cellColumns[cellCount++] = (short)columnIndex;
+        rowStarts[rowCount] = cellCount;
+        return column;
+    }
+
+    private class SheetHandler extends DefaultHandler {
+        private final StringBuilder value = new StringBuilder(64);
+        private final StringBuilder formula = new StringBuilder(64);
+        private int rowNum = -1;
+        private int columnIndex;
+        private int style;
+        private String cellType;
+        private boolean hasValue;
+        private boolean isFormula;
+        private int formulaIndex;
+
+        private boolean vIsOpen;
+        private boolean fIsOpen;
+        private boolean isIsOpen;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+        throws SAXException {
+            if (uri != null && !uri.equals(NS_SPREADSHEETML)) {
+                return;
+            }
+
+            if ("row".equals(localName)) {
+                String r = attributes.getValue("r");
+                rowNum = (r != null) ? Integer.parseInt(r) - 1 : rowNum + 1;
+                startRow(rowNum);
+                columnIndex = -1;
+            } else if ("c".equals(localName)) {
+                String r = attributes.getValue("r");
+                columnIndex = (r != null) ? parseColumn(r) : columnIndex + 1;
+                String s = attributes.getValue("s");
+                style = (s != null) ? Integer.parseInt(s) : 0;
+                cellType = attributes.getValue("t");
+                value.setLength(0);
+                hasValue = false;
+                isFormula = false;
+            } else if ("v".equals(localName) || ("t".equals(localName) && isIsOpen)) {
+                vIsOpen = true;
+                hasValue = true;
+            } else if ("is".equals(localName)) {
+                isIsOpen = true;
+            } else if ("f".equals(localName)) {
+                isFormula = true;
+                formula.setLength(0);
+                formulaIndex = NO_FORMULA;
+                // the dependent cells of a shared formula have no formula text
+                fIsOpen = !"shared".equals(attributes.getValue("t")) || attributes.getValue("ref") != null;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if (uri != null && !uri.equals(NS_SPREADSHEETML)) {
+                return;
+            }
+
+            if ("v".equals(localName) || ("t".equals(localName) && isIsOpen)) {
+                vIsOpen = false;
+            } else if ("is".equals(localName)) {
+                isIsOpen = false;
+            } else if ("f".equals(localName)) {
+                if (fIsOpen) {
+                    fIsOpen = false;
+                    formulaIndex = formulas.size();
+                    formulas.add(formula.toString());
+                }
+            } else if ("c".equals(localName)) {
+                endCell();
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (vIsOpen) {
+                value.append(ch, start, length);
+            }
+            if (fIsOpen) {
+                formula.append(ch, start, length);
+            }
+        }
+
+        private void endCell() {
+            Column column = addCell(rowNum, columnIndex);
+            byte type;
+            if (!hasValue) {
+                type = TYPE_BLANK;
+            } else if (cellType == null || "n".equals(cellType)) {
+                type = TYPE_NUMERIC;
+            } else if ("s".equals(cellType)) {
+                type = TYPE_SHARED_STRING;
+            } else if ("b".equals(cellType)) {
+                type = TYPE_BOOLEAN;
+            } else if ("e".equals(cellType)) {
+                type = TYPE_ERROR;
+            } else {
+                // inlineStr, str (string result of a formula) and the rarely used ISO dates
+                type = TYPE_STRING;
+            }
+            // an empty value like <v/> is only meaningful for strings
+            if (type != TYPE_STRING && type != TYPE_BLANK && isEmpty(value)) {
+                type = TYPE_BLANK;
+            }
+
+            int index = column.add(rowNum, isFormula ? (byte)(type | TYPE_FORMULA) : type, style);
+            switch (type) {
+                case TYPE_NUMERIC:
+                    column.setNumber(index, Double.parseDouble(value.toString()));
+                    break;
+                case TYPE_SHARED_STRING:
+                    column.setRef(index, Integer.parseInt(value.toString().trim()));
+                    break;
+                case TYPE_BOOLEAN:
+                    column.setNumber(index, value.length() > 0 && value.charAt(0) != '0' ? 1 : 0);
+                    break;
+                case TYPE_ERROR:
+                    column.setRef(index, parseError(value.toString().trim()));
+                    break;
+                case TYPE_STRING:
+                    column.setRef(index, texts.size());
+                    texts.add(value.toString());
+                    break;
+                default:
+                    break;
+            }
+            if (isFormula) {
+                column.setFormula(index, formulaIndex);
+            }
+        }
+    }
+
+    private static int parseColumn(String ref) {
+        return new CellReference(ref).getCol();
+    }
+
+    private static boolean isEmpty(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isWhitespace(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the code of the error or of {@link FormulaError#NA}, if the error is unknown
+     */
+    private static int parseError(String error) {
+        try {
+            return FormulaError.forString(error).getCode();
+        } catch (final IllegalArgumentException e) {
+            return FormulaError.NA.getCode();
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.eventusermodel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.util.Beta;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.Comments;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.Styles;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Parses the sheets of a workbook concurrently, each sheet part with its own
+ * SAX parser and {@link XSSFSheetXMLHandler}.
+ * <p>
+ * The shared strings and the styles are shared by all sheets, so they need to be
+ * safe for concurrent reads - this is the case for {@link ReadOnlySharedStringsTable},
+ * {@link MappedReadOnlySharedStringsTable} and the XMLBeans based tables of
+ * {@link XSSFReader}. As {@link DataFormatter} isn't thread-safe, each sheet gets
+ * its own instance.
+ * </p>
+ * <p>
+ * The {@link SheetContentsHandler} of a sheet is called on the thread, which parses
+ * that sheet, i.e. the handlers of different sheets are called concurrently.
+ * </p>
+ *
+ * @since POI 4.1.1
+ */
+@Beta
+public class XSSFParallelSheetParser {
+
+    /**
+     * Provides the contents handlers for the sheets
+     */
+    public interface SheetHandlerFactory {
+        /**
+         * Creates the handler for a sheet. This method is called on the thread, which started
+         * the parsing, in the logical order of the sheets.
+         *
+         * @param sheetIndex the (zero based) index of the sheet
+         * @param sheetName the name of the sheet
+         * @return the handler receiving the sheet contents or {@code null} to skip the sheet
+         */
+        SheetContentsHandler createHandler(int sheetIndex, String sheetName);
+    }
+
+    private final XSSFReader reader;
+    private final SharedStrings strings;
+    private final Styles styles;
+    private Supplier<DataFormatter> formatterFactory = DataFormatter::new;
+    private boolean formulasNotResults;
+    private boolean includeComments;
+
+    /**
+     * @param reader the reader of the workbook
+     * @param strings the shared strings, which will be accessed concurrently
+     * @param styles the styles, which will be accessed concurrently
+     */
+    public XSSFParallelSheetParser(XSSFReader reader, SharedStrings strings, Styles styles) {
+        this.reader = reader;
+        this.strings = strings;
+        this.styles = styles;
+    }
+
+    /**
+     * @param formatterFactory creates the data formatter for each sheet, defaults to {@code new DataFormatter()}
+     */
+    public void setDataFormatterFactory(Supplier<DataFormatter> formatterFactory) {
+        this.formatterFactory = formatterFactory;
+    }
+
+    /**
+     * @param formulasNotResults if true, the formulas are reported instead of their cached results
+     */
+    public void setFormulasNotResults(boolean formulasNotResults) {
+        this.formulasNotResults = formulasNotResults;
+    }
+
+    /**
+     * @param includeComments if true, the sheet comments are parsed and reported with their cells
+     */
+    public void setIncludeComments(boolean includeComments) {
+        this.includeComments = includeComments;
+    }
+
+    /**
+     * Parses all sheets on the common fork-join pool and waits until all sheets are processed.
+     *
+     * @param handlerFactory provides the handlers for the sheets
+     * @throws IOException if a sheet can't be read
+     * @throws SAXException if a sheet can't be parsed
+     * @throws InvalidFormatException if the sheets can't be determined
+     */
+    public void parse(SheetHandlerFactory handlerFactory) throws IOException, SAXException, InvalidFormatException {
+        parse(handlerFactory, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses all sheets with the given executor and waits until all sheets are processed.
+     * If a sheet fails, the sheets which haven't been started yet, are skipped and the running
+     * sheets are interrupted. The handlers aren't called anymore, when this method returns.
+     *
+     * @param handlerFactory provides the handlers for the sheets
+     * @param executor the executor, which runs the parsing of the sheets
+     * @throws IOException if a sheet can't be read
+     * @throws SAXException if a sheet can't be parsed
+     * @throws InvalidFormatException if the sheets can't be determined
+     */
+    public void parse(SheetHandlerFactory handlerFactory, Executor executor)
+    throws IOException, SAXException, InvalidFormatException {
+        final List<SheetTask> tasks = new ArrayList<>();
+        try {
+            submitTasks(handlerFactory, executor, tasks);
+        } catch (IOException | SAXException | InvalidFormatException | RuntimeException | Error e) {
+            cancelTasks(tasks);
+            throw e;
+        }
+
+        awaitTasks(tasks);
+    }
+
+    private void submitTasks(SheetHandlerFactory handlerFactory, Executor executor, List<SheetTask> tasks)
+    throws IOException, SAXException, InvalidFormatException {
+        final XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator) reader.getSheetsData();
+        for (int sheetIndex = 0; iter.hasNext(); sheetIndex++) {
+            // the part is opened again by the worker
+            iter.next().close();
+
+            final SheetContentsHandler handler = handlerFactory.createHandler(sheetIndex, iter.getSheetName());
+            if (handler == null) {
+                continue;
+            }
+
+            final PackagePart sheetPart = iter.getSheetPart();
+            final Comments comments = includeComments ? iter.getSheetComments() : null;
+            // create the parser upfront, as the SAX parser factory isn't necessarily thread-safe
+            final XMLReader sheetParser = newXMLReader();
+            sheetParser.setContentHandler(new XSSFSheetXMLHandler(
+                styles, comments, strings, handler, formatterFactory.get(), formulasNotResults));
+
+            final SheetTask task = new SheetTask(() -> {
+                try (InputStream is = sheetPart.getInputStream()) {
+                    sheetParser.parse(new InputSource(is));
+                }
+                return null;
+            });
+            tasks.add(task);
+            executor.execute(task);
+        }
+    }
+
+    private static XMLReader newXMLReader() throws SAXException {
+        try {
+            return SAXHelper.newXMLReader();
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException("SAX parser appears to be broken - " + e.getMessage());
+        }
+    }
+
+    private static void awaitTasks(List<SheetTask> tasks) throws IOException, SAXException {
+        Throwable failure = null;
+        for (SheetTask task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                cancelTasks(tasks);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the sheets to be parsed");
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                    cancelTasks(tasks);
+                }
+            } catch (RuntimeException e) {
+                // CancellationException of the skipped tasks
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+
+        if (failure instanceof IOException) {
+            throw (IOException)failure;
+        } else if (failure instanceof SAXException) {
+            throw (SAXException)failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException)failure;
+        } else if (failure instanceof Error) {
+            throw (Error)failure;
+        } else if (failure != null) {
+            throw new IOException(failure);
+        }
+    }
+
+    /**
+     * Cancels the tasks, interrupts the running ones and waits until they have finished,
+     * so that no handler is called afterwards
+     */
+    private static void cancelTasks(List<SheetTask> tasks) {
+        tasks.forEach(t -> t.cancel(true));
+        boolean interrupted = Thread.interrupted();
+        for (SheetTask task : tasks) {
+            while (true) {
+                try {
+                    task.awaitFinished();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A task, which can be awaited until it has finished running - a cancelled {@link FutureTask}
+     * returns from {@link FutureTask#get()} immediately, even if it is still running
+     */
+    private static final class SheetTask extends FutureTask<Void> {
+        private static final int NEW = 0, RUNNING = 1, FINISHED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(NEW);
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        SheetTask(Callable<Void> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(NEW, RUNNING)) {
+                // skipped by awaitFinished
+                return;
+            }
+            try {
+                super.run();
+            } finally {
+                state.set(FINISHED);
+                finished.countDown();
+            }
+        }
+
+        /**
+         * Waits until the task has finished running, a task which hasn't been started won't be run anymore
+         */
+        void awaitFinished() throws InterruptedException {
+            if (!state.compareAndSet(NEW, FINISHED)) {
+                finished.await();
+            }
+        }
+    }
+}
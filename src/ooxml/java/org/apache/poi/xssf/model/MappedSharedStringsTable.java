@@ -0,0 +1,416 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.model;
+
+import static org.apache.poi.ooxml.POIXMLTypeLoader.DEFAULT_XML_OPTIONS;
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.poi.ooxml.POIXMLDocumentPart;
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.util.Beta;
+import org.apache.poi.util.Removal;
+import org.apache.poi.xssf.usermodel.XSSFFactory;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.poi.xssf.util.MappedStringStore;
+import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlOptions;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRst;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTSst;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.SstDocument;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * A shared strings table, which keeps the string items in memory-mapped temporary files
+ * instead of the java heap.
+ * <p>
+ * The items are stored as serialized XML of their {@code si} element, so rich text
+ * formatting is retained, but accessing an item requires to parse it again.
+ * The in-memory items of the base class stay empty, as all methods accessing them are overridden.
+ * Use this table for workbooks with a huge number of unique strings, e.g. in combination
+ * with {@code SXSSFWorkbook} and a shared strings table:
+ * </p>
+ * <pre>
+ * XSSFWorkbook template = new XSSFWorkbook(MappedSharedStringsTable.FACTORY);
+ * SXSSFWorkbook wb = new SXSSFWorkbook(template, 100, false, true);
+ * </pre>
+ * <p>
+ * The temporary files are removed, when the table - usually via its workbook - is closed.
+ * </p>
+ *
+ * @since POI 4.1.1
+ */
+@Beta
+public class MappedSharedStringsTable extends SharedStringsTable {
+
+    /**
+     * A factory which creates mapped shared strings tables for new workbooks
+     */
+    public static final XSSFFactory FACTORY = new XSSFFactory() {
+        @Override
+        protected POIXMLDocumentPart createDocumentPart
+        (Class<? extends POIXMLDocumentPart> cls, Class<?>[] classes, Object[] values)
+                throws SecurityException, NoSuchMethodException, InstantiationException, IllegalAccessException, InvocationTargetException {
+            return super.createDocumentPart(
+                cls == SharedStringsTable.class ? MappedSharedStringsTable.class : cls, classes, values);
+        }
+    };
+
+    private static final XmlOptions SAVE_OPTIONS = new XmlOptions();
+    static {
+        // write the si element with the default namespace of the enclosing sst element
+        SAVE_OPTIONS.setSaveOuter();
+        SAVE_OPTIONS.setSaveAggressiveNamespaces();
+        SAVE_OPTIONS.setUseDefaultNamespace();
+        SAVE_OPTIONS.setSaveImplicitNamespaces(Collections.singletonMap("", NS_SPREADSHEETML));
+        // the same as in SharedStringsTable.writeTo - turn off writing CDATA, see Bugzilla 48936
+        SAVE_OPTIONS.setSaveCDataLengthThreshold(1000000);
+        SAVE_OPTIONS.setSaveCDataEntityCountThreshold(-1);
+    }
+
+    /**
+     * the serialized string items - this field is initialized lazily,
+     * as the super constructor already reads the items
+     */
+    private MappedStringStore store;
+
+    public MappedSharedStringsTable() throws IOException {
+        super();
+        getStore();
+    }
+
+    public MappedSharedStringsTable(PackagePart part) throws IOException {
+        super(part);
+        getStore();
+    }
+
+    private MappedStringStore getStore() throws IOException {
+        if (store == null) {
+            store = new MappedStringStore(true);
+        }
+        return store;
+    }
+
+    /**
+     * Read this shared strings table from an XML file.
+     * The string items are streamed into the store, i.e. the table isn't parsed into XML beans.
+     *
+     * @param is The input stream containing the XML document.
+     * @throws IOException if an error occurs while reading.
+     */
+    @Override
+    public void readFrom(InputStream is) throws IOException {
+        try {
+            XMLReader sstParser = SAXHelper.newXMLReader();
+            sstParser.setContentHandler(new ItemHandler(getStore()));
+            sstParser.parse(new InputSource(is));
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException("SAX parser appears to be broken - " + e.getMessage());
+        } catch (SAXException e) {
+            throw new IOException("unable to parse shared strings table", e);
+        }
+    }
+
+    /**
+     * Return a string item by index
+     *
+     * @param idx index of item to return.
+     * @return the item at the specified position in this Shared String table.
+     * @deprecated use <code>getItemAt(int idx)</code> instead
+     */
+    @Override
+    @Removal(version = "4.2")
+    @Deprecated
+    public CTRst getEntryAt(int idx) {
+        return parseItem(store.get(idx));
+    }
+
+    @Override
+    public RichTextString getItemAt(int idx) {
+        return new XSSFRichTextString(getEntryAt(idx));
+    }
+
+    /**
+     * Add an entry to this Shared String table (a new value is appended to the end).
+     *
+     * <p>
+     * If the Shared String table already contains this <code>CTRst</code> bean, its index is returned.
+     * Otherwise a new entry is aded.
+     * </p>
+     *
+     * @param st the entry to add
+     * @return index the index of added entry
+     * @deprecated use <code>addSharedStringItem(RichTextString string)</code> instead
+     */
+    @Override
+    @Removal(version = "4.2")
+    @Deprecated
+    public int addEntry(CTRst st) {
+        String s = normalize(st);
+        count++;
+        int idx = store.indexOf(s);
+        if (idx != -1) {
+            return idx;
+        }
+
+        uniqueCount++;
+        try {
+            return store.add(s);
+        } catch (IOException e) {
+            throw new POIXMLException("Unable to add the shared string", e);
+        }
+    }
+
+    /**
+     * Provide low-level access to the string items, which are parsed on each access
+     *
+     * @return list of CTRst beans
+     * @deprecated use <code>getSharedStringItems</code> instead
+     */
+    @Override
+    @Removal(version = "4.2")
+    @Deprecated
+    public List<CTRst> getItems() {
+        return new AbstractList<CTRst>() {
+            @Override
+            public CTRst get(int index) {
+                return getEntryAt(index);
+            }
+
+            @Override
+            public int size() {
+                return store.size();
+            }
+        };
+    }
+
+    /**
+     * Provide access to the strings in the SharedStringsTable.
+     * The items are parsed on each access, i.e. the list doesn't keep the strings on the heap.
+     *
+     * @return list of shared string instances
+     */
+    @Override
+    public List<RichTextString> getSharedStringItems() {
+        return Collections.unmodifiableList(new AbstractList<RichTextString>() {
+            @Override
+            public RichTextString get(int index) {
+                return getItemAt(index);
+            }
+
+            @Override
+            public int size() {
+                return store.size();
+            }
+        });
+    }
+
+    /**
+     * Write this table out as XML. The items are streamed, i.e. they are not collected
+     * in a XML bean beforehand, but each item is written with the same save options as
+     * in {@link SharedStringsTable#writeTo(OutputStream)}.
+     *
+     * @param out The stream to write to.
+     * @throws IOException if an error occurs while writing.
+     */
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+        writer.write("<sst xmlns=\"" + NS_SPREADSHEETML + "\" count=\"" + count + "\" uniqueCount=\"" + uniqueCount + "\">");
+        for (int i = 0; i < store.size(); i++) {
+            writer.write(store.get(i));
+        }
+        writer.write("</sst>");
+        writer.flush();
+    }
+
+    /**
+     * Removes the temporary files backing this table.
+     */
+    @Override
+    public void close() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    /**
+     * Serializes the content of the {@code si} elements and adds it to the store.
+     * Each item is parsed and serialized again with {@link #normalize(CTRst)}, so that the stored
+     * items have the same form as the ones added via {@link #addEntry(CTRst)} and can be deduplicated.
+     */
+    private class ItemHandler extends DefaultHandler {
+        private final MappedStringStore st;
+        private final StringBuilder item = new StringBuilder(64);
+        private int depth = -1;
+        private boolean startTagOpen;
+
+        private ItemHandler(MappedStringStore st) {
+            this.st = st;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            if (depth >= 0) {
+                closeStartTag();
+                depth++;
+                item.append('<');
+                if (NS_SPREADSHEETML.equals(uri)) {
+                    item.append(localName);
+                } else {
+                    item.append(qName);
+                    appendNamespace(uri, qName);
+                }
+                for (int i = 0; i < attributes.getLength(); i++) {
+                    String attUri = attributes.getURI(i);
+                    String attName = attributes.getQName(i);
+                    item.append(' ').append(attName).append("=\"");
+                    escape(attributes.getValue(i), true);
+                    item.append('"');
+                    if (!attUri.isEmpty() && !XMLConstants.XML_NS_URI.equals(attUri)) {
+                        appendNamespace(attUri, attName);
+                    }
+                }
+                startTagOpen = true;
+            } else if (NS_SPREADSHEETML.equals(uri) && "si".equals(localName)) {
+                item.setLength(0);
+                depth = 0;
+            } else if (NS_SPREADSHEETML.equals(uri) && "sst".equals(localName)) {
+                count = parseCount(attributes.getValue("count"));
+                uniqueCount = parseCount(attributes.getValue("uniqueCount"));
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if (depth > 0) {
+                if (startTagOpen) {
+                    item.append("/>");
+                    startTagOpen = false;
+                } else {
+                    item.append("</").append(NS_SPREADSHEETML.equals(uri) ? localName : qName).append('>');
+                }
+                depth--;
+            } else if (depth == 0) {
+                try {
+                    st.add(normalize(parseItem("<si>" + item + "</si>")));
+                } catch (IOException e) {
+                    throw new SAXException(e);
+                }
+                depth = -1;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (depth >= 0) {
+                closeStartTag();
+                escape(new String(ch, start, length), false);
+            }
+        }
+
+        private void closeStartTag() {
+            if (startTagOpen) {
+                item.append('>');
+                startTagOpen = false;
+            }
+        }
+
+        private void appendNamespace(String uri, String qName) {
+            int colon = qName.indexOf(':');
+            item.append(colon == -1 ? " xmlns" : " xmlns:" + qName.substring(0, colon)).append("=\"");
+            escape(uri, true);
+            item.append('"');
+        }
+
+        private void escape(String text, boolean isAttribute) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '<':
+                        item.append("&lt;");
+                        break;
+                    case '&':
+                        item.append("&amp;");
+                        break;
+                    case '>':
+                        item.append("&gt;");
+                        break;
+                    case '"':
+                        item.append(isAttribute ? "&quot;" : "\"");
+                        break;
+                    case '\r':
+                        item.append("&#13;");
+                        break;
+                    default:
+                        item.append(c);
+                        break;
+                }
+            }
+        }
+    }
+
+    private static int parseCount(String count) {
+        return count == null ? 0 : Integer.parseInt(count);
+    }
+
+    /**
+     * Serializes the item as {@code si} element in the form, in which it is stored and written,
+     * i.e. with the same save options as {@link SharedStringsTable#writeTo(OutputStream)}
+     */
+    private static String normalize(CTRst st) {
+        CTRst si = CTSst.Factory.newInstance().addNewSi();
+        si.set(st);
+        return si.xmlText(SAVE_OPTIONS);
+    }
+
+    /**
+     * @param xml the serialized {@code si} element
+     * @return the {@code si} element, within its own {@code sst} element
+     */
+    private static CTRst parseItem(String xml) {
+        try {
+            String sst = "<sst xmlns=\"" + NS_SPREADSHEETML + "\">" + xml + "</sst>";
+            return SstDocument.Factory.parse(sst, DEFAULT_XML_OPTIONS).getSst().getSiArray(0);
+        } catch (XmlException e) {
+            throw new POIXMLException("Unable to parse the shared string item", e);
+        }
+    }
+}
@@ -26,12 +26,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 import org.apache.poi.ooxml.POIXMLDocumentPart;
 import org.apache.poi.openxml4j.opc.PackagePart;
@@ -43,12 +47,14 @@ import org.apache.poi.xssf.usermodel.DefaultIndexedColorMap;
 import org.apache.poi.xssf.usermodel.IndexedColorMap;
 import org.apache.poi.xssf.usermodel.XSSFBuiltinTableStyle;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
 import org.apache.poi.xssf.usermodel.XSSFFactory;
 import org.apache.poi.xssf.usermodel.XSSFFont;
 import org.apache.poi.xssf.usermodel.XSSFRelation;
 import org.apache.poi.xssf.usermodel.XSSFTableStyle;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.xssf.usermodel.extensions.XSSFCellBorder;
+import org.apache.poi.xssf.usermodel.extensions.XSSFCellBorder.BorderSide;
 import org.apache.poi.xssf.usermodel.extensions.XSSFCellFill;
 import org.apache.xmlbeans.XmlException;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.*;
@@ -66,6 +72,17 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
 
     private final List<CTDxf> dxfs = new ArrayList<>();
     private final Map<String, TableStyle> tableStyles = new HashMap<>();
+
+    // lookup structures maintained alongside the lists above, to avoid linear searches
+    // when styles are registered - see StyleIndex for the handling of modified entries
+    private final Map<String, Short> numberFormatIds = new HashMap<>();
+    private final StyleIndex<XSSFFont> fontIndex = new StyleIndex<>(StylesTable::fontKey,
+            XSSFFont::addChangeListener, XSSFFont::removeChangeListener);
+    private final StyleIndex<XSSFCellFill> fillIndex = new StyleIndex<>(StylesTable::fillKey,
+            XSSFCellFill::addChangeListener, XSSFCellFill::removeChangeListener);
+    private final StyleIndex<XSSFCellBorder> borderIndex = new StyleIndex<>(StylesTable::borderKey,
+            XSSFCellBorder::addChangeListener, XSSFCellBorder::removeChangeListener);
+    private final Map<CTXf, Integer> xfIndex = new IdentityHashMap<>();
     
     private IndexedColorMap indexedColors = new DefaultIndexedColorMap();
     
@@ -202,6 +219,7 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
                 for (CTNumFmt nfmt : ctfmts.getNumFmtArray()) {
                     short formatId = (short)nfmt.getNumFmtId();
                     numberFormats.put(formatId, nfmt.getFormatCode());
+                    addNumberFormatId(formatId, nfmt.getFormatCode());
                 }
             }
 
@@ -246,7 +264,8 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
                     idx++;
                 }
             }
-            
+
+            rebuildIndexes();
         } catch (XmlException e) {
             throw new IOException(e.getLocalizedMessage());
         }
@@ -268,13 +287,37 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
     }
     
     private short getNumberFormatId(String fmt) {
-        // Find the key, and return that
+        Short id = numberFormatIds.get(fmt);
+        if (id == null) {
+            throw new IllegalStateException("Number format not in style table: " + fmt);
+        }
+        return id;
+    }
+
+    /**
+     * Records the id of a number format in the reverse lookup map,
+     * keeping the lowest id if the format code is used several times
+     */
+    private void addNumberFormatId(short id, String fmt) {
+        numberFormatIds.merge(fmt, id, (a, b) -> a <= b ? a : b);
+    }
+
+    /**
+     * Removes the id of a number format from the reverse lookup map
+     * and falls back to another id of the same format code, if there's one
+     */
+    private void removeNumberFormatId(short id, String fmt) {
+        Short mapped = numberFormatIds.get(fmt);
+        if (mapped == null || mapped != id) {
+            return;
+        }
+        numberFormatIds.remove(fmt);
         for (Entry<Short,String> numFmt : numberFormats.entrySet()) {
-            if(numFmt.getValue().equals(fmt)) {
-                return numFmt.getKey();
+            if (numFmt.getValue().equals(fmt)) {
+                numberFormatIds.put(fmt, numFmt.getKey());
+                break;
             }
         }
-        throw new IllegalStateException("Number format not in style table: " + fmt);
     }
 
     /**
@@ -290,12 +333,9 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
     @Override
     public int putNumberFormat(String fmt) {
         // Check if number format already exists
-        if (numberFormats.containsValue(fmt)) {
-            try {
-                return getNumberFormatId(fmt);
-            } catch (final IllegalStateException e) {
-                throw new IllegalStateException("Found the format, but couldn't figure out where - should never happen!");
-            }
+        Short existingId = numberFormatIds.get(fmt);
+        if (existingId != null) {
+            return existingId;
         }
         
         
@@ -324,6 +364,7 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
         }
         
         numberFormats.put(formatIndex, fmt);
+        addNumberFormatId(formatIndex, fmt);
         return formatIndex;
     }
     
@@ -339,7 +380,11 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
      */
     @Override
     public void putNumberFormat(short index, String fmt) {
-        numberFormats.put(index, fmt);
+        String oldFmt = numberFormats.put(index, fmt);
+        if (oldFmt != null) {
+            removeNumberFormatId(index, oldFmt);
+        }
+        addNumberFormatId(index, fmt);
     }
     
     /**
@@ -354,6 +399,7 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
         String fmt = numberFormats.remove(index);
         boolean removed = (fmt != null);
         if (removed) {
+            removeNumberFormatId(index, fmt);
             for (final CTXf style : xfs) {
                 if (style.isSetNumFmtId() && style.getNumFmtId() == index) {
                     style.unsetApplyNumberFormat();
@@ -396,7 +442,7 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
     public int putFont(XSSFFont font, boolean forceRegistration) {
         int idx = -1;
         if(!forceRegistration) {
-            idx = fonts.indexOf(font);
+            idx = fontIndex.indexOf(font, fonts);
         }
 
         if (idx != -1) {
@@ -405,6 +451,7 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
 
         idx = fonts.size();
         fonts.add(font);
+        fontIndex.add(font, idx);
         return idx;
     }
 
@@ -438,10 +485,13 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
     public int putStyle(XSSFCellStyle style) {
         CTXf mainXF = style.getCoreXf();
 
-        if(! xfs.contains(mainXF)) {
+        Integer idx = xfIndex.get(mainXF);
+        if (idx == null) {
+            idx = xfs.size();
             xfs.add(mainXF);
+            xfIndex.put(mainXF, idx);
         }
-        return xfs.indexOf(mainXF);
+        return idx;
     }
 
     @Override
@@ -458,13 +508,15 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
      */
     @Override
     public int putBorder(XSSFCellBorder border) {
-        int idx = borders.indexOf(border);
+        int idx = borderIndex.indexOf(border, borders);
         if (idx != -1) {
             return idx;
         }
+        idx = borders.size();
         borders.add(border);
         border.setThemesTable(theme);
-        return borders.size() - 1;
+        borderIndex.add(border, idx);
+        return idx;
     }
 
     @Override
@@ -497,12 +549,14 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
      */
     @Override
     public int putFill(XSSFCellFill fill) {
-        int idx = fills.indexOf(fill);
+        int idx = fillIndex.indexOf(fill, fills);
         if (idx != -1) {
             return idx;
         }
+        idx = fills.size();
         fills.add(fill);
-        return fills.size() - 1;
+        fillIndex.add(fill, idx);
+        return idx;
     }
 
     @Internal
@@ -520,12 +574,29 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
     @Internal
     public int putCellXf(CTXf cellXf) {
         xfs.add(cellXf);
+        xfIndex.putIfAbsent(cellXf, xfs.size() - 1);
         return xfs.size();
     }
     
     @Internal
     public void replaceCellXfAt(int idx, CTXf cellXf) {
-        xfs.set(idx, cellXf);
+        CTXf oldXf = xfs.set(idx, cellXf);
+        if (oldXf == cellXf) {
+            return;
+        }
+        if (xfIndex.remove(oldXf, idx)) {
+            // the replaced xf might be used at a later position
+            for (int i = idx + 1; i < xfs.size(); i++) {
+                if (xfs.get(i) == oldXf) {
+                    xfIndex.put(oldXf, i);
+                    break;
+                }
+            }
+        }
+        Integer existing = xfIndex.get(cellXf);
+        if (existing == null || existing > idx) {
+            xfIndex.put(cellXf, idx);
+        }
     }
 
     @Internal
@@ -729,6 +800,22 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
         CTXf xf = createDefaultXf();
         xf.setXfId(0);
         xfs.add(xf);
+
+        rebuildIndexes();
+    }
+
+    private void rebuildIndexes() {
+        numberFormatIds.clear();
+        for (Entry<Short,String> numFmt : numberFormats.entrySet()) {
+            addNumberFormatId(numFmt.getKey(), numFmt.getValue());
+        }
+        fontIndex.rebuild(fonts);
+        fillIndex.rebuild(fills);
+        borderIndex.rebuild(borders);
+        xfIndex.clear();
+        for (int i = 0; i < xfs.size(); i++) {
+            xfIndex.putIfAbsent(xfs.get(i), i);
+        }
     }
 
     private static CTXf createDefaultXf() {
@@ -848,20 +935,8 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
      * where color is the indexed-value, not the actual color.
      */
     public XSSFFont findFont(boolean bold, short color, short fontHeight, String name, boolean italic, boolean strikeout, short typeOffset, byte underline) {
-        for (XSSFFont font : fonts) {
-            if (    (font.getBold() == bold)
-                    && font.getColor() == color
-                    && font.getFontHeight() == fontHeight
-                    && font.getFontName().equals(name)
-                    && font.getItalic() == italic
-                    && font.getStrikeout() == strikeout
-                    && font.getTypeOffset() == typeOffset
-                    && font.getUnderline() == underline)
-            {
-                return font;
-            }
-        }
-        return null;
+        return findFont(fontKey(bold, fontHeight, name, italic, strikeout, typeOffset, underline),
+                font -> font.getColor() == color);
     }
     
     /**
@@ -869,22 +944,179 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
      * where color is the actual Color-value, not the indexed color
      */
     public XSSFFont findFont(boolean bold, Color color, short fontHeight, String name, boolean italic, boolean strikeout, short typeOffset, byte underline) {
-        for (XSSFFont font : fonts) {
-            if (    (font.getBold() == bold)
-                    && font.getXSSFColor().equals(color)
-                    && font.getFontHeight() == fontHeight
-                    && font.getFontName().equals(name)
-                    && font.getItalic() == italic
-                    && font.getStrikeout() == strikeout
-                    && font.getTypeOffset() == typeOffset
-                    && font.getUnderline() == underline)
-            {
+        return findFont(fontKey(bold, fontHeight, name, italic, strikeout, typeOffset, underline),
+                font -> font.getXSSFColor().equals(color));
+    }
+
+    private XSSFFont findFont(List<Object> key, Predicate<XSSFFont> colorMatcher) {
+        for (int idx : fontIndex.get(key, fonts)) {
+            XSSFFont font = fonts.get(idx);
+            if (colorMatcher.test(font)) {
                 return font;
             }
         }
         return null;
     }
 
+    private static List<Object> fontKey(boolean bold, short fontHeight, String name, boolean italic,
+                                        boolean strikeout, short typeOffset, byte underline) {
+        return Arrays.asList(bold, fontHeight, name, italic, strikeout, typeOffset, underline);
+    }
+
+    /**
+     * The font key consists of the attributes of {@link #findFont}, which are all compared
+     * by {@link XSSFFont#equals(Object)} too
+     */
+    private static List<Object> fontKey(XSSFFont font) {
+        return fontKey(font.getBold(), font.getFontHeight(), font.getFontName(), font.getItalic(),
+                font.getStrikeout(), font.getTypeOffset(), font.getUnderline());
+    }
+
+    private static List<Object> fillKey(XSSFCellFill fill) {
+        return Arrays.asList(fill.getPatternType(),
+                colorKey(fill.getFillBackgroundColor()), colorKey(fill.getFillForegroundColor()));
+    }
+
+    private static List<Object> borderKey(XSSFCellBorder border) {
+        List<Object> key = new ArrayList<>();
+        for (BorderSide side : BorderSide.values()) {
+            key.add(border.getBorderStyle(side));
+            key.add(colorKey(border.getBorderColor(side)));
+        }
+        return key;
+    }
+
+    /**
+     * The color key consists of the properties compared by {@link XSSFColor#equals(Object)},
+     * apart from the RGB value of theme colors, which is filled in when a themes table is available
+     */
+    private static List<Object> colorKey(XSSFColor color) {
+        if (color == null) {
+            return null;
+        }
+        return Arrays.asList(
+                color.isRGB() && !color.isThemed() ? color.getARGBHex() : null,
+                color.isThemed() ? color.getTheme() : null,
+                color.isIndexed() ? color.getIndexed() : null,
+                color.hasTint() ? color.getTint() : null,
+                color.isAuto());
+    }
+
+    /**
+     * A hash index for the fonts, fills and borders, which maps the keys of the entries to
+     * their list positions. The keys are derived from properties, which are compared by the
+     * equals methods of the entries, so equal entries share a key.
+     * <p>
+     * The entries are mutable, therefore the index registers a change listener with its
+     * entries and moves an entry to the bucket of its new key, when it has been modified.
+     * Changes, which aren't reported, e.g. of the underlying XML beans, are detected when
+     * the key of a found entry doesn't match anymore - the index is then rebuilt.
+     * </p>
+     */
+    private static final class StyleIndex<T> {
+        private final Function<T, List<Object>> keyFunction;
+        private final BiConsumer<T, Runnable> addListener;
+        private final BiConsumer<T, Runnable> removeListener;
+        private final Map<List<Object>, List<Integer>> buckets = new HashMap<>();
+        // the keys by list position and the registrations by entry, to re-key modified entries
+        private final List<List<Object>> keys = new ArrayList<>();
+        private final Map<T, Registration> registrations = new IdentityHashMap<>();
+
+        private static final class Registration {
+            private final List<Integer> positions = new ArrayList<>(1);
+            private Runnable listener;
+        }
+
+        StyleIndex(Function<T, List<Object>> keyFunction,
+                   BiConsumer<T, Runnable> addListener, BiConsumer<T, Runnable> removeListener) {
+            this.keyFunction = keyFunction;
+            this.addListener = addListener;
+            this.removeListener = removeListener;
+        }
+
+        void add(T entry, int idx) {
+            List<Object> key = keyFunction.apply(entry);
+            keys.add(key);
+            addToBucket(key, idx);
+            Registration reg = registrations.get(entry);
+            if (reg == null) {
+                reg = new Registration();
+                reg.listener = () -> changed(entry);
+                addListener.accept(entry, reg.listener);
+                registrations.put(entry, reg);
+            }
+            reg.positions.add(idx);
+        }
+
+        /**
+         * @return the positions of the entries with the given key, whose current key has been verified
+         */
+        List<Integer> get(List<Object> key, List<T> entries) {
+            List<Integer> bucket = buckets.getOrDefault(key, Collections.emptyList());
+            for (int idx : bucket) {
+                if (!keyFunction.apply(entries.get(idx)).equals(key)) {
+                    // an unreported change - look up again in the rebuilt index
+                    rebuild(entries);
+                    return buckets.getOrDefault(key, Collections.emptyList());
+                }
+            }
+            return bucket;
+        }
+
+        int indexOf(T entry, List<T> entries) {
+            for (int idx : get(keyFunction.apply(entry), entries)) {
+                if (entries.get(idx).equals(entry)) {
+                    return idx;
+                }
+            }
+            return -1;
+        }
+
+        void rebuild(List<T> entries) {
+            for (Map.Entry<T, Registration> me : registrations.entrySet()) {
+                removeListener.accept(me.getKey(), me.getValue().listener);
+            }
+            buckets.clear();
+            keys.clear();
+            registrations.clear();
+            for (int i = 0; i < entries.size(); i++) {
+                add(entries.get(i), i);
+            }
+        }
+
+        private void changed(T entry) {
+            Registration reg = registrations.get(entry);
+            if (reg == null) {
+                return;
+            }
+            List<Object> newKey = keyFunction.apply(entry);
+            for (int idx : reg.positions) {
+                List<Object> oldKey = keys.get(idx);
+                if (newKey.equals(oldKey)) {
+                    continue;
+                }
+                List<Integer> bucket = buckets.get(oldKey);
+                bucket.remove(Integer.valueOf(idx));
+                if (bucket.isEmpty()) {
+                    buckets.remove(oldKey);
+                }
+                addToBucket(newKey, idx);
+                keys.set(idx, newKey);
+            }
+        }
+
+        /**
+         * Keeps the buckets sorted, so the first matching entry is found like with List.indexOf
+         */
+        private void addToBucket(List<Object> key, int idx) {
+            List<Integer> bucket = buckets.computeIfAbsent(key, k -> new ArrayList<>(1));
+            int pos = Collections.binarySearch(bucket, idx);
+            if (pos < 0) {
+                bucket.add(-pos - 1, idx);
+            }
+        }
+    }
+
     /**
      * @return default or custom indexed color to RGB mapping
      */
@@ -25,6 +25,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -35,6 +36,8 @@ import org.apache.poi.xssf.model.SharedStringsTable;
  * Sheet writer that supports gzip compression of the temp files.
  */
 public class GZIPSheetDataWriter extends SheetDataWriter {
+    // set while the super constructor creates the writer, so it must not have an initializer
+    private LevelGZIPOutputStream _gzipOut;
 
     public GZIPSheetDataWriter() throws IOException {
         super();
@@ -47,6 +50,20 @@ public class GZIPSheetDataWriter extends SheetDataWriter {
         super(sharedStringsTable);
     }
 
+    /**
+     * @param sharedStringsTable the shared strings table, or null if inline text is used
+     * @param compressionLevel the deflate level of the temp file, e.g. {@link Deflater#BEST_SPEED}
+     *
+     * @since POI 4.1.1
+     */
+    public GZIPSheetDataWriter(SharedStringsTable sharedStringsTable, int compressionLevel) throws IOException {
+        super(sharedStringsTable);
+        // the stream is created by the super constructor, but nothing has been deflated yet
+        if (_gzipOut != null) {
+            _gzipOut.setLevel(compressionLevel);
+        }
+    }
+
     /**
      * @return temp file to write sheet data
      */
@@ -62,7 +79,18 @@ public class GZIPSheetDataWriter extends SheetDataWriter {
 
     @Override
     protected OutputStream decorateOutputStream(FileOutputStream fos) throws IOException {
-        return new GZIPOutputStream(fos);
+        _gzipOut = new LevelGZIPOutputStream(fos);
+        return _gzipOut;
+    }
+
+    private static final class LevelGZIPOutputStream extends GZIPOutputStream {
+        LevelGZIPOutputStream(OutputStream out) throws IOException {
+            super(out);
+        }
+
+        void setLevel(int level) {
+            def.setLevel(level);
+        }
     }
 
 }
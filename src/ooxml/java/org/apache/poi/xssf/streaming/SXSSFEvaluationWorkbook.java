@@ -19,8 +19,6 @@ package org.apache.poi.xssf.streaming;
 
 import org.apache.poi.ss.formula.EvaluationCell;
 import org.apache.poi.ss.formula.EvaluationSheet;
-import org.apache.poi.ss.formula.FormulaParser;
-import org.apache.poi.ss.formula.FormulaType;
 import org.apache.poi.ss.formula.ptg.Ptg;
 import org.apache.poi.xssf.usermodel.BaseXSSFEvaluationWorkbook;
 import org.apache.poi.util.Internal;
@@ -58,6 +56,6 @@ public final class SXSSFEvaluationWorkbook extends BaseXSSFEvaluationWorkbook {
     @Override
     public Ptg[] getFormulaTokens(EvaluationCell evalCell) {
         SXSSFCell cell = ((SXSSFEvaluationCell)evalCell).getSXSSFCell();
-        return FormulaParser.parse(cell.getCellFormula(), this, FormulaType.CELL, _uBook.getSheetIndex(cell.getSheet()));
+        return parseCellFormula(cell.getCellFormula(), _uBook.getSheetIndex(cell.getSheet()), cell.getRowIndex(), cell.getColumnIndex());
     }
 }
@@ -81,6 +81,11 @@ public final class SXSSFFormulaEvaluator extends BaseXSSFFormulaEvaluator {
 
         return new SXSSFEvaluationCell((SXSSFCell)cell);
     }
+
+    @Override
+    protected SXSSFCell toCell(EvaluationCell cell) {
+        return ((SXSSFEvaluationCell)cell).getSXSSFCell();
+    }
     
     @Override
     public SXSSFCell evaluateInCell(Cell cell) {
@@ -79,6 +79,9 @@ public class SXSSFSheet implements Sheet
         _sh = xSheet;
         _writer = workbook.createSheetDataWriter();
         setRandomAccessWindowSize(_workbook.getRandomAccessWindowSize());
+        if (workbook.isAsyncWriting()) {
+            _writer.startBackgroundWriting(_randomAccessWindowSize > 0 ? _randomAccessWindowSize : SXSSFWorkbook.DEFAULT_WINDOW_SIZE);
+        }
         _autoSizeColumnTracker = new AutoSizeColumnTracker(this);
     }
 
@@ -17,6 +17,8 @@
 
 package org.apache.poi.xssf.streaming;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -31,11 +33,19 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.Deflater;
 
+import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.zip.Zip64Mode;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.apache.poi.openxml4j.opc.ZipPackage;
+import org.apache.poi.openxml4j.util.ParallelZipWriter;
 import org.apache.poi.openxml4j.util.ZipArchiveThresholdInputStream;
 import org.apache.poi.openxml4j.util.ZipEntrySource;
 import org.apache.poi.openxml4j.util.ZipFileZipEntrySource;
@@ -107,6 +117,13 @@ public class SXSSFWorkbook implements Workbook {
      */
     private boolean _compressTmpFiles;
 
+    /**
+     * deflate level of the compressed temp files
+     */
+    private int _compressTmpFilesLevel = Deflater.DEFAULT_COMPRESSION;
+
+    private boolean _asyncWriting;
+
     /**
      * shared string table - a cache of strings in this workbook
      */
@@ -114,6 +131,11 @@ public class SXSSFWorkbook implements Workbook {
 
     private Zip64Mode zip64Mode = Zip64Mode.AsNeeded;
 
+    /**
+     * the executor, which compresses the entries on write, or null to compress on the calling thread
+     */
+    private ExecutorService compressionExecutor;
+
     /**
      * Construct a new workbook with default row window size
      */
@@ -327,6 +349,89 @@ public class SXSSFWorkbook implements Workbook {
     public void setCompressTempFiles(boolean compress) {
         _compressTmpFiles = compress;
     }
+
+    /**
+     * Get the deflate level of the compressed temp files.
+     *
+     * @return the deflate level
+     * @since POI 4.1.1
+     */
+    public int getCompressTempFilesLevel() {
+        return _compressTmpFilesLevel;
+    }
+
+    /**
+     * Set the deflate level of the compressed temp files, e.g. {@link Deflater#BEST_SPEED}
+     * to reduce the CPU time spent on the temp files, which are only read once.
+     * <p>
+     *     Setting this option only affects compression for subsequent <code>createSheet()</code>
+     *     calls.
+     * </p>
+     * @param level the deflate level from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION} (default)
+     * @since POI 4.1.1
+     */
+    public void setCompressTempFilesLevel(int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        _compressTmpFilesLevel = level;
+    }
+
+    /**
+     * Set the executor, which compresses the entries of the written workbook in parallel.
+     * The entries are still written in their order. The executor is provided by the caller
+     * and isn't shut down by the workbook.
+     *
+     * @param executor the executor, <code>null</code> (default) compresses on the calling thread
+     * @since POI 4.1.1
+     */
+    public void setCompressionExecutor(ExecutorService executor) {
+        compressionExecutor = executor;
+    }
+
+    /**
+     * @return the executor, which compresses the entries of the written workbook,
+     *  or <code>null</code> if they are compressed on the calling thread
+     * @since POI 4.1.1
+     */
+    public ExecutorService getCompressionExecutor() {
+        return compressionExecutor;
+    }
+
+    /**
+     * Get whether the flushed rows are written by background threads.
+     *
+     * @return whether the rows are written asynchronously
+     * @since POI 4.1.1
+     */
+    public boolean isAsyncWriting() {
+        return _asyncWriting;
+    }
+
+    /**
+     * Set whether the flushed rows are written by background threads.
+     * <p>
+     *   By default the rows leaving the random access window are written to the temp file
+     *   on the thread, which creates the rows. In the asynchronous mode each sheet has its
+     *   own writer thread, which is fed by a bounded queue of flushed rows - of the size of
+     *   the random access window. The XML serialisation and the compression of the temp files
+     *   then overlap with the generation of the rows, and the rows of different sheets can be
+     *   created by different threads.
+     * </p>
+     * <p>
+     *   Flushed rows are written later on, so they must not be modified anymore. If multiple
+     *   threads create rows, the cell styles, fonts etc. have to be created beforehand, as the
+     *   workbook objects other than the sheets' rows are not thread-safe.
+     * </p>
+     * <p>
+     *   Setting this option only affects subsequent <code>createSheet()</code> calls.
+     * </p>
+     * @param asyncWriting whether to write the rows asynchronously
+     * @since POI 4.1.1
+     */
+    public void setAsyncWriting(boolean asyncWriting) {
+        _asyncWriting = asyncWriting;
+    }
     
     @Internal
     protected SharedStringsTable getSharedStringSource() {
@@ -335,7 +440,7 @@ public class SXSSFWorkbook implements Workbook {
 
     protected SheetDataWriter createSheetDataWriter() throws IOException {
         if(_compressTmpFiles) {
-            return new GZIPSheetDataWriter(_sharedStringSource);
+            return new GZIPSheetDataWriter(_sharedStringSource, _compressTmpFilesLevel);
         }
         
         return new SheetDataWriter(_sharedStringSource);
@@ -387,40 +492,114 @@ public class SXSSFWorkbook implements Workbook {
     protected void injectData(ZipEntrySource zipEntrySource, OutputStream out) throws IOException {
         ZipArchiveOutputStream zos = new ZipArchiveOutputStream(out);
         zos.setUseZip64(zip64Mode);
-        try {
+        try (ParallelZipWriter writer = new ParallelZipWriter(zos, compressionExecutor)) {
             Enumeration<? extends ZipArchiveEntry> en = zipEntrySource.getEntries();
             while (en.hasMoreElements()) {
                 ZipArchiveEntry ze = en.nextElement();
                 ZipArchiveEntry zeOut = new ZipArchiveEntry(ze.getName());
                 zeOut.setSize(ze.getSize());
                 zeOut.setTime(ze.getTime());
-                zos.putArchiveEntry(zeOut);
-                try (final InputStream is = zipEntrySource.getInputStream(ze)) {
-                    if (is instanceof ZipArchiveThresholdInputStream) {
-                        // #59743 - disable Threshold handling for SXSSF copy
-                        // as users tend to put too much repetitive data in when using SXSSF :)
-                        ((ZipArchiveThresholdInputStream)is).setGuardState(false);
-                    }
-                    XSSFSheet xSheet = getSheetFromZipEntryName(ze.getName());
-                    // See bug 56557, we should not inject data into the special ChartSheets
-                    if (xSheet != null && !(xSheet instanceof XSSFChartSheet)) {
-                        SXSSFSheet sxSheet = getSXSSFSheet(xSheet);
-                        try (InputStream xis = sxSheet.getWorksheetXMLInputStream()) {
-                            copyStreamAndInjectWorksheet(is, zos, xis);
+                XSSFSheet xSheet = getSheetFromZipEntryName(ze.getName());
+                // See bug 56557, we should not inject data into the special ChartSheets
+                SXSSFSheet sxSheet = (xSheet != null && !(xSheet instanceof XSSFChartSheet)) ? getSXSSFSheet(xSheet) : null;
+                writer.addEntry(zeOut, getCompressionLevel(ze.getName()), os -> {
+                    try (final InputStream is = zipEntrySource.getInputStream(ze)) {
+                        if (is instanceof ZipArchiveThresholdInputStream) {
+                            // #59743 - disable Threshold handling for SXSSF copy
+                            // as users tend to put too much repetitive data in when using SXSSF :)
+                            ((ZipArchiveThresholdInputStream)is).setGuardState(false);
+                        }
+                        if (sxSheet != null) {
+                            try (InputStream xis = sxSheet.getWorksheetXMLInputStream()) {
+                                copyStreamAndInjectWorksheet(is, os, xis);
+                            }
+                        } else {
+                            IOUtils.copy(is, os);
                         }
-                    } else {
-                        IOUtils.copy(is, zos);
                     }
-                } finally {
-                    zos.closeArchiveEntry();
-                }
+                });
             }
+            writer.finish();
         } finally {
             zos.finish();
             zipEntrySource.close();
         }
     }
 
+    /**
+     * @return the compression level, which is configured for the content type of the template part
+     *
+     * @see ZipPackage#setCompressionLevel(String, int)
+     */
+    private int getCompressionLevel(String entryName) {
+        String contentType = null;
+        try {
+            PackagePart part = _wb.getPackage().getPart(PackagingURIHelper.createPartName("/" + entryName));
+            if (part != null) {
+                contentType = part.getContentType();
+            }
+        } catch (InvalidFormatException e) {
+            // not a part name, e.g. [Content_Types].xml, which uses the default level
+        }
+        return ZipPackage.getCompressionLevel(contentType);
+    }
+
+    /**
+     * A zip stream which is handed directly to the package save of the template
+     * workbook. The template parts are passed through unchanged, only the
+     * worksheet parts are buffered until the entry is closed, so that the
+     * streamed sheet data can be injected at the {@code sheetData} element.
+     */
+    private class SheetInjectingZipArchiveOutputStream extends ZipArchiveOutputStream {
+        private SXSSFSheet _pendingSheet;
+        private final ByteArrayOutputStream _sheetTemplate = new ByteArrayOutputStream();
+
+        SheetInjectingZipArchiveOutputStream(OutputStream out) {
+            super(out);
+            setUseZip64(zip64Mode);
+        }
+
+        @Override
+        public void putArchiveEntry(ArchiveEntry archiveEntry) throws IOException {
+            XSSFSheet xSheet = getSheetFromZipEntryName(archiveEntry.getName());
+            // See bug 56557, we should not inject data into the special ChartSheets
+            boolean inject = (xSheet != null && !(xSheet instanceof XSSFChartSheet));
+            if (inject && archiveEntry instanceof ZipArchiveEntry) {
+                // the size of a stored template part doesn't match the injected data
+                ((ZipArchiveEntry)archiveEntry).setMethod(ZipArchiveEntry.DEFLATED);
+            }
+            super.putArchiveEntry(archiveEntry);
+            if (inject) {
+                _pendingSheet = getSXSSFSheet(xSheet);
+                _sheetTemplate.reset();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (_pendingSheet != null) {
+                _sheetTemplate.write(b, off, len);
+            } else {
+                super.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void closeArchiveEntry() throws IOException {
+            if (_pendingSheet != null) {
+                SXSSFSheet sxSheet = _pendingSheet;
+                _pendingSheet = null;
+                try (InputStream is = new ByteArrayInputStream(_sheetTemplate.toByteArray());
+                     InputStream xis = sxSheet.getWorksheetXMLInputStream()) {
+                    copyStreamAndInjectWorksheet(is, this, xis);
+                } finally {
+                    _sheetTemplate.reset();
+                }
+            }
+            super.closeArchiveEntry();
+        }
+    }
+
     private static void copyStreamAndInjectWorksheet(InputStream in, OutputStream out, InputStream worksheetData) throws IOException {
         InputStreamReader inReader = new InputStreamReader(in, StandardCharsets.UTF_8);
         OutputStreamWriter outWriter = new OutputStreamWriter(out, StandardCharsets.UTF_8);
@@ -956,6 +1135,29 @@ public class SXSSFWorkbook implements Workbook {
         }
     }
     
+    /**
+     * Write out this workbook to an OutputStream without spooling the template
+     * workbook to a temporary file first.
+     * <p>
+     * The parts of the template workbook are saved directly into the target zip
+     * stream and the flushed sheet data is injected while the worksheet parts are
+     * written, so the output is produced in one sequential pass. Only the template
+     * XML of each worksheet (without the streamed rows) is buffered in memory.
+     * </p>
+     *
+     * @param stream - the java OutputStream you wish to write to
+     * @exception IOException if anything can't be written.
+     *
+     * @since 4.1.1
+     */
+    @Beta
+    public void writeAvoidingTempFiles(OutputStream stream) throws IOException {
+        flushSheets();
+
+        // the package save recognizes the zip stream and finishes it, but doesn't close the target stream
+        _wb.write(new SheetInjectingZipArchiveOutputStream(stream));
+    }
+
     protected void flushSheets() throws IOException {
         for (SXSSFSheet sheet : _xFromSxHash.values())
         {
@@ -26,10 +26,14 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
@@ -67,6 +71,27 @@ public class SheetDataWriter implements Closeable {
      */
     private SharedStringsTable _sharedStringSource;
 
+    /** marks the end of the rows for the background writer */
+    private static final FlushedRow END_OF_ROWS = new FlushedRow(-1, null);
+
+    /** the interval in milliseconds, in which a blocked producer checks the background writer */
+    private static final long QUEUE_POLL_MILLIS = 100;
+
+    // the rows queued for the background writer, see startBackgroundWriting(int)
+    private BlockingQueue<FlushedRow> _queue;
+    private Thread _backgroundWriter;
+    private volatile Throwable _backgroundError;
+
+    private static final class FlushedRow {
+        private final int rownum;
+        private final SXSSFRow row;
+
+        FlushedRow(int rownum, SXSSFRow row) {
+            this.rownum = rownum;
+            this.row = row;
+        }
+    }
+
     public SheetDataWriter() throws IOException {
         _fd = createTempFile();
         _out = createWriter(_fd);
@@ -125,8 +150,103 @@ public class SheetDataWriter implements Closeable {
      * This method <em>must</em> be invoked before calling {@link #getWorksheetXMLInputStream()}
      */
     public void close() throws IOException {
-        _out.flush();
-        _out.close();
+        try {
+            stopBackgroundWriting();
+            _out.flush();
+        } finally {
+            _out.close();
+        }
+    }
+
+    /**
+     * Writes the rows on a background thread from now on, i.e. {@link #writeRow(int, SXSSFRow)}
+     * only queues the rows and returns. The rows must not be modified after they have been passed
+     * to the writer. The background thread ends, when the writer is closed or disposed.
+     *
+     * @param queueCapacity the maximum number of queued rows - when the queue is full,
+     *  {@link #writeRow(int, SXSSFRow)} blocks until the background writer has caught up
+     *
+     * @since POI 4.1.1
+     */
+    void startBackgroundWriting(int queueCapacity) {
+        if (_backgroundWriter != null) {
+            return;
+        }
+        _queue = new ArrayBlockingQueue<>(queueCapacity);
+        _backgroundWriter = new Thread(this::writeQueuedRows, "POI SXSSF sheet writer");
+        _backgroundWriter.setDaemon(true);
+        _backgroundWriter.start();
+    }
+
+    private void writeQueuedRows() {
+        try {
+            for (FlushedRow flushed; (flushed = _queue.take()) != END_OF_ROWS; ) {
+                // after a failure the remaining rows are only consumed, to not block the producer
+                if (_backgroundError == null) {
+                    try {
+                        writeRowContents(flushed.rownum, flushed.row);
+                    } catch (IOException | RuntimeException | Error e) {
+                        _backgroundError = e;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            _backgroundError = e;
+        }
+    }
+
+    /**
+     * Waits until the background writer has written all queued rows and stops it
+     */
+    private void stopBackgroundWriting() throws IOException {
+        Thread writer = _backgroundWriter;
+        if (writer == null) {
+            return;
+        }
+        _backgroundWriter = null;
+        try {
+            // a writer, which has died, doesn't consume the end marker anymore
+            while (!_queue.offer(END_OF_ROWS, QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) {
+                    break;
+                }
+            }
+            writer.join();
+        } catch (InterruptedException e) {
+            // don't leave the writer blocked on the queue
+            writer.interrupt();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the sheet data to be written");
+        } finally {
+            _queue = null;
+        }
+        checkBackgroundError();
+    }
+
+    /**
+     * Queues a row for the background writer and fails instead of blocking forever,
+     * when the writer has failed or ended while the queue is full
+     */
+    private void queueRow(int rownum, SXSSFRow row) throws IOException {
+        FlushedRow flushed = new FlushedRow(rownum, row);
+        try {
+            while (!_queue.offer(flushed, QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkBackgroundError();
+                if (!_backgroundWriter.isAlive()) {
+                    throw new IOException("The sheet data writer has stopped unexpectedly");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while queuing row " + rownum);
+        }
+    }
+
+    private void checkBackgroundError() throws IOException {
+        Throwable e = _backgroundError;
+        if (e != null) {
+            throw new IOException("Writing the sheet data failed: " + e.getMessage(), e);
+        }
     }
 
     protected File getTempFile() {
@@ -200,6 +320,15 @@ public class SheetDataWriter implements Closeable {
         _numberLastFlushedRow = Math.max(rownum, _numberLastFlushedRow);
         _numberOfCellsOfLastFlushedRow = row.getLastCellNum();
         _numberOfFlushedRows++;
+        if (_queue != null) {
+            checkBackgroundError();
+            queueRow(rownum, row);
+            return;
+        }
+        writeRowContents(rownum, row);
+    }
+
+    private void writeRowContents(int rownum, SXSSFRow row) throws IOException {
         beginRow(rownum, row);
         Iterator<Cell> cells = row.allCellsIterator();
         int columnIndex = 0;
@@ -315,7 +444,11 @@ public class SheetDataWriter implements Closeable {
             case STRING: {
                 if (_sharedStringSource != null) {
                     XSSFRichTextString rt = new XSSFRichTextString(cell.getStringCellValue());
-                    int sRef = _sharedStringSource.addSharedStringItem(rt);
+                    int sRef;
+                    // the sheets might be written by their background writers concurrently
+                    synchronized (_sharedStringSource) {
+                        sRef = _sharedStringSource.addSharedStringItem(rt);
+                    }
 
                     writeAttribute("t", STCellType.S.toString());
                     _out.write("><v>");
@@ -445,7 +578,11 @@ public class SheetDataWriter implements Closeable {
     boolean dispose() throws IOException {
         final boolean ret;
         try {
-            _out.close();
+            try {
+                stopBackgroundWriting();
+            } finally {
+                _out.close();
+            }
         } finally {
             ret = _fd.delete();
         }
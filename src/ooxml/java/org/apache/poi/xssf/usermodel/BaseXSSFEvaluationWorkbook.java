@@ -28,6 +28,7 @@ import org.apache.poi.ss.formula.EvaluationWorkbook;
 import org.apache.poi.ss.formula.FormulaParser;
 import org.apache.poi.ss.formula.FormulaParsingWorkbook;
 import org.apache.poi.ss.formula.FormulaRenderingWorkbook;
+import org.apache.poi.ss.formula.FormulaTokenCache;
 import org.apache.poi.ss.formula.FormulaType;
 import org.apache.poi.ss.formula.SheetIdentifier;
 import org.apache.poi.ss.formula.functions.FreeRefFunction;
@@ -58,9 +59,12 @@ public abstract class BaseXSSFEvaluationWorkbook implements FormulaRenderingWork
     // keys are lower-case to make this a quasi-case-insensitive map
     private Map<String, XSSFTable> _tableCache;
 
+    // parsed formulas, shared by formulas copied across the sheets
+    private final FormulaTokenCache _formulaCache;
 
     protected BaseXSSFEvaluationWorkbook(XSSFWorkbook book) {
         _uBook = book;
+        _formulaCache = new FormulaTokenCache(this, FormulaTokenCache.DEFAULT_MAX_SIZE);
     }
 
     /* (non-JavaDoc), inherit JavaDoc from EvaluationWorkbook
@@ -69,6 +73,17 @@ public abstract class BaseXSSFEvaluationWorkbook implements FormulaRenderingWork
     @Override
     public void clearAllCachedResultValues() {
         _tableCache = null;
+        _formulaCache.clear();
+    }
+
+    /**
+     * Parses the formula of a cell - formulas, which differ only by the position of the
+     * relative references, are parsed once and taken from a cache afterwards
+     *
+     * @since POI 4.1.1
+     */
+    protected Ptg[] parseCellFormula(String formula, int sheetIndex, int rowIndex, int columnIndex) {
+        return _formulaCache.parse(formula, FormulaType.CELL, sheetIndex, rowIndex, columnIndex);
     }
     
     private int convertFromExternalSheetIndex(int externSheetIndex) {
@@ -39,6 +39,8 @@ import org.openxmlformats.schemas.spreadsheetml.x2006.main.STFontScheme;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.STUnderlineValues;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.STVerticalAlignRun;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -66,6 +68,7 @@ public class XSSFFont implements Font {
     private ThemesTable _themes;
     private CTFont _ctFont;
     private int _index;
+    private List<Runnable> _changeListeners;
 
     /**
      * Create a new XSSFFont
@@ -305,6 +308,7 @@ public class XSSFFont implements Font {
         } else {
             _ctFont.setBArray(null);
         }
+        fireChanged();
     }
 
     /**
@@ -405,6 +409,7 @@ public class XSSFFont implements Font {
     public void setFontHeight(double height) {
         CTFontSize fontSize = _ctFont.sizeOfSzArray() == 0 ? _ctFont.addNewSz() : _ctFont.getSzArray(0);
         fontSize.setVal(height);
+        fireChanged();
     }
 
     /**
@@ -440,6 +445,7 @@ public class XSSFFont implements Font {
     public void setFontName(String name) {
         CTFontName fontName = _ctFont.sizeOfNameArray() == 0 ? _ctFont.addNewName() : _ctFont.getNameArray(0);
         fontName.setVal(name == null ? DEFAULT_FONT_NAME : name);
+        fireChanged();
     }
 
 
@@ -456,6 +462,7 @@ public class XSSFFont implements Font {
         } else {
             _ctFont.setIArray(null);
         }
+        fireChanged();
     }
 
 
@@ -472,6 +479,7 @@ public class XSSFFont implements Font {
         } else {
             _ctFont.setStrikeArray(null);
         }
+        fireChanged();
     }
 
     /**
@@ -503,6 +511,7 @@ public class XSSFFont implements Font {
                     throw new IllegalStateException("Invalid type offset: " + offset);
             }
         }
+        fireChanged();
     }
 
     /**
@@ -531,9 +540,46 @@ public class XSSFFont implements Font {
             STUnderlineValues.Enum val = STUnderlineValues.Enum.forInt(underline.getValue());
             ctUnderline.setVal(val);
         }
+        fireChanged();
     }
 
 
+    /**
+     * Adds a listener, which is notified when a property is changed, which is used to look up
+     * fonts in the style table
+     *
+     * @param changeListener the listener
+     * @since POI 4.1.1
+     */
+    @Internal
+    public void addChangeListener(Runnable changeListener) {
+        if (_changeListeners == null) {
+            _changeListeners = new ArrayList<>(1);
+        }
+        _changeListeners.add(changeListener);
+    }
+
+    /**
+     * Removes a listener, which has been added via {@link #addChangeListener(Runnable)}
+     *
+     * @param changeListener the listener
+     * @since POI 4.1.1
+     */
+    @Internal
+    public void removeChangeListener(Runnable changeListener) {
+        if (_changeListeners != null) {
+            _changeListeners.remove(changeListener);
+        }
+    }
+
+    private void fireChanged() {
+        if (_changeListeners != null) {
+            for (Runnable changeListener : _changeListeners) {
+                changeListener.run();
+            }
+        }
+    }
+
     public String toString() {
         return _ctFont.toString();
     }
@@ -111,4 +111,9 @@ public final class XSSFFormulaEvaluator extends BaseXSSFFormulaEvaluator {
 
         return new XSSFEvaluationCell((XSSFCell)cell);
     }
+
+    @Override
+    protected XSSFCell toCell(EvaluationCell cell) {
+        return ((XSSFEvaluationCell)cell).getXSSFCell();
+    }
 }
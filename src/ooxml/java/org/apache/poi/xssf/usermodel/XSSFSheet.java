@@ -175,6 +175,12 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet  {
     private List<CellRangeAddress> arrayFormulas;
     private XSSFDataValidationHelper dataValidationHelper;
 
+    /**
+     * <code>true</code> while the worksheet part of a sheet, which is loaded on demand,
+     * hasn't been parsed yet
+     */
+    private boolean documentReadDeferred;
+
     /**
      * Creates new XSSFSheet   - called by XSSFWorkbook to create a sheet from scratch.
      *
@@ -221,6 +227,32 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet  {
         }
     }
 
+    /**
+     * Marks the worksheet part to be parsed on first access instead of when the workbook is read
+     *
+     * @see XSSFWorkbook#XSSFWorkbook(org.apache.poi.openxml4j.opc.OPCPackage, boolean)
+     */
+    void deferDocumentRead() {
+        documentReadDeferred = true;
+    }
+
+    /**
+     * @return <code>true</code> if the worksheet part hasn't been parsed yet
+     */
+    boolean isDocumentReadDeferred() {
+        return documentReadDeferred;
+    }
+
+    /**
+     * Parses the worksheet part, if this has been deferred and not happened yet
+     */
+    void ensureDocumentRead() {
+        if (documentReadDeferred) {
+            onDocumentRead();
+            documentReadDeferred = false;
+        }
+    }
+
     protected void read(InputStream is) throws IOException {
         try {
             worksheet = WorksheetDocument.Factory.parse(is, DEFAULT_XML_OPTIONS).getWorksheet();
@@ -239,7 +271,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet  {
             if(p instanceof XSSFTable) {
                 tables.put( rp.getRelationship().getId(), (XSSFTable)p );
             }
-            if(p instanceof XSSFPivotTable) {
+            if(p instanceof XSSFPivotTable && !getWorkbook().getPivotTables().contains(p)) {
                 getWorkbook().getPivotTables().add((XSSFPivotTable) p);
             }
         }
@@ -3570,8 +3602,19 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet  {
         }
     }
 
+    @Override
+    protected void prepareForCommit() {
+        // the part of a sheet, which hasn't been accessed, is written back unchanged
+        if (!documentReadDeferred) {
+            super.prepareForCommit();
+        }
+    }
+
     @Override
     protected void commit() throws IOException {
+        if (documentReadDeferred) {
+            return;
+        }
         PackagePart part = getPackagePart();
         OutputStream out = part.getOutputStream();
         write(out);
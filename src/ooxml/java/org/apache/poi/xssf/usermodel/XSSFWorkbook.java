@@ -234,6 +234,11 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
 
     private final XSSFFactory xssfFactory;
 
+    /**
+     * Whether the worksheet parts are parsed on first access instead of when the workbook is read
+     */
+    private final boolean loadSheetsOnDemand;
+
     /**
      * Create a new SpreadsheetML workbook.
      */
@@ -256,6 +261,7 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
     private XSSFWorkbook(XSSFWorkbookType workbookType, XSSFFactory factory) {
         super(newPackage(workbookType));
         this.xssfFactory = (factory == null) ? XSSFFactory.getInstance() : factory;
+        this.loadSheetsOnDemand = false;
         onWorkbookCreate();
     }
 
@@ -273,8 +279,31 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
      * @param pkg the OpenXML4J <code>OPC Package</code> object.
      */
     public XSSFWorkbook(OPCPackage pkg) throws IOException {
+        this(pkg, false);
+    }
+
+    /**
+     * Constructs a XSSFWorkbook object given a OpenXML4J <code>Package</code> object
+     *  and optionally defers the parsing of the worksheets.
+     *
+     * <p>If <code>loadSheetsOnDemand</code> is set, a worksheet part is only parsed when the
+     *  sheet is first accessed, e.g. via {@link #getSheetAt(int)}, {@link #getSheet(String)}
+     *  or the sheet iterator. Sheets which haven't been accessed are written back unchanged
+     *  by {@link #write(OutputStream)}, so opening a large workbook to work with a few of
+     *  its sheets only requires the time and memory for these sheets.
+     *
+     * <p>Some operations need to access all sheets, e.g. renaming a sheet updates the formulas
+     *  of all sheets, and therefore parse the remaining sheets as well.
+     *
+     * @param pkg the OpenXML4J <code>OPC Package</code> object.
+     * @param loadSheetsOnDemand <code>true</code> to parse the worksheets on first access,
+     *  <code>false</code> to parse all worksheets when the workbook is opened
+     * @since POI 4.1.1
+     */
+    public XSSFWorkbook(OPCPackage pkg, boolean loadSheetsOnDemand) throws IOException {
         super(pkg);
         this.xssfFactory = XSSFFactory.getInstance();
+        this.loadSheetsOnDemand = loadSheetsOnDemand;
 
         beforeDocumentRead();
 
@@ -445,7 +474,18 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
             return;
         }
         sh.sheet = ctSheet;
-        sh.onDocumentRead();
+        if (loadSheetsOnDemand) {
+            // the worksheet is parsed on first access - only the pivot tables need
+            // to be known upfront, as new pivot tables are numbered after them
+            sh.deferDocumentRead();
+            for (POIXMLDocumentPart p : sh.getRelations()) {
+                if (p instanceof XSSFPivotTable) {
+                    pivotTables.add((XSSFPivotTable) p);
+                }
+            }
+        } else {
+            sh.onDocumentRead();
+        }
         sheets.add(sh);
     }
 
@@ -601,7 +641,7 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
      */
     public XSSFSheet cloneSheet(int sheetNum, String newName) {
         validateSheetIndex(sheetNum);
-        XSSFSheet srcSheet = sheets.get(sheetNum);
+        XSSFSheet srcSheet = getSheetAt(sheetNum);
 
         if (newName == null) {
             String srcName = srcSheet.getSheetName();
@@ -1127,6 +1167,7 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
     public XSSFSheet getSheet(String name) {
         for (XSSFSheet sheet : sheets) {
             if (name.equalsIgnoreCase(sheet.getSheetName())) {
+                sheet.ensureDocumentRead();
                 return sheet;
             }
         }
@@ -1144,7 +1185,9 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
     @Override
     public XSSFSheet getSheetAt(int index) {
         validateSheetIndex(index);
-        return sheets.get(index);
+        XSSFSheet sheet = sheets.get(index);
+        sheet.ensureDocumentRead();
+        return sheet;
     }
 
     /**
@@ -1235,7 +1278,9 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
         }
         @Override
         public T next() throws NoSuchElementException {
-            return it.next();
+            T sheet = it.next();
+            ((XSSFSheet)sheet).ensureDocumentRead();
+            return sheet;
         }
         /**
          * Unexpected behavior may occur if sheets are reordered after iterator
@@ -1586,6 +1631,7 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
     public void setSelectedTab(int index) {
         int idx = 0;
         for (XSSFSheet sh : sheets) {
+            sh.ensureDocumentRead();
             sh.setSelected(idx == index);
             idx++;
         }
@@ -2362,6 +2408,7 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
     public XSSFTable getTable(String name) {
         if (name != null && sheets != null) {
             for (XSSFSheet sheet : sheets) {
+                sheet.ensureDocumentRead();
                 for (XSSFTable tbl : sheet.getTables()) {
                     if (name.equalsIgnoreCase(tbl.getName())) {
                         return tbl;
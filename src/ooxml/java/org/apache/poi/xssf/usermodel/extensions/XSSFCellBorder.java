@@ -17,6 +17,8 @@
 package org.apache.poi.xssf.usermodel.extensions;
 
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import org.apache.poi.ss.usermodel.BorderStyle;
@@ -37,6 +39,7 @@ public class XSSFCellBorder {
     private final IndexedColorMap _indexedColorMap;
     private ThemesTable _theme;
     private final CTBorder border;
+    private List<Runnable> _changeListeners;
 
     /**
      * Creates a Cell Border from the supplied XML definition
@@ -123,6 +126,7 @@ public class XSSFCellBorder {
      */
     public void setBorderStyle(BorderSide side, BorderStyle style) {
         getBorder(side, true).setStyle(STBorderStyle.Enum.forInt(style.ordinal() + 1));
+        fireChanged();
     }
 
     /**
@@ -157,6 +161,43 @@ public class XSSFCellBorder {
         if (color == null) borderPr.unsetColor();
         else
             borderPr.setColor(color.getCTColor());
+        fireChanged();
+    }
+
+    /**
+     * Adds a listener, which is notified when a property is changed, which is used to look up
+     * borders in the style table
+     *
+     * @param changeListener the listener
+     * @since POI 4.1.1
+     */
+    @Internal
+    public void addChangeListener(Runnable changeListener) {
+        if (_changeListeners == null) {
+            _changeListeners = new ArrayList<>(1);
+        }
+        _changeListeners.add(changeListener);
+    }
+
+    /**
+     * Removes a listener, which has been added via {@link #addChangeListener(Runnable)}
+     *
+     * @param changeListener the listener
+     * @since POI 4.1.1
+     */
+    @Internal
+    public void removeChangeListener(Runnable changeListener) {
+        if (_changeListeners != null) {
+            _changeListeners.remove(changeListener);
+        }
+    }
+
+    private void fireChanged() {
+        if (_changeListeners != null) {
+            for (Runnable changeListener : _changeListeners) {
+                changeListener.run();
+            }
+        }
     }
 
     private CTBorderPr getBorder(BorderSide side) {
@@ -23,6 +23,8 @@ import org.openxmlformats.schemas.spreadsheetml.x2006.main.STPatternType;
 import org.apache.poi.xssf.usermodel.IndexedColorMap;
 import org.apache.poi.xssf.usermodel.XSSFColor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import org.apache.poi.util.Internal;
@@ -35,6 +37,7 @@ public final class XSSFCellFill {
 
     private IndexedColorMap _indexedColorMap;
     private CTFill _fill;
+    private List<Runnable> _changeListeners;
 
     /**
      * Creates a CellFill from the supplied parts
@@ -75,6 +78,7 @@ public final class XSSFCellFill {
         CTPatternFill ptrn = ensureCTPatternFill();
         CTColor ctColor = ptrn.isSetBgColor() ? ptrn.getBgColor() : ptrn.addNewBgColor();
         ctColor.setIndexed(index);
+        fireChanged();
     }
 
     /**
@@ -89,6 +93,7 @@ public final class XSSFCellFill {
         } else {
             ptrn.setBgColor(color.getCTColor());
         }
+        fireChanged();
     }
 
     /**
@@ -113,6 +118,7 @@ public final class XSSFCellFill {
         CTPatternFill ptrn = ensureCTPatternFill();
         CTColor ctColor = ptrn.isSetFgColor() ? ptrn.getFgColor() : ptrn.addNewFgColor();
         ctColor.setIndexed(index);
+        fireChanged();
     }
 
     /**
@@ -127,6 +133,7 @@ public final class XSSFCellFill {
         } else {
             ptrn.setFgColor(color.getCTColor());
         }
+        fireChanged();
     }
 
     /**
@@ -147,6 +154,43 @@ public final class XSSFCellFill {
     public void setPatternType(STPatternType.Enum patternType) {
         CTPatternFill ptrn = ensureCTPatternFill();
         ptrn.setPatternType(patternType);
+        fireChanged();
+    }
+
+    /**
+     * Adds a listener, which is notified when a property is changed, which is used to look up
+     * fills in the style table
+     *
+     * @param changeListener the listener
+     * @since POI 4.1.1
+     */
+    @Internal
+    public void addChangeListener(Runnable changeListener) {
+        if (_changeListeners == null) {
+            _changeListeners = new ArrayList<>(1);
+        }
+        _changeListeners.add(changeListener);
+    }
+
+    /**
+     * Removes a listener, which has been added via {@link #addChangeListener(Runnable)}
+     *
+     * @param changeListener the listener
+     * @since POI 4.1.1
+     */
+    @Internal
+    public void removeChangeListener(Runnable changeListener) {
+        if (_changeListeners != null) {
+            _changeListeners.remove(changeListener);
+        }
+    }
+
+    private void fireChanged() {
+        if (_changeListeners != null) {
+            for (Runnable changeListener : _changeListeners) {
+                changeListener.run();
+            }
+        }
     }
 
     private CTPatternFill ensureCTPatternFill() {
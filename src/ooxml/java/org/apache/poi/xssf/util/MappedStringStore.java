@@ -0,0 +1,320 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.poifs.nio.CleanerUtil;
+import org.apache.poi.util.Internal;
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+import org.apache.poi.util.TempFile;
+
+/**
+ * An append-only list of strings, which keeps its content in memory-mapped
+ * temporary files instead of the java heap.
+ * <p>
+ * Each string is appended UTF-8 encoded to a data file and its offset is recorded
+ * in an index file. If deduplication is enabled, only a compact open-addressing
+ * table of string indexes is kept on the heap, the hash codes are stored
+ * alongside the string data.
+ * </p>
+ * <p>
+ * Once all strings are added, the store can be read concurrently by several threads.
+ * </p>
+ */
+@Internal
+public class MappedStringStore implements Closeable {
+    private static final POILogger LOG = POILogFactory.getLogger(MappedStringStore.class);
+
+    /** the size of a mapped file segment - an entry doesn't span over segments */
+    private static final int SEGMENT_SIZE = 1 << 24;
+    /** the entry header consists of the byte length and the hash code of the string */
+    private static final int HEADER_SIZE = 8;
+    private static final int OFFSET_SIZE = 8;
+    private static final int INITIAL_HASH_SIZE = 1 << 10;
+
+    private final MappedFile data;
+    private final MappedFile offsets;
+
+    private long dataLength;
+    private int size;
+
+    /** the string indexes plus one, 0 denotes an empty slot - or null if deduplication is disabled */
+    private int[] hashTable;
+
+    /**
+     * Creates an empty store backed by two temporary files.
+     *
+     * @param deduplicate if true, {@link #indexOf(String)} can be used to find already added strings
+     * @throws IOException if the temporary files can't be created
+     */
+    public MappedStringStore(boolean deduplicate) throws IOException {
+        data = new MappedFile("poi-strings", ".dat");
+        try {
+            offsets = new MappedFile("poi-strings", ".idx");
+        } catch (IOException e) {
+            data.close();
+            throw e;
+        }
+        if (deduplicate) {
+            hashTable = new int[INITIAL_HASH_SIZE];
+        }
+    }
+
+    /**
+     * @return the number of strings in this store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends a string to the store - duplicates are not checked.
+     *
+     * @param string the string to append
+     * @return the index of the appended string
+     * @throws IOException if the underlying files can't be extended
+     */
+    public int add(String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        final int hash = string.hashCode();
+        final int entrySize = HEADER_SIZE + bytes.length;
+        if (entrySize > SEGMENT_SIZE) {
+            throw new IllegalArgumentException("The string is too long to be stored - " + bytes.length + " bytes");
+        }
+
+        long pos = dataLength;
+        int segPos = (int)(pos % SEGMENT_SIZE);
+        if (segPos + entrySize > SEGMENT_SIZE) {
+            // start the entry at the beginning of the next segment
+            pos += SEGMENT_SIZE - segPos;
+            segPos = 0;
+        }
+
+        ByteBuffer seg = data.mapSegment((int)(pos / SEGMENT_SIZE)).duplicate();
+        seg.putInt(segPos, bytes.length);
+        seg.putInt(segPos + 4, hash);
+        seg.position(segPos + HEADER_SIZE);
+        seg.put(bytes);
+        dataLength = pos + entrySize;
+
+        final long offPos = (long)size * OFFSET_SIZE;
+        offsets.mapSegment((int)(offPos / SEGMENT_SIZE)).putLong((int)(offPos % SEGMENT_SIZE), pos);
+
+        final int idx = size++;
+        if (hashTable != null) {
+            if (size * 2 > hashTable.length) {
+                rehash(hashTable.length * 2);
+            }
+            int slot = mix(hash) & (hashTable.length - 1);
+            while (hashTable[slot] != 0) {
+                slot = (slot + 1) & (hashTable.length - 1);
+            }
+            hashTable[slot] = idx + 1;
+        }
+        return idx;
+    }
+
+    /**
+     * Looks up an already added string
+     *
+     * @param string the string to search for
+     * @return the index of the string or -1 if the string wasn't added before
+     * @throws IllegalStateException if the store was created without deduplication
+     */
+    public int indexOf(String string) {
+        if (hashTable == null) {
+            throw new IllegalStateException("The string store was created without deduplication.");
+        }
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        final int hash = string.hashCode();
+        final int mask = hashTable.length - 1;
+        for (int slot = mix(hash) & mask; hashTable[slot] != 0; slot = (slot + 1) & mask) {
+            int idx = hashTable[slot] - 1;
+            if (matches(idx, hash, bytes)) {
+                return idx;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the string at the given position
+     *
+     * @param idx the index of the string
+     * @return the string
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public String get(int idx) {
+        final long pos = offsetOf(idx);
+        final int segPos = (int)(pos % SEGMENT_SIZE);
+        final ByteBuffer seg = data.getSegment((int)(pos / SEGMENT_SIZE));
+        final byte[] bytes = new byte[seg.getInt(segPos)];
+        final ByteBuffer dup = seg.duplicate();
+        dup.position(segPos + HEADER_SIZE);
+        dup.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Provides a list view of the store. Adding elements to the list appends them to the store.
+     *
+     * @return the list view
+     */
+    public List<String> asList() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return MappedStringStore.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return MappedStringStore.this.size();
+            }
+
+            @Override
+            public boolean add(String s) {
+                try {
+                    MappedStringStore.this.add(s);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Can't append to the string store", e);
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Unmaps and deletes the backing files. The store can't be used afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        hashTable = null;
+        size = 0;
+        try {
+            data.close();
+        } finally {
+            offsets.close();
+        }
+    }
+
+    private long offsetOf(int idx) {
+        if (idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size);
+        }
+        final long offPos = (long)idx * OFFSET_SIZE;
+        return offsets.getSegment((int)(offPos / SEGMENT_SIZE)).getLong((int)(offPos % SEGMENT_SIZE));
+    }
+
+    private boolean matches(int idx, int hash, byte[] bytes) {
+        final long pos = offsetOf(idx);
+        int segPos = (int)(pos % SEGMENT_SIZE);
+        final ByteBuffer seg = data.getSegment((int)(pos / SEGMENT_SIZE));
+        if (seg.getInt(segPos + 4) != hash || seg.getInt(segPos) != bytes.length) {
+            return false;
+        }
+        segPos += HEADER_SIZE;
+        for (int i = 0; i < bytes.length; i++) {
+            if (seg.get(segPos + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash(int newSize) {
+        final int[] newTable = new int[newSize];
+        final int mask = newSize - 1;
+        for (int entry : hashTable) {
+            if (entry == 0) {
+                continue;
+            }
+            final long pos = offsetOf(entry - 1);
+            final int hash = data.getSegment((int)(pos / SEGMENT_SIZE)).getInt((int)(pos % SEGMENT_SIZE) + 4);
+            int slot = mix(hash) & mask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = entry;
+        }
+        hashTable = newTable;
+    }
+
+    /**
+     * Spread the bits of the string hash codes, as linear probing suffers from clustered hashes
+     */
+    private static int mix(int hash) {
+        final int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * A temporary file, which is mapped into memory segment by segment
+     */
+    private static final class MappedFile implements Closeable {
+        private final File file;
+        private final RandomAccessFile raf;
+        private final FileChannel channel;
+        private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+        MappedFile(String prefix, String suffix) throws IOException {
+            file = TempFile.createTempFile(prefix, suffix);
+            raf = new RandomAccessFile(file, "rw");
+            channel = raf.getChannel();
+        }
+
+        ByteBuffer getSegment(int segIdx) {
+            return segments.get(segIdx);
+        }
+
+        ByteBuffer mapSegment(int segIdx) throws IOException {
+            while (segments.size() <= segIdx) {
+                long start = (long)segments.size() * SEGMENT_SIZE;
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, start, SEGMENT_SIZE));
+            }
+            return segments.get(segIdx);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // unmap the buffers, otherwise the file is locked on Windows
+            for (MappedByteBuffer seg : segments) {
+                if (CleanerUtil.UNMAP_SUPPORTED) {
+                    CleanerUtil.getCleaner().freeBuffer(seg);
+                }
+            }
+            segments.clear();
+            raf.close();
+            if (file.exists() && !file.delete()) {
+                LOG.log(POILogger.WARN, "Can't delete temporary file ", file);
+            }
+        }
+    }
+}
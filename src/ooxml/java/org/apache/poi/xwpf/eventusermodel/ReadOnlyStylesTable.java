@@ -0,0 +1,228 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.xwpf.eventusermodel;
+
+import static org.apache.poi.xwpf.usermodel.XWPFRelation.NS_WORDPROCESSINGML;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * This is a lightweight way to process the styles part of a .docx file.
+ * Only the identity of the styles - id, name, type and the style they are based on -
+ * is kept, the formatting properties are skipped.
+ * <p>Example input:
+ * <pre>
+&lt;w:styles xmlns:w="http://schemas.openxmlformats.org/wordprocessingml/2006/main"&gt;
+  &lt;w:style w:type="paragraph" w:default="1" w:styleId="Normal"&gt;
+    &lt;w:name w:val="Normal"/&gt;
+  &lt;/w:style&gt;
+  &lt;w:style w:type="paragraph" w:styleId="Heading1"&gt;
+    &lt;w:name w:val="heading 1"/&gt;
+    &lt;w:basedOn w:val="Normal"/&gt;
+  &lt;/w:style&gt;
+&lt;/w:styles&gt;
+ * </pre>
+ *
+ * @since POI 4.1.1
+ */
+public class ReadOnlyStylesTable extends DefaultHandler {
+    /**
+     * The style types of the w:type attribute
+     */
+    public static final String PARAGRAPH = "paragraph";
+    public static final String CHARACTER = "character";
+    public static final String TABLE = "table";
+    public static final String NUMBERING = "numbering";
+
+    /**
+     * A style definition of the styles part
+     */
+    public static final class Style {
+        private final String styleId;
+        private final String type;
+        private final boolean isDefault;
+        private String name;
+        private String basedOn;
+
+        Style(String styleId, String type, boolean isDefault) {
+            this.styleId = styleId;
+            this.type = type;
+            this.isDefault = isDefault;
+        }
+
+        /**
+         * @return the id, which is referenced by the paragraphs and runs
+         */
+        public String getStyleId() {
+            return styleId;
+        }
+
+        /**
+         * @return the name, e.g. "heading 1", or <code>null</code> if not set
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the type, e.g. {@link #PARAGRAPH} or {@link #CHARACTER}
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return the id of the parent style, or <code>null</code> if not set
+         */
+        public String getBasedOn() {
+            return basedOn;
+        }
+
+        /**
+         * @return true if this is the default style of its type
+         */
+        public boolean isDefault() {
+            return isDefault;
+        }
+
+        @Override
+        public String toString() {
+            return styleId;
+        }
+    }
+
+    private final Map<String, Style> styles = new LinkedHashMap<>();
+    private final Map<String, Style> defaultStyles = new HashMap<>();
+
+    private Style current;
+
+    /**
+     * Creates an empty table, e.g. for documents without a styles part
+     */
+    public ReadOnlyStylesTable() {
+    }
+
+    /**
+     * Calls {@link #readFrom(InputStream)} for the given part
+     *
+     * @param part the styles part
+     * @throws IOException If reading the data from the package fails.
+     * @throws SAXException if parsing the XML data fails.
+     */
+    public ReadOnlyStylesTable(PackagePart part) throws IOException, SAXException {
+        try (InputStream stream = part.getInputStream()) {
+            readFrom(stream);
+        }
+    }
+
+    /**
+     * Read the styles from an XML file.
+     *
+     * @param is The input stream containing the XML document.
+     * @throws IOException if an error occurs while reading.
+     * @throws SAXException if parsing the XML data fails.
+     */
+    public void readFrom(InputStream is) throws IOException, SAXException {
+        try {
+            XMLReader parser = SAXHelper.newXMLReader();
+            parser.setContentHandler(this);
+            parser.parse(new InputSource(is));
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException("SAX parser appears to be broken - " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param styleId the id of the style
+     * @return the style, or <code>null</code> if there's no style with the given id
+     */
+    public Style getStyle(String styleId) {
+        return (styleId == null) ? null : styles.get(styleId);
+    }
+
+    /**
+     * @param type the style type, e.g. {@link #PARAGRAPH}
+     * @return the default style of the type, or <code>null</code> if none is defined
+     */
+    public Style getDefaultStyle(String type) {
+        return defaultStyles.get(type);
+    }
+
+    /**
+     * @return all styles in the order of the styles part
+     */
+    public Collection<Style> getStyles() {
+        return Collections.unmodifiableCollection(styles.values());
+    }
+
+    //// ContentHandler methods ////
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        if (uri != null && !uri.equals(NS_WORDPROCESSINGML)) {
+            return;
+        }
+
+        if ("style".equals(localName)) {
+            String styleId = attributes.getValue(NS_WORDPROCESSINGML, "styleId");
+            String type = attributes.getValue(NS_WORDPROCESSINGML, "type");
+            if (type == null) {
+                type = PARAGRAPH;
+            }
+            boolean isDefault = isOn(attributes.getValue(NS_WORDPROCESSINGML, "default"));
+            current = (styleId == null) ? null : new Style(styleId, type, isDefault);
+            if (current != null) {
+                styles.put(styleId, current);
+                if (isDefault) {
+                    defaultStyles.putIfAbsent(type, current);
+                }
+            }
+        } else if (current != null && "name".equals(localName)) {
+            current.name = attributes.getValue(NS_WORDPROCESSINGML, "val");
+        } else if (current != null && "basedOn".equals(localName)) {
+            current.basedOn = attributes.getValue(NS_WORDPROCESSINGML, "val");
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        if ((uri == null || uri.equals(NS_WORDPROCESSINGML)) && "style".equals(localName)) {
+            current = null;
+        }
+    }
+
+    private static boolean isOn(String value) {
+        return "1".equals(value) || "true".equals(value) || "on".equals(value);
+    }
+}
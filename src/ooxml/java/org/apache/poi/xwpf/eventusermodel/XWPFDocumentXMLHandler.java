@@ -0,0 +1,341 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.xwpf.eventusermodel;
+
+import static org.apache.poi.xwpf.usermodel.XWPFRelation.NS_WORDPROCESSINGML;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.apache.poi.xwpf.eventusermodel.ReadOnlyStylesTable.Style;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * This class handles the processing of the document.xml, header#.xml,
+ *  footer#.xml, footnotes.xml or endnotes.xml part of a XWPF .docx file,
+ *  and generates paragraph, run and table events for it.
+ * <p>
+ * Only the currently open paragraphs and runs are kept in memory, so the
+ *  parts can be processed in constant memory regardless of their size.
+ * Paragraphs of text boxes are reported nested within the paragraph,
+ *  which contains the text box, before the run of the text box is reported.
+ * The alternative content of compatibility fallbacks, deleted text,
+ *  field instructions and footnote separators are skipped.
+ *
+ * @since POI 4.1.1
+ */
+public class XWPFDocumentXMLHandler extends DefaultHandler {
+    private static final String NS_MARKUP_COMPATIBILITY = "http://schemas.openxmlformats.org/markup-compatibility/2006";
+
+    private static final class ParagraphState {
+        private final int depth;
+        private String styleId;
+        private boolean inProperties;
+        private boolean started;
+
+        ParagraphState(int depth) {
+            this.depth = depth;
+        }
+    }
+
+    private static final class RunState {
+        private final int depth;
+        private final StringBuilder text = new StringBuilder(64);
+        private String styleId;
+
+        RunState(int depth) {
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * Table with the styles, which are referenced by the paragraphs and runs
+     */
+    private final ReadOnlyStylesTable stylesTable;
+
+    /**
+     * Where our text is going
+     */
+    private final DocumentContentsHandler output;
+
+    private final Deque<ParagraphState> paragraphs = new ArrayDeque<>();
+    private final Deque<RunState> runs = new ArrayDeque<>();
+
+    // the depth of the current element, and of the element whose content is skipped
+    private int depth;
+    private int skipDepth = -1;
+    private boolean isTextOpen;
+    private String noteId;
+
+    /**
+     * @param styles the styles of the document, used to resolve the style ids
+     * @param output the handler of the events
+     */
+    public XWPFDocumentXMLHandler(ReadOnlyStylesTable styles, DocumentContentsHandler output) {
+        this.stylesTable = (styles == null) ? new ReadOnlyStylesTable() : styles;
+        this.output = output;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        depth++;
+        if (skipDepth != -1) {
+            return;
+        }
+        if (NS_MARKUP_COMPATIBILITY.equals(uri) && "Fallback".equals(localName)) {
+            // the content is already part of the preceding mc:Choice
+            skipDepth = depth;
+            return;
+        }
+        boolean isWordML = (uri == null || uri.equals(NS_WORDPROCESSINGML));
+
+        // the paragraph starts with its first content after the paragraph properties
+        ParagraphState paragraph = paragraphs.peek();
+        if (paragraph != null && !paragraph.started && !paragraph.inProperties) {
+            if (isWordML && "pPr".equals(localName) && depth == paragraph.depth + 1) {
+                paragraph.inProperties = true;
+            } else {
+                startParagraph(paragraph);
+            }
+        }
+        if (!isWordML) {
+            return;
+        }
+        RunState run = getCurrentRun();
+
+        switch (localName) {
+            case "p":
+                paragraphs.push(new ParagraphState(depth));
+                break;
+            case "pStyle":
+                if (paragraph != null && depth == paragraph.depth + 2) {
+                    paragraph.styleId = attributes.getValue(NS_WORDPROCESSINGML, "val");
+                }
+                break;
+            case "r":
+                runs.push(new RunState(depth));
+                break;
+            case "rStyle":
+                if (run != null && depth == run.depth + 2) {
+                    run.styleId = attributes.getValue(NS_WORDPROCESSINGML, "val");
+                }
+                break;
+            case "t":
+                isTextOpen = (run != null);
+                break;
+            case "tab":
+            case "ptab":
+                appendToRun(run, '\t');
+                break;
+            case "br":
+            case "cr":
+                appendToRun(run, '\n');
+                break;
+            case "noBreakHyphen":
+                appendToRun(run, '-');
+                break;
+            case "tbl":
+                output.startTable();
+                break;
+            case "tr":
+                output.startTableRow();
+                break;
+            case "tc":
+                output.startTableCell();
+                break;
+            case "hdr":
+                output.startHeaderFooter(true);
+                break;
+            case "ftr":
+                output.startHeaderFooter(false);
+                break;
+            case "footnote":
+            case "endnote":
+                if (isSeparator(attributes.getValue(NS_WORDPROCESSINGML, "type"))) {
+                    skipDepth = depth;
+                } else {
+                    noteId = attributes.getValue(NS_WORDPROCESSINGML, "id");
+                    output.startNote(noteId, "endnote".equals(localName));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        int elementDepth = depth--;
+        if (skipDepth != -1) {
+            if (elementDepth == skipDepth) {
+                skipDepth = -1;
+            }
+            return;
+        }
+        if (uri != null && !uri.equals(NS_WORDPROCESSINGML)) {
+            return;
+        }
+
+        switch (localName) {
+            case "p": {
+                ParagraphState paragraph = paragraphs.pop();
+                if (!paragraph.started) {
+                    startParagraph(paragraph);
+                }
+                output.endParagraph();
+                break;
+            }
+            case "pPr": {
+                ParagraphState paragraph = paragraphs.peek();
+                if (paragraph != null && !paragraph.started && elementDepth == paragraph.depth + 1) {
+                    startParagraph(paragraph);
+                }
+                break;
+            }
+            case "r": {
+                RunState run = runs.pop();
+                if (run.text.length() > 0) {
+                    output.run(run.text.toString(), resolveStyle(run.styleId, ReadOnlyStylesTable.CHARACTER));
+                }
+                break;
+            }
+            case "t":
+                isTextOpen = false;
+                break;
+            case "tbl":
+                output.endTable();
+                break;
+            case "tr":
+                output.endTableRow();
+                break;
+            case "tc":
+                output.endTableCell();
+                break;
+            case "hdr":
+                output.endHeaderFooter(true);
+                break;
+            case "ftr":
+                output.endHeaderFooter(false);
+                break;
+            case "footnote":
+            case "endnote":
+                output.endNote(noteId, "endnote".equals(localName));
+                noteId = null;
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        if (isTextOpen && skipDepth == -1) {
+            runs.peek().text.append(ch, start, length);
+        }
+    }
+
+    /**
+     * @return the innermost run, unless a paragraph of a text box has been opened within it
+     */
+    private RunState getCurrentRun() {
+        RunState run = runs.peek();
+        ParagraphState paragraph = paragraphs.peek();
+        return (run != null && (paragraph == null || run.depth > paragraph.depth)) ? run : null;
+    }
+
+    private void startParagraph(ParagraphState paragraph) {
+        paragraph.started = true;
+        output.startParagraph(resolveStyle(paragraph.styleId, ReadOnlyStylesTable.PARAGRAPH));
+    }
+
+    private static void appendToRun(RunState run, char c) {
+        if (run != null) {
+            run.text.append(c);
+        }
+    }
+
+    /**
+     * @return the referenced style, or the default style of the type, if the id is missing or unknown
+     */
+    private Style resolveStyle(String styleId, String type) {
+        Style style = stylesTable.getStyle(styleId);
+        return (style != null) ? style : stylesTable.getDefaultStyle(type);
+    }
+
+    private static boolean isSeparator(String type) {
+        return "separator".equals(type) || "continuationSeparator".equals(type)
+            || "continuationNotice".equals(type);
+    }
+
+    /**
+     * You need to implement this to handle the results
+     *  of the document parsing.
+     */
+    public interface DocumentContentsHandler {
+        /**
+         * A paragraph has started
+         *
+         * @param style the paragraph style, or <code>null</code> if the document has no styles
+         */
+        void startParagraph(Style style);
+
+        /** A paragraph has ended */
+        void endParagraph();
+
+        /**
+         * A run of text was encountered. Tabs and line breaks are reported as '\t' and '\n'.
+         *
+         * @param text the text of the run, never empty
+         * @param style the character style, or <code>null</code> if the document has no styles
+         */
+        void run(String text, Style style);
+
+        /** A table has started */
+        default void startTable() {}
+
+        /** A table has ended */
+        default void endTable() {}
+
+        /** A table row has started */
+        default void startTableRow() {}
+
+        /** A table row has ended */
+        default void endTableRow() {}
+
+        /** A table cell has started, its content is reported as paragraphs and nested tables */
+        default void startTableCell() {}
+
+        /** A table cell has ended */
+        default void endTableCell() {}
+
+        /** The content of a header or footer part has started */
+        default void startHeaderFooter(boolean isHeader) {}
+
+        /** The content of a header or footer part has ended */
+        default void endHeaderFooter(boolean isHeader) {}
+
+        /** A footnote or endnote with the given id has started */
+        default void startNote(String id, boolean isEndnote) {}
+
+        /** A footnote or endnote with the given id has ended */
+        default void endNote(String id, boolean isEndnote) {}
+    }
+}
@@ -0,0 +1,147 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.xwpf.eventusermodel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.openxml4j.opc.TargetMode;
+import org.apache.poi.xwpf.usermodel.XWPFRelation;
+import org.xml.sax.SAXException;
+
+/**
+ * This class makes it easy to get at individual parts
+ * of an OOXML .docx file, suitable for low memory sax
+ * parsing with the {@link XWPFDocumentXMLHandler}.
+ * It makes up the core part of the EventUserModel support
+ * for XWPF.
+ *
+ * @since POI 4.1.1
+ */
+public class XWPFReader {
+    protected OPCPackage pkg;
+    protected PackagePart documentPart;
+
+    /**
+     * Creates a new XWPFReader, for the given package
+     */
+    public XWPFReader(OPCPackage pkg) throws IOException, OpenXML4JException {
+        this.pkg = pkg;
+
+        PackageRelationship coreDocRelationship = this.pkg.getRelationshipsByType(
+                PackageRelationshipTypes.CORE_DOCUMENT).getRelationship(0);
+
+        if (coreDocRelationship == null) {
+            if (this.pkg.getRelationshipsByType(
+                    PackageRelationshipTypes.STRICT_CORE_DOCUMENT).getRelationship(0) != null) {
+                throw new POIXMLException("Strict OOXML isn't currently supported, please see bug #57699");
+            }
+
+            throw new POIXMLException("OOXML file structure broken/invalid - no core document found!");
+        }
+
+        // Get the part that holds the document
+        documentPart = this.pkg.getPart(coreDocRelationship);
+    }
+
+    /**
+     * Opens up the styles part, parses it, and
+     * returns a handy object for resolving style ids.
+     * The table is empty, if the document has no styles part.
+     */
+    public ReadOnlyStylesTable getStylesTable() throws IOException, InvalidFormatException, SAXException {
+        ReadOnlyStylesTable styles = new ReadOnlyStylesTable();
+        try (InputStream stream = getStylesData()) {
+            if (stream != null) {
+                styles.readFrom(stream);
+            }
+        }
+        return styles;
+    }
+
+    /**
+     * Returns an InputStream to read the contents of the
+     * styles part, or <code>null</code> if there's none.
+     */
+    public InputStream getStylesData() throws IOException, InvalidFormatException {
+        return XWPFRelation.STYLES.getContents(documentPart);
+    }
+
+    /**
+     * Returns an InputStream to read the contents of the
+     * main document, which contains the body text.
+     */
+    public InputStream getDocumentData() throws IOException, InvalidFormatException {
+        return documentPart.getInputStream();
+    }
+
+    /**
+     * Returns the header parts of the document, in the order of their relationships.
+     * It's up to you to close the InputStreams of the parts.
+     */
+    public List<PackagePart> getHeaderParts() throws InvalidFormatException {
+        return getRelatedParts(XWPFRelation.HEADER);
+    }
+
+    /**
+     * Returns the footer parts of the document, in the order of their relationships.
+     * It's up to you to close the InputStreams of the parts.
+     */
+    public List<PackagePart> getFooterParts() throws InvalidFormatException {
+        return getRelatedParts(XWPFRelation.FOOTER);
+    }
+
+    /**
+     * Returns an InputStream to read the contents of the
+     * footnotes part, or <code>null</code> if there's none.
+     */
+    public InputStream getFootnotesData() throws IOException, InvalidFormatException {
+        return XWPFRelation.FOOTNOTE.getContents(documentPart);
+    }
+
+    /**
+     * Returns an InputStream to read the contents of the
+     * endnotes part, or <code>null</code> if there's none.
+     */
+    public InputStream getEndnotesData() throws IOException, InvalidFormatException {
+        return XWPFRelation.ENDNOTE.getContents(documentPart);
+    }
+
+    private List<PackagePart> getRelatedParts(XWPFRelation relation) throws InvalidFormatException {
+        List<PackagePart> parts = new ArrayList<>();
+        for (PackageRelationship rel : documentPart.getRelationshipsByType(relation.getRelation())) {
+            if (rel.getTargetMode() == TargetMode.INTERNAL) {
+                PackagePart part = documentPart.getRelatedPart(rel);
+                if (part != null) {
+                    parts.add(part);
+                }
+            }
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,304 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.xwpf.extractor;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.apache.poi.ooxml.POIXMLProperties;
+import org.apache.poi.ooxml.POIXMLProperties.CoreProperties;
+import org.apache.poi.ooxml.POIXMLProperties.CustomProperties;
+import org.apache.poi.ooxml.POIXMLProperties.ExtendedProperties;
+import org.apache.poi.ooxml.extractor.POIXMLTextExtractor;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.POILogFactory;
+import org.apache.poi.util.POILogger;
+import org.apache.poi.xwpf.eventusermodel.ReadOnlyStylesTable;
+import org.apache.poi.xwpf.eventusermodel.ReadOnlyStylesTable.Style;
+import org.apache.poi.xwpf.eventusermodel.XWPFDocumentXMLHandler;
+import org.apache.poi.xwpf.eventusermodel.XWPFDocumentXMLHandler.DocumentContentsHandler;
+import org.apache.poi.xwpf.eventusermodel.XWPFReader;
+import org.apache.xmlbeans.XmlException;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Implementation of a text extractor from OOXML Word
+ * files that uses SAX event based parsing, so the document
+ * model isn't built. The headers are followed by the body,
+ * the footnotes, the endnotes and the footers. Like in
+ * {@link XWPFWordExtractor}, the empty paragraphs of the
+ * headers and footers are skipped.
+ * <p>
+ * The text differs from the one of {@link XWPFWordExtractor} for:
+ * <ul>
+ * <li>footnotes and endnotes - they are appended after the body, instead of
+ *  inline references like "[footnoteRef:1]" and "[1: text]"</li>
+ * <li>deleted text of tracked changes - it is skipped, instead of being included</li>
+ * <li>content controls (SDT) within paragraphs - their text is included</li>
+ * <li>ruby (phonetic guide) text - it precedes its base text without a separator,
+ *  instead of the "base (ruby)" form</li>
+ * </ul>
+ *
+ * @since POI 4.1.1
+ */
+public class XWPFEventBasedWordExtractor extends POIXMLTextExtractor {
+
+    private static final POILogger LOGGER = POILogFactory.getLogger(XWPFEventBasedWordExtractor.class);
+
+    protected OPCPackage container;
+    protected POIXMLProperties properties;
+
+    protected boolean includeHeadersFooters = true;
+
+    public XWPFEventBasedWordExtractor(String path) throws XmlException, OpenXML4JException, IOException {
+        this(OPCPackage.open(path));
+    }
+
+    public XWPFEventBasedWordExtractor(OPCPackage container) throws XmlException, OpenXML4JException, IOException {
+        super(null);
+        this.container = container;
+
+        properties = new POIXMLProperties(container);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Use:");
+            System.err.println("  XWPFEventBasedWordExtractor <filename.docx>");
+            System.exit(1);
+        }
+        POIXMLTextExtractor extractor =
+                new XWPFEventBasedWordExtractor(args[0]);
+        System.out.println(extractor.getText());
+        extractor.close();
+    }
+
+    /**
+     * Should headers and footers be included? Default is true
+     */
+    public void setIncludeHeadersFooters(boolean includeHeadersFooters) {
+        this.includeHeadersFooters = includeHeadersFooters;
+    }
+
+    /**
+     * @return whether to include headers and footers
+     */
+    public boolean getIncludeHeadersFooters() {
+        return includeHeadersFooters;
+    }
+
+    /**
+     * Returns the opened OPCPackage container.
+     */
+    @Override
+    public OPCPackage getPackage() {
+        return container;
+    }
+
+    /**
+     * Returns the core document properties
+     */
+    @Override
+    public CoreProperties getCoreProperties() {
+        return properties.getCoreProperties();
+    }
+
+    /**
+     * Returns the extended document properties
+     */
+    @Override
+    public ExtendedProperties getExtendedProperties() {
+        return properties.getExtendedProperties();
+    }
+
+    /**
+     * Returns the custom document properties
+     */
+    @Override
+    public CustomProperties getCustomProperties() {
+        return properties.getCustomProperties();
+    }
+
+    /**
+     * Processes the given document, header, footer, footnotes or endnotes part
+     */
+    public void processPart(
+            DocumentContentsHandler contentsHandler,
+            ReadOnlyStylesTable styles,
+            InputStream partInputStream)
+            throws IOException, SAXException {
+
+        InputSource partSource = new InputSource(partInputStream);
+        try {
+            XMLReader partParser = SAXHelper.newXMLReader();
+            partParser.setContentHandler(new XWPFDocumentXMLHandler(styles, contentsHandler));
+            partParser.parse(partSource);
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException("SAX parser appears to be broken - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Processes the file and returns the text
+     */
+    @Override
+    public String getText() {
+        try {
+            XWPFReader reader = new XWPFReader(container);
+            ReadOnlyStylesTable styles = reader.getStylesTable();
+            StringBuilder text = new StringBuilder(64);
+            DocumentTextExtractor extractor = new DocumentTextExtractor(text);
+            // like XWPFHeaderFooter.getText(), the empty paragraphs of the headers and footers are skipped
+            DocumentTextExtractor headerFooterExtractor = new DocumentTextExtractor(text, true);
+
+            if (includeHeadersFooters) {
+                for (PackagePart part : reader.getHeaderParts()) {
+                    try (InputStream stream = part.getInputStream()) {
+                        processPart(headerFooterExtractor, styles, stream);
+                    }
+                }
+            }
+            try (InputStream stream = reader.getDocumentData()) {
+                processPart(extractor, styles, stream);
+            }
+            try (InputStream stream = reader.getFootnotesData()) {
+                if (stream != null) {
+                    processPart(extractor, styles, stream);
+                }
+            }
+            try (InputStream stream = reader.getEndnotesData()) {
+                if (stream != null) {
+                    processPart(extractor, styles, stream);
+                }
+            }
+            if (includeHeadersFooters) {
+                for (PackagePart part : reader.getFooterParts()) {
+                    try (InputStream stream = part.getInputStream()) {
+                        processPart(headerFooterExtractor, styles, stream);
+                    }
+                }
+            }
+
+            return text.toString();
+        } catch (IOException | OpenXML4JException | SAXException e) {
+            LOGGER.log(POILogger.WARN, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (container != null) {
+            container.close();
+            container = null;
+        }
+        super.close();
+    }
+
+    /**
+     * Appends the text of the paragraphs, each paragraph on its own line.
+     * Table cells are separated by tabs and the rows by new lines.
+     * Optionally the empty paragraphs outside of tables are skipped.
+     */
+    protected static class DocumentTextExtractor implements DocumentContentsHandler {
+        private static final class TableState {
+            private int cellsInRow;
+            private int paragraphsInCell;
+        }
+
+        private final StringBuilder output;
+        private final boolean skipEmptyParagraphs;
+        private final Deque<TableState> tables = new ArrayDeque<>();
+        private int paragraphStart;
+
+        protected DocumentTextExtractor(StringBuilder output) {
+            this(output, false);
+        }
+
+        /**
+         * @param output the text is appended to this builder
+         * @param skipEmptyParagraphs whether to skip the paragraphs outside of tables without text
+         */
+        protected DocumentTextExtractor(StringBuilder output, boolean skipEmptyParagraphs) {
+            this.output = output;
+            this.skipEmptyParagraphs = skipEmptyParagraphs;
+        }
+
+        @Override
+        public void startParagraph(Style style) {
+            TableState table = tables.peek();
+            if (table != null && table.paragraphsInCell++ > 0) {
+                output.append('\t');
+            }
+            paragraphStart = output.length();
+        }
+
+        @Override
+        public void endParagraph() {
+            if (tables.isEmpty() && !(skipEmptyParagraphs && output.length() == paragraphStart)) {
+                output.append('\n');
+            }
+        }
+
+        @Override
+        public void run(String text, Style style) {
+            output.append(text);
+        }
+
+        @Override
+        public void startTable() {
+            tables.push(new TableState());
+        }
+
+        @Override
+        public void endTable() {
+            tables.pop();
+            if (tables.isEmpty()) {
+                output.append('\n');
+            }
+        }
+
+        @Override
+        public void startTableRow() {
+            tables.peek().cellsInRow = 0;
+        }
+
+        @Override
+        public void endTableRow() {
+            output.append('\n');
+        }
+
+        @Override
+        public void startTableCell() {
+            TableState table = tables.peek();
+            if (table.cellsInRow++ > 0) {
+                output.append('\t');
+            }
+            table.paragraphsInCell = 0;
+        }
+    }
+}
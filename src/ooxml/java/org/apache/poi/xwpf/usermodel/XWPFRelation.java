@@ -228,6 +228,8 @@ public final class XWPFRelation extends POIXMLRelation {
             XWPFPictureData.class
     );
 
+    public static final String NS_WORDPROCESSINGML = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
     private XWPFRelation(String type, String rel, String defaultName, Class<? extends POIXMLDocumentPart> cls) {
         super(type, rel, defaultName, cls);
         _table.put(rel, this);
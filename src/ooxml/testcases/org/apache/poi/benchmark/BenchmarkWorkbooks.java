@@ -0,0 +1,124 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Calendar;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.util.LocaleUtil;
+
+/**
+ * Generates the synthetic workbooks used by the benchmarks.<p>
+ *
+ * The sheets contain a lookup table ("Data") and a calculation sheet ("Calc") with
+ * numbers, shared strings, dates, booleans and formulas in every row, so the benchmarks
+ * cover the usual mix of cell types. The size is given by the number of rows per sheet.
+ */
+final class BenchmarkWorkbooks {
+    /** number of columns of the calculation sheet */
+    static final int COLUMNS = 10;
+
+    /** number of distinct strings, so the shared strings table is smaller than the number of cells */
+    private static final int DISTINCT_STRINGS = 500;
+
+    private BenchmarkWorkbooks() {
+    }
+
+    /**
+     * Fills the given (empty) workbook
+     *
+     * @param wb the workbook
+     * @param rows the number of rows of each sheet
+     * @return the workbook
+     */
+    static <T extends Workbook> T fill(T wb, int rows) {
+        DataFormat format = wb.createDataFormat();
+        CellStyle dateStyle = wb.createCellStyle();
+        dateStyle.setDataFormat(format.getFormat("yyyy-mm-dd"));
+        CellStyle amountStyle = wb.createCellStyle();
+        amountStyle.setDataFormat(format.getFormat("#,##0.00"));
+        CellStyle percentStyle = wb.createCellStyle();
+        percentStyle.setDataFormat(format.getFormat("0.0%"));
+
+        Sheet data = wb.createSheet("Data");
+        for (int i = 0; i < rows; i++) {
+            Row row = data.createRow(i);
+            row.createCell(0).setCellValue(i);
+            row.createCell(1).setCellValue("item " + (i % DISTINCT_STRINGS));
+            row.createCell(2).setCellValue((i * 37) % 1000 / 10.0);
+        }
+
+        Calendar cal = LocaleUtil.getLocaleCalendar(2019, 0, 1);
+        Sheet calc = wb.createSheet("Calc");
+        for (int i = 0; i < rows; i++) {
+            int r = i + 1;
+            Row row = calc.createRow(i);
+            row.createCell(0).setCellValue(i % 97);
+            row.createCell(1).setCellValue("text " + (i % DISTINCT_STRINGS));
+
+            Cell date = row.createCell(2);
+            date.setCellValue(cal.getTime());
+            date.setCellStyle(dateStyle);
+            cal.add(Calendar.DAY_OF_MONTH, 1);
+
+            Cell amount = row.createCell(3);
+            amount.setCellValue(i * 1.25);
+            amount.setCellStyle(amountStyle);
+
+            row.createCell(4).setCellValue(i % 2 == 0);
+            row.createCell(5).setCellFormula("A" + r + "*D" + r);
+            row.createCell(6).setCellFormula("IF(E" + r + ",F" + r + ",-F" + r + ")");
+            row.createCell(7).setCellFormula("VLOOKUP(A" + r + ",Data!$A$1:$C$" + rows + ",3,FALSE)");
+            row.createCell(8).setCellFormula("SUM($F$1:F" + r + ")/" + r);
+
+            Cell percent = row.createCell(9);
+            percent.setCellFormula("ROUND(H" + r + "/100,3)");
+            percent.setCellStyle(percentStyle);
+        }
+        return wb;
+    }
+
+    /**
+     * @return the formulas used in the generated workbooks - for parser benchmarks
+     */
+    static String[] formulas(int rows) {
+        return new String[] {
+            "A1*D1",
+            "IF(E1,F1,-F1)",
+            "VLOOKUP(A1,Data!$A$1:$C$" + rows + ",3,FALSE)",
+            "SUM($F$1:F" + rows + ")/" + rows,
+            "ROUND(H1/100,3)",
+            "IFERROR(INDEX(Data!$B$1:$B$" + rows + ",MATCH(\"item 7\",Data!$B$1:$B$" + rows + ",0)),\"\")",
+            "SUMPRODUCT((Calc!A1:A100>10)*(Calc!D1:D100))+AVERAGE(Data!C:C)",
+            "TEXT(C1,\"yyyy-mm-dd\")&\" \"&UPPER(B1)",
+        };
+    }
+
+    static byte[] toBytes(Workbook wb) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        wb.write(bos);
+        return bos.toByteArray();
+    }
+}
@@ -0,0 +1,101 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Formatting of all cells of the calculation sheet with the {@link DataFormatter}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataFormatterBench {
+
+    @Param({"1000"})
+    private int rows;
+
+    @Param({"xssf", "hssf"})
+    private String format;
+
+    private Workbook wb;
+    private FormulaEvaluator evaluator;
+    private List<Cell> cells;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        wb = BenchmarkWorkbooks.fill("hssf".equals(format) ? new HSSFWorkbook() : new XSSFWorkbook(), rows);
+        evaluator = wb.getCreationHelper().createFormulaEvaluator();
+        evaluator.evaluateAll();
+        cells = new ArrayList<>();
+        for (Row row : wb.getSheet("Calc")) {
+            for (Cell cell : row) {
+                cells.add(cell);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        wb.close();
+    }
+
+    @Benchmark
+    public void benchFormatCellValue(Blackhole bh) {
+        DataFormatter formatter = new DataFormatter();
+        for (Cell cell : cells) {
+            bh.consume(formatter.formatCellValue(cell));
+        }
+    }
+
+    @Benchmark
+    public void benchFormatCachedFormulaValue(Blackhole bh) {
+        DataFormatter formatter = new DataFormatter();
+        for (Cell cell : cells) {
+            bh.consume(formatter.formatCellValue(cell, evaluator));
+        }
+    }
+}
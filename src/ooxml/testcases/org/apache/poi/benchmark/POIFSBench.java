@@ -0,0 +1,114 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.DocumentEntry;
+import org.apache.poi.poifs.filesystem.Entry;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.TempFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Opening a {@link POIFSFileSystem} and reading all of its documents
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class POIFSBench {
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private byte[] bytes;
+    private File file;
+    private final byte[] buffer = new byte[8192];
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (HSSFWorkbook wb = BenchmarkWorkbooks.fill(new HSSFWorkbook(), rows)) {
+            bytes = BenchmarkWorkbooks.toBytes(wb);
+        }
+        file = TempFile.createTempFile("poifs-bench", ".xls");
+        try (OutputStream os = new FileOutputStream(file)) {
+            os.write(bytes);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public long benchReadStream() throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(new ByteArrayInputStream(bytes))) {
+            return readAll(fs.getRoot());
+        }
+    }
+
+    @Benchmark
+    public long benchReadFile() throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(file, true)) {
+            return readAll(fs.getRoot());
+        }
+    }
+
+    private long readAll(DirectoryNode dir) throws IOException {
+        long total = 0;
+        for (Entry entry : dir) {
+            if (entry instanceof DirectoryNode) {
+                total += readAll((DirectoryNode)entry);
+            } else if (entry instanceof DocumentEntry) {
+                try (InputStream is = dir.createDocumentInputStream(entry)) {
+                    for (int len; (len = IOUtils.readFully(is, buffer)) > 0; ) {
+                        total += len;
+                    }
+                }
+            }
+        }
+        return total;
+    }
+}
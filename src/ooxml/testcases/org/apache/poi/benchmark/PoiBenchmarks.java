@@ -0,0 +1,48 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of this package with the GC profiler, which reports the allocation rate
+ * next to the timings.<p>
+ *
+ * The optional first argument is a regular expression selecting the benchmarks, e.g.
+ * {@code XSSFLoadSave}, the optional second argument overrides the {@code rows} parameter.
+ */
+public final class PoiBenchmarks {
+    private PoiBenchmarks() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder opt = new OptionsBuilder();
+        opt.include(PoiBenchmarks.class.getPackage().getName() + "\\..*" + (args.length > 0 ? args[0] : "") + ".*")
+            .exclude(AddImageBench.class.getSimpleName())
+            .addProfiler(GCProfiler.class);
+        if (args.length > 1) {
+            opt.param("rows", args[1]);
+        }
+        Options options = opt.build();
+        new Runner(options).run();
+    }
+}
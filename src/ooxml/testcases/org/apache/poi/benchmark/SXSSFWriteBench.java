@@ -0,0 +1,89 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.util.NullOutputStream;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Row writing of the streaming SXSSF workbook, including the final output of the workbook
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SXSSFWriteBench {
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    @Param({"false", "true"})
+    private boolean compressTempFiles;
+
+    @Param({"false", "true"})
+    private boolean asyncWriting;
+
+    @Benchmark
+    public void benchWriteRows() throws IOException {
+        SXSSFWorkbook wb = new SXSSFWorkbook(100);
+        try {
+            wb.setCompressTempFiles(compressTempFiles);
+            wb.setAsyncWriting(asyncWriting);
+            Sheet sheet = wb.createSheet("Data");
+            for (int i = 0; i < rows; i++) {
+                Row row = sheet.createRow(i);
+                for (int c = 0; c < BenchmarkWorkbooks.COLUMNS; c++) {
+                    Cell cell = row.createCell(c);
+                    switch (c % 3) {
+                        case 0:
+                            cell.setCellValue(i * c);
+                            break;
+                        case 1:
+                            cell.setCellValue("text " + (i % 500));
+                            break;
+                        default:
+                            cell.setCellFormula("A" + (i + 1) + "*2");
+                            break;
+                    }
+                }
+            }
+            wb.write(new NullOutputStream());
+        } finally {
+            wb.dispose();
+            wb.close();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.util.NullOutputStream;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading and saving of XSSF workbooks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XSSFLoadSaveBench {
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private byte[] bytes;
+    private XSSFWorkbook wb;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (XSSFWorkbook source = BenchmarkWorkbooks.fill(new XSSFWorkbook(), rows)) {
+            bytes = BenchmarkWorkbooks.toBytes(source);
+        }
+        wb = new XSSFWorkbook(new ByteArrayInputStream(bytes));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        wb.close();
+    }
+
+    @Benchmark
+    public XSSFWorkbook benchLoad() throws IOException {
+        try (XSSFWorkbook loaded = new XSSFWorkbook(new ByteArrayInputStream(bytes))) {
+            return loaded;
+        }
+    }
+
+    @Benchmark
+    public void benchSave() throws IOException {
+        wb.write(new NullOutputStream());
+    }
+
+    @Benchmark
+    public void benchCreateAndSave() throws IOException {
+        try (XSSFWorkbook created = BenchmarkWorkbooks.fill(new XSSFWorkbook(), rows)) {
+            created.write(new NullOutputStream());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+/**
+ * Event based parsing of a sheet with the {@link XSSFSheetXMLHandler}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XSSFSheetXMLHandlerBench {
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private OPCPackage pkg;
+    private ReadOnlySharedStringsTable strings;
+    private StylesTable styles;
+    private byte[] sheetXml;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        byte[] bytes;
+        try (XSSFWorkbook wb = BenchmarkWorkbooks.fill(new XSSFWorkbook(), rows)) {
+            bytes = BenchmarkWorkbooks.toBytes(wb);
+        }
+        pkg = OPCPackage.open(new ByteArrayInputStream(bytes));
+        XSSFReader reader = new XSSFReader(pkg);
+        strings = new ReadOnlySharedStringsTable(pkg);
+        styles = reader.getStylesTable();
+        XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator)reader.getSheetsData();
+        while (iter.hasNext()) {
+            try (InputStream is = iter.next()) {
+                if ("Calc".equals(iter.getSheetName())) {
+                    sheetXml = IOUtils.toByteArray(is);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pkg.revert();
+    }
+
+    @Benchmark
+    public void benchParseSheet(Blackhole bh) throws Exception {
+        parse(bh, false);
+    }
+
+    @Benchmark
+    public void benchParseSheetFormulas(Blackhole bh) throws Exception {
+        parse(bh, true);
+    }
+
+    private void parse(final Blackhole bh, boolean formulasNotResults) throws Exception {
+        SheetContentsHandler contents = new SheetContentsHandler() {
+            @Override
+            public void startRow(int rowNum) {
+                bh.consume(rowNum);
+            }
+
+            @Override
+            public void endRow(int rowNum) {
+            }
+
+            @Override
+            public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+                bh.consume(cellReference);
+                bh.consume(formattedValue);
+            }
+        };
+        XMLReader parser = SAXHelper.newXMLReader();
+        parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, contents, new DataFormatter(), formulasNotResults));
+        parser.parse(new InputSource(new ByteArrayInputStream(sheetXml)));
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.poi.openxml4j.opc;
 import com.google.common.hash.Hashing;
 import com.google.common.io.Files;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.poi.EncryptedDocumentException;
@@ -41,11 +42,15 @@ import org.apache.poi.openxml4j.opc.internal.ContentTypeManager;
 import org.apache.poi.openxml4j.opc.internal.FileHelper;
 import org.apache.poi.openxml4j.opc.internal.PackagePropertiesPart;
 import org.apache.poi.openxml4j.opc.internal.ZipHelper;
+import org.apache.poi.openxml4j.util.ParallelZipWriter;
 import org.apache.poi.openxml4j.util.ZipSecureFile;
+import org.apache.poi.openxml4j.util.ZipTempFileZipEntrySource;
 import org.apache.poi.sl.usermodel.SlideShow;
 import org.apache.poi.sl.usermodel.SlideShowFactory;
+import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.util.DefaultTempFileCreationStrategy;
 import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.POILogFactory;
 import org.apache.poi.util.POILogger;
@@ -79,15 +84,25 @@ import java.io.OutputStream;
 import java.io.PushbackInputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -421,6 +436,199 @@ public final class TestPackage {
 		finp.close();
 	}
 
+    /**
+     * Checks that packages spooled to a temp file and read through the
+     *  part cache have the same content as packages read from the file
+     */
+    @Test
+    public void openFromInputStreamSpooled() throws IOException, InvalidFormatException {
+        boolean spool = ZipPackage.isSpoolStreamsToTempFile();
+        long cacheSize = ZipPackage.getPartCacheSize();
+        try {
+            ZipPackage.setSpoolStreamsToTempFile(true);
+            ZipPackage.setPartCacheSize(10_000);
+
+            for (String name : new String[] { "TestPackageCommon.docx", "at.pzp.www_uploads_media_PP_Scheinecker-jdk6error.pptx" }) {
+                File file = OpenXML4JTestDataSamples.getSampleFile(name);
+                try (OPCPackage expected = OPCPackage.open(file, PackageAccess.READ);
+                     InputStream is = new FileInputStream(file)) {
+                    ZipPackage p = (ZipPackage) OPCPackage.open(is);
+                    assertTrue(p.getZipArchive() instanceof ZipTempFileZipEntrySource);
+                    assertEquals(expected.getParts().size(), p.getParts().size());
+                    for (PackagePart part : expected.getParts()) {
+                        if (part instanceof PackagePropertiesPart) {
+                            continue;
+                        }
+                        PackagePart actual = p.getPart(part.getPartName());
+                        byte[] content = IOUtils.toByteArray(part.getInputStream());
+                        // the second read is served from the cache for the small parts
+                        for (int i = 0; i < 2; i++) {
+                            try (InputStream actualIs = actual.getInputStream()) {
+                                assertArrayEquals(part.getPartName().getName(), content, IOUtils.toByteArray(actualIs));
+                            }
+                        }
+                    }
+                    p.revert();
+                    assertTrue(p.getZipArchive().isClosed());
+                }
+            }
+        } finally {
+            ZipPackage.setSpoolStreamsToTempFile(spool);
+            ZipPackage.setPartCacheSize(cacheSize);
+        }
+    }
+
+    /**
+     * Checks that unmodified parts are saved with their original compressed data,
+     *  while modified parts are written again
+     */
+    @Test
+    public void saveCopiesUnmodifiedPartsRaw() throws IOException, InvalidFormatException {
+        File file = OpenXML4JTestDataSamples.getSampleFile("TestPackageCommon.docx");
+        PackagePartName modifiedName = PackagingURIHelper.createPartName("/word/document.xml");
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        OPCPackage p = OPCPackage.open(file.getPath(), PackageAccess.READ_WRITE);
+        try {
+            PackagePart modified = p.getPart(modifiedName);
+            byte[] content = IOUtils.toByteArray(modified.getInputStream());
+            try (OutputStream os = modified.getOutputStream()) {
+                os.write(content);
+            }
+            p.save(bos);
+        } finally {
+            // don't write back to the sample file
+            p.revert();
+        }
+
+        File saved = TempFile.createTempFile("saveCopiesUnmodifiedPartsRaw", ".docx");
+        try {
+            try (OutputStream os = new FileOutputStream(saved)) {
+                bos.writeTo(os);
+            }
+            try (ZipFile original = ZipHelper.openZipFile(file);
+                 ZipFile copy = ZipHelper.openZipFile(saved)) {
+                int rawCopies = 0;
+                Enumeration<ZipArchiveEntry> entries = copy.getEntries();
+                while (entries.hasMoreElements()) {
+                    ZipArchiveEntry entry = entries.nextElement();
+                    ZipArchiveEntry source = original.getEntry(entry.getName());
+                    if (entry.getName().endsWith(".rels") || entry.getName().startsWith("[")
+                            || entry.getName().equals("docProps/core.xml")) {
+                        continue;
+                    }
+                    assertNotNull(entry.getName(), source);
+                    try (InputStream actual = copy.getInputStream(entry);
+                         InputStream expected = original.getInputStream(source)) {
+                        assertArrayEquals(entry.getName(), IOUtils.toByteArray(expected), IOUtils.toByteArray(actual));
+                    }
+                    if (!entry.getName().equals(modifiedName.getName().substring(1))) {
+                        assertEquals(entry.getName(), source.getCompressedSize(), entry.getCompressedSize());
+                        try (InputStream actual = copy.getRawInputStream(entry);
+                             InputStream expected = original.getRawInputStream(source)) {
+                            assertArrayEquals(entry.getName(), IOUtils.toByteArray(expected), IOUtils.toByteArray(actual));
+                        }
+                        rawCopies++;
+                    }
+                }
+                assertTrue(rawCopies > 0);
+            }
+        } finally {
+            assertTrue(saved.delete());
+        }
+    }
+
+    /**
+     * Parts are compressed with the level of their content type,
+     *  and the parallel save writes the same entries in the same order
+     */
+    @Test
+    public void saveWithCompressionLevelsInParallel() throws IOException {
+        byte[] picture = new byte[10000];
+        Arrays.fill(picture, (byte)'x');
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ZipPackage.setCompressionLevel(ContentTypes.IMAGE_PNG, Deflater.NO_COMPRESSION);
+        ZipPackage.setCompressionLevel(null, Deflater.BEST_SPEED);
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            for (int i = 0; i < 3; i++) {
+                Sheet sheet = wb.createSheet();
+                for (int r = 0; r < 100; r++) {
+                    sheet.createRow(r).createCell(0).setCellValue("row " + r);
+                }
+            }
+            wb.addPicture(picture, Workbook.PICTURE_TYPE_PNG);
+
+            ByteArrayOutputStream serial = new ByteArrayOutputStream();
+            wb.write(serial);
+            ((ZipPackage)wb.getPackage()).setCompressionExecutor(executor);
+            ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+            wb.write(parallel);
+
+            Map<String, byte[]> expected = readZipEntries(serial.toByteArray(), null);
+            Map<String, byte[]> actual = readZipEntries(parallel.toByteArray(), entry -> {
+                int method = entry.getName().endsWith(".png") ? ZipEntry.STORED : ZipEntry.DEFLATED;
+                assertEquals(entry.getName(), method, entry.getMethod());
+            });
+            assertTrue(actual.containsKey("xl/media/image1.png"));
+            assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+            for (Map.Entry<String, byte[]> me : expected.entrySet()) {
+                assertArrayEquals(me.getKey(), me.getValue(), actual.get(me.getKey()));
+            }
+        } finally {
+            ZipPackage.setCompressionLevel(ContentTypes.IMAGE_PNG, Deflater.DEFAULT_COMPRESSION);
+            ZipPackage.setCompressionLevel(null, Deflater.DEFAULT_COMPRESSION);
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Closing the writer waits for the running compressions and deletes their temporary files
+     */
+    @Test
+    public void closeParallelZipWriterDeletesTempFiles() throws Exception {
+        File tmpDir = Files.createTempDir();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        TempFile.setTempFileCreationStrategy(new DefaultTempFileCreationStrategy(tmpDir));
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            try (ParallelZipWriter writer = new ParallelZipWriter(
+                    new ZipArchiveOutputStream(new ByteArrayOutputStream()), executor)) {
+                writer.addEntry(new ZipArchiveEntry("running"), Deflater.DEFAULT_COMPRESSION, os -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    os.write(new byte[1000]);
+                });
+                writer.addEntry(new ZipArchiveEntry("waiting"), Deflater.DEFAULT_COMPRESSION,
+                        os -> fail("entries, which haven't been started, are skipped on close"));
+                started.await();
+            }
+            String[] files = tmpDir.list();
+            assertNotNull(files);
+            assertEquals(Arrays.toString(files), 0, files.length);
+        } finally {
+            TempFile.setTempFileCreationStrategy(new DefaultTempFileCreationStrategy());
+            executor.shutdown();
+            assertTrue(tmpDir.delete());
+        }
+    }
+
+    private static Map<String, byte[]> readZipEntries(byte[] zip, Consumer<ZipArchiveEntry> check) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipArchiveInputStream zis = new ZipArchiveInputStream(new ByteArrayInputStream(zip))) {
+            ZipArchiveEntry entry;
+            while ((entry = zis.getNextZipEntry()) != null) {
+                if (check != null) {
+                    check.accept(entry);
+                }
+                entries.put(entry.getName(), IOUtils.toByteArray(zis));
+            }
+        }
+        return entries;
+    }
+
     /**
      * TODO: fix and enable
      */
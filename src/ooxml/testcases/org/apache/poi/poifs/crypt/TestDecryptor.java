@@ -16,6 +16,7 @@
 ==================================================================== */
 package org.apache.poi.poifs.crypt;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -26,17 +27,29 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.security.GeneralSecurityException;
+import java.util.Collections;
+import java.util.Random;
 import java.util.stream.IntStream;
 
 import javax.crypto.Cipher;
 
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.poi.POIDataSamples;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.poifs.crypt.agile.AgileDecryptor;
 import org.apache.poi.poifs.filesystem.DirectoryNode;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.util.BoundedInputStream;
 import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.Assume;
 import org.junit.Test;
 
@@ -127,6 +140,133 @@ public class TestDecryptor {
         }
     }
 
+    @Test
+    public void decryptTo() throws IOException, GeneralSecurityException {
+        // the sample fits into a single batch, so encrypt a bigger package as well
+        byte[] plain = new byte[1_000_003];
+        new Random(4711).nextBytes(plain);
+
+        try (POIFSFileSystem fs = new POIFSFileSystem()) {
+            EncryptionInfo info = new EncryptionInfo(EncryptionMode.agile);
+            Encryptor enc = info.getEncryptor();
+            enc.confirmPassword("pass");
+            try (OutputStream os = enc.getDataStream(fs)) {
+                os.write(plain);
+            }
+
+            Decryptor d = Decryptor.getInstance(new EncryptionInfo(fs));
+            assertTrue(d.verifyPassword("pass"));
+            for (int threads : new int[]{ 1, 4 }) {
+                assertArrayEquals(plain, decryptTo(fs.getRoot(), d, threads));
+            }
+        }
+
+        try (InputStream is = samples.openResourceAsStream("protected_agile.docx");
+            POIFSFileSystem fs = new POIFSFileSystem(is)) {
+            Decryptor d = Decryptor.getInstance(new EncryptionInfo(fs));
+            assertTrue(d.verifyPassword(Decryptor.DEFAULT_PASSWORD));
+            byte[] expected;
+            try (InputStream dis = d.getDataStream(fs)) {
+                expected = IOUtils.toByteArray(new BoundedInputStream(dis, d.getLength()));
+            }
+            assertArrayEquals(expected, decryptTo(fs.getRoot(), d, 2));
+        }
+    }
+
+    @Test
+    public void zipEntrySource() throws Exception {
+        byte[] plain;
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            for (int s = 0; s < 3; s++) {
+                Sheet sheet = wb.createSheet();
+                for (int r = 0; r < 2000; r++) {
+                    sheet.createRow(r).createCell(0).setCellValue("sheet " + s + " row " + r);
+                }
+            }
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            wb.write(bos);
+            plain = bos.toByteArray();
+        }
+
+        try (POIFSFileSystem fs = new POIFSFileSystem()) {
+            EncryptionInfo info = new EncryptionInfo(EncryptionMode.agile);
+            Encryptor enc = info.getEncryptor();
+            enc.confirmPassword("pass");
+            try (OutputStream os = enc.getDataStream(fs)) {
+                os.write(plain);
+            }
+
+            Decryptor d = Decryptor.getInstance(new EncryptionInfo(fs));
+            assertTrue(d.verifyPassword("pass"));
+            AgileDecryptor ad = (AgileDecryptor)d;
+
+            // compare the entries with the sequentially decrypted stream
+            try (ZipEntrySource source = ad.getZipEntrySource(fs.getRoot());
+                 ZipArchiveInputStream zis = new ZipArchiveInputStream(new ByteArrayInputStream(plain))) {
+                assertEquals(plain.length, d.getLength());
+                ZipArchiveEntry ze;
+                int entries = 0;
+                while ((ze = zis.getNextZipEntry()) != null) {
+                    ZipArchiveEntry entry = source.getEntry(ze.getName());
+                    assertNotNull(ze.getName(), entry);
+                    try (InputStream is = source.getInputStream(entry)) {
+                        assertArrayEquals(ze.getName(), IOUtils.toByteArray(zis), IOUtils.toByteArray(is));
+                    }
+                    entries++;
+                }
+                assertEquals(entries, Collections.list(source.getEntries()).size());
+            }
+
+            try (OPCPackage pkg = OPCPackage.open(ad.getZipEntrySource(fs.getRoot()));
+                 XSSFWorkbook wb = new XSSFWorkbook(pkg, true)) {
+                assertEquals("sheet 1 row 1999", wb.getSheetAt(1).getRow(1999).getCell(0).getStringCellValue());
+            }
+        }
+    }
+
+    @Test
+    public void zipEntrySourceWithUnicodeNames() throws Exception {
+        // entry names are UTF-8 encoded without setting the language encoding flag
+        String name = "xl/media/\u00e4\u00f6\u00fc\u20ac.bin";
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(bos)) {
+            zos.setEncoding("UTF8");
+            zos.setUseLanguageEncodingFlag(false);
+            zos.putArchiveEntry(new ZipArchiveEntry(name));
+            zos.write(new byte[]{1, 2, 3});
+            zos.closeArchiveEntry();
+        }
+
+        try (POIFSFileSystem fs = new POIFSFileSystem()) {
+            EncryptionInfo info = new EncryptionInfo(EncryptionMode.agile);
+            Encryptor enc = info.getEncryptor();
+            enc.confirmPassword("pass");
+            try (OutputStream os = enc.getDataStream(fs)) {
+                os.write(bos.toByteArray());
+            }
+
+            AgileDecryptor d = (AgileDecryptor)Decryptor.getInstance(new EncryptionInfo(fs));
+            assertTrue(d.verifyPassword("pass"));
+            try (ZipEntrySource source = d.getZipEntrySource(fs.getRoot())) {
+                ZipArchiveEntry entry = source.getEntry(name);
+                assertNotNull(entry);
+                try (InputStream is = source.getInputStream(entry)) {
+                    assertArrayEquals(new byte[]{1, 2, 3}, IOUtils.toByteArray(is));
+                }
+            }
+        }
+    }
+
+    private static byte[] decryptTo(DirectoryNode root, Decryptor d, int threads) throws IOException, GeneralSecurityException {
+        File file = TempFile.createTempFile("decrypted", ".zip");
+        try {
+            d.decryptTo(root, file, threads);
+            return Files.readAllBytes(file.toPath());
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
     @Test
     public void bug57080() throws Exception {
         // the test file contains a wrong ole entry size, produced by extenxls
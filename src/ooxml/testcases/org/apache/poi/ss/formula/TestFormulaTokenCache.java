@@ -0,0 +1,160 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.usermodel.Name;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.XSSFTestDataSamples;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+public final class TestFormulaTokenCache {
+    private static final String[] FORMULAS = {
+        "A1*D1",
+        "$A$1+A$1+$A1",
+        "SUM(A1:B10)/SUM($A$1:B$10)",
+        "IF(E5,F5,-F5)",
+        "VLOOKUP(A3,Data!$A$1:$C$100,3,FALSE)",
+        "'It''s here'!B2+'Data'!A1",
+        "\"A1\"&B1&\"\"\"C1\"",
+        "SUM(A:A)+SUM($B:C)+SUM(2:3)",
+        "SUM(Data!C:C)",
+        "Total*A1",
+        "COUNTIF(A1:A10,\">5\")+ROUND(a2,1)",
+        "#REF!+1",
+        "IFERROR(1/0,#DIV/0!)",
+        "Data!A1:Data!B2",
+        "SUM(Data:Calc!A1)",
+        "{1,2;3,4}",
+        "1.5E+3*A1%",
+        "TRUE",
+    };
+
+    @Test
+    public void hssf() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook(new HSSFWorkbook())) {
+            confirmSameAsParser(HSSFEvaluationWorkbook.create(wb), FORMULAS);
+        }
+    }
+
+    @Test
+    public void xssf() throws IOException {
+        try (XSSFWorkbook wb = createWorkbook(new XSSFWorkbook())) {
+            confirmSameAsParser(XSSFEvaluationWorkbook.create(wb), FORMULAS);
+        }
+    }
+
+    @Test
+    public void structuredReferences() throws IOException {
+        try (XSSFWorkbook wb = XSSFTestDataSamples.openSampleWorkbook("StructuredReferences.xlsx")) {
+            final String tbl = "\\_Prime.1";
+            XSSFEvaluationWorkbook fpb = XSSFEvaluationWorkbook.create(wb);
+            FormulaTokenCache cache = new FormulaTokenCache(fpb, FormulaTokenCache.DEFAULT_MAX_SIZE);
+            String[] formulas = {
+                tbl + "[#This Row]",
+                "SUM(" + tbl + "[calc='#*'#])",
+                tbl + "[[#This Row],[Name]]&\"x\"",
+            };
+            // the same text refers to different cells in each row
+            for (String formula : formulas) {
+                for (int row = 1; row < 6; row++) {
+                    Ptg[] expected = FormulaParser.parse(formula, fpb, FormulaType.CELL, 0, row);
+                    Ptg[] actual = cache.parse(formula, FormulaType.CELL, 0, row, 5);
+                    assertEquals(formula, toString(expected), toString(actual));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void copiedFormulasShareEntry() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook(new HSSFWorkbook())) {
+            FormulaTokenCache cache = new FormulaTokenCache(HSSFEvaluationWorkbook.create(wb), 10);
+            for (int row = 0; row < 20; row++) {
+                int r = row + 1;
+                cache.parse("A" + r + "*$B$1+SUM(C$1:C" + r + ")", FormulaType.CELL, 0, row, 3);
+            }
+            assertEquals(1, cache.size());
+
+            // returned tokens are copies
+            Ptg[] first = cache.parse("A1*2", FormulaType.CELL, 0, 0, 1);
+            Ptg[] second = cache.parse("A1*2", FormulaType.CELL, 0, 0, 1);
+            assertNotSame(first[0], second[0]);
+            assertEquals(2, cache.size());
+
+            // bounded
+            for (int i = 0; i < 20; i++) {
+                cache.parse("A1*" + i, FormulaType.CELL, 0, 0, 1);
+            }
+            assertEquals(10, cache.size());
+
+            cache.clear();
+            assertEquals(0, cache.size());
+        }
+    }
+
+    private static <T extends Workbook> T createWorkbook(T wb) {
+        wb.createSheet("Data");
+        wb.createSheet("Calc");
+        wb.createSheet("It's here");
+        Name name = wb.createName();
+        name.setNameName("Total");
+        name.setRefersToFormula("Data!$A$1");
+        return wb;
+    }
+
+    private static void confirmSameAsParser(FormulaParsingWorkbook fpb, String[] formulas) {
+        FormulaTokenCache cache = new FormulaTokenCache(fpb, FormulaTokenCache.DEFAULT_MAX_SIZE);
+        int[][] positions = { {4, 3}, {4, 3}, {5, 3}, {40, 3}, {7, 10}, {120, 0}, {3, 2} };
+        for (int pass = 0; pass < 2; pass++) {
+            for (String formula : formulas) {
+                // the formulas are moved to all positions, i.e. the text of the references changes
+                Ptg[] original = FormulaParser.parse(formula, fpb, FormulaType.CELL, 1, 4);
+                for (int[] pos : positions) {
+                    Ptg[] moved = move(original, pos[0] - 4, pos[1] - 3, fpb);
+                    String text = FormulaRenderer.toFormulaString((FormulaRenderingWorkbook) fpb, moved);
+                    Ptg[] expected = FormulaParser.parse(text, fpb, FormulaType.CELL, 1, pos[0]);
+                    Ptg[] actual = cache.parse(text, FormulaType.CELL, 1, pos[0], pos[1]);
+                    assertEquals(text, toString(expected), toString(actual));
+                }
+            }
+        }
+    }
+
+    private static Ptg[] move(Ptg[] ptgs, int rows, int columns, FormulaParsingWorkbook fpb) {
+        SharedFormula sf = new SharedFormula(fpb.getSpreadsheetVersion());
+        return sf.convertSharedFormulas(ptgs, rows, columns);
+    }
+
+    private static String toString(Ptg[] ptgs) {
+        StringBuilder sb = new StringBuilder();
+        for (Ptg ptg : ptgs) {
+            sb.append(ptg).append('/').append(ptg.getPtgClass()).append(' ');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,154 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Name;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public final class TestParallelFormulaEvaluator {
+    private static final int ROWS = 300;
+
+    private static ForkJoinPool pool;
+
+    @BeforeClass
+    public static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void hssf() throws IOException {
+        compareWithSequentialEvaluation(HSSFWorkbook::new);
+    }
+
+    @Test
+    public void xssf() throws IOException {
+        compareWithSequentialEvaluation(XSSFWorkbook::new);
+    }
+
+    @Test
+    public void emptyWorkbook() throws IOException {
+        try (Workbook wb = new XSSFWorkbook()) {
+            wb.createSheet();
+            new ParallelFormulaEvaluator(wb).evaluateAll(pool);
+        }
+    }
+
+    private static void compareWithSequentialEvaluation(Supplier<Workbook> factory) throws IOException {
+        try (Workbook expected = createWorkbook(factory.get());
+             Workbook actual = createWorkbook(factory.get())) {
+            expected.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            new ParallelFormulaEvaluator(actual).evaluateAll(pool);
+
+            int formulaCount = 0;
+            for (int s = 0; s < expected.getNumberOfSheets(); s++) {
+                for (Row row : expected.getSheetAt(s)) {
+                    for (Cell cell : row) {
+                        if (cell.getCellType() != CellType.FORMULA) {
+                            continue;
+                        }
+                        Cell other = actual.getSheetAt(s).getRow(row.getRowNum()).getCell(cell.getColumnIndex());
+                        String ref = cell.getAddress().formatAsString() + " = " + cell.getCellFormula();
+                        assertEquals(ref, cell.getCachedFormulaResultType(), other.getCachedFormulaResultType());
+                        switch (cell.getCachedFormulaResultType()) {
+                            case NUMERIC:
+                                assertEquals(ref, cell.getNumericCellValue(), other.getNumericCellValue(), 0);
+                                break;
+                            case STRING:
+                                assertEquals(ref, cell.getStringCellValue(), other.getStringCellValue());
+                                break;
+                            case BOOLEAN:
+                                assertEquals(ref, cell.getBooleanCellValue(), other.getBooleanCellValue());
+                                break;
+                            case ERROR:
+                                assertEquals(ref, cell.getErrorCellValue(), other.getErrorCellValue());
+                                break;
+                            default:
+                                break;
+                        }
+                        formulaCount++;
+                    }
+                }
+            }
+            assertTrue(formulaCount > ROWS * 8);
+        }
+    }
+
+    private static Workbook createWorkbook(Workbook wb) {
+        Sheet data = wb.createSheet("Data");
+        Sheet calc = wb.createSheet("Calc");
+        Sheet summary = wb.createSheet("Summary");
+
+        for (int i = 0; i < ROWS; i++) {
+            Row row = data.createRow(i);
+            row.createCell(0).setCellValue(i);
+            row.createCell(1).setCellValue("key" + i);
+        }
+
+        Name total = wb.createName();
+        total.setNameName("Total");
+        total.setRefersToFormula("SUM(Calc!$C$1:$C$" + ROWS + ")");
+        Name values = wb.createName();
+        values.setNameName("Values");
+        values.setRefersToFormula("Data!$A$1:$A$" + ROWS);
+
+        for (int i = 0; i < ROWS; i++) {
+            int r = i + 1;
+            Row row = calc.createRow(i);
+            row.createCell(0).setCellValue(r * 0.5);
+            row.createCell(1).setCellFormula("A" + r + "*2");
+            row.createCell(2).setCellFormula("B" + r + "+Data!A" + r);
+            row.createCell(3).setCellFormula("SUM(C$1:C" + r + ")");
+            row.createCell(4).setCellFormula("D" + r + "/Total");
+            row.createCell(5).setCellFormula("INDIRECT(\"C\"&" + r + ")+E" + r);
+            row.createCell(6).setCellFormula("IF(MOD(" + r + ",2)=0,\"even\"&B" + r + ",C" + r + ">100)");
+            row.createCell(7).setCellFormula("VLOOKUP(" + i + ",Data!$A$1:$B$" + ROWS + ",2,FALSE)&\"-\"&D" + r);
+            row.createCell(8).setCellFormula("SUM(Values)-F" + r);
+            row.createCell(9).setCellFormula("1/(A" + r + "-1)");
+        }
+
+        Row row = summary.createRow(0);
+        row.createCell(0).setCellFormula("A2+1");
+        row.createCell(1).setCellFormula("SUM(Calc!D1:D" + ROWS + ")");
+        row = summary.createRow(1);
+        row.createCell(0).setCellFormula("A1+1");
+        row.createCell(1).setCellFormula("B1+A1");
+        row.createCell(2).setCellFormula("COUNTIF(Calc!G1:G" + ROWS + ",TRUE)");
+        return wb;
+    }
+}
@@ -0,0 +1,114 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.xssf.binary;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TestXSSFBParser {
+    private static final int[] LENGTHS = { 0, 3, 300, 2, 5000, 127, 128 };
+
+    @Test
+    public void reusedBuffer() throws IOException {
+        final List<byte[]> records = new ArrayList<>();
+        final List<byte[]> buffers = new ArrayList<>();
+        XSSFBParser parser = new XSSFBParser(new ByteArrayInputStream(createRecords())) {
+            @Override
+            public void handleRecord(int recordType, byte[] data) {
+                throw new AssertionError("the record data should not be copied");
+            }
+
+            @Override
+            public void handleRecord(int recordType, byte[] data, int length) {
+                assertEquals(LENGTHS[records.size()] % 256, recordType);
+                records.add(Arrays.copyOf(data, length));
+                buffers.add(data);
+            }
+        };
+        parser.parse();
+
+        assertRecords(records);
+        // the buffer is only replaced, if a larger record is read
+        assertSame(buffers.get(0), buffers.get(1));
+        assertSame(buffers.get(2), buffers.get(3));
+        assertSame(buffers.get(4), buffers.get(6));
+    }
+
+    @Test
+    public void copiedRecords() throws IOException {
+        final List<byte[]> records = new ArrayList<>();
+        XSSFBParser parser = new XSSFBParser(new ByteArrayInputStream(createRecords())) {
+            @Override
+            public void handleRecord(int recordType, byte[] data) {
+                records.add(data);
+            }
+        };
+        parser.parse();
+
+        assertRecords(records);
+    }
+
+    private static void assertRecords(List<byte[]> records) {
+        assertEquals(LENGTHS.length, records.size());
+        for (int i = 0; i < LENGTHS.length; i++) {
+            assertArrayEquals(recordData(LENGTHS[i]), records.get(i));
+        }
+    }
+
+    private static byte[] createRecords() {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        for (int length : LENGTHS) {
+            // the record type and length are stored in 7-bit chunks, the highest bit flags a following byte
+            int type = length % 256;
+            if (type < 128) {
+                bos.write(type);
+            } else {
+                bos.write(0x80 | (type & 0x7F));
+                bos.write(type >> 7);
+            }
+            int len = length;
+            while (len >= 128) {
+                bos.write(0x80 | (len & 0x7F));
+                len >>= 7;
+            }
+            bos.write(len);
+            byte[] data = recordData(length);
+            bos.write(data, 0, data.length);
+        }
+        return bos.toByteArray();
+    }
+
+    private static byte[] recordData(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte)(i * 31 + length);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,115 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.xssf.binary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.junit.Test;
+
+public class TestXSSFBSheetHandler {
+
+    @Test
+    public void truncatedCellRecord() throws IOException {
+        // the row header fills the reused buffer, the blank cell is too short for its cell header
+        byte[] records = records(
+                XSSFBRecordType.BrtRowHdr.getId(), new byte[24],
+                XSSFBRecordType.BrtCellBlank.getId(), new byte[3]);
+        XSSFBSheetHandler handler = newHandler(records, new ArrayList<>());
+        try {
+            handler.parse();
+            fail("a truncated record should not be decoded from leftover bytes");
+        } catch (XSSFBParseException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void overriddenTwoArgumentHandleRecord() throws Exception {
+        byte[] rowHdr = new byte[12];
+        rowHdr[0] = 5;
+        byte[] records = records(
+                XSSFBRecordType.BrtRowHdr.getId(), rowHdr,
+                XSSFBRecordType.BrtEndSheetData.getId(), new byte[0]);
+        final List<String> events = new ArrayList<>();
+        XSSFBSheetHandler handler = new XSSFBSheetHandler(new ByteArrayInputStream(records),
+                null, null, null, newContentsHandler(events), new DataFormatter(), false) {
+            @Override
+            public void handleRecord(int id, byte[] data) throws XSSFBParseException {
+                events.add("record " + id + ":" + data.length);
+                super.handleRecord(id, data);
+            }
+        };
+        handler.parse();
+
+        assertEquals("[record 0:12, start 5, record 146:0, end 5]", events.toString());
+    }
+
+    private static XSSFBSheetHandler newHandler(byte[] records, List<String> events) {
+        return new XSSFBSheetHandler(new ByteArrayInputStream(records),
+                null, null, null, newContentsHandler(events), new DataFormatter(), false);
+    }
+
+    private static SheetContentsHandler newContentsHandler(final List<String> events) {
+        return new SheetContentsHandler() {
+            @Override
+            public void startRow(int rowNum) {
+                events.add("start " + rowNum);
+            }
+
+            @Override
+            public void endRow(int rowNum) {
+                events.add("end " + rowNum);
+            }
+
+            @Override
+            public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+                events.add("cell " + cellReference);
+            }
+        };
+    }
+
+    /**
+     * @param typesAndData the record types and data, alternating
+     */
+    private static byte[] records(Object... typesAndData) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        for (int i = 0; i < typesAndData.length; i += 2) {
+            int type = (Integer)typesAndData[i];
+            byte[] data = (byte[])typesAndData[i + 1];
+            // the record type and length are stored in 7-bit chunks, the highest bit flags a following byte
+            if (type < 128) {
+                bos.write(type);
+            } else {
+                bos.write(0x80 | (type & 0x7F));
+                bos.write(type >> 7);
+            }
+            bos.write(data.length);
+            bos.write(data, 0, data.length);
+        }
+        return bos.toByteArray();
+    }
+}
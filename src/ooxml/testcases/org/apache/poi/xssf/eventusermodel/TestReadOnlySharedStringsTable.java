@@ -59,6 +59,23 @@ public final class TestReadOnlySharedStringsTable extends TestCase {
         }
 	}
 
+    public void testMappedParse() throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("51519.xlsx"))) {
+            List<PackagePart> parts = pkg.getPartsByName(Pattern.compile("/xl/sharedStrings.xml"));
+            assertEquals(1, parts.size());
+
+            ReadOnlySharedStringsTable rtbl = new ReadOnlySharedStringsTable(parts.get(0));
+            try (MappedReadOnlySharedStringsTable mtbl = new MappedReadOnlySharedStringsTable(parts.get(0))) {
+                assertEquals(rtbl.getCount(), mtbl.getCount());
+                assertEquals(rtbl.getUniqueCount(), mtbl.getUniqueCount());
+                assertEquals(rtbl.getItems(), mtbl.getItems());
+                for (int i = 0; i < rtbl.getUniqueCount(); i++) {
+                    assertEquals(rtbl.getItemAt(i).getString(), mtbl.getItemAt(i).getString());
+                }
+            }
+        }
+    }
+
 	//51519
 	public void testPhoneticRuns() throws Exception {
         try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("51519.xlsx"))) {
@@ -0,0 +1,214 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Calendar;
+import java.util.Iterator;
+
+import org.apache.poi.POIDataSamples;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.util.LocaleUtil;
+import org.apache.poi.xssf.eventusermodel.XSSFCompactSheet.CompactCell;
+import org.apache.poi.xssf.eventusermodel.XSSFCompactSheet.CompactRow;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+public final class TestXSSFCompactSheet {
+    private static final POIDataSamples _ssTests = POIDataSamples.getSpreadSheetInstance();
+
+    @Test
+    public void sameAsUserModel() throws Exception {
+        byte[] bytes;
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            CellStyle dateStyle = wb.createCellStyle();
+            dateStyle.setDataFormat(wb.createDataFormat().getFormat("yyyy-mm-dd"));
+            Sheet sheet = wb.createSheet();
+            Calendar cal = LocaleUtil.getLocaleCalendar(2019, 0, 1);
+            for (int i = 0; i < 300; i += (i % 7 == 0) ? 3 : 1) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue(i * 1.5);
+                row.createCell(1).setCellValue("text " + (i % 17));
+                row.createCell(2).setCellValue(i % 2 == 0);
+                if (i % 5 == 0) {
+                    row.createCell(3).setCellErrorValue(FormulaError.DIV0.getCode());
+                }
+                Cell date = row.createCell(4);
+                date.setCellValue(cal.getTime());
+                date.setCellStyle(dateStyle);
+                row.createCell(5).setCellFormula("A" + (i + 1) + "*2");
+                row.createCell(6).setCellFormula("B" + (i + 1) + "&\"!\"");
+                row.createCell(7).setCellStyle(dateStyle);
+                row.createCell(100 + i % 3).setCellValue(-i);
+                cal.add(Calendar.DAY_OF_MONTH, 1);
+            }
+            sheet.createRow(400);
+            wb.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            wb.write(bos);
+            bytes = bos.toByteArray();
+        }
+
+        XSSFCompactSheet compact = confirmSameAsUserModel(bytes);
+        assertNull(compact.getCell(1, 1));
+        assertNull(compact.getRow(1));
+        assertNull(compact.getCell(0, 20000));
+        assertEquals(400, compact.getLastRowNum());
+        assertEquals(-1, compact.getRow(400).getFirstCellNum());
+
+        CompactRow row = compact.getRow(0);
+        assertEquals(9, row.getPhysicalNumberOfCells());
+        assertEquals(0, row.getFirstCellNum());
+        assertEquals(101, row.getLastCellNum());
+
+        DataFormatter formatter = new DataFormatter();
+        assertEquals("2019-01-01", row.getCell(4).formatCellValue(formatter));
+        assertEquals("#DIV/0!", row.getCell(3).formatCellValue(formatter));
+        assertEquals("TRUE", row.getCell(2).formatCellValue(formatter));
+        assertEquals("text 0!", compact.getCell(0, 6).formatCellValue(formatter));
+        assertEquals(CellType.STRING, compact.getCell(0, 6).getCachedFormulaResultType());
+        assertEquals("", compact.getCell(0, 7).formatCellValue(formatter));
+    }
+
+    @Test
+    public void unusualCellValues() throws Exception {
+        String xml = "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>"
+            + "<row r=\"1\">"
+            + "<c r=\"b1\"><v>1</v></c>"
+            + "<c r=\"C1\"><v/></c>"
+            + "<c r=\"D1\" t=\"b\"><v></v></c>"
+            + "<c r=\"E1\" t=\"e\"><v>#UNKNOWN!</v></c>"
+            + "<c r=\"F1\" t=\"str\"><v/></c>"
+            + "</row></sheetData></worksheet>";
+        XSSFCompactSheet compact = new XSSFCompactSheet(
+            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), null, null);
+
+        // lower case column letters
+        assertEquals(1, compact.getCell(0, 1).getNumericCellValue(), 0);
+        // empty values of numeric and boolean cells are blank, of string cells an empty string
+        assertEquals(CellType.BLANK, compact.getCell(0, 2).getCellType());
+        assertEquals(CellType.BLANK, compact.getCell(0, 3).getCellType());
+        assertEquals(CellType.STRING, compact.getCell(0, 5).getCellType());
+        assertEquals("", compact.getCell(0, 5).getStringCellValue());
+        // unknown errors are mapped to #N/A
+        assertEquals(FormulaError.NA.getCode(), compact.getCell(0, 4).getErrorCellValue());
+    }
+
+    @Test
+    public void sampleFiles() throws Exception {
+        for (String file : new String[] {"sample.xlsx", "InlineStrings.xlsx", "shared_formulas.xlsx", "FormulaEvalTestData_Copy.xlsx"}) {
+            confirmSameAsUserModel(_ssTests.readFile(file));
+        }
+    }
+
+    private static XSSFCompactSheet confirmSameAsUserModel(byte[] bytes) throws Exception {
+        XSSFCompactSheet first = null;
+        try (XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(bytes));
+             OPCPackage pkg = OPCPackage.open(new ByteArrayInputStream(bytes))) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            Iterator<InputStream> iter = reader.getSheetsData();
+            for (int s = 0; iter.hasNext(); s++) {
+                XSSFCompactSheet compact;
+                try (InputStream is = iter.next()) {
+                    compact = new XSSFCompactSheet(is, strings, styles, wb.isDate1904());
+                }
+                if (first == null) {
+                    first = compact;
+                }
+                confirmSameAsUserModel(wb.getSheetAt(s), compact, wb.isDate1904());
+            }
+        }
+        return first;
+    }
+
+    private static void confirmSameAsUserModel(Sheet sheet, XSSFCompactSheet compact, boolean date1904) {
+        DataFormatter formatter = new DataFormatter();
+        assertEquals(sheet.getPhysicalNumberOfRows(), compact.getPhysicalNumberOfRows());
+        Iterator<CompactRow> compactRows = compact.iterator();
+        int cells = 0;
+        for (Row row : sheet) {
+            CompactRow compactRow = compactRows.next();
+            assertEquals(row.getRowNum(), compactRow.getRowNum());
+            assertEquals(row.getPhysicalNumberOfCells(), compactRow.getPhysicalNumberOfCells());
+            Iterator<CompactCell> compactCells = compactRow.iterator();
+            for (Cell cell : row) {
+                CompactCell compactCell = compactCells.next();
+                String ref = sheet.getSheetName() + "!" + cell.getAddress();
+                assertEquals(ref, cell.getAddress(), compactCell.getAddress());
+                assertEquals(ref, cell.getCellType(), compactCell.getCellType());
+                assertEquals(ref, cell.getCellStyle().getIndex(), compactCell.getCellStyleIndex());
+                CellType type = cell.getCellType();
+                if (type == CellType.FORMULA) {
+                    if (!((XSSFCell) cell).getCTCell().getF().isSetT()
+                        || ((XSSFCell) cell).getCTCell().getF().isSetRef()) {
+                        assertEquals(ref, cell.getCellFormula(), compactCell.getCellFormula());
+                    }
+                    type = cell.getCachedFormulaResultType();
+                    assertEquals(ref, type, compactCell.getCachedFormulaResultType());
+                }
+                switch (type) {
+                    case NUMERIC:
+                        assertEquals(ref, cell.getNumericCellValue(), compactCell.getNumericCellValue(), 0);
+                        break;
+                    case STRING:
+                        assertEquals(ref, cell.getStringCellValue(), compactCell.getStringCellValue());
+                        break;
+                    case BOOLEAN:
+                        assertEquals(ref, cell.getBooleanCellValue(), compactCell.getBooleanCellValue());
+                        break;
+                    case ERROR:
+                        assertEquals(ref, cell.getErrorCellValue(), compactCell.getErrorCellValue());
+                        break;
+                    default:
+                        break;
+                }
+                if (cell.getCellType() == CellType.NUMERIC) {
+                    CellStyle style = cell.getCellStyle();
+                    String expected = formatter.formatRawCellContents(cell.getNumericCellValue(),
+                        style.getDataFormat(), style.getDataFormatString(), date1904);
+                    assertEquals(ref, expected, compactCell.formatCellValue(formatter));
+                } else if (cell.getCellType() != CellType.FORMULA) {
+                    assertEquals(ref, formatter.formatCellValue(cell), compactCell.formatCellValue(formatter));
+                }
+                assertNotNull(compact.getCell(cell.getRowIndex(), cell.getColumnIndex()));
+                cells++;
+            }
+        }
+        assertTrue(!compactRows.hasNext());
+        assertEquals(cells, compact.getNumberOfCells());
+    }
+}
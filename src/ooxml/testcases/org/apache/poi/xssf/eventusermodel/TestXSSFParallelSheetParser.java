@@ -0,0 +1,185 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.poi.POIDataSamples;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+public final class TestXSSFParallelSheetParser {
+    private static final POIDataSamples _ssTests = POIDataSamples.getSpreadSheetInstance();
+
+    private static class CollectingHandler implements SheetContentsHandler {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void startRow(int rowNum) {
+            events.add("row " + rowNum);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            events.add("/row " + rowNum);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            events.add(cellReference + "=" + formattedValue);
+        }
+
+        @Override
+        public void endSheet() {
+            events.add("/sheet");
+        }
+    }
+
+    @Test
+    public void parallelMatchesSequential() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("SampleSS.xlsx"))) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            // sequential reference
+            Map<String, List<String>> expected = new TreeMap<>();
+            XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (iter.hasNext()) {
+                try (InputStream is = iter.next()) {
+                    CollectingHandler handler = new CollectingHandler();
+                    XMLReader parser = SAXHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, handler, false));
+                    parser.parse(new InputSource(is));
+                    expected.put(iter.getSheetName(), handler.events);
+                }
+            }
+            assertTrue(expected.size() > 1);
+
+            Map<String, CollectingHandler> actual = Collections.synchronizedMap(new TreeMap<>());
+            XSSFParallelSheetParser parser = new XSSFParallelSheetParser(reader, strings, styles);
+            parser.parse((sheetIndex, sheetName) -> {
+                CollectingHandler handler = new CollectingHandler();
+                actual.put(sheetName, handler);
+                return handler;
+            }, executor);
+
+            assertEquals(expected.keySet(), actual.keySet());
+            for (Map.Entry<String, List<String>> me : expected.entrySet()) {
+                assertEquals(me.getValue(), actual.get(me.getKey()).events);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void failingSheet() throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("SampleSS.xlsx"))) {
+            XSSFReader reader = new XSSFReader(pkg);
+            XSSFParallelSheetParser parser = new XSSFParallelSheetParser(
+                reader, new ReadOnlySharedStringsTable(pkg), reader.getStylesTable());
+            parser.parse((sheetIndex, sheetName) -> sheetIndex == 0 ? new CollectingHandler() {
+                @Override
+                public void startRow(int rowNum) {
+                    throw new IllegalStateException("expected");
+                }
+            } : null);
+            fail("the failure of the sheet handler wasn't propagated");
+        } catch (IllegalStateException e) {
+            assertEquals("expected", e.getMessage());
+        }
+    }
+
+    @Test
+    public void noCallbacksAfterFailure() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch slowSheetStarted = new CountDownLatch(1);
+        AtomicBoolean parseReturned = new AtomicBoolean();
+        AtomicBoolean lateCallback = new AtomicBoolean();
+        try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("SampleSS.xlsx"))) {
+            XSSFReader reader = new XSSFReader(pkg);
+            XSSFParallelSheetParser parser = new XSSFParallelSheetParser(
+                reader, new ReadOnlySharedStringsTable(pkg), reader.getStylesTable());
+            try {
+                parser.parse((sheetIndex, sheetName) -> sheetIndex == 0 ? new CollectingHandler() {
+                    @Override
+                    public void endSheet() {
+                        try {
+                            slowSheetStarted.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        throw new IllegalStateException("expected");
+                    }
+                } : new CollectingHandler() {
+                    @Override
+                    public void startRow(int rowNum) {
+                        slowCallback();
+                    }
+
+                    @Override
+                    public void endSheet() {
+                        slowCallback();
+                    }
+
+                    private void slowCallback() {
+                        slowSheetStarted.countDown();
+                        try {
+                            Thread.sleep(200);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        lateCallback.compareAndSet(false, parseReturned.get());
+                    }
+                }, executor);
+                fail("the failure of the sheet handler wasn't propagated");
+            } catch (IllegalStateException e) {
+                assertEquals("expected", e.getMessage());
+            }
+            parseReturned.set(true);
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+            assertFalse("a handler was called after parse() returned", lateCallback.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
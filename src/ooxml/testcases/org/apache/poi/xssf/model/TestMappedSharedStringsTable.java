@@ -0,0 +1,176 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.SXSSFITestDataProvider;
+import org.apache.poi.xssf.XSSFTestDataSamples;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+public final class TestMappedSharedStringsTable {
+
+    @Test
+    public void addSharedStringItems() throws IOException {
+        try (MappedSharedStringsTable sst = new MappedSharedStringsTable()) {
+            assertEquals(0, sst.getSharedStringItems().size());
+
+            XSSFRichTextString rts = new XSSFRichTextString("Hello, World!");
+            assertEquals(0, sst.addSharedStringItem(rts));
+            assertEquals(0, sst.addSharedStringItem(rts));
+
+            rts = new XSSFRichTextString("Second string");
+            assertEquals(1, sst.addSharedStringItem(rts));
+
+            XSSFFont font = new XSSFFont();
+            font.setFontName("Arial");
+            font.setBold(true);
+            rts.applyFont(font);
+            assertEquals(2, sst.addSharedStringItem(rts));
+            assertEquals(2, sst.addSharedStringItem(rts));
+
+            assertEquals(5, sst.getCount());
+            assertEquals(3, sst.getUniqueCount());
+            assertEquals(3, sst.getSharedStringItems().size());
+            assertEquals("Hello, World!", sst.getItemAt(0).getString());
+            assertEquals("Second string", sst.getItemAt(1).getString());
+            XSSFRichTextString rich = (XSSFRichTextString)sst.getItemAt(2);
+            assertEquals("Second string", rich.getString());
+            assertTrue(rich.getFontAtIndex(0).getBold());
+            assertEquals("Arial", rich.getFontAtIndex(0).getFontName());
+        }
+    }
+
+    @Test
+    public void readFromPart() throws Exception {
+        for (String sampleName : new String[]{"56511.xlsx", "DataValidationEvaluations.xlsx", "48962.xlsx"}) {
+            try (OPCPackage pkg = XSSFTestDataSamples.openSamplePackage(sampleName)) {
+                PackagePart part = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType()).get(0);
+                SharedStringsTable expected = new SharedStringsTable(part);
+                try (MappedSharedStringsTable sst = new MappedSharedStringsTable(part)) {
+                    assertEquals(sampleName, expected.getCount(), sst.getCount());
+                    assertEquals(sampleName, expected.getUniqueCount(), sst.getUniqueCount());
+                    assertEquals(sampleName, expected.getSharedStringItems().size(), sst.getSharedStringItems().size());
+                    for (int i = 0; i < expected.getSharedStringItems().size(); i++) {
+                        XSSFRichTextString exp = (XSSFRichTextString)expected.getItemAt(i);
+                        XSSFRichTextString act = (XSSFRichTextString)sst.getItemAt(i);
+                        assertEquals(sampleName, exp.getString(), act.getString());
+                        assertEquals(sampleName, exp.numFormattingRuns(), act.numFormattingRuns());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void writeAndReadBack() throws IOException {
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            longText.append("<a & b> ");
+        }
+        XSSFRichTextString rich = new XSSFRichTextString("plain and bold");
+        XSSFFont font = new XSSFFont();
+        font.setBold(true);
+        rich.applyFont(10, 14, font);
+
+        byte[] written;
+        try (MappedSharedStringsTable sst = new MappedSharedStringsTable()) {
+            sst.addSharedStringItem(rich);
+            sst.addSharedStringItem(new XSSFRichTextString(longText.toString()));
+            sst.addSharedStringItem(new XSSFRichTextString(" leading and trailing spaces "));
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            sst.writeTo(bos);
+            written = bos.toByteArray();
+        }
+        // the save options of SharedStringsTable turn off CDATA sections, see Bugzilla 48936
+        assertFalse(new String(written, StandardCharsets.UTF_8).contains("CDATA"));
+
+        SharedStringsTable expected = new SharedStringsTable();
+        expected.readFrom(new ByteArrayInputStream(written));
+        try (MappedSharedStringsTable sst = new MappedSharedStringsTable()) {
+            sst.readFrom(new ByteArrayInputStream(written));
+            assertEquals(3, sst.getUniqueCount());
+            assertEquals(3, sst.getSharedStringItems().size());
+            for (int i = 0; i < 3; i++) {
+                XSSFRichTextString exp = (XSSFRichTextString)expected.getItemAt(i);
+                XSSFRichTextString act = (XSSFRichTextString)sst.getItemAt(i);
+                assertEquals(exp.getString(), act.getString());
+                assertEquals(exp.numFormattingRuns(), act.numFormattingRuns());
+            }
+            assertEquals(longText.toString(), sst.getItemAt(1).getString());
+            assertEquals(" leading and trailing spaces ", sst.getItemAt(2).getString());
+            XSSFRichTextString richBack = (XSSFRichTextString)sst.getItemAt(0);
+            assertEquals("plain and bold", richBack.getString());
+            assertTrue(richBack.getFontAtIndex(10).getBold());
+
+            // the read items are deduplicated against the added ones
+            assertEquals(0, sst.addSharedStringItem(rich));
+            assertEquals(1, sst.addSharedStringItem(new XSSFRichTextString(longText.toString())));
+            assertEquals(3, sst.getUniqueCount());
+
+            // a second round trip writes the same XML
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            sst.writeTo(bos);
+            assertEquals(new String(written, StandardCharsets.UTF_8).replace("count=\"3\"", "count=\"5\""),
+                    new String(bos.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void streamingWorkbook() throws IOException {
+        try (SXSSFWorkbook wb = new SXSSFWorkbook(new XSSFWorkbook(MappedSharedStringsTable.FACTORY), 10, false, true)) {
+            assertTrue(wb.getXSSFWorkbook().getSharedStringSource() instanceof MappedSharedStringsTable);
+            Sheet sh = wb.createSheet();
+            for (int i = 0; i < 100; i++) {
+                Row row = sh.createRow(i);
+                row.createCell(0).setCellValue("row" + i);
+                row.createCell(1).setCellValue("const");
+            }
+
+            XSSFWorkbook wbBack = SXSSFITestDataProvider.instance.writeOutAndReadBack(wb);
+            SharedStringsTable sst = wbBack.getSharedStringSource();
+            assertEquals(200, sst.getCount());
+            assertEquals(101, sst.getUniqueCount());
+            for (int i = 0; i < 100; i++) {
+                Row row = wbBack.getSheetAt(0).getRow(i);
+                Cell cell = row.getCell(0);
+                assertEquals("row" + i, cell.getStringCellValue());
+                assertEquals("const", row.getCell(1).getStringCellValue());
+            }
+            wbBack.close();
+            assertTrue(wb.dispose());
+        }
+    }
+}
@@ -23,6 +23,8 @@ import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -31,10 +33,20 @@ import java.util.Map;
 
 import org.apache.poi.ss.usermodel.BuiltinFormats;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.xssf.XSSFTestDataSamples;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+import org.apache.poi.xssf.usermodel.XSSFFont;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.usermodel.extensions.XSSFCellBorder;
+import org.apache.poi.xssf.usermodel.extensions.XSSFCellBorder.BorderSide;
+import org.apache.poi.xssf.usermodel.extensions.XSSFCellFill;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTBorder;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTFill;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STPatternType;
 
 public final class TestStylesTable {
     private static final String testFile = "Formatting.xlsx";
@@ -363,4 +375,99 @@ public final class TestStylesTable {
             assertNotNull(XSSFTestDataSamples.writeOutAndReadBack(workbook));
         }
     }
+
+    @Test
+    public void putFillAndFontReuseEqualEntries() {
+        StylesTable st = new StylesTable();
+        int fillCnt = st.getFills().size();
+        for (int i = 0; i < 500; i++) {
+            XSSFColor color = new XSSFColor(new byte[]{(byte)i, (byte)(i >> 8), 0}, st.getIndexedColors());
+            XSSFCellFill fill = new XSSFCellFill(CTFill.Factory.newInstance(), st.getIndexedColors());
+            fill.setPatternType(STPatternType.SOLID);
+            fill.setFillForegroundColor(color);
+            assertEquals(fillCnt + i, st.putFill(fill));
+
+            // an equal copy of the fill maps to the same index
+            XSSFCellFill copy = new XSSFCellFill((CTFill)fill.getCTFill().copy(), st.getIndexedColors());
+            assertEquals(fillCnt + i, st.putFill(copy));
+        }
+        assertEquals(fillCnt + 500, st.getFills().size());
+
+        // fonts are customised after their registration
+        XSSFFont font = new XSSFFont();
+        int fontIdx = st.putFont(font, true);
+        font.setBold(true);
+        font.setFontName("Courier");
+        XSSFFont probe = new XSSFFont();
+        probe.setBold(true);
+        probe.setFontName("Courier");
+        assertEquals(fontIdx, st.putFont(probe));
+        assertSame(font, st.findFont(true, font.getColor(), font.getFontHeight(), "Courier", false, false, font.getTypeOffset(), font.getUnderline()));
+        assertNull(st.findFont(true, font.getColor(), font.getFontHeight(), "Arial", false, false, font.getTypeOffset(), font.getUnderline()));
+    }
+
+    @Test
+    public void putFillAndBorderAfterModification() {
+        StylesTable st = new StylesTable();
+        XSSFCellFill fill = new XSSFCellFill(CTFill.Factory.newInstance(), st.getIndexedColors());
+        int fillIdx = st.putFill(fill);
+        fill.setPatternType(STPatternType.SOLID);
+        fill.setFillForegroundColor(IndexedColors.RED.getIndex());
+
+        XSSFCellFill probe = new XSSFCellFill(CTFill.Factory.newInstance(), st.getIndexedColors());
+        probe.setPatternType(STPatternType.SOLID);
+        probe.setFillForegroundColor(IndexedColors.RED.getIndex());
+        assertEquals(fillIdx, st.putFill(probe));
+
+        XSSFCellBorder border = new XSSFCellBorder(CTBorder.Factory.newInstance(), st.getIndexedColors());
+        border.setBorderStyle(BorderSide.LEFT, BorderStyle.THIN);
+        int borderIdx = st.putBorder(border);
+        border.setBorderStyle(BorderSide.TOP, BorderStyle.THICK);
+
+        XSSFCellBorder borderProbe = new XSSFCellBorder(CTBorder.Factory.newInstance(), st.getIndexedColors());
+        borderProbe.setBorderStyle(BorderSide.LEFT, BorderStyle.THIN);
+        borderProbe.setBorderStyle(BorderSide.TOP, BorderStyle.THICK);
+        assertEquals(borderIdx, st.putBorder(borderProbe));
+
+        // the former state of the modified border is a new entry
+        XSSFCellBorder formerBorder = new XSSFCellBorder(CTBorder.Factory.newInstance(), st.getIndexedColors());
+        formerBorder.setBorderStyle(BorderSide.LEFT, BorderStyle.THIN);
+        int size = st.getBorders().size();
+        assertEquals(size, st.putBorder(formerBorder));
+    }
+
+    @Test
+    public void findFontAfterUnreportedModification() {
+        StylesTable st = new StylesTable();
+        StylesTable other = new StylesTable();
+        XSSFFont font = new XSSFFont();
+        font.setFontName("Courier");
+        st.putFont(font, true);
+
+        // registering the font with another table keeps it indexed in the first one
+        other.putFont(font, true);
+        font.setBold(true);
+        assertSame(font, st.findFont(true, font.getColor(), font.getFontHeight(), "Courier", false, false, font.getTypeOffset(), font.getUnderline()));
+
+        // a change of the underlying bean isn't reported, but mustn't produce a stale hit
+        font.getCTFont().getNameArray(0).setVal("Arial");
+        assertNull(st.findFont(true, font.getColor(), font.getFontHeight(), "Courier", false, false, font.getTypeOffset(), font.getUnderline()));
+        assertSame(font, st.findFont(true, font.getColor(), font.getFontHeight(), "Arial", false, false, font.getTypeOffset(), font.getUnderline()));
+    }
+
+    @Test
+    public void overwriteNumberFormat() {
+        StylesTable st = new StylesTable();
+        int id1 = st.putNumberFormat("0.000");
+        int id2 = st.putNumberFormat("0.0000");
+        assertEquals(id1, st.putNumberFormat("0.000"));
+
+        // overwriting a format makes the old format code unknown
+        st.putNumberFormat((short)id1, "0.00000");
+        assertEquals(id1, st.putNumberFormat("0.00000"));
+        assertEquals(id2 + 1, st.putNumberFormat("0.000"));
+
+        assertTrue(st.removeNumberFormat("0.0000"));
+        assertEquals(id2 + 2, st.putNumberFormat("0.0000"));
+    }
 }
@@ -34,12 +34,19 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
 
 import org.apache.poi.POIDataSamples;
 import org.apache.poi.POITestCase;
 import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.ZipPackage;
 import org.apache.poi.ss.usermodel.BaseTestXWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
@@ -52,6 +59,7 @@ import org.apache.poi.util.NullOutputStream;
 import org.apache.poi.xssf.SXSSFITestDataProvider;
 import org.apache.poi.xssf.XSSFTestDataSamples;
 import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.After;
 import org.junit.Ignore;
@@ -306,6 +314,137 @@ public final class TestSXSSFWorkbook extends BaseTestXWorkbook {
         wb.close();
     }
 
+    @Test
+    public void asyncWriting() throws Exception {
+        final int rowNum = 3000;
+        final int sheetNum = 4;
+        SXSSFWorkbook wb = new SXSSFWorkbook(null, 50, true, true);
+        wb.setAsyncWriting(true);
+        for (int i = 0; i < sheetNum; i++) {
+            wb.createSheet("sheet" + i);
+        }
+
+        // populate the sheets concurrently
+        ExecutorService executor = Executors.newFixedThreadPool(sheetNum);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < sheetNum; i++) {
+                final int sheetIndex = i;
+                futures.add(executor.submit(() -> {
+                    Sheet sh = wb.getSheetAt(sheetIndex);
+                    for (int j = 0; j < rowNum; j++) {
+                        Row row = sh.createRow(j);
+                        row.createCell(0).setCellValue("text " + (j % 100));
+                        row.createCell(1).setCellValue(sheetIndex);
+                        row.createCell(2).setCellValue(j);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        XSSFWorkbook xwb = SXSSFITestDataProvider.instance.writeOutAndReadBack(wb);
+        for (int i = 0; i < sheetNum; i++) {
+            Sheet sh = xwb.getSheetAt(i);
+            assertEquals(rowNum, sh.getPhysicalNumberOfRows());
+            for (int j = 0; j < rowNum; j++) {
+                Row row = sh.getRow(j);
+                assertEquals("text " + (j % 100), row.getCell(0).getStringCellValue());
+                assertEquals(i, (int)row.getCell(1).getNumericCellValue());
+                assertEquals(j, (int)row.getCell(2).getNumericCellValue());
+            }
+        }
+        assertEquals(100, xwb.getSharedStringSource().getUniqueCount());
+
+        assertTrue(wb.dispose());
+        xwb.close();
+        wb.close();
+    }
+
+    @Test
+    public void writeAvoidingTempFiles() throws IOException {
+        final int rowNum = 1000;
+        final int sheetNum = 3;
+
+        try (XSSFWorkbook template = XSSFTestDataSamples.openSampleWorkbook("56557.xlsx");
+             SXSSFWorkbook wb = new SXSSFWorkbook(template)) {
+            wb.setCompressTempFiles(true);
+            populateData(wb, rowNum, sheetNum);
+
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            wb.writeAvoidingTempFiles(bos);
+            assertTrue(wb.dispose());
+
+            try (XSSFWorkbook xwb = new XSSFWorkbook(new ByteArrayInputStream(bos.toByteArray()))) {
+                assertEquals(template.getNumberOfSheets(), xwb.getNumberOfSheets());
+                for (int i = 0; i < sheetNum; i++) {
+                    Sheet sh = xwb.getSheet("sheet" + i);
+                    assertNotNull(sh);
+                    assertEquals(rowNum - 1, sh.getLastRowNum());
+                    for (int j = 0; j < rowNum; j++) {
+                        Row row = sh.getRow(j);
+                        assertNotNull("row[" + j + "]", row);
+                        Cell cell1 = row.getCell(0);
+                        assertEquals(new CellReference(cell1).formatAsString(), cell1.getStringCellValue());
+                        assertEquals(i, (int) row.getCell(1).getNumericCellValue());
+                        assertEquals(j, (int) row.getCell(2).getNumericCellValue());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void writeWithCompressionLevelsInParallel() throws IOException {
+        final int rowNum = 1000;
+        final int sheetNum = 3;
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ZipPackage.setCompressionLevel(XSSFRelation.WORKSHEET.getContentType(), Deflater.NO_COMPRESSION);
+        try {
+            for (boolean avoidTempFiles : new boolean[]{false, true}) {
+                try (XSSFWorkbook template = XSSFTestDataSamples.openSampleWorkbook("56557.xlsx");
+                     SXSSFWorkbook wb = new SXSSFWorkbook(template)) {
+                    wb.setCompressTempFiles(true);
+                    wb.setCompressTempFilesLevel(Deflater.BEST_SPEED);
+                    wb.setCompressionExecutor(executor);
+                    populateData(wb, rowNum, sheetNum);
+
+                    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                    if (avoidTempFiles) {
+                        wb.writeAvoidingTempFiles(bos);
+                    } else {
+                        wb.write(bos);
+                    }
+                    assertTrue(wb.dispose());
+
+                    try (XSSFWorkbook xwb = new XSSFWorkbook(new ByteArrayInputStream(bos.toByteArray()))) {
+                        assertEquals(template.getNumberOfSheets(), xwb.getNumberOfSheets());
+                        for (int i = 0; i < sheetNum; i++) {
+                            Sheet sh = xwb.getSheet("sheet" + i);
+                            assertNotNull(sh);
+                            assertEquals(rowNum - 1, sh.getLastRowNum());
+                            for (int j = 0; j < rowNum; j++) {
+                                Row row = sh.getRow(j);
+                                Cell cell1 = row.getCell(0);
+                                assertEquals(new CellReference(cell1).formatAsString(), cell1.getStringCellValue());
+                                assertEquals(i, (int) row.getCell(1).getNumericCellValue());
+                                assertEquals(j, (int) row.getCell(2).getNumericCellValue());
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            ZipPackage.setCompressionLevel(XSSFRelation.WORKSHEET.getContentType(), Deflater.DEFAULT_COMPRESSION);
+            executor.shutdown();
+        }
+    }
+
     private static void assertWorkbookDispose(SXSSFWorkbook wb)
     {
         populateData(wb, 1000, 5);
@@ -22,10 +22,14 @@ package org.apache.poi.xssf.streaming;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
 
 import org.apache.poi.util.IOUtils;
 import org.junit.Test;
@@ -91,4 +95,49 @@ public final class TestSheetDataWriter {
             IOUtils.closeQuietly(writer);
         }
     }
+
+    @Test(timeout = 20000)
+    public void testBackgroundWriterFailsWhileQueueIsFull() throws IOException {
+        SXSSFWorkbook wb = new SXSSFWorkbook();
+        SheetDataWriter writer = new SheetDataWriter() {
+            @Override
+            protected OutputStream decorateOutputStream(FileOutputStream fos) {
+                return new OutputStream() {
+                    private boolean failed;
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        if (failed) {
+                            throw new IOException("stream is broken");
+                        }
+                        failed = true;
+                        throw new Error("disk gone");
+                    }
+                };
+            }
+        };
+        try {
+            SXSSFSheet sheet = wb.createSheet();
+            writer.startBackgroundWriting(1);
+            char[] chars = new char[1000];
+            Arrays.fill(chars, 'x');
+            String text = new String(chars);
+            try {
+                for (int i = 0; i < 10000; i++) {
+                    SXSSFRow row = sheet.createRow(i);
+                    row.createCell(0).setCellValue(text);
+                    writer.writeRow(i, row);
+                }
+                writer.close();
+                fail("expected the failure of the background writer");
+            } catch (IOException e) {
+                // expected, instead of blocking forever
+            }
+        } finally {
+            IOUtils.closeQuietly(writer);
+            writer.dispose();
+            wb.dispose();
+            wb.close();
+        }
+    }
 }
@@ -33,6 +33,7 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
@@ -40,6 +41,7 @@ import java.util.zip.CRC32;
 
 import org.apache.poi.POIDataSamples;
 import org.apache.poi.hssf.HSSFTestDataSamples;
+import org.apache.poi.ooxml.POIXMLDocumentPart;
 import org.apache.poi.ooxml.POIXMLProperties;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.openxml4j.opc.ContentTypes;
@@ -1163,4 +1165,61 @@ public final class TestXSSFWorkbook extends BaseTestXWorkbook {
         workbook.close();
         wbBack.close();
     }
+
+    @Test
+    public void loadSheetsOnDemand() throws Exception {
+        byte[] original;
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            for (int i = 0; i < 3; i++) {
+                XSSFSheet sheet = wb.createSheet("Sheet" + i);
+                sheet.createRow(i).createCell(i).setCellValue("value" + i);
+            }
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            wb.write(bos);
+            original = bos.toByteArray();
+        }
+
+        byte[] changed;
+        try (XSSFWorkbook wb = new XSSFWorkbook(OPCPackage.open(new ByteArrayInputStream(original)), true)) {
+            assertEquals(3, wb.getNumberOfSheets());
+            assertEquals("Sheet2", wb.getSheetName(2));
+            int deferred = 0;
+            for (POIXMLDocumentPart p : wb.getRelations()) {
+                if (p instanceof XSSFSheet) {
+                    assertTrue(((XSSFSheet)p).isDocumentReadDeferred());
+                    deferred++;
+                }
+            }
+            assertEquals(3, deferred);
+
+            XSSFSheet sheet = wb.getSheet("Sheet1");
+            assertFalse(sheet.isDocumentReadDeferred());
+            assertEquals("value1", sheet.getRow(1).getCell(1).getStringCellValue());
+            sheet.getRow(1).getCell(1).setCellValue("changed");
+
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            wb.write(bos);
+            changed = bos.toByteArray();
+        }
+
+        try (OPCPackage pkgOrig = OPCPackage.open(new ByteArrayInputStream(original));
+             OPCPackage pkgChanged = OPCPackage.open(new ByteArrayInputStream(changed))) {
+            for (int i = 1; i <= 3; i++) {
+                PackagePartName name = PackagingURIHelper.createPartName("/xl/worksheets/sheet" + i + ".xml");
+                byte[] before = IOUtils.toByteArray(pkgOrig.getPart(name).getInputStream());
+                byte[] after = IOUtils.toByteArray(pkgChanged.getPart(name).getInputStream());
+                if (i == 2) {
+                    assertFalse(Arrays.equals(before, after));
+                } else {
+                    assertArrayEquals(before, after);
+                }
+            }
+        }
+
+        try (XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(changed))) {
+            assertEquals("value0", wb.getSheetAt(0).getRow(0).getCell(0).getStringCellValue());
+            assertEquals("changed", wb.getSheetAt(1).getRow(1).getCell(1).getStringCellValue());
+            assertEquals("value2", wb.getSheetAt(2).getRow(2).getCell(2).getStringCellValue());
+        }
+    }
 }
@@ -0,0 +1,81 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+public final class TestMappedStringStore {
+
+    @Test
+    public void addAndGet() throws IOException {
+        try (MappedStringStore store = new MappedStringStore(false)) {
+            assertEquals(0, store.size());
+            assertEquals(0, store.add("Hello"));
+            assertEquals(1, store.add(""));
+            assertEquals(2, store.add("日本語 äöü"));
+            assertEquals(3, store.add("Hello"));
+
+            assertEquals(4, store.size());
+            assertEquals("Hello", store.get(0));
+            assertEquals("", store.get(1));
+            assertEquals("日本語 äöü", store.get(2));
+            assertEquals("Hello", store.get(3));
+
+            List<String> list = store.asList();
+            list.add("World");
+            assertEquals(5, list.size());
+            assertEquals("World", store.get(4));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfBounds() throws IOException {
+        try (MappedStringStore store = new MappedStringStore(false)) {
+            store.add("Hello");
+            store.get(1);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void indexOfWithoutDeduplication() throws IOException {
+        try (MappedStringStore store = new MappedStringStore(false)) {
+            store.indexOf("Hello");
+        }
+    }
+
+    @Test
+    public void deduplicate() throws IOException {
+        final int count = 50000;
+        try (MappedStringStore store = new MappedStringStore(true)) {
+            for (int i = 0; i < count; i++) {
+                assertEquals(-1, store.indexOf("str" + i));
+                assertEquals(i, store.add("str" + i));
+            }
+            for (int i = 0; i < count; i++) {
+                assertEquals(i, store.indexOf("str" + i));
+                assertEquals("str" + i, store.get(i));
+            }
+            assertEquals(-1, store.indexOf("str" + count));
+        }
+    }
+}
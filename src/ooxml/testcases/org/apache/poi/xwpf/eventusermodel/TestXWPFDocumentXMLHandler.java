@@ -0,0 +1,223 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.xwpf.eventusermodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.POIDataSamples;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.xwpf.eventusermodel.ReadOnlyStylesTable.Style;
+import org.apache.poi.xwpf.eventusermodel.XWPFDocumentXMLHandler.DocumentContentsHandler;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+public class TestXWPFDocumentXMLHandler {
+    private static final POIDataSamples _dataSamples = POIDataSamples.getDocumentInstance();
+
+    @Test
+    public void paragraphStyles() throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(_dataSamples.openResourceAsStream("heading123.docx"))) {
+            XWPFReader reader = new XWPFReader(pkg);
+            ReadOnlyStylesTable styles = reader.getStylesTable();
+
+            Style heading1 = styles.getStyle("Heading1");
+            assertNotNull(heading1);
+            assertEquals("heading 1", heading1.getName());
+            assertEquals(ReadOnlyStylesTable.PARAGRAPH, heading1.getType());
+            assertEquals("Normal", styles.getDefaultStyle(ReadOnlyStylesTable.PARAGRAPH).getStyleId());
+            assertEquals("DefaultParagraphFont", styles.getDefaultStyle(ReadOnlyStylesTable.CHARACTER).getStyleId());
+            assertNull(styles.getStyle("NoSuchStyle"));
+
+            RecordingHandler handler = new RecordingHandler();
+            try (InputStream stream = reader.getDocumentData()) {
+                parse(styles, handler, stream);
+            }
+
+            assertEquals("p:Heading1", handler.events.get(0));
+            // runs without a rStyle fall back to the default character style
+            assertEquals("r:DefaultParagraphFont:First paragraph", handler.events.get(1));
+            assertEquals("/p", handler.events.get(2));
+            assertTrue(handler.events.contains("p:Heading2"));
+            assertTrue(handler.events.contains("p:Heading3"));
+            assertTrue(handler.events.contains("p:NormalWeb"));
+            // paragraphs without a pStyle fall back to the default paragraph style
+            assertEquals("p:Normal", handler.events.get(3));
+            assertEquals("r:DefaultParagraphFont:Fff", handler.events.get(4));
+        }
+    }
+
+    @Test
+    public void tables() throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(_dataSamples.openResourceAsStream("table_footnotes.docx"))) {
+            XWPFReader reader = new XWPFReader(pkg);
+            RecordingHandler handler = new RecordingHandler();
+            try (InputStream stream = reader.getDocumentData()) {
+                parse(reader.getStylesTable(), handler, stream);
+            }
+
+            int tbl = handler.events.indexOf("tbl");
+            assertTrue(tbl >= 0);
+            assertEquals("tr", handler.events.get(tbl + 1));
+            assertEquals("tc", handler.events.get(tbl + 2));
+            assertTrue(handler.events.indexOf("/tbl") > handler.events.lastIndexOf("/tc"));
+            assertEquals(3, count(handler.events, "tr"));
+            assertEquals(6, count(handler.events, "tc"));
+        }
+    }
+
+    @Test
+    public void headersAndFooters() throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(_dataSamples.openResourceAsStream("ThreeColHeadFoot.docx"))) {
+            XWPFReader reader = new XWPFReader(pkg);
+            ReadOnlyStylesTable styles = reader.getStylesTable();
+            RecordingHandler handler = new RecordingHandler();
+
+            List<PackagePart> headers = reader.getHeaderParts();
+            assertTrue(headers.size() > 0);
+            for (PackagePart part : headers) {
+                try (InputStream stream = part.getInputStream()) {
+                    parse(styles, handler, stream);
+                }
+            }
+            assertEquals("hdr", handler.events.get(0));
+            assertEquals("/hdr", handler.events.get(handler.events.size() - 1));
+            assertTrue(handler.text.toString().contains("First header column!"));
+
+            handler = new RecordingHandler();
+            List<PackagePart> footers = reader.getFooterParts();
+            assertTrue(footers.size() > 0);
+            for (PackagePart part : footers) {
+                try (InputStream stream = part.getInputStream()) {
+                    parse(styles, handler, stream);
+                }
+            }
+            assertEquals("ftr", handler.events.get(0));
+            assertTrue(handler.text.toString().contains("Footer Left"));
+        }
+    }
+
+    @Test
+    public void footnotes() throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(_dataSamples.openResourceAsStream("footnotes.docx"))) {
+            XWPFReader reader = new XWPFReader(pkg);
+            RecordingHandler handler = new RecordingHandler();
+            try (InputStream stream = reader.getFootnotesData()) {
+                parse(reader.getStylesTable(), handler, stream);
+            }
+
+            // the separator notes are skipped
+            assertEquals(1, count(handler.events, "note:1"));
+            assertEquals(1, count(handler.events, "/note"));
+            assertEquals(" snoska", handler.text.toString());
+        }
+    }
+
+    private static void parse(ReadOnlyStylesTable styles, DocumentContentsHandler handler, InputStream stream)
+            throws Exception {
+        XMLReader parser = SAXHelper.newXMLReader();
+        parser.setContentHandler(new XWPFDocumentXMLHandler(styles, handler));
+        parser.parse(new InputSource(stream));
+    }
+
+    private static int count(List<String> events, String event) {
+        int count = 0;
+        for (String e : events) {
+            if (e.equals(event)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static class RecordingHandler implements DocumentContentsHandler {
+        private final List<String> events = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+
+        @Override
+        public void startParagraph(Style style) {
+            events.add("p:" + (style == null ? null : style.getStyleId()));
+        }
+
+        @Override
+        public void endParagraph() {
+            events.add("/p");
+        }
+
+        @Override
+        public void run(String text, Style style) {
+            events.add("r:" + (style == null ? null : style.getStyleId()) + ":" + text);
+            this.text.append(text);
+        }
+
+        @Override
+        public void startTable() {
+            events.add("tbl");
+        }
+
+        @Override
+        public void endTable() {
+            events.add("/tbl");
+        }
+
+        @Override
+        public void startTableRow() {
+            events.add("tr");
+        }
+
+        @Override
+        public void startTableCell() {
+            events.add("tc");
+        }
+
+        @Override
+        public void endTableCell() {
+            events.add("/tc");
+        }
+
+        @Override
+        public void startHeaderFooter(boolean isHeader) {
+            events.add(isHeader ? "hdr" : "ftr");
+        }
+
+        @Override
+        public void endHeaderFooter(boolean isHeader) {
+            events.add(isHeader ? "/hdr" : "/ftr");
+        }
+
+        @Override
+        public void startNote(String id, boolean isEndnote) {
+            events.add((isEndnote ? "endnote:" : "note:") + id);
+        }
+
+        @Override
+        public void endNote(String id, boolean isEndnote) {
+            events.add("/note");
+        }
+    }
+}
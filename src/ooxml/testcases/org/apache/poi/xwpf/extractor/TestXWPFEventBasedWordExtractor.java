@@ -0,0 +1,142 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.xwpf.extractor;
+
+import static org.apache.poi.POITestCase.assertContains;
+import static org.apache.poi.POITestCase.assertNotContained;
+import static org.apache.poi.POITestCase.assertStartsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.apache.poi.POIDataSamples;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.xwpf.XWPFTestDataSamples;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.junit.Test;
+
+/**
+ * Tests for {@link XWPFEventBasedWordExtractor}
+ */
+public class TestXWPFEventBasedWordExtractor {
+    private static final POIDataSamples _dataSamples = POIDataSamples.getDocumentInstance();
+
+    private static XWPFEventBasedWordExtractor getExtractor(String sampleName) throws Exception {
+        return new XWPFEventBasedWordExtractor(OPCPackage.open(_dataSamples.openResourceAsStream(sampleName)));
+    }
+
+    @Test
+    public void getSimpleText() throws Exception {
+        try (XWPFEventBasedWordExtractor extractor = getExtractor("sample.docx")) {
+            String text = extractor.getText();
+            assertContains(text, "Lorem ipsum dolor sit amet, consectetuer adipiscing elit. Nunc at risus vel erat tempus posuere.");
+            assertContains(text, "Sed tempus. In sit amet lorem at velit faucibus vestibulum.\n");
+            assertNotNull(extractor.getCoreProperties());
+        }
+    }
+
+    /**
+     * The text matches the one of the usermodel extractor for these documents,
+     *  which use none of the features with documented differences
+     */
+    @Test
+    public void sameTextAsUserModel() throws Exception {
+        for (String sampleName : new String[]{"heading123.docx", "Styles.docx", "TestTableCellAlign.docx",
+                "ThreeColHeadFoot.docx", "headerFooter.docx", "zero-length.docx", "Bug51170.docx"}) {
+            try (XWPFEventBasedWordExtractor extractor = getExtractor(sampleName);
+                 XWPFDocument doc = XWPFTestDataSamples.openSampleDocument(sampleName);
+                 XWPFWordExtractor expected = new XWPFWordExtractor(doc)) {
+                assertEquals(sampleName, expected.getText(), extractor.getText());
+            }
+        }
+    }
+
+    @Test
+    public void emptyHeaderFooterParagraphsAreSkipped() throws Exception {
+        try (XWPFEventBasedWordExtractor extractor = getExtractor("headerFooter.docx")) {
+            // the header, the empty body paragraph and the footer
+            assertEquals("This is a simple header\u2026\n\n\u2026 and this is a simple footer.\n", extractor.getText());
+        }
+    }
+
+    @Test
+    public void deletedTextIsSkipped() throws Exception {
+        try (XWPFEventBasedWordExtractor extractor = getExtractor("58067.docx");
+             XWPFDocument doc = XWPFTestDataSamples.openSampleDocument("58067.docx");
+             XWPFWordExtractor userModel = new XWPFWordExtractor(doc)) {
+            String text = extractor.getText();
+            assertNotContained(text, "This is another Test.");
+            assertContains(text, "This is a whole paragraph where one word is deleted.\n");
+            assertContains(userModel.getText(), "This is another Test.");
+        }
+    }
+
+    @Test
+    public void inlineContentControlsAreIncluded() throws Exception {
+        try (XWPFEventBasedWordExtractor extractor = getExtractor("52449.docx");
+             XWPFDocument doc = XWPFTestDataSamples.openSampleDocument("52449.docx");
+             XWPFWordExtractor userModel = new XWPFWordExtractor(doc)) {
+            assertContains(extractor.getText(), "Aller\u00F8d, 11-01-2012\n");
+            assertContains(userModel.getText(), "Aller\u00F8d, \n");
+        }
+    }
+
+    @Test
+    public void rubyTextPrecedesBaseText() throws Exception {
+        try (XWPFEventBasedWordExtractor extractor = getExtractor("61470.docx");
+             XWPFDocument doc = XWPFTestDataSamples.openSampleDocument("61470.docx");
+             XWPFWordExtractor userModel = new XWPFWordExtractor(doc)) {
+            assertStartsWith(extractor.getText(), "\u3068\u3046\u304D\u3087\u3046\u6771\u4EAC\n");
+            assertStartsWith(userModel.getText(), "\u6771\u4EAC (\u3068\u3046\u304D\u3087\u3046)\n");
+        }
+    }
+
+    @Test
+    public void headersAndFooters() throws Exception {
+        try (XWPFEventBasedWordExtractor extractor = getExtractor("ThreeColHeadFoot.docx")) {
+            String text = extractor.getText();
+            assertStartsWith(text, "First header column!\tMid header\tRight header!\n");
+            assertContains(text, "Footer Left\tFooter Middle\tFooter Right\n");
+
+            extractor.setIncludeHeadersFooters(false);
+            text = extractor.getText();
+            assertNotContained(text, "header");
+            assertNotContained(text, "Footer Left");
+        }
+    }
+
+    @Test
+    public void footnotes() throws Exception {
+        try (XWPFEventBasedWordExtractor extractor = getExtractor("footnotes.docx")) {
+            assertEquals("Eto ochen prostoy text so snoskoy\n snoska\n", extractor.getText());
+        }
+        try (XWPFEventBasedWordExtractor extractor = getExtractor("endnotes.docx")) {
+            String text = extractor.getText();
+            assertContains(text, "Apache Tika is a subproject of the Lucene\n XXX\n");
+        }
+    }
+
+    @Test
+    public void tableWithFootnotes() throws Exception {
+        try (XWPFEventBasedWordExtractor extractor = getExtractor("table_footnotes.docx")) {
+            String text = extractor.getText();
+            assertStartsWith(text, "Pole 1\tPole 2\n\t\nslove\t\n");
+            assertContains(text, " snoska\n");
+        }
+    }
+}
@@ -18,6 +18,7 @@
 package org.apache.poi.hssf.usermodel;
 
 import static org.apache.poi.POITestCase.assertContains;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -57,6 +58,7 @@ import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.formula.ptg.Area3DPtg;
 import org.apache.poi.ss.usermodel.BaseTestWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.ConditionalFormatting;
 import org.apache.poi.ss.usermodel.ConditionalFormattingRule;
 import org.apache.poi.ss.usermodel.Name;
@@ -1256,6 +1258,78 @@ public final class TestHSSFWorkbook extends BaseTestWorkbook {
         wb.close();
     }
     
+    @Test
+    public void rowAccessWindow() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook();
+             HSSFWorkbook expected = new HSSFWorkbook()) {
+            wb.setRowAccessWindowSize(100);
+            fillRows(wb, 1000);
+            fillRows(expected, 1000);
+
+            HSSFSheet sh = wb.getSheetAt(1);
+            assertEquals(895, sh.getLastFlushedRowNum());
+            assertEquals(104, sh.getPhysicalNumberOfRows());
+            assertNull(sh.getRow(0));
+            assertEquals(999, sh.getLastRowNum());
+            try {
+                sh.createRow(895);
+                fail("flushed rows can't be created again");
+            } catch (IllegalArgumentException e) {
+                assertContains(e.getMessage(), "already written to disk");
+            }
+
+            // the flushed blocks are serialized like the rows in memory
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            wb.write(bos);
+            ByteArrayOutputStream expectedBos = new ByteArrayOutputStream();
+            expected.write(expectedBos);
+            assertArrayEquals(expectedBos.toByteArray(), bos.toByteArray());
+            assertArrayEquals(expected.getBytes(), wb.getBytes());
+        }
+    }
+
+    @Test
+    public void flushRows() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            fillRows(wb, 50);
+            HSSFSheet sh = wb.getSheetAt(0);
+            sh.flushRows(10);
+            assertEquals(39, sh.getLastFlushedRowNum());
+            sh.flushRows();
+            assertEquals(49, sh.getLastFlushedRowNum());
+            sh.createRow(60).createCell(3).setCellValue("after flush");
+
+            try (HSSFWorkbook wbBack = HSSFTestDataSamples.writeOutAndReadBack(wb)) {
+                for (int s = 0; s < 2; s++) {
+                    HSSFSheet shBack = wbBack.getSheetAt(s);
+                    assertEquals(s == 0 ? 51 : 50, shBack.getPhysicalNumberOfRows());
+                    for (int r = 0; r < 50; r++) {
+                        HSSFRow row = shBack.getRow(r);
+                        assertEquals(r, row.getCell(0).getNumericCellValue(), 0);
+                        assertEquals("row " + r, row.getCell(1).getStringCellValue());
+                        assertEquals("A" + (r + 1) + "*2", row.getCell(2).getCellFormula());
+                        assertEquals(CellType.BLANK, row.getCell(5).getCellType());
+                    }
+                }
+                assertEquals("after flush", wbBack.getSheetAt(0).getRow(60).getCell(3).getStringCellValue());
+            }
+        }
+    }
+
+    private static void fillRows(HSSFWorkbook wb, int rows) {
+        for (int s = 0; s < 2; s++) {
+            HSSFSheet sh = wb.createSheet();
+            for (int r = 0; r < rows; r++) {
+                HSSFRow row = sh.createRow(r);
+                row.createCell(0).setCellValue(r);
+                row.createCell(1).setCellValue("row " + r);
+                row.createCell(2).setCellFormula("A" + (r + 1) + "*2");
+                row.createCell(4);
+                row.createCell(5);
+            }
+        }
+    }
+
     @Ignore
     @Test
     @Override
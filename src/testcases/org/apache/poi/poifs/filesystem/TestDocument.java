@@ -27,6 +27,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.stream.IntStream;
 
 import org.apache.poi.poifs.property.DocumentProperty;
@@ -142,6 +143,20 @@ public class TestDocument {
 
         byte[] output = stream.toByteArray();
         assertArrayEquals(input, stream.toByteArray());
+
+        // random access across the block boundaries
+        int blockSize = document.getDocumentBlockSize();
+        for (int pos : new int[]{ 0, 1, blockSize - 1, blockSize, input.length / 2, input.length - 1 }) {
+            if (pos >= input.length) {
+                continue;
+            }
+            byte[] buf = new byte[blockSize + 10];
+            int readBytes = document.read(pos, buf, 0, buf.length);
+            assertEquals(Math.min(buf.length, input.length - pos), readBytes);
+            assertArrayEquals(Arrays.copyOfRange(input, pos, pos + readBytes), Arrays.copyOf(buf, readBytes));
+        }
+        assertEquals(-1, document.read(input.length, new byte[1], 0, 1));
+
         return output;
     }
 }
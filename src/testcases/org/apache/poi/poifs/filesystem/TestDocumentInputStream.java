@@ -29,6 +29,7 @@ import java.io.InputStream;
 import java.util.Arrays;
 
 import org.apache.poi.POIDataSamples;
+import org.apache.poi.util.LittleEndian;
 import org.apache.poi.util.SuppressForbidden;
 import org.junit.Before;
 import org.junit.Test;
@@ -430,6 +431,35 @@ public final class TestDocumentInputStream {
         assertEquals(0, available(stream));
     }
 
+    /**
+     * Tests the primitive reads, which are decoded from the block buffers if the
+     * value doesn't span two blocks
+     */
+    @Test
+    public void testReadPrimitives() throws IOException {
+        try (DocumentInputStream stream = new DocumentInputStream(_workbook_n)) {
+            int offset = 0;
+            for (int i = 0; offset + 15 <= _workbook_size; i++) {
+                assertEquals(_workbook_data[offset] & 0xFF, stream.readUByte());
+                assertEquals(LittleEndian.getShort(_workbook_data, offset + 1), stream.readShort());
+                assertEquals(LittleEndian.getUShort(_workbook_data, offset + 3), stream.readUShort());
+                assertEquals(LittleEndian.getInt(_workbook_data, offset + 5), stream.readInt());
+                if (i % 3 == 0) {
+                    assertEquals(3, stream.skip(3));
+                    offset += 12;
+                } else {
+                    assertEquals(LittleEndian.getLong(_workbook_data, offset + 9), stream.readLong());
+                    offset += 17;
+                }
+                assertEquals(_workbook_size - offset, stream.available());
+            }
+            stream.mark(0);
+            int value = stream.read();
+            stream.reset();
+            assertEquals(value, stream.readUByte());
+        }
+    }
+
     /**
      * Test that we can read files at multiple levels down the tree
      */
@@ -24,14 +24,20 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 
 import org.apache.poi.hssf.HSSFTestDataSamples;
 import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFEvaluationTestHelper;
 import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
 import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
 import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.IEvaluationListener.ICacheEntry;
 import org.apache.poi.ss.formula.eval.BlankEval;
 import org.apache.poi.ss.formula.eval.ErrorEval;
 import org.apache.poi.ss.formula.eval.MissingArgEval;
@@ -66,10 +72,111 @@ public class TestWorkbookEvaluator {
         return new WorkbookEvaluator(null, null, null).evaluateFormula(ec, ptgs);
     }
 
+    @Test
+    public void testRecalculate() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            HSSFSheet sheet = wb.createSheet();
+            for (int i = 0; i < 5; i++) {
+                sheet.createRow(i).createCell(0).setCellValue(i + 1);
+            }
+            HSSFRow row1 = sheet.getRow(0);
+            HSSFRow row2 = sheet.getRow(1);
+            HSSFCell a1 = row1.getCell(0);
+            HSSFCell b1 = row1.createCell(1);
+            b1.setCellFormula("A1*2");
+            HSSFCell b2 = row2.createCell(1);
+            b2.setCellFormula("B1+A2");
+            HSSFCell c1 = row1.createCell(2);
+            c1.setCellFormula("SUM(A1:A5)");
+            HSSFCell c2 = row2.createCell(2);
+            c2.setCellFormula("A10+1");
+            HSSFCell d1 = row1.createCell(3);
+            d1.setCellFormula("A3*0");
+            HSSFCell e1 = row1.createCell(4);
+            e1.setCellFormula("7");
+
+            HSSFFormulaEvaluator fe = wb.getCreationHelper().createFormulaEvaluator();
+            fe.evaluateAll();
+            assertEquals(4, b2.getNumericCellValue(), EPSILON);
+
+            // plain value with dependents of several levels
+            a1.setCellValue(10);
+            assertRecalculated(fe.recalculate(Collections.singleton(a1)), b1, b2, c1);
+            assertEquals(20, b1.getNumericCellValue(), EPSILON);
+            assertEquals(22, b2.getNumericCellValue(), EPSILON);
+            assertEquals(24, c1.getNumericCellValue(), EPSILON);
+
+            // only the cells with changed results are returned
+            HSSFCell a3 = sheet.getRow(2).getCell(0);
+            a3.setCellValue(100);
+            assertRecalculated(fe.recalculate(Collections.singleton(a3)), c1);
+            assertEquals(121, c1.getNumericCellValue(), EPSILON);
+            assertEquals(0, d1.getNumericCellValue(), EPSILON);
+
+            // previously blank cell
+            HSSFCell a10 = sheet.createRow(9).createCell(0);
+            a10.setCellValue(5);
+            assertRecalculated(fe.recalculate(Collections.singleton(a10)), c2);
+            assertEquals(6, c2.getNumericCellValue(), EPSILON);
+
+            // changed formula and formula changed to a plain value in one batch
+            e1.setCellFormula("A2*3");
+            b1.setCellType(CellType.NUMERIC);
+            b1.setCellValue(1);
+            assertRecalculated(fe.recalculate(Arrays.asList(e1, b1)), e1, b2);
+            assertEquals(6, e1.getNumericCellValue(), EPSILON);
+            assertEquals(3, b2.getNumericCellValue(), EPSILON);
+
+            // nothing to recalculate
+            assertRecalculated(fe.recalculate(Collections.singleton(sheet.getRow(3).getCell(0))));
+        }
+    }
+
+    private static void assertRecalculated(List<Cell> actual, Cell... expected) {
+        assertEquals(new HashSet<>(Arrays.asList(expected)), new HashSet<>(actual));
+        assertEquals(expected.length, actual.size());
+    }
+
     /**
      * Make sure that the evaluator can directly handle tAttrSum (instead of relying on re-parsing
      * the whole formula which converts tAttrSum to tFuncVar("SUM") )
      */
+
+    /**
+     * A lookup index is only built for ranges, which are looked up repeatedly
+     */
+    @Test
+    public void testLookupIndexBuiltForReusedRanges() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            HSSFSheet sheet = wb.createSheet();
+            for (int i = 0; i < 20; i++) {
+                sheet.createRow(i).createCell(0).setCellValue(i + 1);
+            }
+            HSSFCell first = sheet.getRow(0).createCell(2);
+            first.setCellFormula("MATCH(5,A:A,0)");
+            HSSFCell second = sheet.getRow(1).createCell(2);
+            second.setCellFormula("MATCH(7,A:A,0)");
+
+            final int[] reads = {0};
+            WorkbookEvaluator evaluator = WorkbookEvaluatorTestHelper.createEvaluator(wb, new EvaluationListener() {
+                @Override
+                public void onReadPlainValue(int sheetIndex, int rowIndex, int columnIndex, ICacheEntry entry) {
+                    reads[0]++;
+                }
+            });
+
+            // a one-off lookup of a whole column only reads the cells up to the match
+            ValueEval result = evaluator.evaluate(HSSFEvaluationTestHelper.wrapCell(first));
+            assertEquals(5, ((NumberEval)result).getNumberValue(), 0);
+            assertEquals(5, reads[0]);
+
+            // the index is built from all cells of the column, when it is looked up again
+            // (blank cells aren't reported to the listener)
+            result = evaluator.evaluate(HSSFEvaluationTestHelper.wrapCell(second));
+            assertEquals(7, ((NumberEval)result).getNumberValue(), 0);
+            assertEquals(20, reads[0]);
+        }
+    }
     @Test
     public void testAttrSum() {
 
@@ -0,0 +1,149 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.ss.formula.functions;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.Test;
+
+/**
+ * Tests the aggregate functions over cached area snapshots against the cell by cell evaluation
+ */
+public final class TestAreaSnapshot {
+    private static final int SIZE = 100;
+
+    private static final String[] FORMULAS = {
+        "SUM(A1:A100)", "AVERAGE(A1:B100)", "MIN(A1:A100)", "MAX(A1:A100)", "PRODUCT(B1:B100)",
+        "COUNT(A1:A100)", "COUNTA(A1:A100)", "COUNTBLANK(A1:A100)", "MAXA(A1:A100)",
+        "COUNTIF(A1:A100,\">5\")", "COUNTIF(A1:A100,\"key*\")", "COUNTIF(A1:A100,TRUE)",
+        "SUMIF(A1:A100,\">5\")", "SUMIF(A1:A100,\"key1\",B1:B100)", "SUMIF(B1:B100,\"<>3\",A1:A100)",
+        "SUMIFS(B1:B100,A1:A100,\">2\",B1:B100,\"<8\")", "COUNTIFS(A1:A100,\"<>key2\",B1:B100,\">=5\")",
+        "SUMPRODUCT(A1:A100,B1:B100)", "SUMPRODUCT(A1:B100,B1:C100)",
+        "SUM(C1:C100)", "SUMPRODUCT(A1:A100,C1:C100)", "COUNTIF(C1:C100,\"#DIV/0!\")",
+    };
+
+    @Test
+    public void matchesCellByCellEvaluation() throws IOException {
+        try (Workbook wb = createWorkbook()) {
+            Sheet sheet = wb.getSheetAt(0);
+            Row row = sheet.getRow(0);
+            for (String formula : FORMULAS) {
+                Cell first = row.createCell(5);
+                first.setCellFormula(formula);
+                Cell second = row.createCell(6);
+                second.setCellFormula(formula);
+
+                // the first evaluation of an area is cell by cell, the repeated one uses the snapshot
+                FormulaEvaluator fe = wb.getCreationHelper().createFormulaEvaluator();
+                CellValue expected = fe.evaluate(first);
+                confirm(formula, expected, fe.evaluate(second));
+            }
+        }
+    }
+
+    @Test
+    public void invalidatedByCellUpdates() throws IOException {
+        try (Workbook wb = createWorkbook()) {
+            Sheet sheet = wb.getSheetAt(0);
+            Cell input = sheet.getRow(0).createCell(4);
+            input.setCellValue(5);
+            sheet.getRow(10).getCell(1).setCellFormula("E1*2");
+
+            Cell sum = sheet.getRow(1).createCell(5);
+            sum.setCellFormula("SUM(B1:B100)");
+            Cell sumif = sheet.getRow(2).createCell(5);
+            sumif.setCellFormula("SUMIF(B1:B100,\">=5\")");
+            Cell sumproduct = sheet.getRow(3).createCell(5);
+            sumproduct.setCellFormula("SUMPRODUCT(B1:B100,B1:B100)");
+
+            // all formulas use the same area, so only the first one evaluates it cell by cell
+            FormulaEvaluator fe = wb.getCreationHelper().createFormulaEvaluator();
+            assertEquals(451, fe.evaluate(sum).getNumberValue(), 0);
+            assertEquals(351, fe.evaluate(sumif).getNumberValue(), 0);
+            assertEquals(2869, fe.evaluate(sumproduct).getNumberValue(), 0);
+
+            // plain value changed
+            Cell cell = sheet.getRow(20).getCell(1);
+            cell.setCellValue(100);
+            fe.notifyUpdateCell(cell);
+            assertEquals(551, fe.evaluate(sum).getNumberValue(), 0);
+            assertEquals(451, fe.evaluate(sumif).getNumberValue(), 0);
+            assertEquals(12869, fe.evaluate(sumproduct).getNumberValue(), 0);
+
+            // blank cell changed
+            cell = sheet.createRow(SIZE - 1).createCell(1);
+            cell.setCellValue(1);
+            fe.notifyUpdateCell(cell);
+            assertEquals(552, fe.evaluate(sum).getNumberValue(), 0);
+            assertEquals(451, fe.evaluate(sumif).getNumberValue(), 0);
+            assertEquals(12870, fe.evaluate(sumproduct).getNumberValue(), 0);
+
+            // input of a formula within the range changed
+            input.setCellValue(1);
+            fe.notifyUpdateCell(input);
+            assertEquals(544, fe.evaluate(sum).getNumberValue(), 0);
+            assertEquals(441, fe.evaluate(sumif).getNumberValue(), 0);
+            assertEquals(12774, fe.evaluate(sumproduct).getNumberValue(), 0);
+        }
+    }
+
+    /**
+     * Column A mixes numbers, strings, booleans and blanks, column B holds the numbers 0 to 9
+     * and column C contains a division by zero error
+     */
+    private static Workbook createWorkbook() {
+        Workbook wb = new HSSFWorkbook();
+        Sheet sheet = wb.createSheet();
+        for (int i = 0; i < SIZE - 1; i++) {
+            Row row = sheet.createRow(i);
+            Cell cell = row.createCell(0);
+            switch (i % 4) {
+                case 0:
+                    cell.setCellValue((i * 7) % 11);
+                    break;
+                case 1:
+                    cell.setCellValue("key" + (i % 5));
+                    break;
+                case 2:
+                    cell.setCellValue(i % 3 == 0);
+                    break;
+                default:
+                    break;
+            }
+            row.createCell(1).setCellValue(i % 10);
+            row.createCell(2).setCellValue(i);
+        }
+        sheet.getRow(SIZE / 2).getCell(2).setCellFormula("1/0");
+        return wb;
+    }
+
+    private static void confirm(String formula, CellValue expected, CellValue actual) {
+        assertEquals(formula, expected.getCellType(), actual.getCellType());
+        assertEquals(formula, expected.formatAsString(), actual.formatAsString());
+    }
+}
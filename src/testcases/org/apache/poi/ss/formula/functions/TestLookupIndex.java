@@ -0,0 +1,201 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.eval.BlankEval;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
+import org.junit.Test;
+
+/**
+ * Tests the indexed lookups of VLOOKUP, HLOOKUP and MATCH against the linear search
+ */
+public final class TestLookupIndex {
+    private static final int SIZE = 60;
+
+    private static final ValueEval[] LOOKUP_VALUES = {
+        new NumberEval(0), new NumberEval(3), new NumberEval(2.5), new NumberEval(6),
+        new NumberEval(-1), new NumberEval(100), new StringEval("key1"), new StringEval("KEY3"),
+        new StringEval("a"), new StringEval("zzz"), new StringEval("nothing"), BoolEval.TRUE, BoolEval.FALSE,
+    };
+
+    @Test
+    public void matchesLinearSearch() throws IOException {
+        try (Workbook wb = new HSSFWorkbook()) {
+            Sheet sheet = wb.createSheet();
+            ValueEval[] values = new ValueEval[SIZE];
+            Row header = sheet.createRow(SIZE + 1);
+            for (int i = 0; i < SIZE; i++) {
+                Row row = sheet.createRow(i);
+                Cell cell = row.createCell(0);
+                Cell hcell = header.createCell(i);
+                switch (i % 4) {
+                    case 0:
+                        values[i] = new NumberEval((i * 7) % 11);
+                        cell.setCellValue((i * 7) % 11);
+                        hcell.setCellValue((i * 7) % 11);
+                        break;
+                    case 1:
+                        String str = ((i % 3 == 0) ? "KEY" : "key") + (i % 5);
+                        values[i] = new StringEval(str);
+                        cell.setCellValue(str);
+                        hcell.setCellValue(str);
+                        break;
+                    case 2:
+                        values[i] = BoolEval.valueOf(i % 3 == 0);
+                        cell.setCellValue(i % 3 == 0);
+                        hcell.setCellValue(i % 3 == 0);
+                        break;
+                    default:
+                        values[i] = BlankEval.instance;
+                        break;
+                }
+                row.createCell(1).setCellValue(i);
+            }
+
+            FormulaEvaluator fe = wb.getCreationHelper().createFormulaEvaluator();
+            ValueEval column = EvalFactory.createAreaEval("A1:A" + SIZE, values);
+            ValueEval table = EvalFactory.createAreaEval("A1:B" + SIZE, withIndexColumn(values));
+            Cell formulaCell = sheet.createRow(SIZE + 5).createCell(0);
+            String colRange = "$A$1:$A$" + SIZE;
+            String rowRange = "$A$" + (SIZE + 2) + ":" + new CellReference(SIZE + 1, SIZE - 1).formatAsString();
+
+            for (ValueEval lookup : LOOKUP_VALUES) {
+                String lookupText = toFormulaText(lookup);
+                for (int matchType = -1; matchType <= 1; matchType++) {
+                    ValueEval expected = new Match().evaluate(new ValueEval[] { lookup, column, new NumberEval(matchType) }, 0, 0);
+                    formulaCell.setCellFormula("MATCH(" + lookupText + "," + colRange + "," + matchType + ")");
+                    fe.notifySetFormula(formulaCell);
+                    confirm(formulaCell.getCellFormula(), expected, fe.evaluate(formulaCell));
+
+                    formulaCell.setCellFormula("MATCH(" + lookupText + "," + rowRange + "," + matchType + ")");
+                    fe.notifySetFormula(formulaCell);
+                    confirm(formulaCell.getCellFormula(), expected, fe.evaluate(formulaCell));
+                }
+
+                ValueEval expected = new Vlookup().evaluate(new ValueEval[] { lookup, table, new NumberEval(2), BoolEval.FALSE }, 0, 0);
+                formulaCell.setCellFormula("VLOOKUP(" + lookupText + ",$A$1:$B$" + SIZE + ",2,FALSE)");
+                fe.notifySetFormula(formulaCell);
+                confirm(formulaCell.getCellFormula(), expected, fe.evaluate(formulaCell));
+
+                expected = new Match().evaluate(new ValueEval[] { lookup, column, new NumberEval(0) }, 0, 0);
+                formulaCell.setCellFormula("HLOOKUP(" + lookupText + "," + rowRange + ",1,FALSE)");
+                fe.notifySetFormula(formulaCell);
+                CellValue hlookup = fe.evaluate(formulaCell);
+                if (expected instanceof ErrorEval) {
+                    confirm(formulaCell.getCellFormula(), expected, hlookup);
+                } else {
+                    int index = (int)((NumberEval)expected).getNumberValue() - 1;
+                    confirm(formulaCell.getCellFormula(), values[index], hlookup);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void invalidatedByCellUpdates() throws IOException {
+        try (Workbook wb = new HSSFWorkbook()) {
+            Sheet sheet = wb.createSheet();
+            for (int i = 0; i < 20; i++) {
+                sheet.createRow(i).createCell(0).setCellValue(i + 1);
+            }
+            Cell input = sheet.getRow(0).createCell(3);
+            input.setCellValue(5);
+            sheet.getRow(4).getCell(0).setCellFormula("D1*1");
+
+            Cell match = sheet.getRow(0).createCell(2);
+            match.setCellFormula("MATCH(15,A1:A40,0)");
+            Cell added = sheet.getRow(1).createCell(2);
+            added.setCellFormula("MATCH(99,A1:A40,0)");
+            Cell dependent = sheet.getRow(2).createCell(2);
+            dependent.setCellFormula("MATCH(42,A1:A40,0)");
+
+            FormulaEvaluator fe = wb.getCreationHelper().createFormulaEvaluator();
+            assertEquals(15, fe.evaluate(match).getNumberValue(), 0);
+            assertEquals(ErrorEval.NA.getErrorCode(), fe.evaluate(added).getErrorValue());
+            assertEquals(ErrorEval.NA.getErrorCode(), fe.evaluate(dependent).getErrorValue());
+
+            // plain value changed
+            Cell cell = sheet.getRow(2).getCell(0);
+            cell.setCellValue(15);
+            fe.notifyUpdateCell(cell);
+            assertEquals(3, fe.evaluate(match).getNumberValue(), 0);
+
+            // blank cell changed
+            cell = sheet.createRow(30).createCell(0);
+            cell.setCellValue(99);
+            fe.notifyUpdateCell(cell);
+            assertEquals(31, fe.evaluate(added).getNumberValue(), 0);
+
+            // input of a formula within the range changed
+            input.setCellValue(42);
+            fe.notifyUpdateCell(input);
+            assertEquals(5, fe.evaluate(dependent).getNumberValue(), 0);
+            assertEquals(3, fe.evaluate(match).getNumberValue(), 0);
+        }
+    }
+
+    private static ValueEval[] withIndexColumn(ValueEval[] values) {
+        ValueEval[] result = new ValueEval[values.length * 2];
+        for (int i = 0; i < values.length; i++) {
+            result[2 * i] = values[i];
+            result[2 * i + 1] = new NumberEval(i);
+        }
+        return result;
+    }
+
+    private static String toFormulaText(ValueEval value) {
+        if (value instanceof NumberEval) {
+            return ((NumberEval)value).getStringValue();
+        }
+        if (value instanceof StringEval) {
+            return "\"" + ((StringEval)value).getStringValue() + "\"";
+        }
+        return ((BoolEval)value).getStringValue();
+    }
+
+    private static void confirm(String formula, ValueEval expected, CellValue actual) {
+        if (expected instanceof ErrorEval) {
+            assertEquals(formula, CellType.ERROR, actual.getCellType());
+            assertEquals(formula, ((ErrorEval)expected).getErrorCode(), actual.getErrorValue());
+        } else if (expected instanceof NumberEval) {
+            assertEquals(formula, CellType.NUMERIC, actual.getCellType());
+            assertEquals(formula, ((NumberEval)expected).getNumberValue(), actual.getNumberValue(), 0);
+        } else if (expected instanceof StringEval) {
+            assertEquals(formula, ((StringEval)expected).getStringValue(), actual.getStringValue());
+        } else {
+            assertEquals(formula, ((BoolEval)expected).getBooleanValue(), actual.getBooleanValue());
+        }
+    }
+}
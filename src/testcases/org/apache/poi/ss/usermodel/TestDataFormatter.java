@@ -966,6 +966,84 @@ public class TestDataFormatter {
         doFormatTestConcurrent(formatter1, formatter2);
     }
 
+    @Test
+    public void testSharedFormatter() throws Exception {
+        String[] formats = { "General", "#,##0.00", "0.000E+00", "0.0%", "#,##0,", "yyyy-mm-dd",
+                "[h]:mm:ss", "dd mmm yyyy hh:mm", "# ?/?", "000-00-0000", "[$-F400]h:mm:ss\\ AM/PM" };
+        double[] values = { 0, 1.5, 1234.5678, 43551.50990171296, 1e12, 0.000123, 36104.424780092595 };
+
+        DataFormatter shared = new DataFormatter(Locale.US);
+        // expected results from an unshared formatter
+        DataFormatter single = new DataFormatter(Locale.US);
+        Map<String, String> expected = new HashMap<>();
+        for (int f = 0; f < formats.length; f++) {
+            for (double value : values) {
+                expected.put(f + ":" + value, single.formatRawCellContents(value, 200 + f, formats[f]));
+            }
+        }
+        assertEquals("1E+12", expected.get("0:1.0E12"));
+
+        ArrayList<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final int offset = i;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                for (int j = 0; j < formats.length * values.length; j++) {
+                    int f = (offset + j) % formats.length;
+                    double value = values[(offset + j) % values.length];
+                    assertEquals(expected.get(f + ":" + value), shared.formatRawCellContents(value, 200 + f, formats[f]));
+                }
+                return true;
+            }));
+        }
+        for (CompletableFuture<Boolean> future : futures) {
+            assertTrue(future.get(1, TimeUnit.MINUTES));
+        }
+    }
+
+    @Test
+    public void testBuiltinDateFormats() throws IOException {
+        int[] formatIndexes = { 14, 15, 16, 17, 18, 19, 20, 21, 22, 45, 46, 47 };
+        double value = 43551.50990171296;
+        try (Workbook wb = new HSSFWorkbook()) {
+            Row row = wb.createSheet().createRow(0);
+            DataFormatter formatter = new DataFormatter(Locale.US);
+            for (int i = 0; i < formatIndexes.length; i++) {
+                CellStyle style = wb.createCellStyle();
+                style.setDataFormat((short)formatIndexes[i]);
+                Cell cell = row.createCell(i);
+                cell.setCellValue(value);
+                cell.setCellStyle(style);
+
+                String expected = new DataFormatter(Locale.US).formatRawCellContents(
+                        value, formatIndexes[i], style.getDataFormatString());
+                // the second call uses the cached format
+                assertEquals(expected, formatter.formatCellValue(cell));
+                assertEquals(expected, formatter.formatCellValue(cell));
+            }
+            assertEquals("3/27/19", formatter.formatCellValue(row.getCell(0)));
+
+            // added formats replace the cached built-in date formats
+            formatter.addFormat("m/d/yy", new java.text.SimpleDateFormat("yyyy", Locale.US));
+            assertEquals("2019", formatter.formatCellValue(row.getCell(0)));
+        }
+    }
+
+    @Test
+    public void testBuiltinFormatsAfterLocaleChange() {
+        Locale userLocale = LocaleUtil.getUserLocale();
+        try {
+            DataFormatter formatter = new DataFormatter();
+            LocaleUtil.setUserLocale(Locale.GERMANY);
+            assertEquals("123-45-6789", formatter.formatRawCellContents(123456789, 200, "000-00-0000"));
+            assertEquals("12345-6789", formatter.formatRawCellContents(123456789, 201, "00000-0000"));
+            LocaleUtil.setUserLocale(Locale.US);
+            assertEquals("123-45-6789", formatter.formatRawCellContents(123456789, 200, "000-00-0000"));
+            assertEquals("(555) 123-4567", formatter.formatRawCellContents(5551234567d, 202, "###-####;(###) ###-####"));
+        } finally {
+            LocaleUtil.setUserLocale(userLocale);
+        }
+    }
+
     private void doFormatTestSequential(DataFormatter formatter) {
         for (int i = 0; i < 1_000; i++) {
             assertTrue(doFormatTest(formatter, 43551.50990171296, "3/27/19 12:14:15 PM", i));
@@ -397,4 +397,29 @@ public abstract class BaseTestCellUtil {
         assertEquals(num1, num2);
         wb1.close();
     }
+
+    @Test
+    public void setCellStylePropertiesWithModifiedStyle() throws IOException {
+        Workbook wb = _testDataProvider.createWorkbook();
+        Row r = wb.createSheet().createRow(0);
+        Cell c1 = r.createCell(0);
+        Cell c2 = r.createCell(1);
+
+        CellUtil.setCellStyleProperty(c1, CellUtil.ROTATION, (short)45);
+        CellStyle style = c1.getCellStyle();
+        int styCnt = wb.getNumCellStyles();
+
+        // the cached properties of the modified style must not be used anymore
+        style.setRotation((short)30);
+        CellUtil.setCellStyleProperty(c2, CellUtil.ROTATION, (short)45);
+        assertNotEquals(style.getIndex(), c2.getCellStyle().getIndex());
+        assertEquals(45, c2.getCellStyle().getRotation());
+        assertEquals(styCnt + 1, wb.getNumCellStyles());
+
+        CellUtil.setCellStyleProperty(c2, CellUtil.ROTATION, (short)30);
+        assertEquals(style.getIndex(), c2.getCellStyle().getIndex());
+        assertEquals(styCnt + 1, wb.getNumCellStyles());
+
+        wb.close();
+    }
 }
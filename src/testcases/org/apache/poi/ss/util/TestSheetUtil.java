@@ -19,14 +19,22 @@ package org.apache.poi.ss.util;
 
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.junit.Test;
 
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextAttribute;
+import java.awt.font.TextLayout;
+import java.awt.geom.Rectangle2D;
 import java.io.IOException;
+import java.text.AttributedString;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -156,4 +164,52 @@ public final class TestSheetUtil {
         
         wb.close();
     }
+
+    @Test
+    public void testCachedGlyphWidths() throws IOException {
+        String[] texts = {
+            "", "0", "sometext", "  leading and trailing  ", "1,234.56", "TRUE",
+            "\u00c4\u00d6\u00dc \u00e4\u00f6\u00fc \u00df", "\u03a9\u03bc\u03ad\u03b3\u03b1", "\u041f\u0440\u0438\u0432\u0435\u0442"
+        };
+        FontRenderContext frc = new FontRenderContext(null, true, true);
+        try (Workbook wb = new HSSFWorkbook()) {
+            for (String name : new String[]{ "Arial", "Times New Roman", "Unknown Font" }) {
+                for (int style = 0; style < 4; style++) {
+                    Font font = wb.createFont();
+                    font.setFontName(name);
+                    font.setFontHeightInPoints((short)(10 + style));
+                    font.setBold((style & 1) != 0);
+                    font.setItalic((style & 2) != 0);
+
+                    GlyphWidths glyphWidths = GlyphWidths.getInstance(font, frc, '0');
+                    assertNotNull(glyphWidths);
+                    for (String text : texts) {
+                        AttributedString str = new AttributedString(text + '0');
+                        str.addAttribute(TextAttribute.FAMILY, name);
+                        str.addAttribute(TextAttribute.SIZE, (float)font.getFontHeightInPoints());
+                        if (font.getBold()) {
+                            str.addAttribute(TextAttribute.WEIGHT, TextAttribute.WEIGHT_BOLD);
+                        }
+                        if (font.getItalic()) {
+                            str.addAttribute(TextAttribute.POSTURE, TextAttribute.POSTURE_OBLIQUE);
+                        }
+                        Rectangle2D bounds = new TextLayout(str.getIterator(), frc).getBounds();
+                        double expected = bounds.getX() + bounds.getWidth();
+                        double actual = glyphWidths.getFrameWidth(text);
+                        if (!Double.isNaN(actual)) {
+                            assertEquals(name + " " + style + " '" + text + "'", expected, actual, 0.01);
+                        }
+                    }
+                    assertFalse(Double.isNaN(glyphWidths.getFrameWidth("sometext")));
+                    // complex scripts and combining marks need a layout
+                    assertTrue(Double.isNaN(glyphWidths.getFrameWidth("\u05e9\u05dc\u05d5\u05dd")));
+                    assertTrue(Double.isNaN(glyphWidths.getFrameWidth("a\u0301")));
+                }
+            }
+
+            Font underlined = wb.createFont();
+            underlined.setUnderline(Font.U_SINGLE);
+            assertNull(GlyphWidths.getInstance(underlined, frc, '0'));
+        }
+    }
 }